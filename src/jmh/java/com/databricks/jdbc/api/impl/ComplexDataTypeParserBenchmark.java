@@ -0,0 +1,105 @@
+package com.databricks.jdbc.api.impl;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the parsing of ARRAY, MAP and STRUCT values, received as JSON strings, in values per
+ * second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ComplexDataTypeParserBenchmark {
+
+  private static final int VALUES = 1024;
+  private static final String ARRAY_METADATA = "ARRAY<INT>";
+  private static final String MAP_METADATA = "MAP<STRING,BIGINT>";
+  private static final String STRUCT_METADATA =
+      "STRUCT<id:BIGINT,name:STRING,price:DOUBLE,tags:ARRAY<STRING>>";
+
+  private final ComplexDataTypeParser parser = new ComplexDataTypeParser();
+  private final String[] arrays = new String[VALUES];
+  private final String[] maps = new String[VALUES];
+  private final String[] mapEntryArrays = new String[VALUES];
+  private final String[] structs = new String[VALUES];
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    Random random = new Random(42);
+    for (int i = 0; i < VALUES; i++) {
+      StringBuilder array = new StringBuilder("[");
+      StringBuilder map = new StringBuilder("{");
+      StringBuilder mapEntries = new StringBuilder("[");
+      for (int element = 0; element < 8; element++) {
+        String separator = element == 0 ? "" : ",";
+        long value = random.nextLong();
+        array.append(separator).append(random.nextInt());
+        map.append(separator).append("\"key").append(element).append("\":").append(value);
+        mapEntries
+            .append(separator)
+            .append("{\"key\":\"key")
+            .append(element)
+            .append("\",\"value\":")
+            .append(value)
+            .append('}');
+      }
+      arrays[i] = array.append(']').toString();
+      maps[i] = map.append('}').toString();
+      mapEntryArrays[i] = mapEntries.append(']').toString();
+      structs[i] =
+          String.format(
+              "{\"id\":%d,\"name\":\"name-%d\",\"price\":%f,\"tags\":[\"a\",\"b\",\"c\"]}",
+              random.nextLong(), i, random.nextDouble() * 1000);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(VALUES)
+  public void parseArray(Blackhole blackhole) throws Exception {
+    for (String value : arrays) {
+      blackhole.consume(parser.parseJsonStringToDbArray(value, ARRAY_METADATA));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(VALUES)
+  public void parseMap(Blackhole blackhole) throws Exception {
+    for (String value : maps) {
+      blackhole.consume(parser.parseJsonStringToDbMap(value, MAP_METADATA));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(VALUES)
+  public void parseStruct(Blackhole blackhole) throws Exception {
+    for (String value : structs) {
+      blackhole.consume(parser.parseJsonStringToDbStruct(value, STRUCT_METADATA));
+    }
+  }
+
+  /** Formats maps as strings, as done when complex datatype support is disabled. */
+  @Benchmark
+  @OperationsPerInvocation(VALUES)
+  public void formatMapString(Blackhole blackhole) {
+    for (String value : mapEntryArrays) {
+      blackhole.consume(parser.formatComplexTypeString(value, "MAP", MAP_METADATA));
+    }
+  }
+}
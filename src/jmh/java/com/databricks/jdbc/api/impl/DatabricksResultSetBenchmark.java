@@ -0,0 +1,146 @@
+package com.databricks.jdbc.api.impl;
+
+import com.databricks.jdbc.api.internal.IDatabricksSession;
+import com.databricks.jdbc.api.internal.IDatabricksStatementInternal;
+import com.databricks.jdbc.benchmark.ResultSetBenchmarkData;
+import com.databricks.jdbc.benchmark.ResultSetBenchmarkData.ColumnType;
+import com.databricks.jdbc.benchmark.ResultSetBenchmarkData.Shape;
+import com.databricks.jdbc.common.CompressionCodec;
+import com.databricks.jdbc.common.StatementType;
+import com.databricks.jdbc.dbclient.impl.common.StatementId;
+import com.databricks.jdbc.model.client.thrift.generated.TFetchResultsResp;
+import com.databricks.jdbc.model.core.StatementStatus;
+import com.databricks.sdk.service.sql.StatementState;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures reading an inline Arrow result through the JDBC {@link ResultSet} API, from the fetch
+ * response to the values returned by the getters, in rows per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-opens=java.base/java.nio=ALL-UNNAMED")
+public class DatabricksResultSetBenchmark {
+
+  private static final int ROWS = 100_000;
+  private static final StatementId STATEMENT_ID = new StatementId("benchmark-statement");
+
+  @Param({"NARROW", "WIDE"})
+  public Shape shape;
+
+  @Param({"NONE", "LZ4_FRAME"})
+  public CompressionCodec codec;
+
+  private TFetchResultsResp resultsResp;
+  private IDatabricksSession session;
+  private IDatabricksStatementInternal statement;
+  private ColumnType[] columnTypes;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    resultsResp = ResultSetBenchmarkData.createFetchResultsResp(shape, ROWS, codec);
+    session = ResultSetBenchmarkData.createSession();
+    statement = ResultSetBenchmarkData.createStatement();
+    columnTypes = shape.getColumns().toArray(new ColumnType[0]);
+  }
+
+  /** Reads every value with the getter matching the type of its column. */
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public void readTypedGetters(Blackhole blackhole) throws SQLException {
+    try (ResultSet resultSet = createResultSet()) {
+      while (resultSet.next()) {
+        for (int column = 1; column <= columnTypes.length; column++) {
+          readValue(resultSet, column, columnTypes[column - 1], blackhole);
+        }
+      }
+    }
+  }
+
+  /** Reads every value with {@link ResultSet#getObject(int)}. */
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public void readGetObject(Blackhole blackhole) throws SQLException {
+    try (ResultSet resultSet = createResultSet()) {
+      while (resultSet.next()) {
+        for (int column = 1; column <= columnTypes.length; column++) {
+          blackhole.consume(resultSet.getObject(column));
+        }
+      }
+    }
+  }
+
+  /** Reads every value with {@link ResultSet#getString(int)}. */
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public void readGetString(Blackhole blackhole) throws SQLException {
+    try (ResultSet resultSet = createResultSet()) {
+      while (resultSet.next()) {
+        for (int column = 1; column <= columnTypes.length; column++) {
+          blackhole.consume(resultSet.getString(column));
+        }
+      }
+    }
+  }
+
+  private ResultSet createResultSet() throws SQLException {
+    return new DatabricksResultSet(
+        new StatementStatus().setState(StatementState.SUCCEEDED),
+        STATEMENT_ID,
+        resultsResp,
+        StatementType.QUERY,
+        statement,
+        session);
+  }
+
+  private static void readValue(
+      ResultSet resultSet, int column, ColumnType columnType, Blackhole blackhole)
+      throws SQLException {
+    switch (columnType) {
+      case BIGINT:
+        blackhole.consume(resultSet.getLong(column));
+        break;
+      case INT:
+        blackhole.consume(resultSet.getInt(column));
+        break;
+      case DOUBLE:
+        blackhole.consume(resultSet.getDouble(column));
+        break;
+      case DECIMAL:
+        blackhole.consume(resultSet.getBigDecimal(column));
+        break;
+      case BOOLEAN:
+        blackhole.consume(resultSet.getBoolean(column));
+        break;
+      case DATE:
+        blackhole.consume(resultSet.getDate(column));
+        break;
+      case TIMESTAMP:
+        blackhole.consume(resultSet.getTimestamp(column));
+        break;
+      case STRING:
+      default:
+        blackhole.consume(resultSet.getString(column));
+        break;
+    }
+  }
+}
@@ -0,0 +1,83 @@
+package com.databricks.jdbc.api.impl.arrow;
+
+import com.databricks.jdbc.benchmark.ResultSetBenchmarkData;
+import com.databricks.jdbc.benchmark.ResultSetBenchmarkData.Shape;
+import com.databricks.jdbc.common.CompressionCodec;
+import com.databricks.jdbc.common.util.DecompressionUtil;
+import com.databricks.jdbc.dbclient.impl.common.StatementId;
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how fast a downloaded Arrow stream is decompressed and parsed into an {@link
+ * ArrowResultChunk}, in rows per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-opens=java.base/java.nio=ALL-UNNAMED")
+public class ArrowResultChunkBenchmark {
+
+  private static final int ROWS = 100_000;
+  private static final StatementId STATEMENT_ID = new StatementId("benchmark-statement");
+
+  @Param({"NARROW", "WIDE"})
+  public Shape shape;
+
+  @Param({"NONE", "LZ4_FRAME"})
+  public CompressionCodec codec;
+
+  private byte[] arrowStream;
+  private BufferAllocator allocator;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    arrowStream = ResultSetBenchmarkData.createArrowStream(shape, ROWS, codec);
+    allocator = new RootAllocator();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    allocator.close();
+  }
+
+  /** Parses the stream and walks over every row, as a result set does. */
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public long parseChunk() throws Exception {
+    ArrowResultChunk chunk =
+        ArrowResultChunk.builder()
+            .withInputStream(
+                DecompressionUtil.decompress(
+                    new ByteArrayInputStream(arrowStream), codec, "benchmark"),
+                ROWS)
+            .withStatementId(STATEMENT_ID)
+            .withParentAllocator(allocator)
+            .build();
+    long rows = 0;
+    ArrowResultChunk.ArrowResultChunkIterator iterator = chunk.getChunkIterator();
+    while (iterator.nextRow()) {
+      rows++;
+    }
+    chunk.releaseChunk();
+    return rows;
+  }
+}
@@ -0,0 +1,224 @@
+package com.databricks.jdbc.api.impl.arrow;
+
+import com.databricks.jdbc.api.internal.IDatabricksSession;
+import com.databricks.jdbc.api.internal.IDatabricksStatementInternal;
+import com.databricks.jdbc.benchmark.CloudFetchFakeServer;
+import com.databricks.jdbc.benchmark.PeakMemoryProfiler;
+import com.databricks.jdbc.benchmark.ResultSetBenchmarkData;
+import com.databricks.jdbc.benchmark.ResultSetBenchmarkData.Shape;
+import com.databricks.jdbc.common.CompressionCodec;
+import com.databricks.jdbc.dbclient.IDatabricksHttpClient;
+import com.databricks.jdbc.dbclient.impl.common.StatementId;
+import com.databricks.jdbc.dbclient.impl.http.DatabricksHttpClientFactory;
+import com.databricks.jdbc.exception.DatabricksSQLException;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures reading a whole CloudFetch result end to end against a {@link CloudFetchFakeServer}:
+ * fetching the links through {@link ChunkLinkDownloadService}, downloading the chunks over HTTP,
+ * and decoding them in {@link RemoteChunkProvider} until the last row.
+ *
+ * <p>The read benchmarks report the results read per second, with the downloaded megabytes and
+ * the rows per second as secondary results. The first row benchmarks report the time from the
+ * response listing the links to the first row, in milliseconds. Add {@link PeakMemoryProfiler} to
+ * report the peak Arrow and heap memory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "--add-opens=java.base/java.nio=ALL-UNNAMED")
+public class CloudFetchThroughputBenchmark {
+
+  private static final double BYTES_PER_MEGABYTE = 1024 * 1024;
+
+  @Param({"NARROW", "WIDE"})
+  public Shape shape;
+
+  @Param({"NONE", "LZ4_FRAME"})
+  public CompressionCodec codec;
+
+  @Param({"1000000"})
+  public long rowCount;
+
+  @Param({"100000"})
+  public int rowsPerChunk;
+
+  /** Delay of every download, modelling the latency of the cloud storage. */
+  @Param({"0", "50"})
+  public long latencyMillis;
+
+  /** Share of downloads failing with a 500 response, retried by the driver. */
+  @Param({"0"})
+  public double failureRate;
+
+  /** Connection properties of the driver, as {@code key=value} pairs separated by {@code ;}. */
+  @Param({""})
+  public String driverOptions;
+
+  private CloudFetchFakeServer server;
+  private IDatabricksSession session;
+  private IDatabricksStatementInternal statement;
+  private IDatabricksHttpClient httpClient;
+  private int threadPoolSize;
+  private long resultCount;
+  private RemoteChunkProvider openChunkProvider;
+
+  /** Data read by the benchmarks, reported per second. */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  public static class ReadCounters {
+    public double megabytes;
+    public long rows;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      megabytes = 0;
+      rows = 0;
+    }
+  }
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    server =
+        CloudFetchFakeServer.builder()
+            .withShape(shape)
+            .withRowCount(rowCount)
+            .withRowsPerChunk(rowsPerChunk)
+            .withCompression(codec)
+            .withLatencyMillis(latencyMillis)
+            .withFailures(failureRate, 500)
+            .start();
+    session =
+        ResultSetBenchmarkData.createSession(
+            server.getDatabricksClient(), parseDriverOptions(driverOptions));
+    statement = ResultSetBenchmarkData.createStatement();
+    httpClient = DatabricksHttpClientFactory.getInstance().getClient(session.getConnectionContext());
+    threadPoolSize = session.getConnectionContext().getCloudFetchThreadPoolSize();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    DatabricksHttpClientFactory.getInstance().removeClient(session.getConnectionContext());
+    server.close();
+  }
+
+  /** Reads a result listed by the SEA service, fetching the later links page by page. */
+  @Benchmark
+  public void readSeaResult(ReadCounters counters) throws Exception {
+    long servedBytes = server.getServedBytes();
+    counters.rows += readRows(createSeaChunkProvider());
+    counters.megabytes += (server.getServedBytes() - servedBytes) / BYTES_PER_MEGABYTE;
+  }
+
+  /** Reads a result listed by the Thrift server, fetching all links before the first download. */
+  @Benchmark
+  public void readThriftResult(ReadCounters counters) throws Exception {
+    long servedBytes = server.getServedBytes();
+    counters.rows += readRows(createThriftChunkProvider());
+    counters.megabytes += (server.getServedBytes() - servedBytes) / BYTES_PER_MEGABYTE;
+  }
+
+  /** Reads the first row of a result listed by the SEA service. */
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public boolean readSeaFirstRow() throws Exception {
+    openChunkProvider = createSeaChunkProvider();
+    return readFirstRow(openChunkProvider);
+  }
+
+  /** Reads the first row of a result listed by the Thrift server. */
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public boolean readThriftFirstRow() throws Exception {
+    openChunkProvider = createThriftChunkProvider();
+    return readFirstRow(openChunkProvider);
+  }
+
+  /** Closes the result of the first row benchmarks, outside of the measured time. */
+  @TearDown(Level.Invocation)
+  public void closeResult() {
+    if (openChunkProvider != null) {
+      openChunkProvider.close();
+      openChunkProvider = null;
+    }
+  }
+
+  private RemoteChunkProvider createSeaChunkProvider() throws DatabricksSQLException {
+    return new RemoteChunkProvider(
+        new StatementId("benchmark-statement-" + ++resultCount),
+        server.createResultManifest(),
+        server.createResultData(),
+        session,
+        statement,
+        httpClient,
+        threadPoolSize);
+  }
+
+  private RemoteChunkProvider createThriftChunkProvider() throws DatabricksSQLException {
+    return new RemoteChunkProvider(
+        statement,
+        server.createFetchResultsResp(statement),
+        session,
+        httpClient,
+        threadPoolSize,
+        codec);
+  }
+
+  /** Reads all rows of the result and closes it. */
+  private long readRows(RemoteChunkProvider chunkProvider) throws DatabricksSQLException {
+    long rows = 0;
+    try {
+      while (chunkProvider.hasNextChunk()) {
+        chunkProvider.next();
+        ArrowResultChunk.ArrowResultChunkIterator iterator =
+            chunkProvider.getChunk().getChunkIterator();
+        while (iterator.nextRow()) {
+          rows++;
+        }
+      }
+    } finally {
+      chunkProvider.close();
+    }
+    if (rows != server.getRowCount()) {
+      throw new IllegalStateException("Read " + rows + " of " + server.getRowCount() + " rows");
+    }
+    return rows;
+  }
+
+  private static boolean readFirstRow(RemoteChunkProvider chunkProvider)
+      throws DatabricksSQLException {
+    chunkProvider.next();
+    return chunkProvider.getChunk().getChunkIterator().nextRow();
+  }
+
+  private static Properties parseDriverOptions(String driverOptions) {
+    Properties properties = new Properties();
+    for (String option : driverOptions.split(";")) {
+      int separator = option.indexOf('=');
+      if (separator > 0) {
+        properties.setProperty(
+            option.substring(0, separator).trim(), option.substring(separator + 1).trim());
+      }
+    }
+    return properties;
+  }
+}
@@ -0,0 +1,114 @@
+package com.databricks.jdbc.api.impl.converters;
+
+import static com.databricks.jdbc.common.DatabricksJdbcConstants.ARROW_METADATA_KEY;
+
+import com.databricks.jdbc.api.impl.converters.ArrowToJavaObjectConverter.ValueConverter;
+import com.databricks.jdbc.benchmark.ResultSetBenchmarkData;
+import com.databricks.jdbc.benchmark.ResultSetBenchmarkData.Shape;
+import com.databricks.jdbc.common.CompressionCodec;
+import com.databricks.sdk.service.sql.ColumnInfo;
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the conversion of the values of an Arrow record batch to Java objects, in rows per
+ * second, either resolving the conversion of every value or once per column.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-opens=java.base/java.nio=ALL-UNNAMED")
+public class ArrowToJavaObjectConverterBenchmark {
+
+  private static final int ROWS = ResultSetBenchmarkData.ROWS_PER_BATCH;
+
+  @Param({"NARROW", "WIDE"})
+  public Shape shape;
+
+  private BufferAllocator allocator;
+  private ArrowStreamReader reader;
+  private List<FieldVector> vectors;
+  private List<ColumnInfo> columnInfos;
+  private String[] arrowMetadata;
+  private ValueConverter[] valueConverters;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    allocator = new RootAllocator();
+    reader =
+        new ArrowStreamReader(
+            new ByteArrayInputStream(
+                ResultSetBenchmarkData.createArrowStream(shape, ROWS, CompressionCodec.NONE)),
+            allocator);
+    reader.loadNextBatch();
+    vectors = reader.getVectorSchemaRoot().getFieldVectors();
+    columnInfos = ResultSetBenchmarkData.getColumnInfos(shape);
+    arrowMetadata = new String[vectors.size()];
+    valueConverters = new ValueConverter[vectors.size()];
+    for (int column = 0; column < vectors.size(); column++) {
+      arrowMetadata[column] = vectors.get(column).getField().getMetadata().get(ARROW_METADATA_KEY);
+      valueConverters[column] =
+          ArrowToJavaObjectConverter.getValueConverter(
+              columnInfos.get(column).getTypeName(),
+              arrowMetadata[column],
+              columnInfos.get(column));
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    reader.close();
+    allocator.close();
+  }
+
+  /** Resolves the conversion from the type and Arrow metadata of the column for every value. */
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public void convertPerValue(Blackhole blackhole) throws Exception {
+    for (int row = 0; row < ROWS; row++) {
+      for (int column = 0; column < vectors.size(); column++) {
+        blackhole.consume(
+            ArrowToJavaObjectConverter.convert(
+                vectors.get(column),
+                row,
+                columnInfos.get(column).getTypeName(),
+                arrowMetadata[column],
+                columnInfos.get(column)));
+      }
+    }
+  }
+
+  /** Converts the values with converters resolved once per column. */
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public void convertWithColumnConverters(Blackhole blackhole) throws Exception {
+    for (int row = 0; row < ROWS; row++) {
+      for (int column = 0; column < vectors.size(); column++) {
+        blackhole.consume(
+            ArrowToJavaObjectConverter.convert(vectors.get(column), row, valueConverters[column]));
+      }
+    }
+  }
+}
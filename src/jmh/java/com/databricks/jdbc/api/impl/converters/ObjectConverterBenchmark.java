@@ -0,0 +1,98 @@
+package com.databricks.jdbc.api.impl.converters;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the {@link ObjectConverter} conversions used by the result set getters, in values per
+ * second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ObjectConverterBenchmark {
+
+  private static final int VALUES = 4096;
+
+  private final Long[] longs = new Long[VALUES];
+  private final String[] numericStrings = new String[VALUES];
+  private final BigDecimal[] decimals = new BigDecimal[VALUES];
+  private final Timestamp[] timestamps = new Timestamp[VALUES];
+  private final String[] timestampStrings = new String[VALUES];
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    Random random = new Random(42);
+    for (int i = 0; i < VALUES; i++) {
+      longs[i] = random.nextLong();
+      numericStrings[i] = Integer.toString(random.nextInt());
+      decimals[i] = BigDecimal.valueOf(random.nextInt(), 2);
+      timestamps[i] = new Timestamp((long) (random.nextDouble() * 2_524_608_000_000L));
+      timestampStrings[i] = timestamps[i].toString();
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(VALUES)
+  public void longToString(Blackhole blackhole) throws Exception {
+    ObjectConverter converter = ConverterHelper.getConverterForSqlType(Types.BIGINT);
+    for (Long value : longs) {
+      blackhole.consume(converter.toString(value));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(VALUES)
+  public void stringToInt(Blackhole blackhole) throws Exception {
+    ObjectConverter converter = ConverterHelper.getConverterForSqlType(Types.VARCHAR);
+    for (String value : numericStrings) {
+      blackhole.consume(converter.toInt(value));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(VALUES)
+  public void decimalToDouble(Blackhole blackhole) throws Exception {
+    ObjectConverter converter = ConverterHelper.getConverterForSqlType(Types.DECIMAL);
+    for (BigDecimal value : decimals) {
+      blackhole.consume(converter.toDouble(value));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(VALUES)
+  public void timestampToString(Blackhole blackhole) throws Exception {
+    ObjectConverter converter = ConverterHelper.getConverterForSqlType(Types.TIMESTAMP);
+    for (Timestamp value : timestamps) {
+      blackhole.consume(converter.toString(value));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(VALUES)
+  public void stringToTimestamp(Blackhole blackhole) throws Exception {
+    ObjectConverter converter = ConverterHelper.getConverterForSqlType(Types.VARCHAR);
+    for (String value : timestampStrings) {
+      blackhole.consume(converter.toTimestamp(value));
+    }
+  }
+}
@@ -0,0 +1,437 @@
+package com.databricks.jdbc.benchmark;
+
+import com.databricks.jdbc.api.impl.DatabricksResultSet;
+import com.databricks.jdbc.api.impl.ImmutableSessionInfo;
+import com.databricks.jdbc.api.impl.ImmutableSqlParameter;
+import com.databricks.jdbc.api.internal.IDatabricksConnectionContext;
+import com.databricks.jdbc.api.internal.IDatabricksSession;
+import com.databricks.jdbc.api.internal.IDatabricksStatementInternal;
+import com.databricks.jdbc.benchmark.ResultSetBenchmarkData.Shape;
+import com.databricks.jdbc.common.CompressionCodec;
+import com.databricks.jdbc.common.IDatabricksComputeResource;
+import com.databricks.jdbc.common.StatementType;
+import com.databricks.jdbc.dbclient.IDatabricksClient;
+import com.databricks.jdbc.dbclient.impl.common.StatementId;
+import com.databricks.jdbc.model.client.thrift.generated.TFetchResultsResp;
+import com.databricks.jdbc.model.client.thrift.generated.TRowSet;
+import com.databricks.jdbc.model.client.thrift.generated.TSparkArrowResultLink;
+import com.databricks.jdbc.model.core.ExternalLink;
+import com.databricks.jdbc.model.core.ResultData;
+import com.databricks.jdbc.model.core.ResultManifest;
+import com.databricks.sdk.core.DatabricksConfig;
+import com.databricks.sdk.service.sql.BaseChunkInfo;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for the Databricks services and the cloud storage serving a CloudFetch result, so
+ * that the download path of the driver can be benchmarked end to end without a connection to
+ * Databricks.
+ *
+ * <p>The server splits a result of the given number of rows into chunks, generated with {@link
+ * ResultSetBenchmarkData}, and serves the chunk files over HTTP on the loopback interface, at links
+ * shaped like presigned URLs. It creates the SEA and Thrift responses that list the links of the
+ * first chunks, and returns the links of the later chunks page by page through {@link
+ * #getDatabricksClient()}, as the services do. Downloads can be delayed, and a share of them fail,
+ * to model a remote cloud storage.
+ *
+ * <p>All chunks but the last one have the same content, so the server holds at most two chunk files
+ * in memory.
+ */
+public final class CloudFetchFakeServer implements AutoCloseable {
+
+  private static final String CHUNK_PATH = "/chunks/";
+  private static final long LINK_EXPIRY_SECONDS = 3600;
+
+  private final long rowCount;
+  private final int rowsPerChunk;
+  private final int chunkCount;
+  private final CompressionCodec codec;
+  private final int linksPerPage;
+  private final long latencyMillis;
+  private final double failureRate;
+  private final int failureStatusCode;
+  private final byte[] fullChunk;
+  private final byte[] lastChunk;
+  private final ExecutorService executor;
+  private final HttpServer server;
+  private final String baseUrl;
+  private final IDatabricksClient databricksClient = new FakeDatabricksClient();
+  private final Map<IDatabricksStatementInternal, Integer> nextThriftChunkByStatement =
+      new ConcurrentHashMap<>();
+  private final AtomicLong downloads = new AtomicLong();
+  private final AtomicLong failedDownloads = new AtomicLong();
+  private final AtomicLong servedBytes = new AtomicLong();
+
+  private CloudFetchFakeServer(Builder builder) throws IOException {
+    this.rowCount = builder.rowCount;
+    this.rowsPerChunk = builder.rowsPerChunk;
+    this.chunkCount = (int) ((rowCount + rowsPerChunk - 1) / rowsPerChunk);
+    this.codec = builder.codec;
+    this.linksPerPage = builder.linksPerPage;
+    this.latencyMillis = builder.latencyMillis;
+    this.failureRate = builder.failureRate;
+    this.failureStatusCode = builder.failureStatusCode;
+    this.fullChunk =
+        ResultSetBenchmarkData.createArrowStream(
+            builder.shape, (int) Math.min(rowsPerChunk, rowCount), codec);
+    int lastChunkRows = getChunkRowCount(chunkCount - 1);
+    this.lastChunk =
+        lastChunkRows == rowsPerChunk
+            ? fullChunk
+            : ResultSetBenchmarkData.createArrowStream(builder.shape, lastChunkRows, codec);
+    // Downloads sleep through their latency, so every download gets a thread of its own
+    this.executor =
+        Executors.newCachedThreadPool(
+            runnable -> {
+              Thread thread = new Thread(runnable, "cloud-fetch-fake-server");
+              thread.setDaemon(true);
+              return thread;
+            });
+    this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 256);
+    server.createContext(CHUNK_PATH, this::handleDownload);
+    server.setExecutor(executor);
+    server.start();
+    this.baseUrl =
+        "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /** Returns the client serving the links of the later chunks to the sessions of the benchmark. */
+  public IDatabricksClient getDatabricksClient() {
+    return databricksClient;
+  }
+
+  /** Creates the manifest of the result, as returned by the SEA service. */
+  public ResultManifest createResultManifest() {
+    List<BaseChunkInfo> chunks = new ArrayList<>();
+    long totalByteCount = 0;
+    for (int i = 0; i < chunkCount; i++) {
+      chunks.add(
+          new BaseChunkInfo()
+              .setChunkIndex((long) i)
+              .setRowOffset((long) i * rowsPerChunk)
+              .setRowCount((long) getChunkRowCount(i))
+              .setByteCount((long) getChunkContent(i).length));
+      totalByteCount += getChunkContent(i).length;
+    }
+    return new ResultManifest()
+        .setTotalChunkCount((long) chunkCount)
+        .setTotalRowCount(rowCount)
+        .setTotalByteCount(totalByteCount)
+        .setResultCompression(codec)
+        .setChunks(chunks);
+  }
+
+  /** Creates the result data returned with the SEA manifest, holding the first page of links. */
+  public ResultData createResultData() {
+    return new ResultData().setExternalLinks(createExternalLinks(0));
+  }
+
+  /**
+   * Creates the Thrift response holding the first page of links. The following pages are returned
+   * by {@link IDatabricksClient#getMoreResults} of {@link #getDatabricksClient()} for the same
+   * statement.
+   */
+  public TFetchResultsResp createFetchResultsResp(IDatabricksStatementInternal parentStatement) {
+    nextThriftChunkByStatement.put(parentStatement, 0);
+    return createNextFetchResultsResp(parentStatement);
+  }
+
+  public long getRowCount() {
+    return rowCount;
+  }
+
+  public int getChunkCount() {
+    return chunkCount;
+  }
+
+  /** Returns the number of chunk downloads received, including the failed ones. */
+  public long getDownloads() {
+    return downloads.get();
+  }
+
+  /** Returns the number of chunk downloads failed on purpose. */
+  public long getFailedDownloads() {
+    return failedDownloads.get();
+  }
+
+  /** Returns the number of bytes of chunk files served. */
+  public long getServedBytes() {
+    return servedBytes.get();
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+
+  private TFetchResultsResp createNextFetchResultsResp(IDatabricksStatementInternal parentStatement) {
+    int fromChunk = nextThriftChunkByStatement.get(parentStatement);
+    int toChunk = Math.min(chunkCount, fromChunk + linksPerPage);
+    List<TSparkArrowResultLink> resultLinks = new ArrayList<>();
+    long expiryTime = Instant.now().plusSeconds(LINK_EXPIRY_SECONDS).toEpochMilli();
+    for (int i = fromChunk; i < toChunk; i++) {
+      resultLinks.add(
+          new TSparkArrowResultLink()
+              .setFileLink(getChunkUrl(i))
+              .setExpiryTime(expiryTime)
+              .setStartRowOffset((long) i * rowsPerChunk)
+              .setRowCount(getChunkRowCount(i))
+              .setBytesNum(getChunkContent(i).length));
+    }
+    nextThriftChunkByStatement.put(parentStatement, toChunk);
+    return new TFetchResultsResp()
+        .setResults(
+            new TRowSet().setStartRowOffset((long) fromChunk * rowsPerChunk).setResultLinks(resultLinks))
+        .setHasMoreRows(toChunk < chunkCount);
+  }
+
+  private List<ExternalLink> createExternalLinks(long fromChunk) {
+    List<ExternalLink> links = new ArrayList<>();
+    long toChunk = Math.min(chunkCount, fromChunk + linksPerPage);
+    String expiration = Instant.now().plusSeconds(LINK_EXPIRY_SECONDS).toString();
+    for (long i = fromChunk; i < toChunk; i++) {
+      links.add(
+          new ExternalLink()
+              .setChunkIndex(i)
+              .setExternalLink(getChunkUrl((int) i))
+              .setExpiration(expiration)
+              .setRowOffset(i * rowsPerChunk)
+              .setRowCount((long) getChunkRowCount((int) i))
+              .setByteCount((long) getChunkContent((int) i).length)
+              .setNextChunkIndex(i + 1 < chunkCount ? i + 1 : null));
+    }
+    return links;
+  }
+
+  private void handleDownload(HttpExchange exchange) throws IOException {
+    try {
+      int chunkIndex = parseChunkIndex(exchange.getRequestURI().getPath());
+      if (chunkIndex < 0) {
+        exchange.sendResponseHeaders(404, -1);
+        return;
+      }
+      downloads.incrementAndGet();
+      if (latencyMillis > 0) {
+        Thread.sleep(latencyMillis);
+      }
+      if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+        failedDownloads.incrementAndGet();
+        exchange.sendResponseHeaders(failureStatusCode, -1);
+        return;
+      }
+      byte[] content = getChunkContent(chunkIndex);
+      exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+      exchange.sendResponseHeaders(200, content.length);
+      try (OutputStream body = exchange.getResponseBody()) {
+        body.write(content);
+      }
+      servedBytes.addAndGet(content.length);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      exchange.close();
+    }
+  }
+
+  private int parseChunkIndex(String path) {
+    try {
+      int chunkIndex = Integer.parseInt(path.substring(CHUNK_PATH.length()));
+      return chunkIndex < chunkCount ? chunkIndex : -1;
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+
+  private String getChunkUrl(int chunkIndex) {
+    // Presigned URLs carry their signature and expiry in the query string
+    return baseUrl
+        + CHUNK_PATH
+        + chunkIndex
+        + "?X-Amz-Expires="
+        + LINK_EXPIRY_SECONDS
+        + "&X-Amz-Signature=benchmark";
+  }
+
+  private int getChunkRowCount(int chunkIndex) {
+    return (int) Math.min(rowsPerChunk, rowCount - (long) chunkIndex * rowsPerChunk);
+  }
+
+  private byte[] getChunkContent(int chunkIndex) {
+    return chunkIndex == chunkCount - 1 ? lastChunk : fullChunk;
+  }
+
+  /** Builder of the server; a result of one million narrow rows in chunks of 100,000 by default. */
+  public static class Builder {
+
+    private Shape shape = Shape.NARROW;
+    private long rowCount = 1_000_000;
+    private int rowsPerChunk = 100_000;
+    private CompressionCodec codec = CompressionCodec.NONE;
+    private int linksPerPage = 8;
+    private long latencyMillis;
+    private double failureRate;
+    private int failureStatusCode = 500;
+
+    private Builder() {}
+
+    public Builder withShape(Shape shape) {
+      this.shape = shape;
+      return this;
+    }
+
+    public Builder withRowCount(long rowCount) {
+      this.rowCount = rowCount;
+      return this;
+    }
+
+    public Builder withRowsPerChunk(int rowsPerChunk) {
+      this.rowsPerChunk = rowsPerChunk;
+      return this;
+    }
+
+    /** Sets the codec the chunk files are compressed with, as a whole. */
+    public Builder withCompression(CompressionCodec codec) {
+      this.codec = codec;
+      return this;
+    }
+
+    /** Sets the number of links returned by each SEA or Thrift response. */
+    public Builder withLinksPerPage(int linksPerPage) {
+      this.linksPerPage = linksPerPage;
+      return this;
+    }
+
+    /** Sets the delay before the server responds to a download. */
+    public Builder withLatencyMillis(long latencyMillis) {
+      this.latencyMillis = latencyMillis;
+      return this;
+    }
+
+    /**
+     * Makes the given share of downloads fail.
+     *
+     * @param failureRate the probability of a download to fail, between 0 and 1
+     * @param statusCode the status code of the failed downloads, e.g. 503 for a throttling storage
+     */
+    public Builder withFailures(double failureRate, int statusCode) {
+      this.failureRate = failureRate;
+      this.failureStatusCode = statusCode;
+      return this;
+    }
+
+    /** Generates the result and starts serving it on a free port of the loopback interface. */
+    public CloudFetchFakeServer start() throws IOException {
+      if (rowCount <= 0 || rowsPerChunk <= 0 || linksPerPage <= 0) {
+        throw new IllegalArgumentException(
+            "The row count, rows per chunk and links per page must be positive");
+      }
+      return new CloudFetchFakeServer(this);
+    }
+  }
+
+  /** Client serving the links of the result, and failing every other call. */
+  private class FakeDatabricksClient implements IDatabricksClient {
+
+    @Override
+    public Collection<ExternalLink> getResultChunks(StatementId statementId, long chunkIndex) {
+      return createExternalLinks(chunkIndex);
+    }
+
+    @Override
+    public TFetchResultsResp getMoreResults(IDatabricksStatementInternal parentStatement) {
+      return createNextFetchResultsResp(parentStatement);
+    }
+
+    @Override
+    public TFetchResultsResp getMoreResults(
+        IDatabricksStatementInternal parentStatement, int maxRows) {
+      return createNextFetchResultsResp(parentStatement);
+    }
+
+    @Override
+    public ImmutableSessionInfo createSession(
+        IDatabricksComputeResource computeResource,
+        String catalog,
+        String schema,
+        Map<String, String> sessionConf) {
+      throw unsupported();
+    }
+
+    @Override
+    public void deleteSession(ImmutableSessionInfo sessionInfo) {
+      throw unsupported();
+    }
+
+    @Override
+    public DatabricksResultSet executeStatement(
+        String sql,
+        IDatabricksComputeResource computeResource,
+        Map<Integer, ImmutableSqlParameter> parameters,
+        StatementType statementType,
+        IDatabricksSession session,
+        IDatabricksStatementInternal parentStatement) {
+      throw unsupported();
+    }
+
+    @Override
+    public DatabricksResultSet executeStatementAsync(
+        String sql,
+        IDatabricksComputeResource computeResource,
+        Map<Integer, ImmutableSqlParameter> parameters,
+        IDatabricksSession session,
+        IDatabricksStatementInternal parentStatement) {
+      throw unsupported();
+    }
+
+    @Override
+    public void closeStatement(StatementId statementId) {}
+
+    @Override
+    public void cancelStatement(StatementId statementId) {}
+
+    @Override
+    public DatabricksResultSet getStatementResult(
+        StatementId statementId,
+        IDatabricksSession session,
+        IDatabricksStatementInternal parentStatement) {
+      throw unsupported();
+    }
+
+    @Override
+    public IDatabricksConnectionContext getConnectionContext() {
+      return null;
+    }
+
+    @Override
+    public void resetAccessToken(String newAccessToken) {}
+
+    @Override
+    public DatabricksConfig getDatabricksConfig() {
+      return null;
+    }
+
+    private UnsupportedOperationException unsupported() {
+      return new UnsupportedOperationException("Only CloudFetch links are served by the fake");
+    }
+  }
+}
@@ -0,0 +1,73 @@
+package com.databricks.jdbc.benchmark;
+
+import com.databricks.jdbc.api.impl.arrow.ArrowAllocatorManager;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+/**
+ * JMH profiler reporting the peak Arrow memory allocated by the driver and the peak heap usage of
+ * each iteration, sampled every {@value #SAMPLE_INTERVAL_MILLIS} milliseconds. Enable it with
+ * {@code -prof com.databricks.jdbc.benchmark.PeakMemoryProfiler}.
+ */
+public class PeakMemoryProfiler implements InternalProfiler {
+
+  private static final long SAMPLE_INTERVAL_MILLIS = 10;
+  private static final double BYTES_PER_MEGABYTE = 1024 * 1024;
+
+  private final MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+  private final ScheduledExecutorService sampler =
+      Executors.newSingleThreadScheduledExecutor(
+          runnable -> {
+            Thread thread = new Thread(runnable, "peak-memory-profiler");
+            thread.setDaemon(true);
+            return thread;
+          });
+  private volatile long peakArrowBytes;
+  private volatile long peakHeapBytes;
+  private ScheduledFuture<?> sampling;
+
+  @Override
+  public String getDescription() {
+    return "Peak Arrow memory and heap usage, sampled every " + SAMPLE_INTERVAL_MILLIS + " ms";
+  }
+
+  @Override
+  public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+    peakArrowBytes = 0;
+    peakHeapBytes = 0;
+    sampling =
+        sampler.scheduleAtFixedRate(
+            this::sample, 0, SAMPLE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public Collection<? extends Result> afterIteration(
+      BenchmarkParams benchmarkParams, IterationParams iterationParams, IterationResult result) {
+    sampling.cancel(false);
+    sample();
+    return Arrays.asList(
+        new ScalarResult(
+            "peak.arrow", peakArrowBytes / BYTES_PER_MEGABYTE, "MB", AggregationPolicy.MAX),
+        new ScalarResult(
+            "peak.heap", peakHeapBytes / BYTES_PER_MEGABYTE, "MB", AggregationPolicy.MAX));
+  }
+
+  private synchronized void sample() {
+    peakArrowBytes =
+        Math.max(peakArrowBytes, ArrowAllocatorManager.getInstance().getAllocatedMemory());
+    peakHeapBytes = Math.max(peakHeapBytes, memoryBean.getHeapMemoryUsage().getUsed());
+  }
+}
@@ -0,0 +1,395 @@
+package com.databricks.jdbc.benchmark;
+
+import static com.databricks.jdbc.common.DatabricksJdbcConstants.ARROW_METADATA_KEY;
+
+import com.databricks.jdbc.api.IDatabricksResultSet;
+import com.databricks.jdbc.api.impl.DatabricksConnectionContextFactory;
+import com.databricks.jdbc.api.impl.DatabricksSession;
+import com.databricks.jdbc.api.internal.IDatabricksSession;
+import com.databricks.jdbc.api.internal.IDatabricksStatementInternal;
+import com.databricks.jdbc.common.CompressionCodec;
+import com.databricks.jdbc.common.util.DatabricksThriftUtil;
+import com.databricks.jdbc.dbclient.IDatabricksClient;
+import com.databricks.jdbc.dbclient.impl.common.StatementId;
+import com.databricks.jdbc.model.client.thrift.generated.TCLIServiceConstants;
+import com.databricks.jdbc.model.client.thrift.generated.TColumnDesc;
+import com.databricks.jdbc.model.client.thrift.generated.TFetchResultsResp;
+import com.databricks.jdbc.model.client.thrift.generated.TGetResultSetMetadataResp;
+import com.databricks.jdbc.model.client.thrift.generated.TPrimitiveTypeEntry;
+import com.databricks.jdbc.model.client.thrift.generated.TRowSet;
+import com.databricks.jdbc.model.client.thrift.generated.TSparkArrowBatch;
+import com.databricks.jdbc.model.client.thrift.generated.TSparkRowSetType;
+import com.databricks.jdbc.model.client.thrift.generated.TTableSchema;
+import com.databricks.jdbc.model.client.thrift.generated.TTypeDesc;
+import com.databricks.jdbc.model.client.thrift.generated.TTypeEntry;
+import com.databricks.jdbc.model.client.thrift.generated.TTypeId;
+import com.databricks.jdbc.model.client.thrift.generated.TTypeQualifierValue;
+import com.databricks.jdbc.model.client.thrift.generated.TTypeQualifiers;
+import com.databricks.sdk.service.sql.ColumnInfo;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import net.jpountz.lz4.LZ4FrameOutputStream;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.DateDayVector;
+import org.apache.arrow.vector.DecimalVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.TimeStampMicroTZVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.types.DateUnit;
+import org.apache.arrow.vector.types.FloatingPointPrecision;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.apache.http.entity.InputStreamEntity;
+
+/**
+ * Generates synthetic Arrow results for the benchmarks, so that they run without a connection to
+ * Databricks.
+ *
+ * <p>The values are random but seeded, so that every run reads the same data. About one value in
+ * twenty is {@code NULL}.
+ */
+public final class ResultSetBenchmarkData {
+
+  /** Number of rows in each Arrow record batch. */
+  public static final int ROWS_PER_BATCH = 4096;
+
+  private static final String JDBC_URL =
+      "jdbc:databricks://localhost:443/default;transportMode=http;ssl=1;AuthMech=3;"
+          + "httpPath=/sql/1.0/warehouses/benchmark";
+  private static final StatementId STATEMENT_ID = new StatementId("benchmark-statement");
+  private static final long SEED = 42;
+
+  /** Column types of the generated results. */
+  public enum ColumnType {
+    BIGINT(TTypeId.BIGINT_TYPE, new ArrowType.Int(64, true)),
+    INT(TTypeId.INT_TYPE, new ArrowType.Int(32, true)),
+    DOUBLE(TTypeId.DOUBLE_TYPE, new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE)),
+    STRING(TTypeId.STRING_TYPE, ArrowType.Utf8.INSTANCE),
+    DECIMAL(TTypeId.DECIMAL_TYPE, new ArrowType.Decimal(18, 2, 128)),
+    BOOLEAN(TTypeId.BOOLEAN_TYPE, ArrowType.Bool.INSTANCE),
+    DATE(TTypeId.DATE_TYPE, new ArrowType.Date(DateUnit.DAY)),
+    TIMESTAMP(TTypeId.TIMESTAMP_TYPE, new ArrowType.Timestamp(TimeUnit.MICROSECOND, "Etc/UTC"));
+
+    private final TTypeId thriftType;
+    private final ArrowType arrowType;
+
+    ColumnType(TTypeId thriftType, ArrowType arrowType) {
+      this.thriftType = thriftType;
+      this.arrowType = arrowType;
+    }
+
+    /** Returns the SQL type name sent in the Arrow metadata of the column. */
+    public String getSqlName() {
+      return this == DECIMAL ? "DECIMAL(18,2)" : name();
+    }
+  }
+
+  /** Shapes of the generated results. */
+  public enum Shape {
+    /** A typical narrow result: an id, a count, an amount and a label. */
+    NARROW(ColumnType.BIGINT, ColumnType.INT, ColumnType.DOUBLE, ColumnType.STRING),
+    /** A typical wide result: 32 columns covering the common scalar types. */
+    WIDE(wideColumns());
+
+    private final List<ColumnType> columns;
+
+    Shape(ColumnType... columns) {
+      this.columns = List.of(columns);
+    }
+
+    public List<ColumnType> getColumns() {
+      return columns;
+    }
+
+    private static ColumnType[] wideColumns() {
+      ColumnType[] columns = new ColumnType[32];
+      for (int i = 0; i < columns.length; i++) {
+        columns[i] = ColumnType.values()[i % ColumnType.values().length];
+      }
+      return columns;
+    }
+  }
+
+  private ResultSetBenchmarkData() {}
+
+  /**
+   * Creates an Arrow IPC stream with the given number of rows, compressed as a whole as the files
+   * downloaded by CloudFetch are.
+   */
+  public static byte[] createArrowStream(Shape shape, int rowCount, CompressionCodec codec) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (OutputStream stream = compressingStream(out, codec)) {
+      stream.write(serializeSchema(shape));
+      for (byte[] batch : serializeRecordBatches(shape, rowCount)) {
+        stream.write(batch);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return out.toByteArray();
+  }
+
+  /**
+   * Creates an inline Arrow fetch response with the given number of rows, with each record batch
+   * compressed on its own as the Thrift server does.
+   */
+  public static TFetchResultsResp createFetchResultsResp(
+      Shape shape, int rowCount, CompressionCodec codec) {
+    List<TSparkArrowBatch> arrowBatches = new ArrayList<>();
+    List<byte[]> batches = serializeRecordBatches(shape, rowCount);
+    for (int i = 0; i < batches.size(); i++) {
+      int rowsInBatch = Math.min(ROWS_PER_BATCH, rowCount - i * ROWS_PER_BATCH);
+      arrowBatches.add(
+          new TSparkArrowBatch()
+              .setRowCount(rowsInBatch)
+              .setBatch(compress(batches.get(i), codec)));
+    }
+    TGetResultSetMetadataResp metadata =
+        new TGetResultSetMetadataResp()
+            .setResultFormat(TSparkRowSetType.ARROW_BASED_SET)
+            .setSchema(createTableSchema(shape))
+            .setArrowSchema(serializeSchema(shape))
+            .setLz4Compressed(codec == CompressionCodec.LZ4_FRAME);
+    return new TFetchResultsResp()
+        .setResultSetMetadata(metadata)
+        .setResults(new TRowSet().setStartRowOffset(0).setArrowBatches(arrowBatches))
+        .setHasMoreRows(false);
+  }
+
+  /** Returns the columns of the result schema, as the driver reads them from the metadata. */
+  public static List<ColumnInfo> getColumnInfos(Shape shape) {
+    List<ColumnInfo> columnInfos = new ArrayList<>();
+    for (TColumnDesc columnDesc : createTableSchema(shape).getColumns()) {
+      columnInfos.add(DatabricksThriftUtil.getColumnInfoFromTColumnDesc(columnDesc));
+    }
+    return columnInfos;
+  }
+
+  /** Creates a session that is not connected to any server. */
+  public static IDatabricksSession createSession() {
+    return createSession(null, new Properties());
+  }
+
+  /**
+   * Creates a session that sends its requests to the given client instead of a server.
+   *
+   * @param databricksClient the client of the session, or null for none
+   * @param properties the connection properties, added to those of the benchmark URL
+   */
+  public static IDatabricksSession createSession(
+      IDatabricksClient databricksClient, Properties properties) {
+    try {
+      return new DatabricksSession(
+          DatabricksConnectionContextFactory.create(JDBC_URL, properties), databricksClient);
+    } catch (SQLException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /** Creates a statement to own the result sets of the benchmarks. */
+  public static IDatabricksStatementInternal createStatement() {
+    return new BenchmarkStatement();
+  }
+
+  private static TTableSchema createTableSchema(Shape shape) {
+    List<TColumnDesc> columns = new ArrayList<>();
+    for (int i = 0; i < shape.getColumns().size(); i++) {
+      ColumnType columnType = shape.getColumns().get(i);
+      TPrimitiveTypeEntry typeEntry = new TPrimitiveTypeEntry(columnType.thriftType);
+      if (columnType == ColumnType.DECIMAL) {
+        typeEntry.setTypeQualifiers(
+            new TTypeQualifiers(
+                Map.of(
+                    TCLIServiceConstants.PRECISION, TTypeQualifierValue.i32Value(18),
+                    TCLIServiceConstants.SCALE, TTypeQualifierValue.i32Value(2))));
+      }
+      columns.add(
+          new TColumnDesc()
+              .setColumnName(columnName(i, columnType))
+              .setPosition(i + 1)
+              .setTypeDesc(
+                  new TTypeDesc()
+                      .setTypes(Collections.singletonList(TTypeEntry.primitiveEntry(typeEntry)))));
+    }
+    return new TTableSchema().setColumns(columns);
+  }
+
+  private static Schema createArrowSchema(Shape shape) {
+    List<Field> fields = new ArrayList<>();
+    for (int i = 0; i < shape.getColumns().size(); i++) {
+      ColumnType columnType = shape.getColumns().get(i);
+      fields.add(
+          new Field(
+              columnName(i, columnType),
+              new FieldType(
+                  true,
+                  columnType.arrowType,
+                  null,
+                  Map.of(ARROW_METADATA_KEY, columnType.getSqlName())),
+              null));
+    }
+    return new Schema(fields);
+  }
+
+  private static byte[] serializeSchema(Shape shape) {
+    try (BufferAllocator allocator = new RootAllocator();
+        VectorSchemaRoot root = VectorSchemaRoot.create(createArrowSchema(shape), allocator)) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      new ArrowStreamWriter(root, null, out).start();
+      return out.toByteArray();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /** Serializes the rows as Arrow record batches, without the schema message. */
+  private static List<byte[]> serializeRecordBatches(Shape shape, int rowCount) {
+    List<byte[]> batches = new ArrayList<>();
+    Random random = new Random(SEED);
+    try (BufferAllocator allocator = new RootAllocator();
+        VectorSchemaRoot root = VectorSchemaRoot.create(createArrowSchema(shape), allocator)) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      ArrowStreamWriter writer = new ArrowStreamWriter(root, null, out);
+      writer.start();
+      for (int offset = 0; offset < rowCount; offset += ROWS_PER_BATCH) {
+        int rowsInBatch = Math.min(ROWS_PER_BATCH, rowCount - offset);
+        root.allocateNew();
+        for (FieldVector vector : root.getFieldVectors()) {
+          for (int row = 0; row < rowsInBatch; row++) {
+            if (random.nextInt(20) == 0) {
+              vector.setNull(row);
+            } else {
+              setRandomValue(vector, row, random);
+            }
+          }
+          vector.setValueCount(rowsInBatch);
+        }
+        root.setRowCount(rowsInBatch);
+        out.reset();
+        writer.writeBatch();
+        batches.add(out.toByteArray());
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return batches;
+  }
+
+  private static void setRandomValue(FieldVector vector, int row, Random random) {
+    if (vector instanceof BigIntVector) {
+      ((BigIntVector) vector).setSafe(row, random.nextLong());
+    } else if (vector instanceof IntVector) {
+      ((IntVector) vector).setSafe(row, random.nextInt());
+    } else if (vector instanceof Float8Vector) {
+      ((Float8Vector) vector).setSafe(row, random.nextDouble() * 1_000_000);
+    } else if (vector instanceof VarCharVector) {
+      ((VarCharVector) vector)
+          .setSafe(
+              row,
+              ("value-" + Long.toHexString(random.nextLong())).getBytes(StandardCharsets.UTF_8));
+    } else if (vector instanceof DecimalVector) {
+      ((DecimalVector) vector).setSafe(row, BigDecimal.valueOf(random.nextInt(), 2));
+    } else if (vector instanceof BitVector) {
+      ((BitVector) vector).setSafe(row, random.nextBoolean() ? 1 : 0);
+    } else if (vector instanceof DateDayVector) {
+      // Days between 1970 and 2050
+      ((DateDayVector) vector).setSafe(row, random.nextInt(29_220));
+    } else if (vector instanceof TimeStampMicroTZVector) {
+      // Microseconds between 1970 and 2050
+      ((TimeStampMicroTZVector) vector)
+          .setSafe(row, (long) (random.nextDouble() * 2_524_608_000_000_000L));
+    } else {
+      throw new IllegalArgumentException("Unsupported vector " + vector.getClass());
+    }
+  }
+
+  private static String columnName(int index, ColumnType columnType) {
+    return columnType.name().toLowerCase() + "_" + index;
+  }
+
+  private static byte[] compress(byte[] bytes, CompressionCodec codec) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (OutputStream stream = compressingStream(out, codec)) {
+      stream.write(bytes);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return out.toByteArray();
+  }
+
+  private static OutputStream compressingStream(OutputStream out, CompressionCodec codec)
+      throws IOException {
+    return codec == CompressionCodec.LZ4_FRAME ? new LZ4FrameOutputStream(out) : out;
+  }
+
+  /** Statement that owns the result sets of the benchmarks and ignores all calls. */
+  private static class BenchmarkStatement implements IDatabricksStatementInternal {
+
+    @Override
+    public void close(boolean removeFromSession) {}
+
+    @Override
+    public void handleResultSetClose(IDatabricksResultSet resultSet) {}
+
+    @Override
+    public int getMaxRows() {
+      return 0;
+    }
+
+    @Override
+    public int getFetchSize() {
+      return 0;
+    }
+
+    @Override
+    public void setStatementId(StatementId statementId) {}
+
+    @Override
+    public StatementId getStatementId() {
+      return STATEMENT_ID;
+    }
+
+    @Override
+    public Statement getStatement() {
+      return null;
+    }
+
+    @Override
+    public void allowInputStreamForVolumeOperation(boolean allowedInputStream) {}
+
+    @Override
+    public boolean isAllowedInputStreamForVolumeOperation() {
+      return false;
+    }
+
+    @Override
+    public void setInputStreamForUCVolume(InputStreamEntity inputStream) {}
+
+    @Override
+    public InputStreamEntity getInputStreamForUCVolume() {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,61 @@
+package com.databricks.jdbc.api;
+
+import java.sql.SQLException;
+import org.apache.arrow.vector.ValueVector;
+
+/**
+ * A read-only view over one Arrow record batch of a result set, returned by {@link
+ * IDatabricksResultSet#nextBatch()}. It gives direct access to the Arrow vectors of the batch, so
+ * that large results can be read column by column without converting every value to a Java object.
+ *
+ * <p>Columns are indexed from 1, as in {@link java.sql.ResultSet}; rows are indexed from 0 within
+ * the batch. The batch is only valid until the next call to {@link
+ * IDatabricksResultSet#nextBatch()} or {@link java.sql.ResultSet#next()}, or until the result set
+ * is closed. The vectors are owned by the driver and must not be modified or closed by the caller.
+ */
+public interface IDatabricksColumnarBatch {
+
+  /**
+   * Returns the number of rows in the batch.
+   *
+   * @return the number of rows
+   */
+  int getRowCount();
+
+  /**
+   * Returns the number of columns in the batch.
+   *
+   * @return the number of columns
+   */
+  int getColumnCount();
+
+  /**
+   * Returns the Arrow vector holding the values of the given column.
+   *
+   * @param columnIndex the index of the column (1-based)
+   * @return the vector of the column
+   * @throws SQLException if the column index is not valid
+   */
+  ValueVector getVector(int columnIndex) throws SQLException;
+
+  /**
+   * Checks whether the value at the given position is SQL {@code NULL}.
+   *
+   * @param columnIndex the index of the column (1-based)
+   * @param rowIndex the index of the row within the batch (0-based)
+   * @return true if the value is {@code NULL}
+   * @throws SQLException if the column index is not valid
+   */
+  boolean isNull(int columnIndex, int rowIndex) throws SQLException;
+
+  /**
+   * Returns the value at the given position converted to the same Java object as {@link
+   * java.sql.ResultSet#getObject(int)} would return.
+   *
+   * @param columnIndex the index of the column (1-based)
+   * @param rowIndex the index of the row within the batch (0-based)
+   * @return the value, or null if the value is SQL {@code NULL}
+   * @throws SQLException if the column index is not valid or the value cannot be converted
+   */
+  Object getObject(int columnIndex, int rowIndex) throws SQLException;
+}
@@ -93,4 +93,16 @@ public interface IDatabricksResultSet extends ResultSet {
    * @throws SQLException if the column is not of `STRUCT` type or if any SQL error occurs
    */
   Struct getStruct(int columnIndex) throws SQLException;
+
+  /**
+   * Moves the cursor past the next Arrow record batch of the result and returns a read-only
+   * columnar view over it. Rows of the current record batch that have not been read with {@link
+   * #next()} are skipped. After the call, the cursor is positioned on the last row of the returned
+   * batch, so that {@link #next()} continues with the following batch.
+   *
+   * @return the next record batch, or null if there are no more rows
+   * @throws SQLException if the result is not Arrow-based, the result set is closed, or the next
+   *     batch cannot be fetched
+   */
+  IDatabricksColumnarBatch nextBatch() throws SQLException;
 }
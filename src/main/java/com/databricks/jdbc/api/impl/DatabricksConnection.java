@@ -4,6 +4,8 @@ import static com.databricks.jdbc.common.DatabricksJdbcConstants.ALLOWED_SESSION
 
 import com.databricks.jdbc.api.*;
 import com.databricks.jdbc.api.IDatabricksStatement;
+import com.databricks.jdbc.api.impl.arrow.ArrowAllocatorManager;
+import com.databricks.jdbc.api.impl.arrow.CloudFetchDownloadScheduler;
 import com.databricks.jdbc.api.internal.IDatabricksConnectionContext;
 import com.databricks.jdbc.api.internal.IDatabricksConnectionInternal;
 import com.databricks.jdbc.api.internal.IDatabricksSession;
@@ -157,6 +159,8 @@ public class DatabricksConnection implements IDatabricksConnection, IDatabricksC
     this.session.close();
     TelemetryClientFactory.getInstance().closeTelemetryClient(connectionContext);
     DatabricksHttpClientFactory.getInstance().removeClient(connectionContext);
+    ArrowAllocatorManager.getInstance().removeConnectionAllocator(connectionContext);
+    CloudFetchDownloadScheduler.getInstance().removeConnection(connectionContext);
     DatabricksClientConfiguratorManager.getInstance().removeInstance(connectionContext);
     DatabricksDriverFeatureFlagsContextFactory.removeInstance(connectionContext);
     DatabricksThreadContextHolder.clearAllContext();
@@ -418,6 +418,87 @@ public class DatabricksConnectionContext implements IDatabricksConnectionContext
     return Integer.parseInt(getParameter(DatabricksJdbcUrlParams.CLOUD_FETCH_THREAD_POOL_SIZE));
   }
 
+  @Override
+  public long getCloudFetchMemoryBudgetBytes() {
+    return getMegabytesParameterAsBytes(DatabricksJdbcUrlParams.CLOUD_FETCH_MEMORY_BUDGET_MB);
+  }
+
+  @Override
+  public long getCloudFetchSpillLimitBytes() {
+    return getMegabytesParameterAsBytes(DatabricksJdbcUrlParams.CLOUD_FETCH_SPILL_LIMIT_MB);
+  }
+
+  @Override
+  public String getCloudFetchSpillDirectory() {
+    String spillDirectory = getParameter(DatabricksJdbcUrlParams.CLOUD_FETCH_SPILL_DIRECTORY);
+    return spillDirectory.isEmpty() ? null : spillDirectory;
+  }
+
+  @Override
+  public int getCloudFetchMaxConcurrentDownloads() {
+    try {
+      return Math.max(
+          0,
+          Integer.parseInt(
+              getParameter(DatabricksJdbcUrlParams.CLOUD_FETCH_MAX_CONCURRENT_DOWNLOADS)));
+    } catch (NumberFormatException e) {
+      LOGGER.warn(
+          "Invalid value for {}, ignoring it.",
+          DatabricksJdbcUrlParams.CLOUD_FETCH_MAX_CONCURRENT_DOWNLOADS.getParamName());
+      return 0;
+    }
+  }
+
+  @Override
+  public boolean getCloudFetchUseVirtualThreads() {
+    return getParameter(DatabricksJdbcUrlParams.CLOUD_FETCH_USE_VIRTUAL_THREADS).equals("1");
+  }
+
+  @Override
+  public boolean isCloudFetchAsyncDownloadEnabled() {
+    return getParameter(DatabricksJdbcUrlParams.CLOUD_FETCH_ASYNC_DOWNLOAD).equals("1");
+  }
+
+  @Override
+  public boolean isCloudFetchIncrementalDecodeEnabled() {
+    return getParameter(DatabricksJdbcUrlParams.CLOUD_FETCH_INCREMENTAL_DECODE).equals("1");
+  }
+
+  @Override
+  public boolean isCloudFetchAdaptiveConcurrencyEnabled() {
+    return getParameter(DatabricksJdbcUrlParams.CLOUD_FETCH_ADAPTIVE_CONCURRENCY).equals("1");
+  }
+
+  @Override
+  public boolean isCloudFetchHedgedDownloadEnabled() {
+    return getParameter(DatabricksJdbcUrlParams.CLOUD_FETCH_HEDGED_DOWNLOADS).equals("1");
+  }
+
+  @Override
+  public boolean isCloudFetchParallelDecodeEnabled() {
+    return getParameter(DatabricksJdbcUrlParams.CLOUD_FETCH_PARALLEL_DECODE).equals("1");
+  }
+
+  @Override
+  public boolean isCloudFetchLinkRefreshEnabled() {
+    return getParameter(DatabricksJdbcUrlParams.CLOUD_FETCH_LINK_REFRESH).equals("1");
+  }
+
+  @Override
+  public boolean isInlineArrowStreamingEnabled() {
+    return getParameter(DatabricksJdbcUrlParams.INLINE_ARROW_STREAMING).equals("1");
+  }
+
+  @Override
+  public boolean isInlineColumnarStreamingEnabled() {
+    return getParameter(DatabricksJdbcUrlParams.INLINE_COLUMNAR_STREAMING).equals("1");
+  }
+
+  @Override
+  public long getArrowMemoryLimitBytes() {
+    return getMegabytesParameterAsBytes(DatabricksJdbcUrlParams.ARROW_MEMORY_LIMIT_MB);
+  }
+
   @Override
   public String getCatalog() {
     return getParameter(DatabricksJdbcUrlParams.CONN_CATALOG);
@@ -933,6 +1014,21 @@ public class DatabricksConnectionContext implements IDatabricksConnectionContext
     return this.parameters.getOrDefault(key.getParamName().toLowerCase(), defaultValue);
   }
 
+  /** Parses a size parameter given in MB, returning 0 (disabled) for negative or invalid values */
+  private long getMegabytesParameterAsBytes(DatabricksJdbcUrlParams key) {
+    try {
+      long megabytes = Long.parseLong(getParameter(key));
+      if (megabytes < 0) {
+        LOGGER.warn("{} value {} is negative, ignoring it.", key.getParamName(), megabytes);
+        return 0;
+      }
+      return megabytes * 1024 * 1024;
+    } catch (NumberFormatException e) {
+      LOGGER.warn("Invalid value for {}, ignoring it.", key.getParamName());
+      return 0;
+    }
+  }
+
   private Map<String, String> parseCustomHeaders(ImmutableMap<String, String> parameters) {
     String filterPrefix = DatabricksJdbcUrlParams.HTTP_HEADERS.getParamName();
 
@@ -5,8 +5,10 @@ import static com.databricks.jdbc.common.util.DatabricksTypeUtil.ARRAY;
 import static com.databricks.jdbc.common.util.DatabricksTypeUtil.MAP;
 import static com.databricks.jdbc.common.util.DatabricksTypeUtil.STRUCT;
 
+import com.databricks.jdbc.api.IDatabricksColumnarBatch;
 import com.databricks.jdbc.api.IDatabricksResultSet;
 import com.databricks.jdbc.api.IExecutionStatus;
+import com.databricks.jdbc.api.impl.arrow.ArrowColumnAccessor;
 import com.databricks.jdbc.api.impl.arrow.ArrowStreamResult;
 import com.databricks.jdbc.api.impl.converters.ConverterHelper;
 import com.databricks.jdbc.api.impl.converters.ObjectConverter;
@@ -265,7 +267,33 @@ public class DatabricksResultSet implements IDatabricksResultSet, IDatabricksRes
   @Override
   public boolean next() throws SQLException {
     checkIfClosed();
-    return this.executionResult.next();
+    try {
+      return this.executionResult.next();
+    } catch (DatabricksSQLException e) {
+      throw surfaceTimeout(e);
+    }
+  }
+
+  @Override
+  public IDatabricksColumnarBatch nextBatch() throws SQLException {
+    checkIfClosed();
+    if (!(executionResult instanceof ArrowStreamResult)) {
+      throw new DatabricksSQLFeatureNotSupportedException(
+          "Columnar batch access is only supported for Arrow results");
+    }
+    try {
+      return ((ArrowStreamResult) executionResult).nextBatch();
+    } catch (DatabricksSQLException e) {
+      throw surfaceTimeout(e);
+    }
+  }
+
+  /**
+   * Returns the {@link SQLTimeoutException} behind a failure to fetch results, so that callers can
+   * tell a query timeout apart from other errors, or the failure itself otherwise.
+   */
+  private static SQLException surfaceTimeout(DatabricksSQLException e) {
+    return e.getCause() instanceof SQLTimeoutException ? (SQLTimeoutException) e.getCause() : e;
   }
 
   @Override
@@ -305,21 +333,65 @@ public class DatabricksResultSet implements IDatabricksResultSet, IDatabricksRes
 
   @Override
   public int getInt(int columnIndex) throws SQLException {
+    ArrowColumnAccessor accessor = getArrowColumnAccessor(columnIndex);
+    if (accessor != null) {
+      this.wasNull = accessor.isNull();
+      return this.wasNull ? 0 : accessor.getInt();
+    }
+    ThriftColumnValues.NumericValues values = getThriftNumericValues(columnIndex);
+    if (values != null) {
+      int row = ((ThriftColumnarResult) executionResult).getValuesRow();
+      this.wasNull = values.isNull(row);
+      return this.wasNull ? 0 : values.getInt(row);
+    }
     return getConvertedObject(columnIndex, ObjectConverter::toInt, () -> 0);
   }
 
   @Override
   public long getLong(int columnIndex) throws SQLException {
+    ArrowColumnAccessor accessor = getArrowColumnAccessor(columnIndex);
+    if (accessor != null) {
+      this.wasNull = accessor.isNull();
+      return this.wasNull ? 0L : accessor.getLong();
+    }
+    ThriftColumnValues.NumericValues values = getThriftNumericValues(columnIndex);
+    if (values != null) {
+      int row = ((ThriftColumnarResult) executionResult).getValuesRow();
+      this.wasNull = values.isNull(row);
+      return this.wasNull ? 0L : values.getLong(row);
+    }
     return getConvertedObject(columnIndex, ObjectConverter::toLong, () -> 0L);
   }
 
   @Override
   public float getFloat(int columnIndex) throws SQLException {
+    ArrowColumnAccessor accessor = getArrowColumnAccessor(columnIndex);
+    if (accessor != null) {
+      this.wasNull = accessor.isNull();
+      return this.wasNull ? 0.0f : accessor.getFloat();
+    }
+    ThriftColumnValues.NumericValues values = getThriftNumericValues(columnIndex);
+    if (values != null) {
+      int row = ((ThriftColumnarResult) executionResult).getValuesRow();
+      this.wasNull = values.isNull(row);
+      return this.wasNull ? 0.0f : values.getFloat(row);
+    }
     return getConvertedObject(columnIndex, ObjectConverter::toFloat, () -> 0.0f);
   }
 
   @Override
   public double getDouble(int columnIndex) throws SQLException {
+    ArrowColumnAccessor accessor = getArrowColumnAccessor(columnIndex);
+    if (accessor != null) {
+      this.wasNull = accessor.isNull();
+      return this.wasNull ? 0.0 : accessor.getDouble();
+    }
+    ThriftColumnValues.NumericValues values = getThriftNumericValues(columnIndex);
+    if (values != null) {
+      int row = ((ThriftColumnarResult) executionResult).getValuesRow();
+      this.wasNull = values.isNull(row);
+      return this.wasNull ? 0.0 : values.getDouble(row);
+    }
     return getConvertedObject(columnIndex, ObjectConverter::toDouble, () -> 0.0);
   }
 
@@ -1878,6 +1950,31 @@ public class DatabricksResultSet implements IDatabricksResultSet, IDatabricksRes
     return object;
   }
 
+  /**
+   * Returns the accessor that reads the column directly from its Arrow vector, or null if the value
+   * has to be converted from the object returned by the execution result.
+   */
+  private ArrowColumnAccessor getArrowColumnAccessor(int columnIndex) throws SQLException {
+    checkIfClosed();
+    if (executionResult instanceof ArrowStreamResult) {
+      return ((ArrowStreamResult) executionResult).getColumnAccessor(columnIndex - 1);
+    }
+    return null;
+  }
+
+  /**
+   * Returns the values of the numeric column of a Thrift columnar result, read directly at the row
+   * of the result, or null if the value has to be converted from the object returned by the
+   * execution result.
+   */
+  private ThriftColumnValues.NumericValues getThriftNumericValues(int columnIndex)
+      throws SQLException {
+    if (executionResult instanceof ThriftColumnarResult) {
+      return ((ThriftColumnarResult) executionResult).getColumnValues(columnIndex - 1).asNumeric();
+    }
+    return null;
+  }
+
   private int getColumnNameIndex(String columnName) {
     return this.resultSetMetaData.getColumnNameIndex(columnName);
   }
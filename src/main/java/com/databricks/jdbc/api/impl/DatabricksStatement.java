@@ -41,6 +41,7 @@ public class DatabricksStatement implements IDatabricksStatement, IDatabricksSta
   private boolean closeOnCompletion;
   private SQLWarning warnings = null;
   private long maxRows = DEFAULT_RESULT_ROW_LIMIT;
+  private int fetchSize;
   private int maxFieldSize = 0;
   private boolean escapeProcessing = DEFAULT_ESCAPE_PROCESSING;
   private InputStreamEntity inputStream = null;
@@ -273,26 +274,18 @@ public class DatabricksStatement implements IDatabricksStatement, IDatabricksSta
   }
 
   @Override
-  public void setFetchSize(int rows) {
-    /* As we fetch chunks of data together,
-    setting fetchSize is an overkill.
-    Hence, we don't support it.*/
+  public void setFetchSize(int rows) throws SQLException {
     LOGGER.debug(String.format("public void setFetchSize(int rows = {%s})", rows));
-    String warningString = "As FetchSize is not supported in the Databricks JDBC, ignoring it";
-
-    LOGGER.warn(warningString);
-    warnings = WarningUtil.addWarning(warnings, warningString);
+    checkIfClosed();
+    ValidationUtil.checkIfNonNegative(rows, "fetchSize");
+    this.fetchSize = rows;
   }
 
   @Override
-  public int getFetchSize() {
+  public int getFetchSize() throws DatabricksSQLException {
     LOGGER.debug("public int getFetchSize()");
-    String warningString =
-        "As FetchSize is not supported in the Databricks JDBC, we don't set it in the first place";
-
-    LOGGER.warn(warningString);
-    warnings = WarningUtil.addWarning(warnings, warningString);
-    return 0;
+    checkIfClosed();
+    return fetchSize;
   }
 
   @Override
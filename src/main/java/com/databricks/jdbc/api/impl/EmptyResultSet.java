@@ -1,5 +1,6 @@
 package com.databricks.jdbc.api.impl;
 
+import com.databricks.jdbc.api.IDatabricksColumnarBatch;
 import com.databricks.jdbc.api.IDatabricksResultSet;
 import com.databricks.jdbc.api.IExecutionStatus;
 import com.databricks.jdbc.api.internal.IDatabricksResultSetInternal;
@@ -650,6 +651,12 @@ public class EmptyResultSet
     return null;
   }
 
+  @Override
+  public IDatabricksColumnarBatch nextBatch() throws SQLException {
+    checkIfClosed();
+    return null;
+  }
+
   @Override
   public Struct getStruct(String columnLabel) throws SQLException {
     checkIfClosed();
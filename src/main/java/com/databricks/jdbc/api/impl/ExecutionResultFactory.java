@@ -1,7 +1,5 @@
 package com.databricks.jdbc.api.impl;
 
-import static com.databricks.jdbc.common.util.DatabricksThriftUtil.convertColumnarToRowBased;
-
 import com.databricks.jdbc.api.impl.arrow.ArrowStreamResult;
 import com.databricks.jdbc.api.impl.volume.VolumeOperationResult;
 import com.databricks.jdbc.api.internal.IDatabricksSession;
@@ -30,7 +28,8 @@ class ExecutionResultFactory {
       IDatabricksSession session,
       IDatabricksStatementInternal statement)
       throws DatabricksSQLException {
-    IExecutionResult resultHandler = getResultHandler(data, manifest, statementId, session);
+    IExecutionResult resultHandler =
+        getResultHandler(data, manifest, statementId, session, statement);
     if (manifest.getIsVolumeOperation() != null && manifest.getIsVolumeOperation()) {
       return new VolumeOperationResult(
           manifest.getTotalRowCount(),
@@ -44,7 +43,11 @@ class ExecutionResultFactory {
   }
 
   private static IExecutionResult getResultHandler(
-      ResultData data, ResultManifest manifest, StatementId statementId, IDatabricksSession session)
+      ResultData data,
+      ResultManifest manifest,
+      StatementId statementId,
+      IDatabricksSession session,
+      IDatabricksStatementInternal statement)
       throws DatabricksSQLException {
     if (manifest.getFormat() == null) {
       throw new DatabricksParsingException(
@@ -54,7 +57,7 @@ class ExecutionResultFactory {
     // We use JSON_ARRAY for metadata and update commands, and ARROW_STREAM for query results
     switch (manifest.getFormat()) {
       case ARROW_STREAM:
-        return new ArrowStreamResult(manifest, data, statementId, session);
+        return new ArrowStreamResult(manifest, data, statementId, session, statement);
       case JSON_ARRAY:
         // This is used for metadata and update commands
         return new InlineJsonResult(manifest, data);
@@ -93,7 +96,7 @@ class ExecutionResultFactory {
     LOGGER.info("Processing result of format {} from SQL Gateway", resultFormat);
     switch (resultFormat) {
       case COLUMN_BASED_SET:
-        return getResultSet(convertColumnarToRowBased(resultsResp, parentStatement, session));
+        return new ThriftColumnarResult(resultsResp, parentStatement, session);
       case ARROW_BASED_SET:
         return new ArrowStreamResult(resultsResp, true, parentStatement, session);
       case URL_BASED_SET:
@@ -0,0 +1,421 @@
+package com.databricks.jdbc.api.impl;
+
+import com.databricks.jdbc.api.impl.converters.DoubleConverter;
+import com.databricks.jdbc.api.impl.converters.LongConverter;
+import com.databricks.jdbc.exception.DatabricksSQLException;
+import com.databricks.jdbc.model.client.thrift.generated.TColumn;
+import com.databricks.jdbc.model.telemetry.enums.DatabricksDriverErrorCode;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Values of one column of a Thrift columnar result, kept in a primitive array with a bitset of the
+ * null values, and appended page by page.
+ *
+ * <p>Integer, floating point and boolean values are unboxed from the lists of the Thrift column, so
+ * that the pages can be garbage collected once appended. {@link #getObject(int)} returns the same
+ * objects as the Thrift column holds, while the values of numeric columns are also read as
+ * primitives from the array through {@link #asNumeric()}.
+ */
+abstract class ThriftColumnValues {
+
+  private final BitSet nulls = new BitSet();
+  private int size;
+
+  /**
+   * Creates the values of a column, holding the values of the given page.
+   *
+   * @param column the column of the first page of the result
+   * @throws DatabricksSQLException if the type of the column is not supported
+   */
+  static ThriftColumnValues create(TColumn column) throws DatabricksSQLException {
+    ThriftColumnValues values;
+    if (column.isSetI64Val()) {
+      values = new LongValues();
+    } else if (column.isSetI32Val() || column.isSetI16Val() || column.isSetByteVal()) {
+      values = new IntegerValues(column.getSetField());
+    } else if (column.isSetDoubleVal()) {
+      values = new DoubleValues();
+    } else if (column.isSetBoolVal()) {
+      values = new BooleanValues();
+    } else if (column.isSetStringVal() || column.isSetBinaryVal()) {
+      values = new ObjectValues(column.getSetField());
+    } else {
+      throw new DatabricksSQLException(
+          "Unsupported column type: " + column, DatabricksDriverErrorCode.UNSUPPORTED_OPERATION);
+    }
+    values.append(column);
+    return values;
+  }
+
+  /**
+   * Appends the values of a column of the next page.
+   *
+   * @param column the column, of the same type as the column of the first page
+   * @throws DatabricksSQLException if the column has a different type
+   */
+  void append(TColumn column) throws DatabricksSQLException {
+    List<?> pageValues = getPageValues(column);
+    if (pageValues == null) {
+      throw new DatabricksSQLException(
+          "Column type changed between result pages: " + column,
+          DatabricksDriverErrorCode.INVALID_STATE);
+    }
+    int pageSize = pageValues.size();
+    ensureCapacity(size + pageSize);
+    for (int i = 0; i < pageSize; i++) {
+      Object value = pageValues.get(i);
+      if (value != null) {
+        set(size + i, value);
+      } else {
+        nulls.set(size + i);
+      }
+    }
+    byte[] pageNulls = getPageNulls(column);
+    if (pageNulls != null) {
+      BitSet pageNullBits = BitSet.valueOf(pageNulls);
+      for (int i = pageNullBits.nextSetBit(0); i >= 0 && i < pageSize; ) {
+        nulls.set(size + i);
+        i = pageNullBits.nextSetBit(i + 1);
+      }
+    }
+    size += pageSize;
+  }
+
+  /** Drops the values after the given number of rows. */
+  void truncate(int rowCount) {
+    if (rowCount < size) {
+      nulls.clear(rowCount, size);
+      size = rowCount;
+    }
+  }
+
+  int size() {
+    return size;
+  }
+
+  boolean isNull(int row) {
+    return nulls.get(row);
+  }
+
+  /** Returns the value at the given row, as held by the Thrift column, or null. */
+  Object getObject(int row) {
+    return isNull(row) ? null : getValue(row);
+  }
+
+  /** Returns the values as numeric values, or null if the column is not numeric. */
+  NumericValues asNumeric() {
+    return null;
+  }
+
+  /** Returns the values of the page, or null if the column is not of the type of the values. */
+  abstract List<?> getPageValues(TColumn column);
+
+  abstract byte[] getPageNulls(TColumn column);
+
+  abstract void ensureCapacity(int capacity);
+
+  abstract void set(int row, Object value);
+
+  abstract Object getValue(int row);
+
+  static int grow(int length, int capacity) {
+    return Math.max(capacity, length + (length >> 1));
+  }
+
+  /**
+   * Values of a numeric column, read as primitives. Each getter returns the same result as
+   * converting the object returned by {@link #getObject(int)}: widening reads come straight from
+   * the array, and narrowing reads go through the range check of the converter of the column type.
+   */
+  abstract static class NumericValues extends ThriftColumnValues {
+
+    @Override
+    NumericValues asNumeric() {
+      return this;
+    }
+
+    abstract int getInt(int row) throws DatabricksSQLException;
+
+    abstract long getLong(int row) throws DatabricksSQLException;
+
+    abstract float getFloat(int row) throws DatabricksSQLException;
+
+    abstract double getDouble(int row) throws DatabricksSQLException;
+  }
+
+  /** Values of BIGINT columns. */
+  private static final class LongValues extends NumericValues {
+    private static final LongConverter LONG_CONVERTER = new LongConverter();
+    private long[] values = new long[0];
+
+    @Override
+    List<?> getPageValues(TColumn column) {
+      return column.isSetI64Val() ? column.getI64Val().getValues() : null;
+    }
+
+    @Override
+    byte[] getPageNulls(TColumn column) {
+      return column.getI64Val().getNulls();
+    }
+
+    @Override
+    void ensureCapacity(int capacity) {
+      if (capacity > values.length) {
+        values = Arrays.copyOf(values, grow(values.length, capacity));
+      }
+    }
+
+    @Override
+    void set(int row, Object value) {
+      values[row] = (Long) value;
+    }
+
+    @Override
+    Object getValue(int row) {
+      return values[row];
+    }
+
+    @Override
+    int getInt(int row) throws DatabricksSQLException {
+      return LONG_CONVERTER.toInt(values[row]);
+    }
+
+    @Override
+    long getLong(int row) {
+      return values[row];
+    }
+
+    @Override
+    float getFloat(int row) {
+      return values[row];
+    }
+
+    @Override
+    double getDouble(int row) {
+      return values[row];
+    }
+  }
+
+  /** Values of TINYINT, SMALLINT and INT columns, boxed back to their own type as objects. */
+  private static final class IntegerValues extends NumericValues {
+    private final TColumn._Fields type;
+    private int[] values = new int[0];
+
+    private IntegerValues(TColumn._Fields type) {
+      this.type = type;
+    }
+
+    @Override
+    List<?> getPageValues(TColumn column) {
+      if (column.getSetField() != type) {
+        return null;
+      }
+      switch (type) {
+        case BYTE_VAL:
+          return column.getByteVal().getValues();
+        case I16_VAL:
+          return column.getI16Val().getValues();
+        default:
+          return column.getI32Val().getValues();
+      }
+    }
+
+    @Override
+    byte[] getPageNulls(TColumn column) {
+      switch (type) {
+        case BYTE_VAL:
+          return column.getByteVal().getNulls();
+        case I16_VAL:
+          return column.getI16Val().getNulls();
+        default:
+          return column.getI32Val().getNulls();
+      }
+    }
+
+    @Override
+    void ensureCapacity(int capacity) {
+      if (capacity > values.length) {
+        values = Arrays.copyOf(values, grow(values.length, capacity));
+      }
+    }
+
+    @Override
+    void set(int row, Object value) {
+      values[row] = ((Number) value).intValue();
+    }
+
+    @Override
+    Object getValue(int row) {
+      switch (type) {
+        case BYTE_VAL:
+          return (byte) values[row];
+        case I16_VAL:
+          return (short) values[row];
+        default:
+          return values[row];
+      }
+    }
+
+    @Override
+    int getInt(int row) {
+      return values[row];
+    }
+
+    @Override
+    long getLong(int row) {
+      return values[row];
+    }
+
+    @Override
+    float getFloat(int row) {
+      return values[row];
+    }
+
+    @Override
+    double getDouble(int row) {
+      return values[row];
+    }
+  }
+
+  /**
+   * Values of DOUBLE and FLOAT columns, both sent as doubles. The doubles of a FLOAT column hold
+   * the float values exactly, so narrowing them is range checked as doubles as well.
+   */
+  private static final class DoubleValues extends NumericValues {
+    private static final DoubleConverter DOUBLE_CONVERTER = new DoubleConverter();
+    private double[] values = new double[0];
+
+    @Override
+    List<?> getPageValues(TColumn column) {
+      return column.isSetDoubleVal() ? column.getDoubleVal().getValues() : null;
+    }
+
+    @Override
+    byte[] getPageNulls(TColumn column) {
+      return column.getDoubleVal().getNulls();
+    }
+
+    @Override
+    void ensureCapacity(int capacity) {
+      if (capacity > values.length) {
+        values = Arrays.copyOf(values, grow(values.length, capacity));
+      }
+    }
+
+    @Override
+    void set(int row, Object value) {
+      values[row] = (Double) value;
+    }
+
+    @Override
+    Object getValue(int row) {
+      return values[row];
+    }
+
+    @Override
+    int getInt(int row) throws DatabricksSQLException {
+      return DOUBLE_CONVERTER.toInt(values[row]);
+    }
+
+    @Override
+    long getLong(int row) throws DatabricksSQLException {
+      return DOUBLE_CONVERTER.toLong(values[row]);
+    }
+
+    @Override
+    float getFloat(int row) throws DatabricksSQLException {
+      return DOUBLE_CONVERTER.toFloat(values[row]);
+    }
+
+    @Override
+    double getDouble(int row) {
+      return values[row];
+    }
+  }
+
+  /** Values of BOOLEAN columns. */
+  private static final class BooleanValues extends ThriftColumnValues {
+    private final BitSet values = new BitSet();
+
+    @Override
+    List<?> getPageValues(TColumn column) {
+      return column.isSetBoolVal() ? column.getBoolVal().getValues() : null;
+    }
+
+    @Override
+    byte[] getPageNulls(TColumn column) {
+      return column.getBoolVal().getNulls();
+    }
+
+    @Override
+    void ensureCapacity(int capacity) {}
+
+    @Override
+    void set(int row, Object value) {
+      values.set(row, (Boolean) value);
+    }
+
+    @Override
+    Object getValue(int row) {
+      return values.get(row);
+    }
+
+    @Override
+    void truncate(int rowCount) {
+      values.clear(rowCount, Math.max(rowCount, size()));
+      super.truncate(rowCount);
+    }
+  }
+
+  /** Values of STRING and BINARY columns, kept as the objects of the Thrift column. */
+  private static final class ObjectValues extends ThriftColumnValues {
+    private final TColumn._Fields type;
+    private Object[] values = new Object[0];
+
+    private ObjectValues(TColumn._Fields type) {
+      this.type = type;
+    }
+
+    @Override
+    List<?> getPageValues(TColumn column) {
+      if (column.getSetField() != type) {
+        return null;
+      }
+      return type == TColumn._Fields.STRING_VAL
+          ? column.getStringVal().getValues()
+          : column.getBinaryVal().getValues();
+    }
+
+    @Override
+    byte[] getPageNulls(TColumn column) {
+      return type == TColumn._Fields.STRING_VAL
+          ? column.getStringVal().getNulls()
+          : column.getBinaryVal().getNulls();
+    }
+
+    @Override
+    void ensureCapacity(int capacity) {
+      if (capacity > values.length) {
+        values = Arrays.copyOf(values, grow(values.length, capacity));
+      }
+    }
+
+    @Override
+    void set(int row, Object value) {
+      values[row] = value;
+    }
+
+    @Override
+    Object getValue(int row) {
+      return values[row];
+    }
+
+    @Override
+    void truncate(int rowCount) {
+      Arrays.fill(values, Math.min(rowCount, values.length), values.length, null);
+      super.truncate(rowCount);
+    }
+  }
+}
@@ -0,0 +1,276 @@
+package com.databricks.jdbc.api.impl;
+
+import static com.databricks.jdbc.common.EnvironmentVariables.DEFAULT_RESULT_ROW_LIMIT;
+
+import com.databricks.jdbc.api.impl.arrow.CloudFetchDownloadScheduler;
+import com.databricks.jdbc.api.internal.IDatabricksConnectionContext;
+import com.databricks.jdbc.api.internal.IDatabricksSession;
+import com.databricks.jdbc.api.internal.IDatabricksStatementInternal;
+import com.databricks.jdbc.common.util.DatabricksThreadContextHolder;
+import com.databricks.jdbc.exception.DatabricksSQLException;
+import com.databricks.jdbc.log.JdbcLogger;
+import com.databricks.jdbc.log.JdbcLoggerFactory;
+import com.databricks.jdbc.model.client.thrift.generated.TColumn;
+import com.databricks.jdbc.model.client.thrift.generated.TFetchResultsResp;
+import com.databricks.jdbc.model.client.thrift.generated.TRowSet;
+import com.databricks.jdbc.model.telemetry.enums.DatabricksDriverErrorCode;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Result of the Thrift server in the columnar format ({@code COLUMN_BASED_SET}), kept column by
+ * column instead of being pivoted into rows.
+ *
+ * <p>Each column is held in a {@link ThriftColumnValues}, with numeric and boolean values in
+ * primitive arrays, and read at the current row. The numeric getters of the result set read the
+ * arrays of numeric columns through {@link #getColumnValues(int)} at {@link #getValuesRow()}
+ * without boxing.
+ *
+ * <p>By default the remaining pages of the result are all fetched before the first row is returned,
+ * in pages of {@code RowsFetchedPerBlock} rows. With {@code InlineColumnarStreaming=1}, only the
+ * current page is held: the next one, of at most the fetch size of the statement, is requested on
+ * the shared download pool while the current one is read, and replaces it in the same column
+ * arrays. {@link #getRowCount()} then returns the number of rows fetched so far.
+ */
+public class ThriftColumnarResult implements IExecutionResult {
+
+  private static final JdbcLogger LOGGER = JdbcLoggerFactory.getLogger(ThriftColumnarResult.class);
+
+  private final IDatabricksStatementInternal parentStatement;
+  private final IDatabricksSession session;
+  private final int fetchSize;
+  private final int maxRows;
+  private final boolean hasRowLimit;
+  private final CloudFetchDownloadScheduler.DownloadQueue fetchQueue;
+  private CompletableFuture<TFetchResultsResp> nextResponse;
+  private ThriftColumnValues[] columns;
+  // Rows fetched so far, of which the columns hold the rows from pageStartRow on
+  private long rowCount;
+  private long pageStartRow;
+  private long currentRow = -1;
+  private boolean isClosed;
+
+  /**
+   * Creates the result from the first page, fetching the remaining pages up to the maximum number
+   * of rows of the statement, or only requesting the next one when streaming.
+   *
+   * @param resultsResp the first page of the result
+   * @param parentStatement the statement of the result, or null
+   * @param session the session used to fetch the remaining pages
+   * @throws DatabricksSQLException if a page cannot be fetched or holds an unsupported column
+   */
+  ThriftColumnarResult(
+      TFetchResultsResp resultsResp,
+      IDatabricksStatementInternal parentStatement,
+      IDatabricksSession session)
+      throws DatabricksSQLException {
+    this.parentStatement = parentStatement;
+    this.session = session;
+    this.fetchSize = parentStatement != null ? parentStatement.getFetchSize() : 0;
+    this.maxRows =
+        parentStatement != null ? parentStatement.getMaxRows() : DEFAULT_RESULT_ROW_LIMIT;
+    this.hasRowLimit = maxRows != DEFAULT_RESULT_ROW_LIMIT;
+    boolean isStreaming =
+        parentStatement != null
+            && session.getConnectionContext() != null
+            && session.getConnectionContext().isInlineColumnarStreamingEnabled();
+    this.fetchQueue =
+        isStreaming
+            ? CloudFetchDownloadScheduler.getInstance()
+                .newDownloadQueue(session.getConnectionContext(), parentStatement.getStatementId())
+            : null;
+    appendPage(resultsResp.getResults());
+    if (isStreaming) {
+      if (resultsResp.hasMoreRows && !isRowLimitReached()) {
+        prefetchNextResponse();
+      }
+      return;
+    }
+    while (resultsResp.hasMoreRows && !isRowLimitReached()) {
+      resultsResp = session.getDatabricksClient().getMoreResults(parentStatement);
+      appendPage(resultsResp.getResults());
+    }
+  }
+
+  @Override
+  public Object getObject(int columnIndex) throws DatabricksSQLException {
+    return getColumnValues(columnIndex).getObject(getValuesRow());
+  }
+
+  /**
+   * Returns the values of a column, to be read at {@link #getValuesRow()}.
+   *
+   * @param columnIndex index of column starting with 0
+   * @return the values of the column
+   * @throws DatabricksSQLException if the result is closed, not on a row, or has no such column
+   */
+  ThriftColumnValues getColumnValues(int columnIndex) throws DatabricksSQLException {
+    if (isClosed) {
+      throw new DatabricksSQLException(
+          "Result is already closed", DatabricksDriverErrorCode.STATEMENT_CLOSED);
+    }
+    if (currentRow == -1) {
+      throw new DatabricksSQLException(
+          "Cursor is before first row", DatabricksDriverErrorCode.INVALID_STATE);
+    }
+    if (columnIndex < 0 || columnIndex >= columns.length) {
+      throw new DatabricksSQLException(
+          "Column index out of bounds " + columnIndex, DatabricksDriverErrorCode.INVALID_STATE);
+    }
+    return columns[columnIndex];
+  }
+
+  /** Returns the index of the current row in the column values. */
+  int getValuesRow() {
+    return (int) (currentRow - pageStartRow);
+  }
+
+  @Override
+  public long getCurrentRow() {
+    return currentRow;
+  }
+
+  @Override
+  public boolean next() throws DatabricksSQLException {
+    if (!hasNext()) {
+      return false;
+    }
+    if (currentRow + 1 == rowCount) {
+      fetchNextPage();
+      if (currentRow + 1 == rowCount) {
+        return false;
+      }
+    }
+    currentRow++;
+    return true;
+  }
+
+  @Override
+  public boolean hasNext() {
+    return !isClosed && (currentRow < rowCount - 1 || nextResponse != null);
+  }
+
+  @Override
+  public void close() {
+    this.isClosed = true;
+    this.columns = new ThriftColumnValues[0];
+    this.nextResponse = null;
+    if (fetchQueue != null) {
+      fetchQueue.close();
+    }
+  }
+
+  @Override
+  public long getRowCount() {
+    return rowCount;
+  }
+
+  @Override
+  public long getChunkCount() {
+    return 0;
+  }
+
+  private boolean isRowLimitReached() {
+    return hasRowLimit && rowCount >= maxRows;
+  }
+
+  /** Appends the rows of a page to the columns, up to the maximum number of rows. */
+  private void appendPage(TRowSet rowSet) throws DatabricksSQLException {
+    List<TColumn> pageColumns =
+        rowSet != null && rowSet.getColumns() != null && !rowSet.getColumns().isEmpty()
+            ? rowSet.getColumns()
+            : null;
+    if (pageColumns == null) {
+      if (columns == null) {
+        columns = new ThriftColumnValues[0];
+      }
+      return;
+    }
+    if (columns == null || columns.length == 0) {
+      columns = new ThriftColumnValues[pageColumns.size()];
+      for (int i = 0; i < columns.length; i++) {
+        columns[i] = ThriftColumnValues.create(pageColumns.get(i));
+      }
+    } else {
+      if (pageColumns.size() != columns.length) {
+        throw new DatabricksSQLException(
+            "Column count changed between result pages", DatabricksDriverErrorCode.INVALID_STATE);
+      }
+      for (int i = 0; i < columns.length; i++) {
+        columns[i].append(pageColumns.get(i));
+      }
+    }
+    rowCount = pageStartRow + columns[0].size();
+    if (hasRowLimit && rowCount > maxRows) {
+      rowCount = maxRows;
+      for (ThriftColumnValues column : columns) {
+        column.truncate((int) (rowCount - pageStartRow));
+      }
+    }
+  }
+
+  /** Replaces the current page with the next page holding rows, if any. */
+  private void fetchNextPage() throws DatabricksSQLException {
+    while (nextResponse != null) {
+      TFetchResultsResp resultsResp = awaitNextResponse();
+      nextResponse = null;
+      pageStartRow = rowCount;
+      for (ThriftColumnValues column : columns) {
+        column.truncate(0);
+      }
+      appendPage(resultsResp.getResults());
+      if (resultsResp.hasMoreRows && !isRowLimitReached()) {
+        prefetchNextResponse();
+      }
+      LOGGER.debug(
+          "Received {} rows of columnar result for statement {}",
+          rowCount - pageStartRow,
+          parentStatement.getStatementId());
+      if (rowCount > pageStartRow) {
+        return;
+      }
+    }
+  }
+
+  private TFetchResultsResp awaitNextResponse() throws DatabricksSQLException {
+    try {
+      return nextResponse.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new DatabricksSQLException(
+          "Interrupted while fetching columnar results",
+          e,
+          DatabricksDriverErrorCode.RESULT_SET_ERROR);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof DatabricksSQLException) {
+        throw (DatabricksSQLException) e.getCause();
+      }
+      throw new DatabricksSQLException(
+          "Failed to fetch columnar results: " + e.getCause().getMessage(),
+          e.getCause(),
+          DatabricksDriverErrorCode.RESULT_SET_ERROR);
+    }
+  }
+
+  /** Requests the next page on the download pool. */
+  private void prefetchNextResponse() {
+    CompletableFuture<TFetchResultsResp> response = new CompletableFuture<>();
+    IDatabricksConnectionContext connectionContext = session.getConnectionContext();
+    fetchQueue.submit(
+        () -> {
+          DatabricksThreadContextHolder.setConnectionContext(connectionContext);
+          DatabricksThreadContextHolder.setStatementId(parentStatement.getStatementId());
+          try {
+            response.complete(
+                session.getDatabricksClient().getMoreResults(parentStatement, fetchSize));
+          } catch (Throwable e) {
+            response.completeExceptionally(e);
+          } finally {
+            DatabricksThreadContextHolder.clearAllContext();
+          }
+          return null;
+        });
+    nextResponse = response;
+  }
+}
@@ -0,0 +1,135 @@
+package com.databricks.jdbc.api.impl.arrow;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.util.function.LongSupplier;
+
+/**
+ * Tunes the number of concurrent chunk downloads of a result set to the observed download
+ * throughput.
+ *
+ * <p>Downloads are measured in windows of at least {@link #MIN_WINDOW_DOWNLOADS} downloads, and at
+ * least as many downloads as the current concurrency. The concurrency starts at {@link
+ * #INITIAL_CONCURRENCY} and doubles after every window whose throughput, in bytes per second,
+ * improved on the best window by {@link #MIN_IMPROVEMENT}. Once the throughput stops improving, the
+ * concurrency only grows by one download per improving window.
+ *
+ * <p>The concurrency is backed off when more concurrency no longer pays off: it is halved when the
+ * cloud storage throttles a download (429 or 503 responses, e.g. S3 {@code SlowDown}), at most once
+ * per window, and reduced by one when the mean latency of a window rises above {@link
+ * #LATENCY_BACKOFF_FACTOR} times the lowest mean latency observed. The concurrency always stays
+ * between the bounds given at creation.
+ */
+class AdaptiveConcurrencyController {
+
+  static final int INITIAL_CONCURRENCY = 2;
+  static final int MIN_WINDOW_DOWNLOADS = 4;
+  private static final long MIN_WINDOW_MILLIS = 100;
+  private static final double MIN_IMPROVEMENT = 0.1;
+  private static final double LATENCY_BACKOFF_FACTOR = 2.0;
+
+  private final int minConcurrency;
+  private final int maxConcurrency;
+  private final LongSupplier clock;
+  // Guarded by this
+  private int concurrency;
+  private boolean isSlowStart = true;
+  private double bestThroughput;
+  private double lowestMeanLatency = -1;
+  private double lastThroughput;
+  private long windowStartMillis;
+  private long windowBytes;
+  private long windowLatencyMillis;
+  private int windowDownloads;
+  private boolean isThrottledInWindow;
+
+  AdaptiveConcurrencyController(int minConcurrency, int maxConcurrency) {
+    this(minConcurrency, maxConcurrency, System::currentTimeMillis);
+  }
+
+  @VisibleForTesting
+  AdaptiveConcurrencyController(int minConcurrency, int maxConcurrency, LongSupplier clock) {
+    this.minConcurrency = Math.max(1, minConcurrency);
+    this.maxConcurrency = Math.max(this.minConcurrency, maxConcurrency);
+    this.clock = clock;
+    this.concurrency =
+        Math.min(this.maxConcurrency, Math.max(this.minConcurrency, INITIAL_CONCURRENCY));
+    this.windowStartMillis = clock.getAsLong();
+  }
+
+  /** Returns the number of downloads that may run concurrently. */
+  synchronized int getConcurrency() {
+    return concurrency;
+  }
+
+  /** Returns the throughput of the last complete window in bytes per second. */
+  synchronized long getThroughput() {
+    return (long) lastThroughput;
+  }
+
+  /**
+   * Records a successful download.
+   *
+   * @param bytes the size of the downloaded chunk
+   * @param latencyMillis the duration of the download attempt
+   * @return true if the concurrency changed
+   */
+  synchronized boolean recordDownload(long bytes, long latencyMillis) {
+    windowBytes += Math.max(0, bytes);
+    windowLatencyMillis += Math.max(0, latencyMillis);
+    windowDownloads++;
+    long elapsedMillis = clock.getAsLong() - windowStartMillis;
+    if (windowDownloads < Math.max(MIN_WINDOW_DOWNLOADS, concurrency)
+        || elapsedMillis < MIN_WINDOW_MILLIS) {
+      return false;
+    }
+
+    int previousConcurrency = concurrency;
+    lastThroughput = windowBytes * 1000.0 / elapsedMillis;
+    double meanLatency = (double) windowLatencyMillis / windowDownloads;
+    if (lowestMeanLatency < 0 || meanLatency < lowestMeanLatency) {
+      lowestMeanLatency = meanLatency;
+    }
+    if (isThrottledInWindow) {
+      // Already backed off in this window
+    } else if (meanLatency > LATENCY_BACKOFF_FACTOR * lowestMeanLatency) {
+      concurrency = Math.max(minConcurrency, concurrency - 1);
+      isSlowStart = false;
+    } else if (lastThroughput > bestThroughput * (1 + MIN_IMPROVEMENT)) {
+      bestThroughput = lastThroughput;
+      concurrency = Math.min(maxConcurrency, isSlowStart ? concurrency * 2 : concurrency + 1);
+    } else {
+      // More downloads no longer increase the throughput
+      isSlowStart = false;
+    }
+    startWindow();
+    return concurrency != previousConcurrency;
+  }
+
+  /**
+   * Records a download throttled by the cloud storage.
+   *
+   * @return true if the concurrency changed
+   */
+  synchronized boolean recordThrottled() {
+    if (isThrottledInWindow) {
+      // The concurrent downloads of the window were likely throttled together
+      return false;
+    }
+    int previousConcurrency = concurrency;
+    concurrency = Math.max(minConcurrency, concurrency / 2);
+    isSlowStart = false;
+    // Probe again for the best throughput from the reduced concurrency
+    bestThroughput = 0;
+    startWindow();
+    isThrottledInWindow = true;
+    return concurrency != previousConcurrency;
+  }
+
+  private void startWindow() {
+    windowStartMillis = clock.getAsLong();
+    windowBytes = 0;
+    windowLatencyMillis = 0;
+    windowDownloads = 0;
+    isThrottledInWindow = false;
+  }
+}
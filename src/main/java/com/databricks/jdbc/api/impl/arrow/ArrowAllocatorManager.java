@@ -0,0 +1,233 @@
+package com.databricks.jdbc.api.impl.arrow;
+
+import com.databricks.jdbc.api.internal.IDatabricksConnectionContext;
+import com.databricks.jdbc.dbclient.impl.common.StatementId;
+import com.databricks.jdbc.log.JdbcLogger;
+import com.databricks.jdbc.log.JdbcLoggerFactory;
+import com.google.common.annotations.VisibleForTesting;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+
+/**
+ * Owns the driver-wide Arrow {@link RootAllocator} and hands out child allocators for connections,
+ * statements and chunks.
+ *
+ * <p>The allocators form the hierarchy {@code root -> connection -> statement -> chunk}, so Arrow
+ * memory is accounted for across the whole JVM. The allocator of a connection is limited by its
+ * {@code ArrowMemoryLimitMB}, if non-zero; allocations beyond the limit fail. Result sets only
+ * admit a chunk for download when the allocators have room for it, so that downloads do not fail
+ * when their connection is close to its limit.
+ *
+ * <p>The root allocator is limited as well, so that many connections cannot together exhaust the
+ * direct memory of the JVM. The driver-wide limit is read from the {@value
+ * #ARROW_MEMORY_LIMIT_MB_PROPERTY} system property; if it is not set, it is the largest {@code
+ * ArrowMemoryLimitMB} configured by a connection so far, and no limit until one is configured. The
+ * limit of a connection never exceeds the driver-wide limit.
+ *
+ * <p>The allocator of a closed connection is closed once the last of its statement allocators is
+ * closed, as Arrow does not allow closing an allocator before its children.
+ */
+public class ArrowAllocatorManager {
+
+  private static final JdbcLogger LOGGER = JdbcLoggerFactory.getLogger(ArrowAllocatorManager.class);
+
+  /** System property with the maximum size in MB of the Arrow memory allocated by the driver. */
+  public static final String ARROW_MEMORY_LIMIT_MB_PROPERTY =
+      "com.databricks.jdbc.arrowMemoryLimitMB";
+
+  private static final ArrowAllocatorManager INSTANCE = new ArrowAllocatorManager();
+
+  private final RootAllocator rootAllocator;
+  private final Map<String, ConnectionAllocator> connectionAllocators = new HashMap<>();
+  private final Map<BufferAllocator, ConnectionAllocator> statementConnections =
+      new IdentityHashMap<>();
+  private final boolean isDriverLimitConfigured;
+
+  @VisibleForTesting
+  ArrowAllocatorManager() {
+    this(getDriverLimitBytes());
+  }
+
+  /**
+   * @param driverLimitBytes the driver-wide limit, or 0 to derive it from the limits of the
+   *     connections
+   */
+  @VisibleForTesting
+  ArrowAllocatorManager(long driverLimitBytes) {
+    this.isDriverLimitConfigured = driverLimitBytes > 0;
+    this.rootAllocator =
+        new RootAllocator(isDriverLimitConfigured ? driverLimitBytes : Long.MAX_VALUE);
+    if (isDriverLimitConfigured) {
+      LOGGER.debug("Limiting Arrow memory of the driver to {} bytes", driverLimitBytes);
+    }
+  }
+
+  public static ArrowAllocatorManager getInstance() {
+    return INSTANCE;
+  }
+
+  /** Returns the driver-wide root allocator. */
+  BufferAllocator getRootAllocator() {
+    return rootAllocator;
+  }
+
+  /**
+   * Creates a child allocator for a statement under the allocator of the given connection, which is
+   * limited by the {@code ArrowMemoryLimitMB} of the connection. If the connection is not known,
+   * the statement allocator is created directly under the root allocator, with the limit of the
+   * connection if there is one.
+   *
+   * @param connectionContext the connection context, may be null
+   * @param statementId the statement for which the allocator is created, may be null
+   * @return a new statement allocator, to be closed by the caller once all chunks are released
+   */
+  synchronized BufferAllocator newStatementAllocator(
+      IDatabricksConnectionContext connectionContext, StatementId statementId) {
+    String statementName = "statement-" + statementId;
+    if (connectionContext == null) {
+      return rootAllocator.newChildAllocator(statementName, 0, Long.MAX_VALUE);
+    }
+    long limit = connectionContext.getArrowMemoryLimitBytes();
+    if (limit <= 0) {
+      limit = Long.MAX_VALUE;
+    } else {
+      raiseDriverLimit(limit);
+    }
+    if (isDriverLimitConfigured) {
+      limit = Math.min(limit, rootAllocator.getLimit());
+    }
+    String connectionUuid = connectionContext.getConnectionUuid();
+    if (connectionUuid == null) {
+      return rootAllocator.newChildAllocator(statementName, 0, limit);
+    }
+    ConnectionAllocator connection = connectionAllocators.get(connectionUuid);
+    if (connection == null) {
+      if (limit != Long.MAX_VALUE) {
+        LOGGER.debug("Limiting Arrow memory of connection {} to {} bytes", connectionUuid, limit);
+      }
+      connection =
+          new ConnectionAllocator(
+              rootAllocator.newChildAllocator("connection-" + connectionUuid, 0, limit));
+      connectionAllocators.put(connectionUuid, connection);
+    }
+    BufferAllocator statementAllocator =
+        connection.allocator.newChildAllocator(statementName, 0, Long.MAX_VALUE);
+    connection.openStatementCount++;
+    statementConnections.put(statementAllocator, connection);
+    return statementAllocator;
+  }
+
+  /**
+   * Raises the driver-wide limit to the given connection limit, unless the driver-wide limit is set
+   * by the system property.
+   */
+  private void raiseDriverLimit(long connectionLimit) {
+    long driverLimit = rootAllocator.getLimit();
+    if (isDriverLimitConfigured
+        || (driverLimit != Long.MAX_VALUE && driverLimit >= connectionLimit)) {
+      return;
+    }
+    LOGGER.debug("Limiting Arrow memory of the driver to {} bytes", connectionLimit);
+    rootAllocator.setLimit(connectionLimit);
+  }
+
+  /**
+   * Closes the allocator of the given connection, or marks it to be closed once its last statement
+   * allocator is closed. Any memory still held by its statements is then reported as leaked.
+   *
+   * @param connectionContext the connection that is being closed
+   */
+  public synchronized void removeConnectionAllocator(
+      IDatabricksConnectionContext connectionContext) {
+    if (connectionContext.getConnectionUuid() == null) {
+      return;
+    }
+    ConnectionAllocator connection =
+        connectionAllocators.remove(connectionContext.getConnectionUuid());
+    if (connection == null) {
+      return;
+    }
+    if (connection.openStatementCount == 0) {
+      closeAllocator(connection.allocator);
+    } else {
+      LOGGER.debug(
+          "Closing Arrow allocator {} once its {} open statements are closed",
+          connection.allocator.getName(),
+          connection.openStatementCount);
+      connection.isConnectionClosed = true;
+    }
+  }
+
+  /**
+   * Closes a statement allocator once all of its chunks have been released, and the allocator of
+   * its connection if the connection is closed and this was its last statement.
+   *
+   * @param allocator the allocator returned by {@link #newStatementAllocator}
+   */
+  synchronized void closeStatementAllocator(BufferAllocator allocator) {
+    closeAllocator(allocator);
+    ConnectionAllocator connection = statementConnections.remove(allocator);
+    if (connection != null
+        && --connection.openStatementCount == 0
+        && connection.isConnectionClosed) {
+      closeAllocator(connection.allocator);
+    }
+  }
+
+  /** Returns the Arrow memory currently allocated by the driver. */
+  public long getAllocatedMemory() {
+    return rootAllocator.getAllocatedMemory();
+  }
+
+  /** Returns the peak Arrow memory allocated by the driver. */
+  public long getPeakMemoryAllocation() {
+    return rootAllocator.getPeakMemoryAllocation();
+  }
+
+  /**
+   * Returns the driver-wide limit in bytes set by the {@value #ARROW_MEMORY_LIMIT_MB_PROPERTY}
+   * system property, or 0 if it is not set or invalid.
+   */
+  private static long getDriverLimitBytes() {
+    String limitMB = System.getProperty(ARROW_MEMORY_LIMIT_MB_PROPERTY);
+    if (limitMB == null || limitMB.trim().isEmpty()) {
+      return 0;
+    }
+    try {
+      return Math.max(0, Long.parseLong(limitMB.trim())) * 1024 * 1024;
+    } catch (NumberFormatException e) {
+      LOGGER.warn(
+          "Ignoring invalid value {} of system property {}",
+          limitMB,
+          ARROW_MEMORY_LIMIT_MB_PROPERTY);
+      return 0;
+    }
+  }
+
+  /** Closes the given allocator, logging instead of failing if it still holds memory. */
+  static void closeAllocator(BufferAllocator allocator) {
+    try {
+      allocator.close();
+    } catch (IllegalStateException e) {
+      LOGGER.warn(
+          "Arrow allocator {} closed with {} bytes still allocated. Error: {}",
+          allocator.getName(),
+          allocator.getAllocatedMemory(),
+          e.getMessage());
+    }
+  }
+
+  /** Allocator of a connection, with the number of statement allocators still open under it. */
+  private static final class ConnectionAllocator {
+    private final BufferAllocator allocator;
+    private int openStatementCount;
+    private boolean isConnectionClosed;
+
+    private ConnectionAllocator(BufferAllocator allocator) {
+      this.allocator = allocator;
+    }
+  }
+}
@@ -0,0 +1,231 @@
+package com.databricks.jdbc.api.impl.arrow;
+
+import com.databricks.jdbc.api.impl.converters.DoubleConverter;
+import com.databricks.jdbc.api.impl.converters.FloatConverter;
+import com.databricks.jdbc.api.impl.converters.LongConverter;
+import com.databricks.jdbc.exception.DatabricksSQLException;
+import com.databricks.sdk.service.sql.ColumnInfoTypeName;
+import org.apache.arrow.vector.BaseIntVector;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.FloatingPointVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.SmallIntVector;
+import org.apache.arrow.vector.TinyIntVector;
+import org.apache.arrow.vector.ValueVector;
+
+/**
+ * Reads the value of a numeric column at the current row of a chunk directly from its Arrow vector,
+ * without boxing it into a Java object first.
+ *
+ * <p>An accessor is resolved once per column and chunk, and follows the iterator of the chunk
+ * across record batches. Every getter returns the same result as converting the value returned by
+ * {@link ArrowStreamResult#getObject(int)}: widening reads come straight from the vector, and
+ * narrowing reads go through the range check of the converter of the column type.
+ */
+public abstract class ArrowColumnAccessor {
+
+  private final ArrowResultChunk.ArrowResultChunkIterator iterator;
+  private final int columnIndex;
+  private int recordBatchIndex;
+
+  private ArrowColumnAccessor(
+      ArrowResultChunk.ArrowResultChunkIterator iterator, int columnIndex, ValueVector vector) {
+    this.iterator = iterator;
+    this.columnIndex = columnIndex;
+    this.recordBatchIndex = iterator.getRecordBatchIndex();
+    bind(vector);
+  }
+
+  /**
+   * Creates the accessor of a column, positioned on the current record batch of the iterator.
+   *
+   * @param iterator the iterator of the chunk, positioned on a row
+   * @param columnIndex the index of the column (0-based)
+   * @param requiredType the type of the column in the result schema
+   * @return the accessor, or null if the column cannot be read directly
+   */
+  static ArrowColumnAccessor create(
+      ArrowResultChunk.ArrowResultChunkIterator iterator,
+      int columnIndex,
+      ColumnInfoTypeName requiredType) {
+    if (iterator.getRecordBatchIndex() < 0 || requiredType == null) {
+      return null;
+    }
+    ValueVector vector = iterator.getColumnVector(columnIndex);
+    switch (requiredType) {
+      case BYTE:
+        return vector instanceof TinyIntVector
+            ? new IntegerAccessor(iterator, columnIndex, vector)
+            : null;
+      case SHORT:
+        return vector instanceof SmallIntVector
+            ? new IntegerAccessor(iterator, columnIndex, vector)
+            : null;
+      case INT:
+        return vector instanceof IntVector
+            ? new IntegerAccessor(iterator, columnIndex, vector)
+            : null;
+      case LONG:
+        return vector instanceof BigIntVector
+            ? new IntegerAccessor(iterator, columnIndex, vector)
+            : null;
+      case FLOAT:
+        return vector instanceof Float4Vector
+            ? new FloatingPointAccessor(iterator, columnIndex, vector)
+            : null;
+      case DOUBLE:
+        return vector instanceof Float8Vector
+            ? new FloatingPointAccessor(iterator, columnIndex, vector)
+            : null;
+      default:
+        return null;
+    }
+  }
+
+  /** Returns true if the value at the current row is SQL {@code NULL}. */
+  public abstract boolean isNull();
+
+  /**
+   * Returns the value at the current row as an int.
+   *
+   * @throws DatabricksSQLException if the value is out of the int range
+   */
+  public abstract int getInt() throws DatabricksSQLException;
+
+  /**
+   * Returns the value at the current row as a long.
+   *
+   * @throws DatabricksSQLException if the value is out of the long range
+   */
+  public abstract long getLong() throws DatabricksSQLException;
+
+  /**
+   * Returns the value at the current row as a float.
+   *
+   * @throws DatabricksSQLException if the value is out of the float range
+   */
+  public abstract float getFloat() throws DatabricksSQLException;
+
+  /** Returns the value at the current row as a double. */
+  public abstract double getDouble();
+
+  /** Binds the accessor to the vector of the column in the current record batch. */
+  abstract void bind(ValueVector vector);
+
+  /** Returns the index of the current row, rebinding the vector if the record batch changed. */
+  final int row() {
+    int currentRecordBatch = iterator.getRecordBatchIndex();
+    if (currentRecordBatch != recordBatchIndex) {
+      bind(iterator.getColumnVector(columnIndex));
+      recordBatchIndex = currentRecordBatch;
+    }
+    return iterator.getRowIndexInRecordBatch();
+  }
+
+  /** Accessor for TINYINT, SMALLINT, INT and BIGINT columns. */
+  private static final class IntegerAccessor extends ArrowColumnAccessor {
+    private static final LongConverter LONG_CONVERTER = new LongConverter();
+    private final boolean fitsInInt;
+    private BaseIntVector vector;
+
+    private IntegerAccessor(
+        ArrowResultChunk.ArrowResultChunkIterator iterator, int columnIndex, ValueVector vector) {
+      super(iterator, columnIndex, vector);
+      this.fitsInInt = !(vector instanceof BigIntVector);
+    }
+
+    @Override
+    void bind(ValueVector vector) {
+      this.vector = (BaseIntVector) vector;
+    }
+
+    @Override
+    public boolean isNull() {
+      int row = row();
+      return vector.isNull(row);
+    }
+
+    @Override
+    public int getInt() throws DatabricksSQLException {
+      int row = row();
+      long value = vector.getValueAsLong(row);
+      // Reading a BIGINT as an int is range checked as by the regular conversion
+      return fitsInInt ? (int) value : LONG_CONVERTER.toInt(value);
+    }
+
+    @Override
+    public long getLong() {
+      int row = row();
+      return vector.getValueAsLong(row);
+    }
+
+    @Override
+    public float getFloat() {
+      int row = row();
+      return vector.getValueAsLong(row);
+    }
+
+    @Override
+    public double getDouble() {
+      int row = row();
+      return vector.getValueAsLong(row);
+    }
+  }
+
+  /**
+   * Accessor for FLOAT and DOUBLE columns. Reading them as an int or a long, and reading a DOUBLE
+   * as a float, are range checked by the converter of the column type.
+   */
+  private static final class FloatingPointAccessor extends ArrowColumnAccessor {
+    private static final FloatConverter FLOAT_CONVERTER = new FloatConverter();
+    private static final DoubleConverter DOUBLE_CONVERTER = new DoubleConverter();
+    private final boolean isFloat;
+    private FloatingPointVector vector;
+
+    private FloatingPointAccessor(
+        ArrowResultChunk.ArrowResultChunkIterator iterator, int columnIndex, ValueVector vector) {
+      super(iterator, columnIndex, vector);
+      this.isFloat = vector instanceof Float4Vector;
+    }
+
+    @Override
+    void bind(ValueVector vector) {
+      this.vector = (FloatingPointVector) vector;
+    }
+
+    @Override
+    public boolean isNull() {
+      int row = row();
+      return vector.isNull(row);
+    }
+
+    @Override
+    public int getInt() throws DatabricksSQLException {
+      int row = row();
+      double value = vector.getValueAsDouble(row);
+      return isFloat ? FLOAT_CONVERTER.toInt((float) value) : DOUBLE_CONVERTER.toInt(value);
+    }
+
+    @Override
+    public long getLong() throws DatabricksSQLException {
+      int row = row();
+      double value = vector.getValueAsDouble(row);
+      return isFloat ? FLOAT_CONVERTER.toLong((float) value) : DOUBLE_CONVERTER.toLong(value);
+    }
+
+    @Override
+    public float getFloat() throws DatabricksSQLException {
+      int row = row();
+      double value = vector.getValueAsDouble(row);
+      return isFloat ? (float) value : DOUBLE_CONVERTER.toFloat(value);
+    }
+
+    @Override
+    public double getDouble() {
+      int row = row();
+      return vector.getValueAsDouble(row);
+    }
+  }
+}
@@ -0,0 +1,58 @@
+package com.databricks.jdbc.api.impl.arrow;
+
+import com.databricks.jdbc.api.IDatabricksColumnarBatch;
+import com.databricks.jdbc.api.impl.converters.ArrowToJavaObjectConverter;
+import com.databricks.jdbc.api.impl.converters.ArrowToJavaObjectConverter.ValueConverter;
+import com.databricks.jdbc.exception.DatabricksSQLException;
+import com.databricks.jdbc.model.telemetry.enums.DatabricksDriverErrorCode;
+import java.util.List;
+import org.apache.arrow.vector.ValueVector;
+
+/** {@link IDatabricksColumnarBatch} over a record batch of an {@link ArrowStreamResult}. */
+class ArrowColumnarBatch implements IDatabricksColumnarBatch {
+
+  private final List<ValueVector> vectors;
+  private final ValueConverter[] columnConverters;
+  private final int rowCount;
+
+  ArrowColumnarBatch(List<ValueVector> vectors, ValueConverter[] columnConverters) {
+    this.vectors = vectors;
+    this.columnConverters = columnConverters;
+    this.rowCount = vectors.isEmpty() ? 0 : vectors.get(0).getValueCount();
+  }
+
+  @Override
+  public int getRowCount() {
+    return rowCount;
+  }
+
+  @Override
+  public int getColumnCount() {
+    return vectors.size();
+  }
+
+  @Override
+  public ValueVector getVector(int columnIndex) throws DatabricksSQLException {
+    return vectors.get(toVectorIndex(columnIndex));
+  }
+
+  @Override
+  public boolean isNull(int columnIndex, int rowIndex) throws DatabricksSQLException {
+    return getVector(columnIndex).isNull(rowIndex);
+  }
+
+  @Override
+  public Object getObject(int columnIndex, int rowIndex) throws DatabricksSQLException {
+    int vectorIndex = toVectorIndex(columnIndex);
+    return ArrowToJavaObjectConverter.convert(
+        vectors.get(vectorIndex), rowIndex, columnConverters[vectorIndex]);
+  }
+
+  private int toVectorIndex(int columnIndex) throws DatabricksSQLException {
+    if (columnIndex <= 0 || columnIndex > vectors.size()) {
+      throw new DatabricksSQLException(
+          "Invalid column index " + columnIndex, DatabricksDriverErrorCode.INVALID_STATE);
+    }
+    return columnIndex - 1;
+  }
+}
@@ -1,8 +1,8 @@
 package com.databricks.jdbc.api.impl.arrow;
 
 import static com.databricks.jdbc.common.DatabricksJdbcConstants.ARROW_METADATA_KEY;
+import static com.databricks.jdbc.common.DatabricksJdbcConstants.DEFAULT_HTTP_EXCEPTION_SQLSTATE;
 import static com.databricks.jdbc.common.util.DatabricksThriftUtil.createExternalLink;
-import static com.databricks.jdbc.common.util.ValidationUtil.checkHTTPError;
 
 import com.databricks.jdbc.api.impl.converters.ArrowToJavaObjectConverter;
 import com.databricks.jdbc.common.CompressionCodec;
@@ -10,6 +10,7 @@ import com.databricks.jdbc.common.util.DecompressionUtil;
 import com.databricks.jdbc.common.util.DriverUtil;
 import com.databricks.jdbc.dbclient.IDatabricksHttpClient;
 import com.databricks.jdbc.dbclient.impl.common.StatementId;
+import com.databricks.jdbc.exception.DatabricksHttpException;
 import com.databricks.jdbc.exception.DatabricksParsingException;
 import com.databricks.jdbc.exception.DatabricksSQLException;
 import com.databricks.jdbc.log.JdbcLogger;
@@ -21,21 +22,34 @@ import com.databricks.sdk.service.sql.BaseChunkInfo;
 import com.databricks.sdk.service.sql.ColumnInfo;
 import com.databricks.sdk.service.sql.ColumnInfoTypeName;
 import com.google.common.annotations.VisibleForTesting;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URISyntaxException;
 import java.nio.channels.ClosedByInterruptException;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 import org.apache.arrow.memory.BufferAllocator;
-import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.memory.OutOfMemoryException;
 import org.apache.arrow.vector.ValueVector;
+import org.apache.arrow.vector.VectorLoader;
 import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.VectorUnloader;
 import org.apache.arrow.vector.ipc.ArrowStreamReader;
-import org.apache.arrow.vector.util.TransferPair;
+import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.apache.commons.io.IOUtils;
+import org.apache.hc.core5.http.nio.AsyncRequestProducer;
+import org.apache.hc.core5.http.nio.support.AsyncRequestBuilder;
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.utils.URIBuilder;
@@ -88,13 +102,28 @@ public class ArrowResultChunk {
   public static final Integer SECONDS_BUFFER_FOR_EXPIRY = 60;
   final long numRows;
   long rowOffset;
-  List<List<ValueVector>> recordBatchList;
+  private Long byteCount;
+  // The record batches keep the Arrow buffers read from the stream. A batch is loaded into the
+  // vectors of vectorSchemaRoot, without copying its buffers, when the iterator reaches it.
+  Schema arrowSchema;
+  List<ArrowRecordBatch> recordBatches;
+  private VectorSchemaRoot vectorSchemaRoot;
+  private VectorLoader vectorLoader;
+  private List<ValueVector> loadedVectors;
+  private int loadedRecordBatchIndex = -1;
+  // In incremental decode mode, the chunk keeps its downloaded data encoded and decodes one record
+  // batch at a time with incrementalReader, which releases a batch when it decodes the next one
+  private final boolean isIncrementalDecode;
+  private byte[] encodedData;
+  private CompressionCodec encodedDataCodec;
+  private ArrowStreamReader incrementalReader;
+  private VectorSchemaRoot incrementalRoot;
   private final long chunkIndex;
   private ExternalLink chunkLink;
   private final StatementId statementId;
   private Instant expiryTime;
   private ChunkStatus status;
-  private final BufferAllocator rootAllocator;
+  private final BufferAllocator chunkAllocator;
   private String errorMessage;
   private boolean isDataInitialized;
   private static boolean injectError = false;
@@ -102,22 +131,41 @@ public class ArrowResultChunk {
   private int errorInjectionCount = 0;
 
   private List<String> arrowMetadata;
+  // Set by the download that loads the data, when a chunk is downloaded more than once at a time
+  private final AtomicBoolean isDataClaimed = new AtomicBoolean(false);
+  // Set when a download gives up on the chunk because another download holds the claim, and moved
+  // to isDownloadAbandoned if that download then fails to load the data
+  private boolean isDownloadYielded;
+  private boolean isDownloadAbandoned;
+  // Completed once the download of the chunk has been processed, cancelled when the result is
+  // closed
+  private final CompletableFuture<Void> downloadCompletion = new CompletableFuture<>();
+  // Set when the chunk is admitted to the spill store of the result set instead of memory
+  private volatile ChunkSpillStore spillStore;
+  private volatile boolean isSpilled;
 
   private ArrowResultChunk(Builder builder) throws DatabricksParsingException {
     this.chunkIndex = builder.chunkIndex;
     this.numRows = builder.numRows;
     this.rowOffset = builder.rowOffset;
+    this.byteCount = builder.byteCount;
     this.chunkLink = builder.chunkLink;
     this.statementId = builder.statementId;
     this.expiryTime = builder.expiryTime;
     this.status = builder.status;
-    this.rootAllocator = new RootAllocator(/* limit= */ Integer.MAX_VALUE);
+    this.isIncrementalDecode = builder.isIncrementalDecode && builder.inputStream == null;
+    BufferAllocator parentAllocator =
+        builder.parentAllocator != null
+            ? builder.parentAllocator
+            : ArrowAllocatorManager.getInstance().getRootAllocator();
+    this.chunkAllocator =
+        parentAllocator.newChildAllocator("chunk-" + chunkIndex, 0, Long.MAX_VALUE);
     if (builder.inputStream != null) {
       // Data is already available
       try {
         initializeData(builder.inputStream);
         this.status = ChunkStatus.EXTRACT_SUCCEEDED;
-      } catch (DatabricksSQLException | IOException e) {
+      } catch (DatabricksSQLException | IOException | OutOfMemoryException e) {
         handleFailure(e, ChunkStatus.EXTRACT_FAILED);
       }
     }
@@ -147,7 +195,11 @@ public class ArrowResultChunk {
 
     ArrowResultChunkIterator(ArrowResultChunk resultChunk) {
       this.resultChunk = resultChunk;
-      this.recordBatchesInChunk = resultChunk.getRecordBatchCountInChunk();
+      // The record batches of an incrementally decoded chunk are only known once decoded
+      this.recordBatchesInChunk =
+          resultChunk.isIncrementalDecode
+              ? Integer.MAX_VALUE
+              : resultChunk.getRecordBatchCountInChunk();
       // start before first batch
       this.recordBatchCursorInChunk = -1;
       // initialize to -1
@@ -161,8 +213,11 @@ public class ArrowResultChunk {
     /**
      * Moves iterator to the next row of the chunk. Returns false if it is at the last row in the
      * chunk.
+     *
+     * @throws DatabricksSQLException if the next record batch of an incrementally decoded chunk
+     *     cannot be decoded
      */
-    boolean nextRow() {
+    boolean nextRow() throws DatabricksSQLException {
       if (!hasNextRow()) {
         return false;
       }
@@ -170,21 +225,96 @@ public class ArrowResultChunk {
       if (rowsInRecordBatch < 0 || ++rowCursorInRecordBatch == rowsInRecordBatch) {
         // reset rowCursor to 0
         rowCursorInRecordBatch = 0;
-        // Fetches number of rows in the record batch using the number of values in the first column
-        // vector
-        recordBatchCursorInChunk++;
-        while (recordBatchCursorInChunk < recordBatchesInChunk
-            && resultChunk.recordBatchList.get(recordBatchCursorInChunk).get(0).getValueCount()
-                == 0) {
-          recordBatchCursorInChunk++;
-        }
-        rowsInRecordBatch =
-            resultChunk.recordBatchList.get(recordBatchCursorInChunk).get(0).getValueCount();
+        recordBatchCursorInChunk = findNonEmptyRecordBatch(recordBatchCursorInChunk + 1);
+        rowsInRecordBatch = resultChunk.getRecordBatchRowCount(recordBatchCursorInChunk);
+        resultChunk.loadRecordBatch(recordBatchCursorInChunk);
       }
       rowsReadByIterator++;
       return true;
     }
 
+    /**
+     * Moves the iterator to the next non-empty record batch of the chunk and positions it on the
+     * last row of that batch. Rows of the current batch that have not been read are skipped.
+     * Returns false if there is no further record batch in the chunk.
+     *
+     * @throws DatabricksSQLException if the next record batch of an incrementally decoded chunk
+     *     cannot be decoded
+     */
+    boolean nextRecordBatch() throws DatabricksSQLException {
+      if (rowsReadByIterator >= resultChunk.numRows) {
+        return false;
+      }
+      int nextBatch = findNonEmptyRecordBatch(recordBatchCursorInChunk + 1);
+      if (nextBatch >= recordBatchesInChunk) {
+        return false;
+      }
+      if (rowsInRecordBatch > 0) {
+        // Account for the unread rows of the current batch
+        rowsReadByIterator += rowsInRecordBatch - 1 - rowCursorInRecordBatch;
+      }
+      recordBatchCursorInChunk = nextBatch;
+      rowsInRecordBatch = resultChunk.getRecordBatchRowCount(nextBatch);
+      resultChunk.loadRecordBatch(nextBatch);
+      rowCursorInRecordBatch = rowsInRecordBatch - 1;
+      rowsReadByIterator += rowsInRecordBatch;
+      return true;
+    }
+
+    /**
+     * Returns the index of the first record batch with rows from the given index on, or the number
+     * of record batches in the chunk if there is none.
+     */
+    private int findNonEmptyRecordBatch(int fromRecordBatch) throws DatabricksSQLException {
+      int recordBatch = fromRecordBatch;
+      while (recordBatch < recordBatchesInChunk) {
+        if (resultChunk.isIncrementalDecode && !resultChunk.decodeRecordBatch(recordBatch)) {
+          throw new DatabricksParsingException(
+              String.format(
+                  "Chunk index [%d] of statement [%s] ended after %d of %d rows",
+                  resultChunk.chunkIndex,
+                  resultChunk.statementId,
+                  rowsReadByIterator,
+                  resultChunk.numRows),
+              DatabricksDriverErrorCode.CHUNK_DOWNLOAD_ERROR);
+        }
+        if (resultChunk.getRecordBatchRowCount(recordBatch) > 0) {
+          return recordBatch;
+        }
+        recordBatch++;
+      }
+      return recordBatch;
+    }
+
+    /**
+     * Returns the vectors of the record batch the iterator is positioned in. The vectors are shared
+     * by all record batches of the chunk, and hold another batch once the iterator moves past this
+     * one.
+     */
+    List<ValueVector> getCurrentRecordBatch() {
+      return resultChunk.loadRecordBatch(recordBatchCursorInChunk);
+    }
+
+    /** Returns the number of rows the iterator has moved past, including the current row. */
+    int getRowsRead() {
+      return rowsReadByIterator;
+    }
+
+    /** Returns the index of the record batch the iterator is positioned in, or -1 before it. */
+    int getRecordBatchIndex() {
+      return recordBatchCursorInChunk;
+    }
+
+    /** Returns the index of the current row within its record batch. */
+    int getRowIndexInRecordBatch() {
+      return rowCursorInRecordBatch;
+    }
+
+    /** Returns the vector of the given column in the record batch the iterator is positioned in. */
+    ValueVector getColumnVector(int columnIndex) {
+      return this.resultChunk.getColumnVector(this.recordBatchCursorInChunk, columnIndex);
+    }
+
     /** Returns whether the next row in the chunk exists. */
     boolean hasNextRow() {
       if (rowsReadByIterator >= resultChunk.numRows) return false;
@@ -201,10 +331,24 @@ public class ArrowResultChunk {
         String arrowMetadata,
         ColumnInfo columnInfo)
         throws DatabricksSQLException {
+      return getColumnObjectAtCurrentRow(
+          columnIndex,
+          ArrowToJavaObjectConverter.getValueConverter(requiredType, arrowMetadata, columnInfo));
+    }
+
+    /** Returns object in the current row at the specified columnIndex. */
+    Object getColumnObjectAtCurrentRow(
+        int columnIndex, ArrowToJavaObjectConverter.ValueConverter valueConverter)
+        throws DatabricksSQLException {
       ValueVector columnVector =
           this.resultChunk.getColumnVector(this.recordBatchCursorInChunk, columnIndex);
       return ArrowToJavaObjectConverter.convert(
-          columnVector, this.rowCursorInRecordBatch, requiredType, arrowMetadata, columnInfo);
+          columnVector, this.rowCursorInRecordBatch, valueConverter);
+    }
+
+    /** Returns the Arrow metadata of the columns of the chunk. */
+    List<String> getArrowMetadata() {
+      return this.resultChunk.getArrowMetadata();
     }
 
     String getType(int columnIndex) {
@@ -220,15 +364,51 @@ public class ArrowResultChunk {
   /** Sets link details for the given chunk. */
   void setChunkLink(ExternalLink chunk) {
     this.chunkLink = chunk;
+    if (chunk.getByteCount() != null) {
+      this.byteCount = chunk.getByteCount();
+    }
     this.expiryTime = Instant.parse(chunk.getExpiration());
     this.status = ChunkStatus.URL_FETCHED;
   }
 
-  /** Updates status for the chunk */
-  void setStatus(ChunkStatus status) {
+  /**
+   * Updates status for the chunk. Once a download has loaded the data, other downloads of the chunk
+   * can no longer change its status. Once the chunk is released, its status no longer changes.
+   */
+  synchronized void setStatus(ChunkStatus status) {
+    if (this.status == ChunkStatus.CHUNK_RELEASED) {
+      // A download still running when the result set was closed must not revive the chunk
+      return;
+    }
+    if (this.status == ChunkStatus.DOWNLOAD_SUCCEEDED
+        && isDataClaimed.get()
+        && (status == ChunkStatus.DOWNLOAD_IN_PROGRESS
+            || status == ChunkStatus.DOWNLOAD_RETRY
+            || status == ChunkStatus.DOWNLOAD_FAILED
+            || status == ChunkStatus.DOWNLOAD_FAILED_ABORTED)) {
+      return;
+    }
     this.status = status;
   }
 
+  /**
+   * Returns the future completed once the download of the chunk has been processed, successfully or
+   * not, or cancelled when the result set is closed. Consumers wait on it instead of the chunk.
+   */
+  CompletableFuture<Void> getDownloadCompletion() {
+    return downloadCompletion;
+  }
+
+  /** Signals consumers that the download of the chunk has been processed. */
+  void completeDownload() {
+    downloadCompletion.complete(null);
+  }
+
+  /** Signals consumers that the chunk will not be downloaded, as the result set is closed. */
+  void cancelDownload() {
+    downloadCompletion.cancel(false);
+  }
+
   /** Checks if the link is valid */
   boolean isChunkLinkInvalid() {
     return status == ChunkStatus.PENDING
@@ -236,6 +416,11 @@ public class ArrowResultChunk {
             && expiryTime.minusSeconds(SECONDS_BUFFER_FOR_EXPIRY).isBefore(Instant.now()));
   }
 
+  /** Returns the expiry time of the chunk link, or null if the chunk has no link yet */
+  Instant getExpiryTime() {
+    return expiryTime;
+  }
+
   /** Returns the status for the chunk */
   ChunkStatus getStatus() {
     return this.status;
@@ -256,8 +441,152 @@ public class ArrowResultChunk {
     return this.errorMessage;
   }
 
-  void downloadData(IDatabricksHttpClient httpClient, CompressionCodec compressionCodec)
+  /**
+   * Downloads, decompresses and parses the chunk data.
+   *
+   * @return true if the data was loaded, false if a hedged download of the chunk loaded it first
+   * @throws DatabricksParsingException if the download fails
+   */
+  boolean downloadData(IDatabricksHttpClient httpClient, CompressionCodec compressionCodec)
+      throws DatabricksParsingException, IOException {
+    injectErrorIfEnabled();
+
+    boolean isLoaded = false;
+    try {
+      isLoaded = downloadAndLoadData(httpClient, compressionCodec);
+    } catch (IOException | DatabricksSQLException | OutOfMemoryException e) {
+      if (isDataClaimed.get()) {
+        LOGGER.debug(
+            "Ignoring failed download of chunk index {} loaded by another download: {}",
+            chunkIndex,
+            e.getMessage());
+      } else {
+        handleFailure(e, ChunkStatus.DOWNLOAD_FAILED);
+      }
+    }
+    return isLoaded;
+  }
+
+  /**
+   * Downloads the chunk again while a slow download of it is still running, keeping the data of
+   * whichever download receives a response first. A failure of this download does not change the
+   * status of the chunk. If the first download gave up on the chunk after this download received
+   * its response, {@link #takeAbandonedDownload()} returns true and the chunk must be downloaded
+   * again.
+   *
+   * @return true if the data was loaded by this download, false if another download loaded it
+   */
+  boolean downloadHedgedData(IDatabricksHttpClient httpClient, CompressionCodec compressionCodec)
+      throws DatabricksSQLException, IOException {
+    if (isDataClaimed.get()) {
+      return false;
+    }
+    return downloadAndLoadData(httpClient, compressionCodec);
+  }
+
+  private boolean downloadAndLoadData(
+      IDatabricksHttpClient httpClient, CompressionCodec compressionCodec)
+      throws DatabricksSQLException, IOException {
+    CloseableHttpResponse response = null;
+    ResumableChunkInputStream content = null;
+    try {
+      // Retry would be done in http client, we should not bother about that here
+      response = httpClient.execute(createDownloadRequest(), true);
+      checkDownloadResponse(response);
+      if (!claimData()) {
+        LOGGER.debug("Chunk index {} was loaded by another download", chunkIndex);
+        return false;
+      }
+      // A transfer failing mid-body is resumed with a range request for the remaining bytes
+      content = new ResumableChunkInputStream(httpClient, this::createDownloadRequest, response);
+      loadClaimedData(content, compressionCodec);
+      return true;
+    } finally {
+      if (content != null) {
+        content.close();
+      } else if (response != null) {
+        response.close();
+      }
+    }
+  }
+
+  /** Loads data claimed by the calling download, releasing the claim if loading fails. */
+  private void loadClaimedData(InputStream content, CompressionCodec compressionCodec)
+      throws DatabricksSQLException, IOException {
+    try {
+      decompressAndInitializeData(content, compressionCodec);
+      setStatus(ChunkStatus.DOWNLOAD_SUCCEEDED);
+    } catch (IOException | DatabricksSQLException | OutOfMemoryException e) {
+      releaseClaim();
+      throw e;
+    }
+  }
+
+  /**
+   * Claims the chunk for the data of the calling download. If another download holds the claim,
+   * records that the calling download gives up on the chunk.
+   *
+   * @return true if the calling download loads the data
+   */
+  private synchronized boolean claimData() {
+    if (!isDataClaimed.compareAndSet(false, true)) {
+      isDownloadYielded = true;
+      return false;
+    }
+    return true;
+  }
+
+  /** Releases the claim of a download that failed to load the data. */
+  private synchronized void releaseClaim() {
+    isDataClaimed.set(false);
+    isDownloadAbandoned = isDownloadYielded;
+    isDownloadYielded = false;
+  }
+
+  /**
+   * Returns true if a download gave up on the chunk for a download that then failed to load the
+   * data, so that no download of the chunk is running anymore. Resets the flag.
+   */
+  synchronized boolean takeAbandonedDownload() {
+    boolean isAbandoned = isDownloadAbandoned;
+    isDownloadAbandoned = false;
+    return isAbandoned;
+  }
+
+  /**
+   * Downloads the chunk data into a pooled buffer without decompressing or parsing it, so that
+   * decoding can run on another thread than the download.
+   *
+   * @param httpClient the HTTP client used for the download
+   * @return the still compressed chunk data, to be released once it has been decoded
+   * @throws DatabricksParsingException if the download fails
+   */
+  ChunkBufferPool.PooledBuffer downloadBody(IDatabricksHttpClient httpClient)
       throws DatabricksParsingException, IOException {
+    injectErrorIfEnabled();
+
+    CloseableHttpResponse response = null;
+    ResumableChunkInputStream content = null;
+    ChunkBufferPool.PooledBuffer body = null;
+    try {
+      response = httpClient.execute(createDownloadRequest(), true);
+      checkDownloadResponse(response);
+      long contentLength = response.getEntity().getContentLength();
+      content = new ResumableChunkInputStream(httpClient, this::createDownloadRequest, response);
+      body = ChunkBufferPool.getInstance().read(content, contentLength);
+    } catch (IOException | DatabricksSQLException e) {
+      handleFailure(e, ChunkStatus.DOWNLOAD_FAILED);
+    } finally {
+      if (content != null) {
+        content.close();
+      } else if (response != null) {
+        response.close();
+      }
+    }
+    return body;
+  }
+
+  private void injectErrorIfEnabled() throws DatabricksParsingException {
     // Inject error if enabled for testing
     if (injectError && errorInjectionCount < errorInjectionCountMaxValue) {
       errorInjectionCount++;
@@ -265,35 +594,235 @@ public class ArrowResultChunk {
       throw new DatabricksParsingException(
           "Injected connection reset", DatabricksDriverErrorCode.CHUNK_DOWNLOAD_ERROR);
     }
+  }
 
-    CloseableHttpResponse response = null;
+  /** Creates the request for downloading the chunk from its current link. */
+  private HttpGet createDownloadRequest() throws IOException {
     try {
-      URIBuilder uriBuilder = new URIBuilder(chunkLink.getExternalLink());
-      HttpGet getRequest = new HttpGet(uriBuilder.build());
+      HttpGet getRequest = new HttpGet(new URIBuilder(chunkLink.getExternalLink()).build());
       addHeaders(getRequest, chunkLink.getHttpHeaders());
-      // Retry would be done in http client, we should not bother about that here
-      response = httpClient.execute(getRequest, true);
-      checkHTTPError(response);
-      String decompressionContext =
-          String.format(
-              "Data decompression for chunk index [%d] and statement [%s]",
-              this.chunkIndex, this.statementId);
-      InputStream uncompressedStream =
-          DecompressionUtil.decompress(
-              response.getEntity().getContent(), compressionCodec, decompressionContext);
-      initializeData(uncompressedStream);
+      return getRequest;
+    } catch (URISyntaxException e) {
+      throw new IOException("Invalid chunk link", e);
+    }
+  }
+
+  /**
+   * Checks the response of a chunk download, keeping the status code and the {@code Retry-After}
+   * header of a failed response to decide how the download is retried.
+   */
+  private static void checkDownloadResponse(HttpResponse response) throws DatabricksHttpException {
+    int statusCode = response.getStatusLine().getStatusCode();
+    if (statusCode >= 200 && statusCode < 300) {
+      return;
+    }
+    String errorReason =
+        String.format(
+            "HTTP request failed by code: %d, status line: %s.",
+            statusCode, response.getStatusLine());
+    LOGGER.error(errorReason);
+    Header retryAfter = response.getFirstHeader(HttpHeaders.RETRY_AFTER);
+    throw new DatabricksHttpException(
+        errorReason,
+        DEFAULT_HTTP_EXCEPTION_SQLSTATE,
+        statusCode,
+        retryAfter != null
+            ? ChunkDownloadRetryPolicy.parseRetryAfter(retryAfter.getValue())
+            : null);
+  }
+
+  /**
+   * Creates the request for downloading the chunk with the async HTTP client.
+   *
+   * @param rangeStart the first byte to download, greater than 0 to resume a partial download
+   * @return the request producer for the chunk link
+   * @throws URISyntaxException if the chunk link is not a valid URI
+   */
+  AsyncRequestProducer createAsyncDownloadRequest(long rangeStart) throws URISyntaxException {
+    AsyncRequestBuilder requestBuilder =
+        AsyncRequestBuilder.get(new URIBuilder(chunkLink.getExternalLink()).build());
+    if (chunkLink.getHttpHeaders() != null) {
+      chunkLink.getHttpHeaders().forEach(requestBuilder::addHeader);
+    }
+    if (rangeStart > 0) {
+      requestBuilder.setHeader(HttpHeaders.RANGE, "bytes=" + rangeStart + "-");
+    }
+    return requestBuilder.build();
+  }
+
+  /**
+   * Decompresses and parses chunk data downloaded separately, with the async HTTP client or by
+   * {@link #downloadBody}.
+   *
+   * @param content the downloaded, possibly compressed, chunk data
+   * @param compressionCodec the compression codec of the chunk data
+   * @return true if the data was loaded, false if a hedged download of the chunk loaded it first
+   * @throws DatabricksParsingException if the data cannot be decompressed or parsed
+   */
+  boolean loadDownloadedData(InputStream content, CompressionCodec compressionCodec)
+      throws DatabricksParsingException {
+    if (!claimData()) {
+      LOGGER.debug("Chunk index {} was loaded by another download", chunkIndex);
+      return false;
+    }
+    try {
+      loadClaimedData(content, compressionCodec);
+    } catch (IOException | DatabricksSQLException | OutOfMemoryException e) {
+      handleFailure(e, ChunkStatus.DOWNLOAD_FAILED);
+    }
+    return true;
+  }
+
+  /** Admits the chunk to the spill store of the result set, so its download is spilled to disk. */
+  void setSpillStore(ChunkSpillStore spillStore) {
+    this.spillStore = spillStore;
+  }
+
+  /** Returns true if the downloaded data of the chunk is written to disk instead of memory. */
+  boolean isSpillTarget() {
+    return spillStore != null;
+  }
+
+  /** Returns true if the data of the chunk is on disk and not loaded yet. */
+  boolean isSpilled() {
+    return isSpilled && !isDataInitialized;
+  }
+
+  /**
+   * Writes downloaded, still compressed, chunk data to the spill store of the result set instead of
+   * decoding it.
+   *
+   * @param content the downloaded chunk data
+   * @return true if the data was spilled, false if a hedged download of the chunk loaded it first
+   * @throws DatabricksParsingException if the data cannot be written
+   */
+  boolean spillDownloadedData(InputStream content) throws DatabricksParsingException {
+    if (!claimData()) {
+      LOGGER.debug("Chunk index {} was loaded by another download", chunkIndex);
+      return false;
+    }
+    try {
+      spillStore.write(chunkIndex, content);
+      isSpilled = true;
       setStatus(ChunkStatus.DOWNLOAD_SUCCEEDED);
-    } catch (IOException | DatabricksSQLException | URISyntaxException e) {
+    } catch (IOException e) {
+      releaseClaim();
+      handleFailure(e, ChunkStatus.DOWNLOAD_FAILED);
+    }
+    return true;
+  }
+
+  /**
+   * Loads the spilled data of the chunk into memory and deletes its file. Has no effect if the data
+   * is already loaded.
+   *
+   * @throws DatabricksParsingException if the spilled data cannot be read
+   */
+  synchronized void loadSpilledData() throws DatabricksParsingException {
+    if (!isSpilled()) {
+      return;
+    }
+    try (InputStream content = spillStore.read(chunkIndex)) {
+      decompressAndInitializeData(content, spillStore.getSpillCodec());
+    } catch (IOException | DatabricksSQLException | OutOfMemoryException e) {
       handleFailure(e, ChunkStatus.DOWNLOAD_FAILED);
     } finally {
-      if (response != null) {
-        response.close();
+      spillStore.release(chunkIndex);
+    }
+  }
+
+  private void decompressAndInitializeData(InputStream content, CompressionCodec compressionCodec)
+      throws DatabricksSQLException, IOException {
+    if (isIncrementalDecode) {
+      initializeEncodedData(content, compressionCodec);
+      return;
+    }
+    initializeData(DecompressionUtil.decompress(content, compressionCodec, decompressionContext()));
+  }
+
+  private String decompressionContext() {
+    return String.format(
+        "Data decompression for chunk index [%d] and statement [%s]",
+        this.chunkIndex, this.statementId);
+  }
+
+  /**
+   * Keeps the downloaded chunk data encoded, to be decoded one record batch at a time by {@link
+   * #decodeRecordBatch}. Only the schema is read, so that the Arrow metadata of the chunk is known.
+   */
+  private void initializeEncodedData(InputStream content, CompressionCodec compressionCodec)
+      throws DatabricksSQLException, IOException {
+    this.encodedData = IOUtils.toByteArray(content);
+    this.encodedDataCodec = compressionCodec;
+    openIncrementalReader();
+    LOGGER.debug(
+        "Kept {} encoded bytes for chunk index {} and statement {}",
+        this.encodedData.length,
+        this.chunkIndex,
+        this.statementId);
+    this.isDataInitialized = true;
+  }
+
+  private void openIncrementalReader() throws DatabricksSQLException, IOException {
+    closeIncrementalReader();
+    InputStream decoded =
+        DecompressionUtil.decompress(
+            new ByteArrayInputStream(encodedData), encodedDataCodec, decompressionContext());
+    incrementalReader = new ArrowStreamReader(decoded, chunkAllocator);
+    incrementalRoot = incrementalReader.getVectorSchemaRoot();
+    this.arrowMetadata = getMetadataInformationFromSchemaRoot(incrementalRoot);
+    this.loadedVectors =
+        Collections.unmodifiableList(new ArrayList<>(incrementalRoot.getFieldVectors()));
+    this.loadedRecordBatchIndex = -1;
+  }
+
+  private void closeIncrementalReader() {
+    if (incrementalReader != null) {
+      try {
+        incrementalReader.close();
+      } catch (IOException e) {
+        LOGGER.debug(
+            "Failed to close the reader of chunk index {}: {}", chunkIndex, e.getMessage());
+      }
+      incrementalReader = null;
+      incrementalRoot = null;
+    }
+  }
+
+  /**
+   * Decodes the record batches of an incrementally decoded chunk up to the given one. Decoding a
+   * record batch releases the previously decoded one. A batch before the last decoded one is
+   * decoded again from the start of the chunk.
+   *
+   * @param recordBatchIndex the index of the record batch
+   * @return false if the chunk has no record batch at the given index
+   * @throws DatabricksParsingException if the record batch cannot be decoded
+   */
+  boolean decodeRecordBatch(int recordBatchIndex) throws DatabricksParsingException {
+    try {
+      if (recordBatchIndex < loadedRecordBatchIndex) {
+        openIncrementalReader();
+      }
+      while (loadedRecordBatchIndex < recordBatchIndex) {
+        if (!incrementalReader.loadNextBatch()) {
+          return false;
+        }
+        loadedRecordBatchIndex++;
       }
+      return true;
+    } catch (IOException | DatabricksSQLException | OutOfMemoryException e) {
+      String errorMessage =
+          String.format(
+              "Decoding record batch [%d] failed for chunk index [%d] and statement [%s]",
+              recordBatchIndex, this.chunkIndex, this.statementId);
+      LOGGER.error(e, errorMessage);
+      throw new DatabricksParsingException(
+          errorMessage, e, DatabricksDriverErrorCode.CHUNK_DOWNLOAD_ERROR);
     }
   }
 
   /**
-   * Decompresses the given {@link InputStream} and initializes {@link #recordBatchList} from
+   * Decompresses the given {@link InputStream} and initializes {@link #recordBatches} from
    * decompressed stream.
    *
    * @param inputStream the input stream to decompress
@@ -301,15 +830,34 @@ public class ArrowResultChunk {
    * @throws IOException if reading from the stream fails
    */
   void initializeData(InputStream inputStream) throws DatabricksSQLException, IOException {
+    if (status == ChunkStatus.CHUNK_RELEASED) {
+      LOGGER.debug(
+          "Skipping parsing of released chunk index {} and statement {}",
+          this.chunkIndex,
+          this.statementId);
+      return;
+    }
     LOGGER.debug(
         "Parsing data for chunk index {} and statement {}", this.chunkIndex, this.statementId);
     ArrowData arrowData =
-        getRecordBatchList(inputStream, this.rootAllocator, this.statementId, this.chunkIndex);
-    this.recordBatchList = arrowData.getValueVectors();
-    this.arrowMetadata = arrowData.getMetadata();
+        getRecordBatchList(inputStream, this.chunkAllocator, this.statementId, this.chunkIndex);
+    synchronized (this) {
+      if (status == ChunkStatus.CHUNK_RELEASED) {
+        // The result set was closed while the chunk was parsed, nothing else releases the batches
+        LOGGER.debug(
+            "Discarding data parsed for released chunk index {} and statement {}",
+            this.chunkIndex,
+            this.statementId);
+        purgeArrowData(arrowData.getRecordBatches());
+        return;
+      }
+      this.arrowSchema = arrowData.getSchema();
+      this.recordBatches = arrowData.getRecordBatches();
+      this.arrowMetadata = arrowData.getMetadata();
+      this.isDataInitialized = true;
+    }
     LOGGER.debug(
         "Data parsed for chunk index {} and statement {}", this.chunkIndex, this.statementId);
-    this.isDataInitialized = true;
   }
 
   void handleFailure(Exception exception, ChunkStatus failedStatus)
@@ -334,16 +882,81 @@ public class ArrowResultChunk {
     }
     if (isDataInitialized) {
       logAllocatorStats("BeforeRelease");
-      purgeArrowData(this.recordBatchList);
-      rootAllocator.close();
+      if (vectorSchemaRoot != null) {
+        vectorSchemaRoot.close();
+        vectorSchemaRoot = null;
+        loadedRecordBatchIndex = -1;
+      }
+      if (recordBatches != null) {
+        purgeArrowData(this.recordBatches);
+      }
+      closeIncrementalReader();
+      encodedData = null;
+    }
+    ArrowAllocatorManager.closeAllocator(chunkAllocator);
+    if (spillStore != null) {
+      spillStore.release(chunkIndex);
     }
     setStatus(ChunkStatus.CHUNK_RELEASED);
     return true;
   }
 
-  /** Returns number of recordBatches in the chunk. */
+  /**
+   * Returns number of recordBatches in the chunk, or the number of record batches decoded so far if
+   * the chunk is decoded incrementally.
+   */
   int getRecordBatchCountInChunk() {
-    return this.isDataInitialized ? this.recordBatchList.size() : 0;
+    if (!this.isDataInitialized) {
+      return 0;
+    }
+    return this.isIncrementalDecode ? this.loadedRecordBatchIndex + 1 : this.recordBatches.size();
+  }
+
+  /**
+   * Returns the number of rows of the given record batch. The batch must be the last decoded one if
+   * the chunk is decoded incrementally.
+   */
+  int getRecordBatchRowCount(int recordBatchIndex) {
+    if (this.isIncrementalDecode) {
+      checkDecodedRecordBatch(recordBatchIndex);
+      return incrementalRoot.getRowCount();
+    }
+    return this.recordBatches.get(recordBatchIndex).getLength();
+  }
+
+  private void checkDecodedRecordBatch(int recordBatchIndex) {
+    if (recordBatchIndex != loadedRecordBatchIndex) {
+      throw new IllegalStateException(
+          String.format(
+              "Record batch %d of chunk index %d is not decoded, the decoded batch is %d",
+              recordBatchIndex, chunkIndex, loadedRecordBatchIndex));
+    }
+  }
+
+  /**
+   * Loads the given record batch into the vectors of the chunk, unless it is already loaded. The
+   * vectors take references to the buffers of the batch instead of copying them, and release the
+   * buffers of the previously loaded batch.
+   *
+   * @param recordBatchIndex the index of the record batch
+   * @return the vectors of the chunk
+   */
+  List<ValueVector> loadRecordBatch(int recordBatchIndex) {
+    if (isIncrementalDecode) {
+      checkDecodedRecordBatch(recordBatchIndex);
+      return loadedVectors;
+    }
+    if (recordBatchIndex != loadedRecordBatchIndex) {
+      if (vectorSchemaRoot == null) {
+        vectorSchemaRoot = VectorSchemaRoot.create(arrowSchema, chunkAllocator);
+        vectorLoader = new VectorLoader(vectorSchemaRoot);
+        loadedVectors =
+            Collections.unmodifiableList(new ArrayList<>(vectorSchemaRoot.getFieldVectors()));
+      }
+      vectorLoader.load(recordBatches.get(recordBatchIndex));
+      loadedRecordBatchIndex = recordBatchIndex;
+    }
+    return loadedVectors;
   }
 
   ArrowResultChunkIterator getChunkIterator() {
@@ -360,21 +973,45 @@ public class ArrowResultChunk {
     return this.chunkIndex;
   }
 
+  /** Returns the size of the chunk as reported by the server, or null if it was not reported */
+  Long getByteCount() {
+    return this.byteCount;
+  }
+
+  /**
+   * Returns the memory currently held by the chunk data, or 0 if no data is loaded. This is the
+   * Arrow memory of the chunk, and the encoded data kept on heap if the chunk is decoded
+   * incrementally.
+   */
+  long getAllocatedMemory() {
+    if (!this.isDataInitialized || this.status == ChunkStatus.CHUNK_RELEASED) {
+      return 0;
+    }
+    byte[] data = this.encodedData;
+    return chunkAllocator.getAllocatedMemory() + (data != null ? data.length : 0);
+  }
+
   private ValueVector getColumnVector(int recordBatchIndex, int columnIndex) {
-    return this.recordBatchList.get(recordBatchIndex).get(columnIndex);
+    return loadRecordBatch(recordBatchIndex).get(columnIndex);
   }
 
   static final class ArrowData {
-    private final List<List<ValueVector>> valueVectors;
+    private final Schema schema;
+    private final List<ArrowRecordBatch> recordBatches;
     private final List<String> metadata;
 
-    public ArrowData(List<List<ValueVector>> valueVectors, List<String> metadata) {
-      this.valueVectors = valueVectors;
+    public ArrowData(Schema schema, List<ArrowRecordBatch> recordBatches, List<String> metadata) {
+      this.schema = schema;
+      this.recordBatches = recordBatches;
       this.metadata = metadata;
     }
 
-    public List<List<ValueVector>> getValueVectors() {
-      return valueVectors;
+    public Schema getSchema() {
+      return schema;
+    }
+
+    public List<ArrowRecordBatch> getRecordBatches() {
+      return recordBatches;
     }
 
     public List<String> getMetadata() {
@@ -384,21 +1021,25 @@ public class ArrowResultChunk {
 
   private static ArrowData getRecordBatchList(
       InputStream inputStream,
-      BufferAllocator rootAllocator,
+      BufferAllocator chunkAllocator,
       StatementId statementId,
       long chunkIndex)
       throws IOException {
-    List<List<ValueVector>> recordBatchList = new ArrayList<>();
+    List<ArrowRecordBatch> recordBatchList = new ArrayList<>();
     List<String> metadata = new ArrayList<>();
-    try (ArrowStreamReader arrowStreamReader = new ArrowStreamReader(inputStream, rootAllocator)) {
+    Schema schema = null;
+    try (ArrowStreamReader arrowStreamReader = new ArrowStreamReader(inputStream, chunkAllocator)) {
       VectorSchemaRoot vectorSchemaRoot = arrowStreamReader.getVectorSchemaRoot();
+      schema = vectorSchemaRoot.getSchema();
+      VectorUnloader vectorUnloader = new VectorUnloader(vectorSchemaRoot);
       boolean fetchedMetadata = false;
       while (arrowStreamReader.loadNextBatch()) {
         if (!fetchedMetadata) {
           metadata = getMetadataInformationFromSchemaRoot(vectorSchemaRoot);
           fetchedMetadata = true;
         }
-        recordBatchList.add(getVectorsFromSchemaRoot(vectorSchemaRoot, rootAllocator));
+        // The batch retains the buffers of the vectors, which are then released by the reader
+        recordBatchList.add(vectorUnloader.getRecordBatch());
         vectorSchemaRoot.clear();
       }
     } catch (ClosedByInterruptException e) {
@@ -410,13 +1051,14 @@ public class ArrowResultChunk {
           statementId,
           e.getMessage());
       purgeArrowData(recordBatchList);
-    } catch (IOException e) {
+    } catch (IOException | OutOfMemoryException | IllegalStateException e) {
+      // IllegalStateException: the allocator was closed as the chunk was released while parsed
       LOGGER.error(
           "Error while reading arrow data, purging the local list and rethrowing the exception.");
       purgeArrowData(recordBatchList);
       throw e;
     }
-    return new ArrowData(recordBatchList, metadata);
+    return new ArrowData(schema, recordBatchList, metadata);
   }
 
   private static List<String> getMetadataInformationFromSchemaRoot(
@@ -426,47 +1068,43 @@ public class ArrowResultChunk {
         .collect(Collectors.toList());
   }
 
-  private static List<ValueVector> getVectorsFromSchemaRoot(
-      VectorSchemaRoot vectorSchemaRoot, BufferAllocator rootAllocator) {
-    return vectorSchemaRoot.getFieldVectors().stream()
-        .map(
-            fieldVector -> {
-              TransferPair transferPair = fieldVector.getTransferPair(rootAllocator);
-              transferPair.transfer();
-              return transferPair.getTo();
-            })
-        .collect(Collectors.toList());
-  }
-
-  private static void purgeArrowData(List<List<ValueVector>> recordBatchList) {
-    recordBatchList.forEach(vectors -> vectors.forEach(ValueVector::close));
+  private static void purgeArrowData(List<ArrowRecordBatch> recordBatchList) {
+    recordBatchList.forEach(ArrowRecordBatch::close);
     recordBatchList.clear();
   }
 
   private void logAllocatorStats(String event) {
-    long allocatedMemory = rootAllocator.getAllocatedMemory();
-    long peakMemory = rootAllocator.getPeakMemoryAllocation();
-    long headRoom = rootAllocator.getHeadroom();
-    long initReservation = rootAllocator.getInitReservation();
+    long allocatedMemory = chunkAllocator.getAllocatedMemory();
+    long peakMemory = chunkAllocator.getPeakMemoryAllocation();
+    long headRoom = chunkAllocator.getHeadroom();
+    long initReservation = chunkAllocator.getInitReservation();
+    BufferAllocator statementAllocator = chunkAllocator.getParentAllocator();
+    ArrowAllocatorManager allocatorManager = ArrowAllocatorManager.getInstance();
     LOGGER.debug(
-        "Chunk allocator stats Log - Event: {}, Chunk Index: {}, Allocated Memory: {}, Peak Memory: {}, Headroom: {}, Init Reservation: {}",
+        "Chunk allocator stats Log - Event: {}, Chunk Index: {}, Allocated Memory: {}, Peak Memory: {}, Headroom: {}, Init Reservation: {}, Statement Allocated Memory: {}, Statement Peak Memory: {}, Driver Allocated Memory: {}",
         event,
         chunkIndex,
         allocatedMemory,
         peakMemory,
         headRoom,
-        initReservation);
+        initReservation,
+        statementAllocator.getAllocatedMemory(),
+        statementAllocator.getPeakMemoryAllocation(),
+        allocatorManager.getAllocatedMemory());
   }
 
   public static class Builder {
     private long chunkIndex;
     private long numRows;
     private long rowOffset;
+    private Long byteCount;
     private ExternalLink chunkLink;
     private StatementId statementId;
     private Instant expiryTime;
     private ChunkStatus status;
     private InputStream inputStream;
+    private BufferAllocator parentAllocator;
+    private boolean isIncrementalDecode;
 
     public Builder withStatementId(StatementId statementId) {
       this.statementId = statementId;
@@ -477,10 +1115,29 @@ public class ArrowResultChunk {
       this.chunkIndex = baseChunkInfo.getChunkIndex();
       this.numRows = baseChunkInfo.getRowCount();
       this.rowOffset = baseChunkInfo.getRowOffset();
+      this.byteCount = baseChunkInfo.getByteCount();
       this.status = ChunkStatus.PENDING;
       return this;
     }
 
+    /**
+     * Sets the allocator under which the chunk allocates its Arrow memory. Defaults to the
+     * driver-wide root allocator.
+     */
+    public Builder withParentAllocator(BufferAllocator parentAllocator) {
+      this.parentAllocator = parentAllocator;
+      return this;
+    }
+
+    /**
+     * Keeps the downloaded data of the chunk encoded and decodes one record batch at a time as the
+     * chunk is read. Has no effect on chunks built from an input stream.
+     */
+    public Builder withIncrementalDecode(boolean isIncrementalDecode) {
+      this.isIncrementalDecode = isIncrementalDecode;
+      return this;
+    }
+
     public Builder withInputStream(InputStream stream, long rowCount) {
       this.numRows = rowCount;
       this.inputStream = stream;
@@ -492,6 +1149,7 @@ public class ArrowResultChunk {
       this.chunkIndex = chunkIndex;
       this.numRows = chunkInfo.getRowCount();
       this.rowOffset = chunkInfo.getStartRowOffset();
+      this.byteCount = chunkInfo.isSetBytesNum() ? chunkInfo.getBytesNum() : null;
       this.expiryTime = Instant.ofEpochMilli(chunkInfo.getExpiryTime());
       this.status = ChunkStatus.URL_FETCHED; // URL has always been fetched in case of thrift
       this.chunkLink = createExternalLink(chunkInfo, chunkIndex);
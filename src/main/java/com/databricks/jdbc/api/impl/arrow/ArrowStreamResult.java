@@ -2,8 +2,11 @@ package com.databricks.jdbc.api.impl.arrow;
 
 import static com.databricks.jdbc.common.util.DatabricksThriftUtil.getColumnInfoFromTColumnDesc;
 
+import com.databricks.jdbc.api.IDatabricksColumnarBatch;
 import com.databricks.jdbc.api.impl.ComplexDataTypeParser;
 import com.databricks.jdbc.api.impl.IExecutionResult;
+import com.databricks.jdbc.api.impl.converters.ArrowToJavaObjectConverter;
+import com.databricks.jdbc.api.impl.converters.ArrowToJavaObjectConverter.ValueConverter;
 import com.databricks.jdbc.api.internal.IDatabricksSession;
 import com.databricks.jdbc.api.internal.IDatabricksStatementInternal;
 import com.databricks.jdbc.common.CompressionCodec;
@@ -22,6 +25,7 @@ import com.databricks.sdk.service.sql.ColumnInfo;
 import com.databricks.sdk.service.sql.ColumnInfoTypeName;
 import com.google.common.annotations.VisibleForTesting;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /** Result container for Arrow-based query results. */
@@ -32,7 +36,14 @@ public class ArrowStreamResult implements IExecutionResult {
   private boolean isClosed;
   private ArrowResultChunk.ArrowResultChunkIterator chunkIterator;
   private List<ColumnInfo> columnInfos;
-  private final IDatabricksSession session;
+  private final boolean isComplexDatatypeSupportEnabled;
+  // Converters of the columns for the chunk of converterIterator
+  private ValueConverter[] columnConverters;
+  private ArrowResultChunk.ArrowResultChunkIterator converterIterator;
+  // Column accessors of the chunk of accessorIterator, resolved on first use
+  private ArrowColumnAccessor[] columnAccessors;
+  private boolean[] columnAccessorsResolved;
+  private ArrowResultChunk.ArrowResultChunkIterator accessorIterator;
 
   public ArrowStreamResult(
       ResultManifest resultManifest,
@@ -40,11 +51,22 @@ public class ArrowStreamResult implements IExecutionResult {
       StatementId statementId,
       IDatabricksSession session)
       throws DatabricksSQLException {
+    this(resultManifest, resultData, statementId, session, (IDatabricksStatementInternal) null);
+  }
+
+  public ArrowStreamResult(
+      ResultManifest resultManifest,
+      ResultData resultData,
+      StatementId statementId,
+      IDatabricksSession session,
+      IDatabricksStatementInternal parentStatement)
+      throws DatabricksSQLException {
     this(
         resultManifest,
         resultData,
         statementId,
         session,
+        parentStatement,
         DatabricksHttpClientFactory.getInstance().getClient(session.getConnectionContext()));
   }
 
@@ -56,12 +78,29 @@ public class ArrowStreamResult implements IExecutionResult {
       IDatabricksSession session,
       IDatabricksHttpClient httpClient)
       throws DatabricksSQLException {
-    this.session = session;
+    this(resultManifest, resultData, statementId, session, null, httpClient);
+  }
+
+  private ArrowStreamResult(
+      ResultManifest resultManifest,
+      ResultData resultData,
+      StatementId statementId,
+      IDatabricksSession session,
+      IDatabricksStatementInternal parentStatement,
+      IDatabricksHttpClient httpClient)
+      throws DatabricksSQLException {
+    this.isComplexDatatypeSupportEnabled =
+        session.getConnectionContext().isComplexDatatypeSupportEnabled();
     // Check if the result data contains the arrow data inline
     boolean isInlineArrow = resultData.getAttachment() != null;
 
     if (isInlineArrow) {
-      this.chunkProvider = new InlineChunkProvider(resultData, resultManifest);
+      this.chunkProvider =
+          new InlineChunkProvider(
+              resultData,
+              resultManifest,
+              ArrowAllocatorManager.getInstance()
+                  .newStatementAllocator(session.getConnectionContext(), statementId));
     } else {
       this.chunkProvider =
           new RemoteChunkProvider(
@@ -69,6 +108,7 @@ public class ArrowStreamResult implements IExecutionResult {
               resultManifest,
               resultData,
               session,
+              parentStatement,
               httpClient,
               session.getConnectionContext().getCloudFetchThreadPoolSize());
     }
@@ -100,10 +140,14 @@ public class ArrowStreamResult implements IExecutionResult {
       IDatabricksSession session,
       IDatabricksHttpClient httpClient)
       throws DatabricksSQLException {
-    this.session = session;
+    this.isComplexDatatypeSupportEnabled =
+        session.getConnectionContext().isComplexDatatypeSupportEnabled();
     setColumnInfo(resultsResp.getResultSetMetadata());
     if (isInlineArrow) {
-      this.chunkProvider = new InlineChunkProvider(resultsResp, parentStatement, session);
+      this.chunkProvider =
+          session.getConnectionContext().isInlineArrowStreamingEnabled()
+              ? new StreamingInlineChunkProvider(resultsResp, parentStatement, session)
+              : new InlineChunkProvider(resultsResp, parentStatement, session);
     } else {
       CompressionCodec compressionCodec =
           CompressionCodec.getCompressionMapping(resultsResp.getResultSetMetadata());
@@ -128,27 +172,115 @@ public class ArrowStreamResult implements IExecutionResult {
   /** {@inheritDoc} */
   @Override
   public Object getObject(int columnIndex) throws DatabricksSQLException {
-    ColumnInfoTypeName requiredType = columnInfos.get(columnIndex).getTypeName();
-    String arrowMetadata = chunkIterator.getType(columnIndex);
-    if (arrowMetadata == null) {
-      arrowMetadata = columnInfos.get(columnIndex).getTypeText();
+    return chunkIterator.getColumnObjectAtCurrentRow(
+        columnIndex, getColumnConverters()[columnIndex]);
+  }
+
+  /**
+   * Returns the accessor that reads the given column at the current row directly from its Arrow
+   * vector. The accessor is resolved once per column and chunk.
+   *
+   * @param columnIndex the index of the column (0-based)
+   * @return the accessor, or null if the column is not numeric or the result is not on a row
+   */
+  public ArrowColumnAccessor getColumnAccessor(int columnIndex) {
+    if (chunkIterator == null || columnIndex < 0 || columnIndex >= columnInfos.size()) {
+      return null;
     }
+    if (accessorIterator != chunkIterator) {
+      if (columnAccessors == null) {
+        columnAccessors = new ArrowColumnAccessor[columnInfos.size()];
+        columnAccessorsResolved = new boolean[columnInfos.size()];
+      } else {
+        Arrays.fill(columnAccessors, null);
+        Arrays.fill(columnAccessorsResolved, false);
+      }
+      accessorIterator = chunkIterator;
+    }
+    if (!columnAccessorsResolved[columnIndex]) {
+      if (chunkIterator.getRecordBatchIndex() < 0) {
+        return null;
+      }
+      columnAccessors[columnIndex] =
+          ArrowColumnAccessor.create(
+              chunkIterator, columnIndex, columnInfos.get(columnIndex).getTypeName());
+      columnAccessorsResolved[columnIndex] = true;
+    }
+    return columnAccessors[columnIndex];
+  }
+
+  /**
+   * Returns the converters of the columns for the current chunk. They are resolved once per chunk
+   * from the schema and the Arrow metadata of the chunk, so that converting a value does not
+   * inspect the metadata again.
+   */
+  ValueConverter[] getColumnConverters() {
+    if (converterIterator != chunkIterator) {
+      List<String> arrowMetadata = chunkIterator.getArrowMetadata();
+      ValueConverter[] converters = new ValueConverter[columnInfos.size()];
+      for (int i = 0; i < converters.length; i++) {
+        converters[i] =
+            createColumnConverter(
+                columnInfos.get(i),
+                arrowMetadata != null && i < arrowMetadata.size() ? arrowMetadata.get(i) : null);
+      }
+      columnConverters = converters;
+      converterIterator = chunkIterator;
+    }
+    return columnConverters;
+  }
+
+  private ValueConverter createColumnConverter(ColumnInfo columnInfo, String arrowMetadata) {
+    ColumnInfoTypeName requiredType = columnInfo.getTypeName();
+    String metadata = arrowMetadata != null ? arrowMetadata : columnInfo.getTypeText();
 
     // Handle complex type conversion when complex datatype support is disabled
-    boolean isComplexDatatypeSupportEnabled =
-        this.session.getConnectionContext().isComplexDatatypeSupportEnabled();
     if (!isComplexDatatypeSupportEnabled && isComplexType(requiredType)) {
       LOGGER.debug("Complex datatype support is disabled, converting complex type to STRING");
-
-      Object result =
-          chunkIterator.getColumnObjectAtCurrentRow(
-              columnIndex, ColumnInfoTypeName.STRING, "STRING", columnInfos.get(columnIndex));
+      ValueConverter stringConverter =
+          ArrowToJavaObjectConverter.getValueConverter(
+              ColumnInfoTypeName.STRING, "STRING", columnInfo);
       ComplexDataTypeParser parser = new ComplexDataTypeParser();
-      return parser.formatComplexTypeString(result.toString(), requiredType.name(), arrowMetadata);
+      return (columnVector, object) ->
+          parser.formatComplexTypeString(
+              stringConverter.convert(columnVector, object).toString(),
+              requiredType.name(),
+              metadata);
     }
+    return ArrowToJavaObjectConverter.getValueConverter(requiredType, metadata, columnInfo);
+  }
 
-    return chunkIterator.getColumnObjectAtCurrentRow(
-        columnIndex, requiredType, arrowMetadata, columnInfos.get(columnIndex));
+  /**
+   * Moves the result to the next Arrow record batch and returns a view over it. The rows of the
+   * current record batch that have not been read are skipped, and the result is positioned on the
+   * last row of the returned batch, so that {@link #next()} continues with the following batch.
+   *
+   * @return the next record batch, or null if there are no more rows
+   * @throws DatabricksSQLException if the next chunk cannot be fetched
+   */
+  public IDatabricksColumnarBatch nextBatch() throws DatabricksSQLException {
+    if (isClosed) {
+      return null;
+    }
+    while (true) {
+      if (chunkIterator != null) {
+        int rowsReadBefore = chunkIterator.getRowsRead();
+        if (chunkIterator.nextRecordBatch()) {
+          currentRowIndex += chunkIterator.getRowsRead() - rowsReadBefore;
+          return new ArrowColumnarBatch(
+              chunkIterator.getCurrentRecordBatch(), getColumnConverters());
+        }
+      }
+      if (!chunkProvider.hasNextChunk()) {
+        return null;
+      }
+      if (chunkIterator != null) {
+        // Skip the unread rows of the last record batch of the chunk
+        currentRowIndex += chunkProvider.getChunk().numRows - chunkIterator.getRowsRead();
+      }
+      chunkProvider.next();
+      chunkIterator = chunkProvider.getChunk().getChunkIterator();
+    }
   }
 
   /**
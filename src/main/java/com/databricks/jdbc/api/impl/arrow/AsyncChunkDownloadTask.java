@@ -0,0 +1,226 @@
+package com.databricks.jdbc.api.impl.arrow;
+
+import com.databricks.jdbc.api.internal.IDatabricksConnectionContext;
+import com.databricks.jdbc.common.util.DatabricksThreadContextHolder;
+import com.databricks.jdbc.dbclient.IDatabricksHttpClient;
+import com.databricks.jdbc.exception.DatabricksSQLException;
+import com.databricks.jdbc.log.JdbcLogger;
+import com.databricks.jdbc.log.JdbcLoggerFactory;
+import com.databricks.jdbc.model.core.ExternalLink;
+import com.databricks.jdbc.telemetry.latency.ChunkLatencyHandler;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.hc.core5.concurrent.FutureCallback;
+
+/**
+ * Task to download a single chunk with the non-blocking async HTTP client.
+ *
+ * <p>Unlike {@link ChunkDownloadTask}, the task does not hold a download thread while the chunk is
+ * transferred. It starts the request and returns; the body is collected on the I/O reactor by a
+ * {@link ChunkResponseConsumer}. Once the transfer completes, decompression and Arrow parsing are
+ * queued on the download queue of the result set, which runs them on the decode pool when parallel
+ * decoding is enabled. Failed attempts are retried as decided by the {@link
+ * ChunkDownloadRetryPolicy} of the statement, in the same way as in {@link ChunkDownloadTask}: the
+ * task is submitted to the download queue again once the retry delay has elapsed.
+ */
+class AsyncChunkDownloadTask implements DatabricksCallableTask {
+
+  private static final JdbcLogger LOGGER =
+      JdbcLoggerFactory.getLogger(AsyncChunkDownloadTask.class);
+  private final ArrowResultChunk chunk;
+  private final IDatabricksHttpClient httpClient;
+  private final ChunkDownloadCallback chunkDownloader;
+  private final ChunkLinkDownloadService linkDownloadService;
+  private final CloudFetchDownloadScheduler.DownloadQueue downloadQueue;
+  private final ChunkDownloadRetryPolicy retryPolicy;
+  private final IDatabricksConnectionContext connectionContext;
+  private final String statementId;
+  private final long startTime;
+  private int retries = 0;
+  private boolean isLinkRefreshNeeded = false;
+  private byte[] receivedBody;
+  private int receivedLength;
+
+  AsyncChunkDownloadTask(
+      ArrowResultChunk chunk,
+      IDatabricksHttpClient httpClient,
+      ChunkDownloadCallback chunkDownloader,
+      ChunkLinkDownloadService linkDownloadService,
+      CloudFetchDownloadScheduler.DownloadQueue downloadQueue,
+      ChunkDownloadRetryPolicy retryPolicy) {
+    this.chunk = chunk;
+    this.httpClient = httpClient;
+    this.chunkDownloader = chunkDownloader;
+    this.linkDownloadService = linkDownloadService;
+    this.downloadQueue = downloadQueue;
+    this.retryPolicy = retryPolicy;
+    this.connectionContext = DatabricksThreadContextHolder.getConnectionContext();
+    this.statementId = DatabricksThreadContextHolder.getStatementId();
+    this.startTime = System.currentTimeMillis();
+  }
+
+  /** Starts the download of the chunk. Returns as soon as the request has been sent. */
+  @Override
+  public Void call() {
+    setThreadContext();
+    try {
+      if (chunk.isChunkLinkInvalid()) {
+        ExternalLink link =
+            linkDownloadService
+                .getLinkForChunk(chunk.getChunkIndex())
+                .get(); // Block until link is available
+        chunk.setChunkLink(link);
+      } else if (isLinkRefreshNeeded) {
+        // The link was rejected by the cloud storage before its announced expiry
+        chunk.setChunkLink(linkDownloadService.refreshLinkForChunk(chunk.getChunkIndex()));
+      }
+      isLinkRefreshNeeded = false;
+
+      chunk.setStatus(ArrowResultChunk.ChunkStatus.DOWNLOAD_IN_PROGRESS);
+      sendRequest();
+    } catch (ExecutionException | URISyntaxException | DatabricksSQLException e) {
+      retryOrFail(e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      fail(e);
+    } catch (RuntimeException e) {
+      // The request could not be sent, e.g. because the async client has been shut down
+      fail(e);
+    } finally {
+      DatabricksThreadContextHolder.clearAllContext();
+    }
+    return null;
+  }
+
+  private void sendRequest() throws URISyntaxException {
+    long attemptStartTime = System.currentTimeMillis();
+    AtomicReference<Future<InputStream>> request = new AtomicReference<>();
+    // Bytes received by failed attempts are kept, and only the remaining bytes are requested
+    ChunkResponseConsumer responseConsumer =
+        new ChunkResponseConsumer(receivedBody, receivedLength);
+    Future<InputStream> future =
+        httpClient.executeAsync(
+            chunk.createAsyncDownloadRequest(receivedLength),
+            responseConsumer,
+            new FutureCallback<InputStream>() {
+              @Override
+              public void completed(InputStream body) {
+                untrack(request.get());
+                receivedBody = null;
+                receivedLength = 0;
+                Long downloadedBytes = chunk.getByteCount();
+                downloadQueue.recordDownload(
+                    downloadedBytes != null ? downloadedBytes : 0,
+                    System.currentTimeMillis() - attemptStartTime);
+                downloadQueue.submitDecode(
+                    () -> processResponse(body, null), chunk.getChunkIndex());
+              }
+
+              @Override
+              public void failed(Exception e) {
+                untrack(request.get());
+                receivedBody = responseConsumer.getPartialBody();
+                receivedLength = responseConsumer.getPartialLength();
+                downloadQueue.submit(() -> processResponse(null, e), chunk.getChunkIndex());
+              }
+
+              @Override
+              public void cancelled() {
+                untrack(request.get());
+                LOGGER.debug("Download of chunk {} was cancelled", chunk.getChunkIndex());
+                chunk.setStatus(ArrowResultChunk.ChunkStatus.CANCELLED);
+                chunkDownloader.downloadProcessed(chunk.getChunkIndex());
+              }
+            });
+    request.set(future);
+    downloadQueue.trackRequest(future);
+    if (future.isDone()) {
+      untrack(future);
+    }
+  }
+
+  /**
+   * Parses the downloaded chunk, or writes it to disk if it is spilled, or handles the failed
+   * download. Runs on the download pool, or on the decode pool for a successful download with
+   * parallel decoding.
+   */
+  private Void processResponse(InputStream body, Exception failure) {
+    setThreadContext();
+    try {
+      if (failure != null) {
+        // Records the error on the chunk and rethrows it as a parsing exception
+        chunk.handleFailure(failure, ArrowResultChunk.ChunkStatus.DOWNLOAD_FAILED);
+      }
+      boolean isLoaded =
+          chunk.isSpillTarget()
+              ? chunk.spillDownloadedData(body)
+              : chunk.loadDownloadedData(body, chunkDownloader.getCompressionCodec());
+      if (isLoaded) {
+        ChunkLatencyHandler.getInstance()
+            .recordChunkDownloadLatency(
+                statementId, chunk.getChunkIndex(), System.currentTimeMillis() - startTime);
+        chunkDownloader.downloadProcessed(chunk.getChunkIndex());
+      }
+      // Otherwise a hedged download loaded the chunk first and notified the chunk waiters
+    } catch (DatabricksSQLException e) {
+      retryOrFail(e);
+    } finally {
+      DatabricksThreadContextHolder.clearAllContext();
+    }
+    return null;
+  }
+
+  private void retryOrFail(Exception e) {
+    retries++;
+    ChunkDownloadRetryPolicy.RetryDecision decision =
+        retryPolicy.onDownloadFailure(chunk, e, retries);
+    if (!decision.isRetry()) {
+      LOGGER.error(
+          e,
+          "Failed to download chunk after %d attempts. Chunk index: %d, Error: %s",
+          retries,
+          chunk.getChunkIndex(),
+          e.getMessage());
+      fail(e);
+      return;
+    }
+    LOGGER.warn(
+        String.format(
+            "Retry attempt %d for chunk index: %d in %d ms (%s), Error: %s",
+            retries,
+            chunk.getChunkIndex(),
+            decision.getDelayMillis(),
+            decision.getFailureType(),
+            e.getMessage()));
+    chunk.setStatus(ArrowResultChunk.ChunkStatus.DOWNLOAD_RETRY);
+    if (decision.getFailureType() == ChunkDownloadRetryPolicy.FailureType.THROTTLED) {
+      downloadQueue.recordThrottledDownload();
+    }
+    isLinkRefreshNeeded = decision.isLinkRefreshNeeded();
+    // Start the download again from the download pool once the retry delay has elapsed. This may
+    // run on the decode pool, which must not wait for the delay nor send the request.
+    downloadQueue.submitAfter(this, chunk.getChunkIndex(), decision.getDelayMillis());
+  }
+
+  private void fail(Exception e) {
+    LOGGER.info(
+        "Chunk download failed. Chunk index: %d, Error: %s", chunk.getChunkIndex(), e.getMessage());
+    chunk.setStatus(ArrowResultChunk.ChunkStatus.DOWNLOAD_FAILED);
+    chunkDownloader.downloadProcessed(chunk.getChunkIndex());
+  }
+
+  private void untrack(Future<InputStream> request) {
+    if (request != null) {
+      downloadQueue.untrackRequest(request);
+    }
+  }
+
+  private void setThreadContext() {
+    DatabricksThreadContextHolder.setConnectionContext(this.connectionContext);
+    DatabricksThreadContextHolder.setStatementId(this.statementId);
+    DatabricksThreadContextHolder.setRetryCount(retries);
+  }
+}
@@ -0,0 +1,165 @@
+package com.databricks.jdbc.api.impl.arrow;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Pool of buffers holding downloaded, still compressed, chunk data between the download and the
+ * decode stage of the CloudFetch pipeline.
+ *
+ * <p>The chunks of a result are of similar sizes, so the buffer of a decoded chunk can usually
+ * receive the next download without allocating a new array. A download gets the smallest pooled
+ * buffer that fits it, and only if that buffer is at most {@link #MAX_OVERSIZE_FACTOR} times the
+ * size of the download, so a small chunk does not hold on to a large buffer. The pool retains a
+ * bounded number of bytes; buffers released beyond that bound, or larger than the largest pooled
+ * buffer, are left to the garbage collector. The pool is {@link #clear() emptied} when the last
+ * connection using CloudFetch is closed.
+ */
+class ChunkBufferPool {
+
+  private static final int DEFAULT_BUFFER_SIZE = 1024 * 1024; // 1 MB
+  private static final long MAX_POOLED_BYTES = 256L * 1024 * 1024; // 256 MB
+  private static final int MAX_POOLED_BUFFER_SIZE = 64 * 1024 * 1024; // 64 MB
+  private static final int MAX_OVERSIZE_FACTOR = 2;
+  // Largest array size supported by common JVMs
+  private static final int MAX_BUFFER_SIZE = Integer.MAX_VALUE - 8;
+
+  private static final ChunkBufferPool INSTANCE =
+      new ChunkBufferPool(MAX_POOLED_BYTES, MAX_POOLED_BUFFER_SIZE);
+
+  private final long maxPooledBytes;
+  private final int maxPooledBufferSize;
+  // Pooled buffers by size, guarded by this
+  private final TreeMap<Integer, ArrayDeque<byte[]>> buffers = new TreeMap<>();
+  private long pooledBytes;
+
+  @VisibleForTesting
+  ChunkBufferPool(long maxPooledBytes, int maxPooledBufferSize) {
+    this.maxPooledBytes = maxPooledBytes;
+    this.maxPooledBufferSize = maxPooledBufferSize;
+  }
+
+  static ChunkBufferPool getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Reads a stream to its end into a pooled buffer.
+   *
+   * @param content the stream to read, not closed by this method
+   * @param contentLength the expected length of the stream, or a negative value if unknown
+   * @return the buffer holding the content, to be released once the content has been consumed
+   * @throws IOException if reading fails, or the content does not fit in a byte array
+   */
+  PooledBuffer read(InputStream content, long contentLength) throws IOException {
+    if (contentLength > MAX_BUFFER_SIZE) {
+      throw new IOException(
+          String.format("Chunk of %d bytes is too large to be buffered", contentLength));
+    }
+    byte[] buffer = acquire(contentLength > 0 ? (int) contentLength : DEFAULT_BUFFER_SIZE);
+    int length = 0;
+    try {
+      while (true) {
+        if (length == buffer.length) {
+          // Only grow the buffer if the content does not end exactly at its capacity
+          int next = content.read();
+          if (next < 0) {
+            break;
+          }
+          buffer = grow(buffer);
+          buffer[length++] = (byte) next;
+        }
+        int count = content.read(buffer, length, buffer.length - length);
+        if (count < 0) {
+          break;
+        }
+        length += count;
+      }
+    } catch (IOException | RuntimeException e) {
+      release(buffer);
+      throw e;
+    }
+    return new PooledBuffer(buffer, length);
+  }
+
+  /** Returns the number of bytes held by the buffers waiting in the pool. */
+  synchronized long getPooledBytes() {
+    return pooledBytes;
+  }
+
+  /** Drops the pooled buffers, leaving them to the garbage collector. */
+  synchronized void clear() {
+    buffers.clear();
+    pooledBytes = 0;
+  }
+
+  private synchronized byte[] acquire(int minCapacity) {
+    Map.Entry<Integer, ArrayDeque<byte[]>> bestFit = buffers.ceilingEntry(minCapacity);
+    if (bestFit == null || bestFit.getKey() > (long) MAX_OVERSIZE_FACTOR * minCapacity) {
+      return new byte[minCapacity];
+    }
+    byte[] buffer = bestFit.getValue().pop();
+    if (bestFit.getValue().isEmpty()) {
+      buffers.remove(bestFit.getKey());
+    }
+    pooledBytes -= buffer.length;
+    return buffer;
+  }
+
+  private synchronized void release(byte[] buffer) {
+    if (buffer.length > maxPooledBufferSize || pooledBytes + buffer.length > maxPooledBytes) {
+      return;
+    }
+    buffers.computeIfAbsent(buffer.length, size -> new ArrayDeque<>()).push(buffer);
+    pooledBytes += buffer.length;
+  }
+
+  private byte[] grow(byte[] buffer) throws IOException {
+    if (buffer.length >= MAX_BUFFER_SIZE) {
+      throw new IOException("Chunk is too large to be buffered");
+    }
+    byte[] grown = Arrays.copyOf(buffer, (int) Math.min(2L * buffer.length, MAX_BUFFER_SIZE));
+    release(buffer);
+    return grown;
+  }
+
+  /** Downloaded chunk data held in a buffer of the pool. */
+  final class PooledBuffer {
+
+    private byte[] buffer;
+    private final int length;
+
+    private PooledBuffer(byte[] buffer, int length) {
+      this.buffer = buffer;
+      this.length = length;
+    }
+
+    /** Returns a stream over the data. Must not be used after the buffer is released. */
+    InputStream getInputStream() {
+      return new ByteArrayInputStream(buffer, 0, length);
+    }
+
+    /** Returns the length of the data in bytes. */
+    int getLength() {
+      return length;
+    }
+
+    /** Returns the buffer to the pool. Has no effect if the buffer was already released. */
+    void release() {
+      byte[] released;
+      synchronized (this) {
+        released = buffer;
+        buffer = null;
+      }
+      if (released != null) {
+        ChunkBufferPool.this.release(released);
+      }
+    }
+  }
+}
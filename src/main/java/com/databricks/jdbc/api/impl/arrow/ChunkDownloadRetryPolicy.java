@@ -0,0 +1,237 @@
+package com.databricks.jdbc.api.impl.arrow;
+
+import com.databricks.jdbc.exception.DatabricksHttpException;
+import com.databricks.jdbc.exception.DatabricksRetryHandlerException;
+import com.databricks.jdbc.log.JdbcLogger;
+import com.databricks.jdbc.log.JdbcLoggerFactory;
+import com.databricks.jdbc.telemetry.latency.ChunkLatencyHandler;
+import com.google.common.annotations.VisibleForTesting;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides how the failed download of a chunk of a statement is retried.
+ *
+ * <p>Failures are classified by their cause:
+ *
+ * <ul>
+ *   <li>Links rejected by the cloud storage (4xx responses such as 403 for an expired or revoked
+ *       link, or a link past its expiry time) are retried immediately with a new link.
+ *   <li>Throttled downloads (429 and 503 responses, e.g. S3 {@code SlowDown}) are retried after an
+ *       exponential backoff with jitter, or after the {@code Retry-After} delay requested by the
+ *       storage if longer.
+ *   <li>Other failures (connection resets, truncated streams, 5xx responses) are retried after an
+ *       exponential backoff with jitter.
+ * </ul>
+ *
+ * <p>Every chunk is attempted at most {@link ChunkDownloadTask#MAX_RETRIES} times. In addition, the
+ * delayed retries of all chunks of a statement share a retry budget, so that a failing storage is
+ * not hit with every retry of every chunk. Rejected links do not consume the budget, as they are
+ * renewed through the Databricks service rather than the storage.
+ */
+class ChunkDownloadRetryPolicy {
+
+  private static final JdbcLogger LOGGER =
+      JdbcLoggerFactory.getLogger(ChunkDownloadRetryPolicy.class);
+  private static final long BASE_BACKOFF_MS = 500;
+  private static final long MAX_BACKOFF_MS = 8000; // 8 seconds
+  private static final long MAX_RETRY_AFTER_MS = 60000; // 1 minute
+  private static final long MIN_RETRY_BUDGET = 2L * ChunkDownloadTask.MAX_RETRIES;
+  private static final int RETRY_BUDGET_CHUNKS_PER_RETRY = 2;
+
+  /** Classes of download failures, each retried in its own way. */
+  enum FailureType {
+    LINK_REJECTED,
+    THROTTLED,
+    TRANSIENT
+  }
+
+  private final String statementId;
+  private final long baseBackoffMillis;
+  private final long maxBackoffMillis;
+  private final AtomicLong remainingRetryBudget;
+
+  /**
+   * Creates the retry policy of a statement. The retry budget allows one delayed retry for every
+   * two chunks of the result, and at least {@link #MIN_RETRY_BUDGET} retries.
+   *
+   * @param statementId the statement ID, used to report the retries
+   * @param chunkCount the number of chunks of the result
+   */
+  ChunkDownloadRetryPolicy(String statementId, long chunkCount) {
+    this(
+        statementId,
+        Math.max(MIN_RETRY_BUDGET, chunkCount / RETRY_BUDGET_CHUNKS_PER_RETRY),
+        BASE_BACKOFF_MS,
+        MAX_BACKOFF_MS);
+  }
+
+  @VisibleForTesting
+  ChunkDownloadRetryPolicy(
+      String statementId, long retryBudget, long baseBackoffMillis, long maxBackoffMillis) {
+    this.statementId = statementId;
+    this.remainingRetryBudget = new AtomicLong(retryBudget);
+    this.baseBackoffMillis = baseBackoffMillis;
+    this.maxBackoffMillis = maxBackoffMillis;
+  }
+
+  /**
+   * Decides whether the failed download of a chunk is retried.
+   *
+   * @param chunk the chunk whose download failed
+   * @param failure the failure of the download
+   * @param attempt the number of failed attempts of the chunk, including this one
+   * @return the retry decision
+   */
+  RetryDecision onDownloadFailure(ArrowResultChunk chunk, Exception failure, int attempt) {
+    if (attempt >= ChunkDownloadTask.MAX_RETRIES) {
+      return RetryDecision.FAIL;
+    }
+    FailureType failureType = classify(chunk, failure);
+    if (failureType == FailureType.LINK_REJECTED) {
+      ChunkLatencyHandler.getInstance().recordChunkLinkRejection(statementId);
+      return new RetryDecision(failureType, 0, true);
+    }
+    if (remainingRetryBudget.getAndUpdate(budget -> budget > 0 ? budget - 1 : budget) <= 0) {
+      LOGGER.warn(
+          "Retry budget of statement {} is exhausted, not retrying chunk {}",
+          statementId,
+          chunk.getChunkIndex());
+      return RetryDecision.FAIL;
+    }
+    long delayMillis = getBackoffMillis(attempt);
+    if (failureType == FailureType.THROTTLED) {
+      Duration retryAfter = getRetryAfter(failure);
+      if (retryAfter != null) {
+        delayMillis = Math.max(delayMillis, Math.min(retryAfter.toMillis(), MAX_RETRY_AFTER_MS));
+      }
+    }
+    ChunkLatencyHandler.getInstance()
+        .recordChunkDownloadRetry(
+            statementId,
+            failureType == FailureType.THROTTLED,
+            delayMillis,
+            remainingRetryBudget.get());
+    return new RetryDecision(failureType, delayMillis, false);
+  }
+
+  /** Returns the number of delayed retries the chunks of the statement may still make. */
+  long getRemainingRetryBudget() {
+    return remainingRetryBudget.get();
+  }
+
+  /**
+   * Returns the exponential backoff before the given attempt, with equal jitter: a random delay
+   * between half and all of the exponential delay, to spread out the retries of parallel downloads.
+   */
+  @VisibleForTesting
+  long getBackoffMillis(int attempt) {
+    long backoff = Math.min(maxBackoffMillis, baseBackoffMillis << Math.min(attempt - 1, 20));
+    return backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+  }
+
+  @VisibleForTesting
+  static FailureType classify(ArrowResultChunk chunk, Exception failure) {
+    if (chunk.isChunkLinkInvalid()) {
+      return FailureType.LINK_REJECTED;
+    }
+    int statusCode = getStatusCode(failure);
+    if (statusCode == 429 || statusCode == 503) {
+      return FailureType.THROTTLED;
+    }
+    if (statusCode >= 400 && statusCode < 500 && statusCode != 408) {
+      return FailureType.LINK_REJECTED;
+    }
+    return FailureType.TRANSIENT;
+  }
+
+  /**
+   * Parses the value of a {@code Retry-After} header, given either in seconds or as an HTTP date.
+   *
+   * @return the requested delay, or null if the value cannot be parsed
+   */
+  static Duration parseRetryAfter(String value) {
+    if (value == null) {
+      return null;
+    }
+    try {
+      return Duration.ofSeconds(Math.max(0, Long.parseLong(value.trim())));
+    } catch (NumberFormatException e) {
+      // Not a number of seconds, the value may be a date
+    }
+    try {
+      Duration delay =
+          Duration.between(
+              ZonedDateTime.now(),
+              ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME));
+      return delay.isNegative() ? Duration.ZERO : delay;
+    } catch (DateTimeParseException e) {
+      LOGGER.debug("Ignoring invalid Retry-After value {}", value);
+      return null;
+    }
+  }
+
+  private static int getStatusCode(Throwable failure) {
+    for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+      if (cause instanceof DatabricksHttpException
+          && ((DatabricksHttpException) cause).getStatusCode() > 0) {
+        return ((DatabricksHttpException) cause).getStatusCode();
+      }
+      if (cause instanceof DatabricksRetryHandlerException) {
+        return ((DatabricksRetryHandlerException) cause).getErrCode();
+      }
+    }
+    return -1;
+  }
+
+  private static Duration getRetryAfter(Throwable failure) {
+    for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+      if (cause instanceof DatabricksHttpException) {
+        Duration retryAfter = ((DatabricksHttpException) cause).getRetryAfter();
+        if (retryAfter != null) {
+          return retryAfter;
+        }
+      }
+    }
+    return null;
+  }
+
+  /** Decision on how to retry a failed chunk download. */
+  static final class RetryDecision {
+    static final RetryDecision FAIL = new RetryDecision(null, 0, false);
+
+    private final FailureType failureType;
+    private final long delayMillis;
+    private final boolean isLinkRefreshNeeded;
+
+    private RetryDecision(FailureType failureType, long delayMillis, boolean isLinkRefreshNeeded) {
+      this.failureType = failureType;
+      this.delayMillis = delayMillis;
+      this.isLinkRefreshNeeded = isLinkRefreshNeeded;
+    }
+
+    /** Returns whether the download is retried. */
+    boolean isRetry() {
+      return failureType != null;
+    }
+
+    /** Returns the class of the failure, or null if the download is not retried. */
+    FailureType getFailureType() {
+      return failureType;
+    }
+
+    /** Returns the delay before the retry, in milliseconds. */
+    long getDelayMillis() {
+      return delayMillis;
+    }
+
+    /** Returns whether a new link has to be fetched for the retry. */
+    boolean isLinkRefreshNeeded() {
+      return isLinkRefreshNeeded;
+    }
+  }
+}
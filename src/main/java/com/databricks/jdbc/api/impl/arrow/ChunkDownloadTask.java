@@ -13,112 +13,232 @@ import java.io.IOException;
 import java.util.Arrays;
 import java.util.concurrent.ExecutionException;
 
-/** Task class to manage download for a single chunk. */
+/**
+ * Task class to manage download for a single chunk. Failed downloads are retried as decided by the
+ * {@link ChunkDownloadRetryPolicy} of the statement, by submitting the task to the download queue
+ * again once the retry delay has elapsed, so that no thread is held during the delay.
+ *
+ * <p>When the download queue decodes chunks on the decode pool, the task only downloads the
+ * compressed chunk into a pooled buffer, and hands it off to the decode pool. A chunk that fails to
+ * decode is downloaded again by resubmitting the task to the download queue.
+ */
 class ChunkDownloadTask implements DatabricksCallableTask {
 
   private static final JdbcLogger LOGGER = JdbcLoggerFactory.getLogger(ChunkDownloadTask.class);
   public static final int MAX_RETRIES = 5;
-  private static final long RETRY_DELAY_MS = 1500; // 1.5 seconds
   private final ArrowResultChunk chunk;
   private final IDatabricksHttpClient httpClient;
   private final ChunkDownloadCallback chunkDownloader;
   private final IDatabricksConnectionContext connectionContext;
   private final String statementId;
   private final ChunkLinkDownloadService linkDownloadService;
+  private final ChunkDownloadRetryPolicy retryPolicy;
+  private final CloudFetchDownloadScheduler.DownloadQueue downloadQueue;
+  // Retry state, kept across the resubmissions of the task
+  private int retries = 0;
+  private boolean isLinkRefreshNeeded = false;
+  private long retryDelayMillis = 0;
+  private long startTime = 0;
   Throwable uncaughtException = null;
 
   ChunkDownloadTask(
       ArrowResultChunk chunk,
       IDatabricksHttpClient httpClient,
       ChunkDownloadCallback chunkDownloader,
-      ChunkLinkDownloadService linkDownloadService) {
+      ChunkLinkDownloadService linkDownloadService,
+      ChunkDownloadRetryPolicy retryPolicy,
+      CloudFetchDownloadScheduler.DownloadQueue downloadQueue) {
     this.chunk = chunk;
     this.httpClient = httpClient;
     this.chunkDownloader = chunkDownloader;
     this.connectionContext = DatabricksThreadContextHolder.getConnectionContext();
     this.statementId = DatabricksThreadContextHolder.getStatementId();
     this.linkDownloadService = linkDownloadService;
+    this.retryPolicy = retryPolicy;
+    this.downloadQueue = downloadQueue;
   }
 
   @Override
   public Void call() throws DatabricksSQLException, ExecutionException, InterruptedException {
-    long startTime = System.currentTimeMillis();
-    int retries = 0;
+    if (startTime == 0) {
+      startTime = System.currentTimeMillis();
+    }
     boolean downloadSuccessful = false;
+    // Set when the chunk waiters are notified by the decode stage, by a hedged download that
+    // loaded the chunk first, or by the retry of the download
+    boolean isProcessedElsewhere = false;
 
-    // Sets context in the newly spawned thread
-    DatabricksThreadContextHolder.setConnectionContext(this.connectionContext);
-    DatabricksThreadContextHolder.setStatementId(this.statementId);
+    setThreadContext();
 
     try {
-      DatabricksThreadContextHolder.setRetryCount(retries);
-      while (!downloadSuccessful) {
-        try {
-          if (chunk.isChunkLinkInvalid()) {
-            ExternalLink link =
-                linkDownloadService
-                    .getLinkForChunk(chunk.getChunkIndex())
-                    .get(); // Block until link is available
-            chunk.setChunkLink(link);
-          }
-
-          chunk.downloadData(httpClient, chunkDownloader.getCompressionCodec());
+      try {
+        if (download()) {
           downloadSuccessful = true;
-
-          // Record chunk download latency on successful download
-          long downloadLatency = System.currentTimeMillis() - startTime;
-          ChunkLatencyHandler.getInstance()
-              .recordChunkDownloadLatency(statementId, chunk.getChunkIndex(), downloadLatency);
-
-        } catch (IOException | DatabricksSQLException e) {
-          retries++;
-          if (retries >= MAX_RETRIES) {
-            LOGGER.error(
-                e,
-                "Failed to download chunk after %d attempts. Chunk index: %d, Error: %s",
-                MAX_RETRIES,
-                chunk.getChunkIndex(),
-                e.getMessage());
-            chunk.setStatus(ArrowResultChunk.ChunkStatus.DOWNLOAD_FAILED);
-            throw new DatabricksSQLException(
-                "Failed to download chunk after multiple attempts",
-                e,
-                statementId,
-                chunk.getChunkIndex(),
-                DatabricksDriverErrorCode.CHUNK_DOWNLOAD_ERROR.name());
-          } else {
-            LOGGER.warn(
-                String.format(
-                    "Retry attempt %d for chunk index: %d, Error: %s",
-                    retries, chunk.getChunkIndex(), e.getMessage()));
-            chunk.setStatus(ArrowResultChunk.ChunkStatus.DOWNLOAD_RETRY);
-            try {
-              Thread.sleep(RETRY_DELAY_MS);
-            } catch (InterruptedException ie) {
-              Thread.currentThread().interrupt();
-              throw new DatabricksSQLException(
-                  "Chunk download was interrupted",
-                  ie,
-                  DatabricksDriverErrorCode.THREAD_INTERRUPTED_ERROR);
-            }
-          }
+          recordDownloadLatency();
+        } else {
+          isProcessedElsewhere = true;
         }
+      } catch (IOException | DatabricksSQLException e) {
+        if (!shouldRetry(e)) {
+          throw new DatabricksSQLException(
+              "Failed to download chunk after multiple attempts",
+              e,
+              statementId,
+              chunk.getChunkIndex(),
+              DatabricksDriverErrorCode.CHUNK_DOWNLOAD_ERROR.name());
+        }
+        // Download the chunk again once the retry delay has elapsed, without holding this thread
+        isProcessedElsewhere = true;
+        downloadQueue.submitAfter(this, chunk.getChunkIndex(), retryDelayMillis);
       }
     } catch (Throwable t) {
       uncaughtException = t;
       throw t;
     } finally {
-      if (!downloadSuccessful) {
+      if (!downloadSuccessful && !isProcessedElsewhere) {
         LOGGER.info(
             "Uncaught exception during chunk download. Chunk index: %d, Error: %s",
             chunk.getChunkIndex(), Arrays.toString(uncaughtException.getStackTrace()));
         chunk.setStatus(ArrowResultChunk.ChunkStatus.DOWNLOAD_FAILED);
       }
 
-      chunkDownloader.downloadProcessed(chunk.getChunkIndex());
+      if (!isProcessedElsewhere) {
+        chunkDownloader.downloadProcessed(chunk.getChunkIndex());
+      }
       DatabricksThreadContextHolder.clearAllContext();
     }
 
     return null;
   }
+
+  /**
+   * Makes one attempt to download the chunk.
+   *
+   * @return true if the chunk was loaded or spilled by this attempt, false if it is handed off to
+   *     the decode pool or a hedged download loaded it first
+   */
+  private boolean download()
+      throws IOException, DatabricksSQLException, ExecutionException, InterruptedException {
+    if (chunk.isChunkLinkInvalid()) {
+      ExternalLink link =
+          linkDownloadService
+              .getLinkForChunk(chunk.getChunkIndex())
+              .get(); // Block until link is available
+      chunk.setChunkLink(link);
+    } else if (isLinkRefreshNeeded) {
+      // The link was rejected by the cloud storage before its announced expiry
+      chunk.setChunkLink(linkDownloadService.refreshLinkForChunk(chunk.getChunkIndex()));
+    }
+    isLinkRefreshNeeded = false;
+
+    chunk.setStatus(ArrowResultChunk.ChunkStatus.DOWNLOAD_IN_PROGRESS);
+    long attemptStartTime = System.currentTimeMillis();
+    if (chunk.isSpillTarget()) {
+      // The still compressed chunk is written to disk, and decoded once it is consumed
+      ChunkBufferPool.PooledBuffer body = chunk.downloadBody(httpClient);
+      try {
+        downloadQueue.recordDownload(
+            body.getLength(), System.currentTimeMillis() - attemptStartTime);
+        return chunk.spillDownloadedData(body.getInputStream());
+      } finally {
+        body.release();
+      }
+    }
+    if (downloadQueue.isParallelDecodeEnabled()) {
+      // Free the download thread for the next download while the chunk is decoded
+      ChunkBufferPool.PooledBuffer body = chunk.downloadBody(httpClient);
+      downloadQueue.recordDownload(body.getLength(), System.currentTimeMillis() - attemptStartTime);
+      downloadQueue.submitDecode(() -> decode(body), chunk.getChunkIndex(), body::release);
+      return false;
+    }
+
+    if (!chunk.downloadData(httpClient, chunkDownloader.getCompressionCodec())) {
+      return false;
+    }
+    Long downloadedBytes = chunk.getByteCount();
+    downloadQueue.recordDownload(
+        downloadedBytes != null ? downloadedBytes : 0,
+        System.currentTimeMillis() - attemptStartTime);
+    return true;
+  }
+
+  /** Decodes a chunk downloaded by {@link #call()}. Runs on the decode pool. */
+  private Void decode(ChunkBufferPool.PooledBuffer body) {
+    setThreadContext();
+    boolean isProcessedElsewhere = false;
+    try {
+      if (chunk.loadDownloadedData(body.getInputStream(), chunkDownloader.getCompressionCodec())) {
+        recordDownloadLatency();
+      } else {
+        isProcessedElsewhere = true;
+      }
+    } catch (DatabricksSQLException e) {
+      if (shouldRetry(e)) {
+        // Download the chunk again on the download pool, never on the decode pool
+        isProcessedElsewhere = true;
+        downloadQueue.submitAfter(this, chunk.getChunkIndex(), retryDelayMillis);
+      }
+    } catch (RuntimeException e) {
+      LOGGER.error(e, "Failed to decode chunk. Chunk index: %d", chunk.getChunkIndex());
+      chunk.setStatus(ArrowResultChunk.ChunkStatus.DOWNLOAD_FAILED);
+    } finally {
+      body.release();
+      if (!isProcessedElsewhere) {
+        chunkDownloader.downloadProcessed(chunk.getChunkIndex());
+      }
+      DatabricksThreadContextHolder.clearAllContext();
+    }
+    return null;
+  }
+
+  /**
+   * Decides whether a failed attempt is retried, and prepares the retry.
+   *
+   * @return true if the chunk is retried after {@link #retryDelayMillis}, false if the chunk is
+   *     marked as failed
+   */
+  private boolean shouldRetry(Exception e) {
+    retries++;
+    ChunkDownloadRetryPolicy.RetryDecision decision =
+        retryPolicy.onDownloadFailure(chunk, e, retries);
+    if (!decision.isRetry()) {
+      LOGGER.error(
+          e,
+          "Failed to download chunk after %d attempts. Chunk index: %d, Error: %s",
+          retries,
+          chunk.getChunkIndex(),
+          e.getMessage());
+      chunk.setStatus(ArrowResultChunk.ChunkStatus.DOWNLOAD_FAILED);
+      return false;
+    }
+    LOGGER.warn(
+        String.format(
+            "Retry attempt %d for chunk index: %d in %d ms (%s), Error: %s",
+            retries,
+            chunk.getChunkIndex(),
+            decision.getDelayMillis(),
+            decision.getFailureType(),
+            e.getMessage()));
+    chunk.setStatus(ArrowResultChunk.ChunkStatus.DOWNLOAD_RETRY);
+    if (decision.getFailureType() == ChunkDownloadRetryPolicy.FailureType.THROTTLED) {
+      downloadQueue.recordThrottledDownload();
+    }
+    isLinkRefreshNeeded = decision.isLinkRefreshNeeded();
+    retryDelayMillis = decision.getDelayMillis();
+    return true;
+  }
+
+  private void recordDownloadLatency() {
+    // Record chunk download latency on successful download
+    long downloadLatency = System.currentTimeMillis() - startTime;
+    ChunkLatencyHandler.getInstance()
+        .recordChunkDownloadLatency(statementId, chunk.getChunkIndex(), downloadLatency);
+  }
+
+  private void setThreadContext() {
+    // Sets context in the newly spawned thread
+    DatabricksThreadContextHolder.setConnectionContext(this.connectionContext);
+    DatabricksThreadContextHolder.setStatementId(this.statementId);
+    DatabricksThreadContextHolder.setRetryCount(retries);
+  }
 }
@@ -4,6 +4,7 @@ import static com.databricks.jdbc.api.impl.arrow.ArrowResultChunk.SECONDS_BUFFER
 
 import com.databricks.jdbc.api.internal.IDatabricksSession;
 import com.databricks.jdbc.common.DatabricksClientType;
+import com.databricks.jdbc.common.util.DriverUtil;
 import com.databricks.jdbc.dbclient.impl.common.StatementId;
 import com.databricks.jdbc.exception.DatabricksSQLException;
 import com.databricks.jdbc.exception.DatabricksValidationException;
@@ -11,12 +12,23 @@ import com.databricks.jdbc.log.JdbcLogger;
 import com.databricks.jdbc.log.JdbcLoggerFactory;
 import com.databricks.jdbc.model.core.ExternalLink;
 import com.databricks.jdbc.telemetry.latency.ChunkLatencyHandler;
+import com.google.common.annotations.VisibleForTesting;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -48,7 +60,17 @@ import java.util.concurrent.atomic.AtomicLong;
  *       </ul>
  * </ul>
  *
- * <h4>3. Correctness Guarantee:</h4>
+ * <h4>3. Proactive Link Refresh:</h4>
+ *
+ * <ul>
+ *   <li>Tracks the expiration of the links of chunks that are not downloaded yet, ordered by time
+ *   <li>Re-fetches the links {@link #LINK_REFRESH_LEAD_SECONDS} before a download would consider
+ *       them expired, so that downloads of slowly consumed results do not wait for new links
+ *   <li>Enabled with {@code CloudFetchLinkRefresh}; if a refresh fails, expired links are still
+ *       handled as described above
+ * </ul>
+ *
+ * <h4>4. Correctness Guarantee:</h4>
  *
  * <p>The service maintains correctness through two mechanisms:
  *
@@ -64,6 +86,20 @@ public class ChunkLinkDownloadService {
   private static final JdbcLogger LOGGER =
       JdbcLoggerFactory.getLogger(ChunkLinkDownloadService.class);
 
+  /** Seconds before the expiry buffer of a link at which the link is refreshed. */
+  static final long LINK_REFRESH_LEAD_SECONDS = 60;
+
+  /** Statuses of chunks that still need a valid link to be downloaded. */
+  private static final Set<ArrowResultChunk.ChunkStatus> LINK_REFRESH_STATUSES =
+      EnumSet.of(
+          ArrowResultChunk.ChunkStatus.PENDING,
+          ArrowResultChunk.ChunkStatus.URL_FETCHED,
+          ArrowResultChunk.ChunkStatus.DOWNLOAD_FAILED,
+          ArrowResultChunk.ChunkStatus.DOWNLOAD_RETRY);
+
+  /** Driver-wide timer of link refreshes. The refreshes themselves run asynchronously. */
+  private static final ScheduledThreadPoolExecutor LINK_REFRESH_TIMER = createLinkRefreshTimer();
+
   private final IDatabricksSession session;
   private final StatementId statementId;
   private final long totalChunks;
@@ -85,6 +121,15 @@ public class ChunkLinkDownloadService {
 
   private final Map<Long, ArrowResultChunk> chunkIndexToChunksMap;
 
+  private final boolean isLinkRefreshEnabled;
+
+  /** Lock guarding the tracked link expirations and the scheduled refresh. */
+  private final Object refreshLock = new Object();
+
+  private final NavigableSet<LinkExpiration> linkExpirations = new TreeSet<>();
+  private ScheduledFuture<?> scheduledRefresh;
+  private Instant scheduledRefreshTime;
+
   public ChunkLinkDownloadService(
       IDatabricksSession session,
       StatementId statementId,
@@ -113,6 +158,19 @@ public class ChunkLinkDownloadService {
 
     this.chunkIndexToChunksMap = chunkIndexToChunksMap;
 
+    this.isLinkRefreshEnabled =
+        session.getConnectionContext().isCloudFetchLinkRefreshEnabled()
+            && !DriverUtil.isRunningAgainstFake();
+    if (isLinkRefreshEnabled) {
+      // Links received with the result are refreshed as well
+      for (long i = 0; i < nextBatchStartIndex && i < totalChunks; i++) {
+        ArrowResultChunk chunk = chunkIndexToChunksMap.get(i);
+        if (chunk != null && chunk.getExpiryTime() != null) {
+          trackLinkExpiration(i, chunk.getExpiryTime());
+        }
+      }
+    }
+
     if (session.getConnectionContext().getClientType() == DatabricksClientType.SEA
         && isDownloadChainStarted.compareAndSet(false, true)) {
       // SEA doesn't give all chunk links, so better to trigger download chain as soon as possible
@@ -165,10 +223,53 @@ public class ChunkLinkDownloadService {
     return chunkIndexToLinkFuture.get(chunkIndex);
   }
 
+  /**
+   * Fetches a new link for a chunk whose link was rejected by the cloud storage, e.g. because it
+   * was revoked or expired earlier than announced. The new link replaces the rejected one for later
+   * calls of {@link #getLinkForChunk}.
+   *
+   * @param chunkIndex The index of the chunk whose link was rejected
+   * @return the new link of the chunk
+   * @throws DatabricksSQLException If the link cannot be fetched
+   */
+  ExternalLink refreshLinkForChunk(long chunkIndex) throws DatabricksSQLException {
+    if (isShutdown) {
+      throw new DatabricksValidationException("Chunk Link Download Service is shutdown");
+    }
+
+    LOGGER.info("Refreshing rejected link of chunk {} for statement {}", chunkIndex, statementId);
+    ExternalLink link =
+        session.getDatabricksClient().getResultChunks(statementId, chunkIndex).stream()
+            .filter(candidate -> Long.valueOf(chunkIndex).equals(candidate.getChunkIndex()))
+            .findFirst()
+            .orElseThrow(
+                () ->
+                    new DatabricksValidationException(
+                        "No link returned for chunk index " + chunkIndex));
+    synchronized (resetLock) {
+      CompletableFuture<ExternalLink> future = chunkIndexToLinkFuture.get(chunkIndex);
+      if (future.isDone()) {
+        chunkIndexToLinkFuture.put(chunkIndex, CompletableFuture.completedFuture(link));
+      } else {
+        future.complete(link);
+      }
+    }
+    trackLinkExpiration(link);
+    return link;
+  }
+
   /** Shuts down the service and cancels all pending operations. */
   public void shutdown() {
     LOGGER.info("Shutting down ChunkLinkDownloadService for statement {}", statementId);
     isShutdown = true;
+    synchronized (refreshLock) {
+      if (scheduledRefresh != null) {
+        scheduledRefresh.cancel(false);
+        scheduledRefresh = null;
+        scheduledRefreshTime = null;
+      }
+      linkExpirations.clear();
+    }
     chunkIndexToLinkFuture.forEach(
         (index, future) -> {
           if (!future.isDone()) {
@@ -236,6 +337,7 @@ public class ChunkLinkDownloadService {
                         link.getChunkIndex(),
                         statementId);
                     future.complete(link);
+                    trackLinkExpiration(link);
                   }
                 }
 
@@ -422,4 +524,180 @@ public class ChunkLinkDownloadService {
 
     return expirationWithBuffer.isBefore(Instant.now());
   }
+
+  /**
+   * Refreshes the links that are about to expire, for the chunks that are not downloaded yet.
+   *
+   * <p>The links are re-fetched in batches starting from the smallest chunk index to refresh. A
+   * link is only replaced if its future has not been reset meanwhile, so the refresh never
+   * interferes with the download chain or with {@link #handleExpiredLinksAndReset}.
+   */
+  @VisibleForTesting
+  void refreshExpiringLinks() {
+    Map<Long, CompletableFuture<ExternalLink>> linksToRefresh = new TreeMap<>();
+    synchronized (refreshLock) {
+      scheduledRefresh = null;
+      scheduledRefreshTime = null;
+      Instant now = Instant.now();
+      while (!isShutdown
+          && !linkExpirations.isEmpty()
+          && !getRefreshTime(linkExpirations.first().expiryTime).isAfter(now)) {
+        LinkExpiration expiration = linkExpirations.pollFirst();
+        CompletableFuture<ExternalLink> future = chunkIndexToLinkFuture.get(expiration.chunkIndex);
+        if (isLinkRefreshNeeded(expiration, future)) {
+          linksToRefresh.put(expiration.chunkIndex, future);
+        }
+      }
+    }
+    try {
+      while (!linksToRefresh.isEmpty() && !isShutdown) {
+        long startIndex = linksToRefresh.keySet().iterator().next();
+        LOGGER.info(
+            "Refreshing links expiring soon from chunk {} for statement {}",
+            startIndex,
+            statementId);
+        Collection<ExternalLink> links =
+            session.getDatabricksClient().getResultChunks(statementId, startIndex);
+        synchronized (resetLock) {
+          for (ExternalLink link : links) {
+            CompletableFuture<ExternalLink> future = linksToRefresh.remove(link.getChunkIndex());
+            // Skip the link if its future has been reset since the refresh was scheduled
+            if (future == null || chunkIndexToLinkFuture.get(link.getChunkIndex()) != future) {
+              continue;
+            }
+            if (future.isDone()) {
+              chunkIndexToLinkFuture.put(
+                  link.getChunkIndex(), CompletableFuture.completedFuture(link));
+            } else {
+              // A link received with the result, whose future is not completed by the chain
+              future.complete(link);
+            }
+            // Links that are already due again are not refreshed in a loop
+            if (link.getExpiration() != null
+                && getRefreshTime(Instant.parse(link.getExpiration())).isAfter(Instant.now())) {
+              trackLinkExpiration(link);
+            }
+          }
+        }
+        linksToRefresh.remove(startIndex);
+      }
+    } catch (DatabricksSQLException e) {
+      // Downloads fall back to resetting the chain once they find the links expired
+      LOGGER.warn(
+          "Failed to refresh links for statement {}, expired links are renewed on download: {}",
+          statementId,
+          e.getMessage());
+    } finally {
+      synchronized (refreshLock) {
+        scheduleNextRefresh();
+      }
+    }
+  }
+
+  /** Returns the time at which the next link refresh is scheduled, or null if none is. */
+  @VisibleForTesting
+  Instant getScheduledRefreshTime() {
+    synchronized (refreshLock) {
+      return scheduledRefreshTime;
+    }
+  }
+
+  /**
+   * Checks whether a tracked link still has to be refreshed: its chunk is not downloaded yet and
+   * the link has not been replaced since it was tracked.
+   */
+  private boolean isLinkRefreshNeeded(
+      LinkExpiration expiration, CompletableFuture<ExternalLink> future) {
+    ArrowResultChunk chunk = chunkIndexToChunksMap.get(expiration.chunkIndex);
+    if (future == null || chunk == null || !LINK_REFRESH_STATUSES.contains(chunk.getStatus())) {
+      return false;
+    }
+    if (!future.isDone()) {
+      // Only links received with the result have a pending future below the chain index
+      return expiration.chunkIndex < nextBatchStartIndex.get()
+          && expiration.expiryTime.equals(chunk.getExpiryTime());
+    }
+    if (future.isCompletedExceptionally()) {
+      return false;
+    }
+    ExternalLink link = future.getNow(null);
+    return link != null
+        && link.getExpiration() != null
+        && expiration.expiryTime.equals(Instant.parse(link.getExpiration()));
+  }
+
+  private void trackLinkExpiration(ExternalLink link) {
+    if (isLinkRefreshEnabled && link.getExpiration() != null) {
+      trackLinkExpiration(link.getChunkIndex(), Instant.parse(link.getExpiration()));
+    }
+  }
+
+  private void trackLinkExpiration(long chunkIndex, Instant expiryTime) {
+    synchronized (refreshLock) {
+      if (isShutdown) {
+        return;
+      }
+      linkExpirations.add(new LinkExpiration(chunkIndex, expiryTime));
+      scheduleNextRefresh();
+    }
+  }
+
+  /** Schedules the refresh of the earliest expiring link, unless an earlier one is scheduled. */
+  private void scheduleNextRefresh() {
+    if (isShutdown || linkExpirations.isEmpty()) {
+      return;
+    }
+    Instant refreshTime = getRefreshTime(linkExpirations.first().expiryTime);
+    if (scheduledRefresh != null) {
+      if (!scheduledRefreshTime.isAfter(refreshTime)) {
+        return;
+      }
+      scheduledRefresh.cancel(false);
+    }
+    long delayMillis = Math.max(0, Duration.between(Instant.now(), refreshTime).toMillis());
+    LOGGER.debug("Scheduling link refresh for statement {} in {} ms", statementId, delayMillis);
+    scheduledRefresh =
+        LINK_REFRESH_TIMER.schedule(
+            () -> CompletableFuture.runAsync(this::refreshExpiringLinks),
+            delayMillis,
+            TimeUnit.MILLISECONDS);
+    scheduledRefreshTime = refreshTime;
+  }
+
+  private static Instant getRefreshTime(Instant expiryTime) {
+    return expiryTime.minusSeconds(SECONDS_BUFFER_FOR_EXPIRY + LINK_REFRESH_LEAD_SECONDS);
+  }
+
+  private static ScheduledThreadPoolExecutor createLinkRefreshTimer() {
+    ScheduledThreadPoolExecutor timer =
+        new ScheduledThreadPoolExecutor(
+            1,
+            runnable -> {
+              Thread thread = new Thread(runnable, "databricks-jdbc-link-refresh");
+              thread.setDaemon(true);
+              return thread;
+            });
+    timer.setRemoveOnCancelPolicy(true);
+    return timer;
+  }
+
+  /** Expiry time of the link of a chunk, ordered by time. */
+  private static final class LinkExpiration implements Comparable<LinkExpiration> {
+    private static final Comparator<LinkExpiration> ORDER =
+        Comparator.comparing((LinkExpiration expiration) -> expiration.expiryTime)
+            .thenComparingLong(expiration -> expiration.chunkIndex);
+
+    private final long chunkIndex;
+    private final Instant expiryTime;
+
+    private LinkExpiration(long chunkIndex, Instant expiryTime) {
+      this.chunkIndex = chunkIndex;
+      this.expiryTime = expiryTime;
+    }
+
+    @Override
+    public int compareTo(LinkExpiration other) {
+      return ORDER.compare(this, other);
+    }
+  }
 }
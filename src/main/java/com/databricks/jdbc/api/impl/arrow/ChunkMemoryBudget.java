@@ -0,0 +1,128 @@
+package com.databricks.jdbc.api.impl.arrow;
+
+import com.databricks.jdbc.log.JdbcLogger;
+import com.databricks.jdbc.log.JdbcLoggerFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the memory held by CloudFetch chunks of a single result set and decides whether another
+ * chunk can be admitted for download.
+ *
+ * <p>A chunk is admitted against an estimate of its decompressed size, given by a {@link
+ * ChunkSizeEstimator}. Once a chunk is downloaded, its reservation is replaced by the Arrow memory
+ * it actually holds.
+ *
+ * <p>At least one chunk is always admitted when nothing is reserved, so that a single chunk larger
+ * than the budget does not stall the result set.
+ */
+class ChunkMemoryBudget {
+
+  private static final JdbcLogger LOGGER = JdbcLoggerFactory.getLogger(ChunkMemoryBudget.class);
+
+  private final long budgetBytes;
+  private final Map<Long, Long> reservedBytesByChunk = new ConcurrentHashMap<>();
+  private final AtomicLong bytesInUse = new AtomicLong(0);
+  private final AtomicLong peakBytesInUse = new AtomicLong(0);
+  private final ChunkSizeEstimator sizeEstimator;
+
+  ChunkMemoryBudget(long budgetBytes) {
+    this(budgetBytes, new ChunkSizeEstimator(1));
+  }
+
+  /**
+   * @param budgetBytes the memory the chunks of the result set may hold
+   * @param sizeEstimator the estimator of the chunk sizes, which is fed the sizes of the downloaded
+   *     chunks
+   */
+  ChunkMemoryBudget(long budgetBytes, ChunkSizeEstimator sizeEstimator) {
+    this.budgetBytes = budgetBytes;
+    this.sizeEstimator = sizeEstimator;
+  }
+
+  /**
+   * Reserves memory for the given chunk if it fits in the budget.
+   *
+   * @param chunk the chunk that is about to be downloaded
+   * @return true if the chunk was admitted, false otherwise
+   */
+  boolean tryReserve(ArrowResultChunk chunk) {
+    return tryReserve(chunk, 0);
+  }
+
+  /**
+   * Reserves memory for the given chunk and the buffers holding its download if they fit in the
+   * budget. The buffers are released with the rest of the estimate once the chunk is downloaded.
+   *
+   * @param chunk the chunk that is about to be downloaded
+   * @param bufferedBytes the memory holding the downloaded body of the chunk until it is decoded
+   * @return true if the chunk was admitted, false otherwise
+   */
+  boolean tryReserve(ArrowResultChunk chunk, long bufferedBytes) {
+    long estimate = estimateChunkBytes(chunk) + bufferedBytes;
+    if (!reservedBytesByChunk.isEmpty() && bytesInUse.get() + estimate > budgetBytes) {
+      LOGGER.debug(
+          "Chunk {} not admitted, estimated size {} bytes exceeds remaining budget. In use: {}, budget: {}",
+          chunk.getChunkIndex(),
+          estimate,
+          bytesInUse.get(),
+          budgetBytes);
+      return false;
+    }
+    reservedBytesByChunk.put(chunk.getChunkIndex(), estimate);
+    updateBytesInUse(estimate);
+    return true;
+  }
+
+  /**
+   * Replaces the estimated reservation of a downloaded chunk with the memory it actually holds.
+   *
+   * @param chunk the chunk whose download has completed successfully
+   */
+  void onChunkDownloaded(ArrowResultChunk chunk) {
+    long actualBytes = chunk.getAllocatedMemory();
+    sizeEstimator.onChunkDecoded(chunk);
+    reservedBytesByChunk.computeIfPresent(
+        chunk.getChunkIndex(),
+        (index, reserved) -> {
+          updateBytesInUse(actualBytes - reserved);
+          return actualBytes;
+        });
+  }
+
+  /**
+   * Releases the reservation held by the given chunk.
+   *
+   * @param chunkIndex index of the chunk that has been released
+   */
+  void release(long chunkIndex) {
+    Long reserved = reservedBytesByChunk.remove(chunkIndex);
+    if (reserved != null) {
+      updateBytesInUse(-reserved);
+    }
+  }
+
+  long getBudgetBytes() {
+    return budgetBytes;
+  }
+
+  long getBytesInUse() {
+    return bytesInUse.get();
+  }
+
+  long getPeakBytesInUse() {
+    return peakBytesInUse.get();
+  }
+
+  long estimateChunkBytes(ArrowResultChunk chunk) {
+    long estimate = sizeEstimator.estimateChunkBytes(chunk);
+    // Nothing is known about the chunk size yet, only admit it on its own
+    return estimate >= 0 ? estimate : budgetBytes;
+  }
+
+  private void updateBytesInUse(long delta) {
+    long current = bytesInUse.addAndGet(delta);
+    peakBytesInUse.accumulateAndGet(current, Math::max);
+  }
+}
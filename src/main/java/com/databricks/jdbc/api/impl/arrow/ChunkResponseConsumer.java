@@ -0,0 +1,180 @@
+package com.databricks.jdbc.api.impl.arrow;
+
+import static com.databricks.jdbc.common.DatabricksJdbcConstants.DEFAULT_HTTP_EXCEPTION_SQLSTATE;
+
+import com.databricks.jdbc.exception.DatabricksHttpException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.nio.AsyncResponseConsumer;
+import org.apache.hc.core5.http.nio.CapacityChannel;
+import org.apache.hc.core5.http.protocol.HttpContext;
+
+/**
+ * Collects the body of a CloudFetch chunk download on the I/O reactor of the async HTTP client.
+ *
+ * <p>The body is kept in its compressed form, sized from the {@code Content-Length} of the response
+ * when available. Decompression and Arrow parsing are left to the caller, so that they do not run
+ * on the I/O reactor threads.
+ *
+ * <p>The whole compressed body is buffered on the heap on purpose: the decoder only starts once the
+ * transfer is complete, off the I/O reactor, and a failed transfer resumes from the bytes already
+ * received. Memory is therefore bounded by the compressed size of the chunks being downloaded, not
+ * by a fixed window. With {@code CloudFetchMemoryBudgetMB} set, the result set counts the buffered
+ * body against its budget until the chunk is decoded.
+ *
+ * <p>If the transfer fails mid-body, the bytes received so far are kept, so that the next attempt
+ * can request only the remaining bytes with a {@code Range} header and append them.
+ */
+class ChunkResponseConsumer implements AsyncResponseConsumer<InputStream> {
+
+  private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+  private final byte[] receivedBody;
+  private final int receivedLength;
+  private FutureCallback<InputStream> resultCallback;
+  private byte[] body;
+  private int bodyLength;
+  private volatile byte[] partialBody;
+  private volatile int partialLength;
+
+  ChunkResponseConsumer() {
+    this(null, 0);
+  }
+
+  /**
+   * Creates a consumer for a download resuming after the bytes received by a failed attempt.
+   *
+   * @param receivedBody the buffer holding the bytes already received, or null
+   * @param receivedLength the number of bytes already received
+   */
+  ChunkResponseConsumer(byte[] receivedBody, int receivedLength) {
+    this.receivedBody = receivedBody;
+    this.receivedLength = receivedBody != null ? receivedLength : 0;
+    this.partialBody = receivedBody;
+    this.partialLength = this.receivedLength;
+  }
+
+  @Override
+  public void consumeResponse(
+      HttpResponse response,
+      EntityDetails entityDetails,
+      HttpContext context,
+      FutureCallback<InputStream> resultCallback) {
+    int statusCode = response.getCode();
+    if (statusCode < 200 || statusCode >= 300) {
+      Header retryAfter = response.getFirstHeader(HttpHeaders.RETRY_AFTER);
+      resultCallback.failed(
+          new DatabricksHttpException(
+              String.format(
+                  "HTTP request failed by code: %d, status line: %s.",
+                  statusCode, response.getReasonPhrase()),
+              DEFAULT_HTTP_EXCEPTION_SQLSTATE,
+              statusCode,
+              retryAfter != null
+                  ? ChunkDownloadRetryPolicy.parseRetryAfter(retryAfter.getValue())
+                  : null));
+      return;
+    }
+    if (entityDetails == null) {
+      resultCallback.completed(new ByteArrayInputStream(new byte[0]));
+      return;
+    }
+    // A 200 response to a range request is the whole body, the received bytes are discarded
+    int offset = 0;
+    if (statusCode == HttpStatus.SC_PARTIAL_CONTENT) {
+      Header contentRange = response.getFirstHeader(HttpHeaders.CONTENT_RANGE);
+      if (receivedLength == 0
+          || contentRange == null
+          || ResumableChunkInputStream.getContentRangeStart(contentRange.getValue())
+              != receivedLength) {
+        resultCallback.failed(
+            new DatabricksHttpException(
+                String.format(
+                    "Unexpected range of partial response: %s",
+                    contentRange != null ? contentRange.getValue() : null),
+                DEFAULT_HTTP_EXCEPTION_SQLSTATE));
+        return;
+      }
+      offset = receivedLength;
+    }
+    this.resultCallback = resultCallback;
+    long contentLength = entityDetails.getContentLength();
+    this.body =
+        new byte
+            [contentLength > 0 && offset + contentLength < Integer.MAX_VALUE
+                ? (int) (offset + contentLength)
+                : offset + DEFAULT_BUFFER_SIZE];
+    if (offset > 0) {
+      System.arraycopy(receivedBody, 0, body, 0, offset);
+    }
+    this.bodyLength = offset;
+  }
+
+  @Override
+  public void informationResponse(HttpResponse response, HttpContext context) {}
+
+  @Override
+  public void updateCapacity(CapacityChannel capacityChannel) throws IOException {
+    // The whole body is buffered, see the class comment, so there is no need to throttle the server
+    capacityChannel.update(Integer.MAX_VALUE);
+  }
+
+  @Override
+  public void consume(ByteBuffer src) {
+    if (body == null) {
+      // The response was rejected, discard its body
+      src.position(src.limit());
+      return;
+    }
+    int length = src.remaining();
+    if (bodyLength + length > body.length) {
+      body = Arrays.copyOf(body, Math.max(body.length * 2, bodyLength + length));
+    }
+    src.get(body, bodyLength, length);
+    bodyLength += length;
+  }
+
+  @Override
+  public void streamEnd(List<? extends Header> trailers) {
+    if (resultCallback != null) {
+      resultCallback.completed(new ByteArrayInputStream(body, 0, bodyLength));
+    }
+  }
+
+  @Override
+  public void failed(Exception cause) {
+    if (body != null && bodyLength > partialLength) {
+      partialBody = body;
+      partialLength = bodyLength;
+    }
+    if (resultCallback != null) {
+      resultCallback.failed(cause);
+    }
+  }
+
+  /** Returns the buffer of the bytes received by this or earlier attempts, or null if none. */
+  byte[] getPartialBody() {
+    return partialBody;
+  }
+
+  /** Returns the number of bytes received by this or earlier attempts. */
+  int getPartialLength() {
+    return partialLength;
+  }
+
+  @Override
+  public void releaseResources() {
+    resultCallback = null;
+    body = null;
+  }
+}
@@ -0,0 +1,68 @@
+package com.databricks.jdbc.api.impl.arrow;
+
+import com.databricks.jdbc.common.CompressionCodec;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Estimates the memory a CloudFetch chunk of a result set holds once it is decoded, before it is
+ * downloaded.
+ *
+ * <p>The estimate is derived from the byte count reported by the server, which is the compressed
+ * size of the chunk, scaled by the ratio between the decoded and reported sizes of the chunks
+ * decoded so far. Until a chunk is decoded, LZ4 compressed chunks are assumed to grow by {@link
+ * #DEFAULT_LZ4_DECODED_SIZE_RATIO}. When the server does not report a byte count, the average
+ * decoded chunk size is used instead.
+ */
+class ChunkSizeEstimator {
+
+  /** Assumed ratio between the decoded and LZ4 compressed sizes of a chunk. */
+  static final int DEFAULT_LZ4_DECODED_SIZE_RATIO = 4;
+
+  private final int defaultDecodedSizeRatio;
+  private final AtomicLong observedBytes = new AtomicLong(0);
+  private final AtomicLong observedChunks = new AtomicLong(0);
+  private final AtomicLong observedBytesWithServerCount = new AtomicLong(0);
+  private final AtomicLong serverBytesOfObservedChunks = new AtomicLong(0);
+
+  ChunkSizeEstimator(CompressionCodec compressionCodec) {
+    this(compressionCodec == CompressionCodec.LZ4_FRAME ? DEFAULT_LZ4_DECODED_SIZE_RATIO : 1);
+  }
+
+  ChunkSizeEstimator(int defaultDecodedSizeRatio) {
+    this.defaultDecodedSizeRatio = defaultDecodedSizeRatio;
+  }
+
+  /**
+   * Records the memory held by a decoded chunk.
+   *
+   * @param chunk the chunk whose download has completed successfully
+   */
+  void onChunkDecoded(ArrowResultChunk chunk) {
+    long actualBytes = chunk.getAllocatedMemory();
+    Long serverBytes = chunk.getByteCount();
+    observedBytes.addAndGet(actualBytes);
+    observedChunks.incrementAndGet();
+    if (serverBytes != null && serverBytes > 0) {
+      observedBytesWithServerCount.addAndGet(actualBytes);
+      serverBytesOfObservedChunks.addAndGet(serverBytes);
+    }
+  }
+
+  /**
+   * Returns the estimated decoded size of the chunk in bytes, or -1 if nothing is known about it
+   * yet.
+   */
+  long estimateChunkBytes(ArrowResultChunk chunk) {
+    Long serverBytes = chunk.getByteCount();
+    if (serverBytes != null && serverBytes > 0) {
+      long reportedTotal = serverBytesOfObservedChunks.get();
+      if (reportedTotal == 0) {
+        return serverBytes * defaultDecodedSizeRatio;
+      }
+      double observedRatio = (double) observedBytesWithServerCount.get() / reportedTotal;
+      return (long) Math.ceil(serverBytes * observedRatio);
+    }
+    long chunks = observedChunks.get();
+    return chunks > 0 ? observedBytes.get() / chunks : -1;
+  }
+}
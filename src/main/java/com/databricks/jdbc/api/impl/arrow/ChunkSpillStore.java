@@ -0,0 +1,310 @@
+package com.databricks.jdbc.api.impl.arrow;
+
+import com.databricks.jdbc.common.CompressionCodec;
+import com.databricks.jdbc.log.JdbcLogger;
+import com.databricks.jdbc.log.JdbcLoggerFactory;
+import com.google.common.annotations.VisibleForTesting;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import net.jpountz.lz4.LZ4FrameOutputStream;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Local disk tier for the downloaded CloudFetch chunks of a single result set.
+ *
+ * <p>When the chunks a result set holds in memory reach their limit, further chunks can be admitted
+ * to this store instead. Their downloaded data is written, still compressed, to a file in a
+ * temporary directory of the result set, and only decoded into Arrow memory once the consumer
+ * reaches the chunk, reading the file through a memory mapping. Chunks of results that are not
+ * compressed by the server are compressed with LZ4 when written. This lets prefetching run far
+ * ahead of a slow consumer, bounded by {@code CloudFetchSpillLimitMB} of disk space.
+ *
+ * <p>A chunk is admitted against the size reported by the server, or the average size of the chunks
+ * spilled so far. At least one chunk is always admitted when nothing is spilled.
+ *
+ * <p>The files are deleted once their chunk is loaded, and the directory when the result set is
+ * closed. Stores still open when the JVM exits are deleted by a shutdown hook.
+ */
+class ChunkSpillStore {
+
+  private static final JdbcLogger LOGGER = JdbcLoggerFactory.getLogger(ChunkSpillStore.class);
+  private static final String DIRECTORY_PREFIX = "databricks-jdbc-spill-";
+  private static final Set<ChunkSpillStore> OPEN_STORES = ConcurrentHashMap.newKeySet();
+  private static volatile boolean isShutdownHookRegistered;
+
+  private final Path baseDirectory;
+  private final long limitBytes;
+  private final CompressionCodec resultCodec;
+  // Guarded by this
+  private Path directory;
+  private final Map<Long, Long> reservedBytesByChunk = new HashMap<>();
+  private final Map<Long, Path> filesByChunk = new HashMap<>();
+  private long reservedBytes;
+  private long peakReservedBytes;
+  private long spilledBytes;
+  private long spilledChunks;
+  private boolean isClosed;
+
+  /**
+   * Creates the spill store of a result set. The directory of the store is only created when the
+   * first chunk is spilled.
+   *
+   * @param baseDirectory the directory in which the directory of the store is created, or null for
+   *     the temporary directory of the JVM
+   * @param limitBytes the maximum number of bytes spilled at the same time
+   * @param resultCodec the compression codec of the downloaded chunks
+   */
+  ChunkSpillStore(String baseDirectory, long limitBytes, CompressionCodec resultCodec) {
+    this.baseDirectory =
+        Paths.get(baseDirectory != null ? baseDirectory : System.getProperty("java.io.tmpdir"));
+    this.limitBytes = limitBytes;
+    this.resultCodec = resultCodec != null ? resultCodec : CompressionCodec.NONE;
+  }
+
+  /**
+   * Reserves disk space for the given chunk if it fits in the limit.
+   *
+   * @param chunk the chunk that is about to be downloaded
+   * @return true if the chunk was admitted, false otherwise
+   */
+  synchronized boolean tryReserve(ArrowResultChunk chunk) {
+    if (isClosed) {
+      return false;
+    }
+    long estimate = estimateChunkBytes(chunk);
+    if (!reservedBytesByChunk.isEmpty() && reservedBytes + estimate > limitBytes) {
+      return false;
+    }
+    reservedBytesByChunk.put(chunk.getChunkIndex(), estimate);
+    reservedBytes += estimate;
+    peakReservedBytes = Math.max(peakReservedBytes, reservedBytes);
+    return true;
+  }
+
+  /**
+   * Writes the downloaded data of a chunk to its file, replacing the reservation of the chunk with
+   * the size of the file.
+   *
+   * @param chunkIndex the index of the chunk
+   * @param content the downloaded data, compressed with the codec of the result
+   * @throws IOException if the file cannot be written, or the store was closed
+   */
+  void write(long chunkIndex, InputStream content) throws IOException {
+    Path file = getDirectory().resolve("chunk-" + chunkIndex);
+    try (OutputStream out = Files.newOutputStream(file)) {
+      if (resultCodec == CompressionCodec.NONE) {
+        try (OutputStream compressed = new LZ4FrameOutputStream(out)) {
+          IOUtils.copy(content, compressed);
+        }
+      } else {
+        IOUtils.copy(content, out);
+      }
+    } catch (IOException e) {
+      Files.deleteIfExists(file);
+      throw e;
+    }
+    long fileBytes = Files.size(file);
+    synchronized (this) {
+      if (isClosed) {
+        Files.deleteIfExists(file);
+        throw new IOException("Result set was closed while spilling chunk " + chunkIndex);
+      }
+      filesByChunk.put(chunkIndex, file);
+      Long reserved = reservedBytesByChunk.put(chunkIndex, fileBytes);
+      reservedBytes += fileBytes - (reserved != null ? reserved : 0);
+      peakReservedBytes = Math.max(peakReservedBytes, reservedBytes);
+      spilledBytes += fileBytes;
+      spilledChunks++;
+    }
+    LOGGER.debug("Spilled chunk {} to {} ({} bytes)", chunkIndex, file, fileBytes);
+  }
+
+  /**
+   * Opens the spilled data of a chunk, memory-mapping its file.
+   *
+   * @param chunkIndex the index of the chunk
+   * @return the compressed data of the chunk, see {@link #getSpillCodec()}
+   * @throws IOException if the chunk was not spilled or its file cannot be read
+   */
+  InputStream read(long chunkIndex) throws IOException {
+    Path file;
+    synchronized (this) {
+      file = filesByChunk.get(chunkIndex);
+    }
+    if (file == null) {
+      throw new IOException("Chunk " + chunkIndex + " is not spilled");
+    }
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      // The mapping stays valid after the channel is closed
+      return new ByteBufferInputStream(
+          channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    }
+  }
+
+  /** Returns the compression codec of the spilled data. */
+  CompressionCodec getSpillCodec() {
+    return resultCodec == CompressionCodec.NONE ? CompressionCodec.LZ4_FRAME : resultCodec;
+  }
+
+  /**
+   * Deletes the file of a chunk and releases its reservation. Has no effect if the chunk has no
+   * reservation.
+   *
+   * @param chunkIndex the index of the chunk
+   */
+  void release(long chunkIndex) {
+    Path file;
+    synchronized (this) {
+      Long reserved = reservedBytesByChunk.remove(chunkIndex);
+      if (reserved != null) {
+        reservedBytes -= reserved;
+      }
+      file = filesByChunk.remove(chunkIndex);
+    }
+    if (file != null) {
+      deleteQuietly(file);
+    }
+  }
+
+  /** Deletes all spilled chunks and the directory of the store. */
+  void close() {
+    Path directoryToDelete;
+    synchronized (this) {
+      if (isClosed) {
+        return;
+      }
+      isClosed = true;
+      directoryToDelete = directory;
+      reservedBytesByChunk.clear();
+      filesByChunk.clear();
+      reservedBytes = 0;
+    }
+    OPEN_STORES.remove(this);
+    if (directoryToDelete != null) {
+      deleteDirectory(directoryToDelete);
+    }
+  }
+
+  /** Returns the number of bytes reserved by chunks admitted to the store. */
+  synchronized long getReservedBytes() {
+    return reservedBytes;
+  }
+
+  /** Returns the largest number of bytes reserved at the same time. */
+  synchronized long getPeakReservedBytes() {
+    return peakReservedBytes;
+  }
+
+  /** Returns the number of chunks spilled so far. */
+  synchronized long getSpilledChunks() {
+    return spilledChunks;
+  }
+
+  @VisibleForTesting
+  synchronized Path getDirectoryIfCreated() {
+    return directory;
+  }
+
+  private synchronized Path getDirectory() throws IOException {
+    if (isClosed) {
+      throw new IOException("Spill store is closed");
+    }
+    if (directory == null) {
+      Files.createDirectories(baseDirectory);
+      directory = Files.createTempDirectory(baseDirectory, DIRECTORY_PREFIX);
+      registerShutdownHook();
+      OPEN_STORES.add(this);
+      LOGGER.debug("Created cloud fetch spill directory {}", directory);
+    }
+    return directory;
+  }
+
+  private long estimateChunkBytes(ArrowResultChunk chunk) {
+    Long serverBytes = chunk.getByteCount();
+    if (serverBytes != null && serverBytes > 0) {
+      return serverBytes;
+    }
+    return spilledChunks > 0 ? spilledBytes / spilledChunks : limitBytes;
+  }
+
+  private static void registerShutdownHook() {
+    if (isShutdownHookRegistered) {
+      return;
+    }
+    synchronized (OPEN_STORES) {
+      if (isShutdownHookRegistered) {
+        return;
+      }
+      Thread hook =
+          new Thread(
+              () -> OPEN_STORES.forEach(ChunkSpillStore::close), "databricks-jdbc-spill-cleanup");
+      Runtime.getRuntime().addShutdownHook(hook);
+      isShutdownHookRegistered = true;
+    }
+  }
+
+  private static void deleteDirectory(Path directory) {
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+      for (Path file : files) {
+        deleteQuietly(file);
+      }
+    } catch (IOException e) {
+      LOGGER.warn("Failed to list cloud fetch spill directory {}: {}", directory, e.getMessage());
+    }
+    deleteQuietly(directory);
+  }
+
+  private static void deleteQuietly(Path path) {
+    try {
+      Files.deleteIfExists(path);
+    } catch (IOException e) {
+      // e.g. a file still mapped on Windows
+      LOGGER.warn("Failed to delete cloud fetch spill file {}: {}", path, e.getMessage());
+    }
+  }
+
+  /** Stream over a memory-mapped file. */
+  private static final class ByteBufferInputStream extends InputStream {
+
+    private final ByteBuffer buffer;
+
+    private ByteBufferInputStream(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+      return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) {
+      if (length == 0) {
+        return 0;
+      }
+      if (!buffer.hasRemaining()) {
+        return -1;
+      }
+      int count = Math.min(length, buffer.remaining());
+      buffer.get(bytes, offset, count);
+      return count;
+    }
+
+    @Override
+    public int available() {
+      return buffer.remaining();
+    }
+  }
+}
@@ -0,0 +1,769 @@
+package com.databricks.jdbc.api.impl.arrow;
+
+import com.databricks.jdbc.api.internal.IDatabricksConnectionContext;
+import com.databricks.jdbc.dbclient.impl.common.StatementId;
+import com.databricks.jdbc.log.JdbcLogger;
+import com.databricks.jdbc.log.JdbcLoggerFactory;
+import com.databricks.jdbc.telemetry.latency.ChunkLatencyHandler;
+import com.google.common.annotations.VisibleForTesting;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Driver-wide scheduler for CloudFetch chunk downloads.
+ *
+ * <p>All result sets share one bounded pool of download threads instead of creating a thread pool
+ * per result set. Each result set submits its downloads to its own {@link DownloadQueue}, and the
+ * workers take one task at a time from the queues in round-robin order, so a result set with many
+ * pending chunks cannot starve the others.
+ *
+ * <p>Within a queue, tasks run in the order of their priority, the index of their chunk, so the
+ * chunk the consumer needs next is downloaded before chunks further ahead. A queue whose consumer
+ * is waiting for a chunk can be {@link DownloadQueue#prioritize prioritized}, taking the next free
+ * download thread ahead of the prefetches of other result sets.
+ *
+ * <p>Connections enabling {@code CloudFetchUseVirtualThreads} share a pool of virtual threads, if
+ * the JVM supports them, and the other connections share a pool of platform threads. The number of
+ * concurrent downloads of each pool is the largest {@code CloudFetchMaxConcurrentDownloads} of the
+ * open connections using it: it grows when a connection allows more, and shrinks back once that
+ * connection is {@link #removeConnection closed}.
+ *
+ * <p>When {@code CloudFetchParallelDecode} is enabled, downloaded chunks are decompressed and
+ * parsed on a second pool, sized to the number of processors, so that the download threads only
+ * wait for the network. The queue depth of each stage is tracked separately, to tell whether the
+ * network or the decoding is the bottleneck.
+ *
+ * <p>Failed downloads are retried by {@link DownloadQueue#submitAfter queueing them again} once
+ * their backoff delay has elapsed, so no download or decode thread sleeps while a retry is pending.
+ *
+ * <p>When {@code CloudFetchAdaptiveConcurrency} is enabled, each result set may only run as many
+ * downloads at a time as its {@link AdaptiveConcurrencyController} allows, between one and the
+ * {@code cloudFetchThreadPoolSize} of its connection. The workers skip the queues at their limit.
+ */
+public class CloudFetchDownloadScheduler {
+
+  private static final JdbcLogger LOGGER =
+      JdbcLoggerFactory.getLogger(CloudFetchDownloadScheduler.class);
+  private static final String THREAD_NAME_PREFIX = "databricks-jdbc-chunks-downloader-";
+  private static final String DECODER_THREAD_NAME_PREFIX = "databricks-jdbc-chunks-decoder-";
+  private static final String RETRY_THREAD_NAME_PREFIX = "databricks-jdbc-chunks-retry-";
+  private static final long IDLE_THREAD_KEEP_ALIVE_SECONDS = 60;
+  private static final int DEFAULT_CONCURRENCY_PER_PROCESSOR = 4;
+
+  private static final CloudFetchDownloadScheduler INSTANCE = new CloudFetchDownloadScheduler();
+
+  // Key of the concurrency of result sets whose connection is not known
+  private static final String UNKNOWN_CONNECTION = "";
+
+  private final Object lock = new Object();
+  private final AtomicInteger activeDownloads = new AtomicInteger(0);
+  private final AtomicInteger queuedDownloads = new AtomicInteger(0);
+  private final AtomicInteger peakQueuedDownloads = new AtomicInteger(0);
+  private final AtomicInteger activeDecodes = new AtomicInteger(0);
+  private final AtomicInteger queuedDecodes = new AtomicInteger(0);
+  private final AtomicInteger peakQueuedDecodes = new AtomicInteger(0);
+  // Guarded by lock, created by the first connection using them
+  private DownloadPool platformPool;
+  private DownloadPool virtualPool;
+  private boolean isVirtualThreadUnsupported;
+  private ThreadPoolExecutor decodeExecutor;
+  private ScheduledThreadPoolExecutor retryExecutor;
+
+  @VisibleForTesting
+  CloudFetchDownloadScheduler() {}
+
+  public static CloudFetchDownloadScheduler getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Creates the download queue of a result set on the pool of the thread type of its connection,
+   * growing the pool if the connection allows more concurrent downloads than the pool currently
+   * has. The decode pool is created by the first connection enabling parallel decoding.
+   *
+   * @param connectionContext the connection context, may be null
+   * @param statementId the statement whose chunks are downloaded, may be null
+   * @return a new queue, to be closed by the caller when the result set is closed
+   */
+  public DownloadQueue newDownloadQueue(
+      IDatabricksConnectionContext connectionContext, StatementId statementId) {
+    int concurrency = getConfiguredConcurrency(connectionContext);
+    boolean useVirtualThreads =
+        connectionContext != null && connectionContext.getCloudFetchUseVirtualThreads();
+    boolean isParallelDecodeEnabled =
+        connectionContext != null && connectionContext.isCloudFetchParallelDecodeEnabled();
+    AdaptiveConcurrencyController concurrencyController =
+        connectionContext != null && connectionContext.isCloudFetchAdaptiveConcurrencyEnabled()
+            ? new AdaptiveConcurrencyController(1, connectionContext.getCloudFetchThreadPoolSize())
+            : null;
+    String connectionUuid =
+        connectionContext != null && connectionContext.getConnectionUuid() != null
+            ? connectionContext.getConnectionUuid()
+            : UNKNOWN_CONNECTION;
+    DownloadPool pool;
+    synchronized (lock) {
+      pool = getPool(useVirtualThreads);
+      pool.connectionConcurrency.merge(connectionUuid, concurrency, Math::max);
+      pool.resize();
+      if (isParallelDecodeEnabled && decodeExecutor == null) {
+        // Decoding is CPU bound, more threads than processors would only compete for them
+        int decodeThreads = Runtime.getRuntime().availableProcessors();
+        decodeExecutor =
+            new ThreadPoolExecutor(
+                decodeThreads,
+                decodeThreads,
+                IDLE_THREAD_KEEP_ALIVE_SECONDS,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                createPlatformThreadFactory(DECODER_THREAD_NAME_PREFIX));
+        decodeExecutor.allowCoreThreadTimeOut(true);
+        LOGGER.debug("Created cloud fetch decode pool with {} threads", decodeThreads);
+      }
+    }
+    return new DownloadQueue(
+        pool,
+        String.valueOf(statementId),
+        statementId != null ? statementId.toString() : null,
+        isParallelDecodeEnabled,
+        concurrencyController);
+  }
+
+  /**
+   * Shrinks the download pool of a connection that is being closed to the largest concurrency of
+   * the connections still using it. Result sets still open keep their download queue. Once no
+   * connection uses the download pools anymore, the pooled download buffers are freed.
+   *
+   * @param connectionContext the connection that is being closed
+   */
+  public void removeConnection(IDatabricksConnectionContext connectionContext) {
+    String connectionUuid = connectionContext.getConnectionUuid();
+    if (connectionUuid == null) {
+      return;
+    }
+    synchronized (lock) {
+      for (DownloadPool pool : new DownloadPool[] {platformPool, virtualPool}) {
+        if (pool != null && pool.connectionConcurrency.remove(connectionUuid) != null) {
+          pool.resize();
+        }
+      }
+      if ((platformPool == null || platformPool.connectionConcurrency.isEmpty())
+          && (virtualPool == null || virtualPool.connectionConcurrency.isEmpty())) {
+        LOGGER.debug("Freeing cloud fetch download buffers, no connection is open");
+        ChunkBufferPool.getInstance().clear();
+      }
+    }
+  }
+
+  /** Returns the maximum number of downloads that run concurrently across the driver. */
+  public int getMaxConcurrentDownloads() {
+    synchronized (lock) {
+      return (platformPool != null ? platformPool.executor.getMaximumPoolSize() : 0)
+          + (virtualPool != null ? virtualPool.executor.getMaximumPoolSize() : 0);
+    }
+  }
+
+  /** Returns the number of downloads currently running. */
+  public int getActiveDownloads() {
+    return activeDownloads.get();
+  }
+
+  /** Returns the number of downloads waiting for a free download thread. */
+  public int getQueuedDownloads() {
+    return queuedDownloads.get();
+  }
+
+  /** Returns the largest number of downloads that have been waiting at the same time. */
+  public int getPeakQueuedDownloads() {
+    return peakQueuedDownloads.get();
+  }
+
+  /** Returns the number of decode threads, or 0 if no connection enabled parallel decoding. */
+  public int getMaxConcurrentDecodes() {
+    synchronized (lock) {
+      return decodeExecutor != null ? decodeExecutor.getMaximumPoolSize() : 0;
+    }
+  }
+
+  /** Returns the number of downloaded chunks currently being decoded on the decode pool. */
+  public int getActiveDecodes() {
+    return activeDecodes.get();
+  }
+
+  /** Returns the number of downloaded chunks waiting for a free decode thread. */
+  public int getQueuedDecodes() {
+    return queuedDecodes.get();
+  }
+
+  /** Returns the largest number of downloaded chunks that have been waiting to be decoded. */
+  public int getPeakQueuedDecodes() {
+    return peakQueuedDecodes.get();
+  }
+
+  /** Returns true if some downloads run on virtual threads. */
+  public boolean usesVirtualThreads() {
+    synchronized (lock) {
+      return virtualPool != null;
+    }
+  }
+
+  /**
+   * Returns the pool of the given thread type, creating it if needed. Connections asking for
+   * virtual threads use the platform pool if the JVM does not support them. Called under lock.
+   */
+  private DownloadPool getPool(boolean useVirtualThreads) {
+    if (useVirtualThreads && virtualPool == null && !isVirtualThreadUnsupported) {
+      ThreadFactory virtualThreadFactory = createVirtualThreadFactory();
+      if (virtualThreadFactory != null) {
+        virtualPool = new DownloadPool("virtual", virtualThreadFactory);
+      } else {
+        isVirtualThreadUnsupported = true;
+      }
+    }
+    if (useVirtualThreads && virtualPool != null) {
+      return virtualPool;
+    }
+    if (platformPool == null) {
+      platformPool = new DownloadPool("platform", createPlatformThreadFactory(THREAD_NAME_PREFIX));
+    }
+    return platformPool;
+  }
+
+  /**
+   * Runs the next task of the queue of the pool whose turn it is. Submitted once for every queued
+   * task.
+   */
+  private void runNextTask(DownloadPool pool) {
+    DownloadQueue queue;
+    FutureTask<Void> task;
+    synchronized (lock) {
+      queue = pollNextQueue(pool);
+      if (queue == null) {
+        if (!pool.readyQueues.isEmpty()) {
+          // All queues with pending tasks are at their concurrency limit
+          pool.stalledWorkers++;
+        }
+        // Otherwise the task was cancelled when its result set was closed
+        return;
+      }
+      task = queue.pendingTasks.poll().task;
+      if (queue.pendingTasks.isEmpty()) {
+        queue.isReady = false;
+      } else {
+        pool.readyQueues.add(queue);
+      }
+      queuedDownloads.decrementAndGet();
+      queue.runningTasks.add(task);
+      queue.activeCount++;
+    }
+    activeDownloads.incrementAndGet();
+    try {
+      task.run();
+    } finally {
+      activeDownloads.decrementAndGet();
+      queue.runningTasks.remove(task);
+      queue.releaseSlot();
+    }
+  }
+
+  /**
+   * Removes and returns the first ready queue of the pool below its concurrency limit. Called under
+   * lock.
+   */
+  private static DownloadQueue pollNextQueue(DownloadPool pool) {
+    Iterator<DownloadQueue> iterator = pool.readyQueues.iterator();
+    while (iterator.hasNext()) {
+      DownloadQueue queue = iterator.next();
+      if (queue.activeCount < queue.concurrencyLimit) {
+        iterator.remove();
+        return queue;
+      }
+    }
+    return null;
+  }
+
+  /** Resubmits up to the given number of stalled workers of the pool. */
+  private void resumeStalledWorkers(DownloadPool pool, int count) {
+    int resumed;
+    synchronized (lock) {
+      resumed = Math.min(count, pool.stalledWorkers);
+      pool.stalledWorkers -= resumed;
+    }
+    for (int i = 0; i < resumed; i++) {
+      pool.executor.execute(() -> runNextTask(pool));
+    }
+  }
+
+  /**
+   * Creates the future of a queued task. If the task has a drop handler, exactly one of them runs:
+   * the handler runs if the future is cancelled before the task starts.
+   */
+  private static FutureTask<Void> newFutureTask(Callable<Void> task, Runnable onDropped) {
+    if (onDropped == null) {
+      return new FutureTask<>(task);
+    }
+    AtomicBoolean isStarted = new AtomicBoolean(false);
+    return new FutureTask<Void>(() -> isStarted.compareAndSet(false, true) ? task.call() : null) {
+      @Override
+      protected void done() {
+        if (isCancelled() && isStarted.compareAndSet(false, true)) {
+          onDropped.run();
+        }
+      }
+    };
+  }
+
+  /**
+   * Returns the executor queueing delayed downloads once they are due, creating it on first use.
+   * Must be called while holding the lock.
+   */
+  private ScheduledThreadPoolExecutor getRetryExecutor() {
+    if (retryExecutor == null) {
+      // Its thread only moves due tasks to their queue, one thread is enough
+      retryExecutor =
+          new ScheduledThreadPoolExecutor(1, createPlatformThreadFactory(RETRY_THREAD_NAME_PREFIX));
+      retryExecutor.setKeepAliveTime(IDLE_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+      retryExecutor.allowCoreThreadTimeOut(true);
+      retryExecutor.setRemoveOnCancelPolicy(true);
+    }
+    return retryExecutor;
+  }
+
+  private static ThreadFactory createPlatformThreadFactory(String threadNamePrefix) {
+    return new ThreadFactory() {
+      private final AtomicInteger threadCount = new AtomicInteger(1);
+
+      public Thread newThread(final Runnable r) {
+        final Thread thread = new Thread(r);
+        thread.setName(threadNamePrefix + threadCount.getAndIncrement());
+        thread.setDaemon(true);
+        return thread;
+      }
+    };
+  }
+
+  /**
+   * Creates a factory for virtual threads using reflection, since the driver is compiled for Java
+   * versions without virtual threads. Returns null if the JVM does not support them.
+   */
+  private static ThreadFactory createVirtualThreadFactory() {
+    try {
+      Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      builder =
+          builderClass
+              .getMethod("name", String.class, long.class)
+              .invoke(builder, THREAD_NAME_PREFIX, 1L);
+      Method factory = builderClass.getMethod("factory");
+      return (ThreadFactory) factory.invoke(builder);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      LOGGER.info(
+          "Virtual threads are not supported by this JVM, using platform threads for cloud fetch downloads");
+      return null;
+    }
+  }
+
+  private static int getConfiguredConcurrency(IDatabricksConnectionContext connectionContext) {
+    if (connectionContext == null) {
+      return Runtime.getRuntime().availableProcessors() * DEFAULT_CONCURRENCY_PER_PROCESSOR;
+    }
+    int configuredConcurrency = connectionContext.getCloudFetchMaxConcurrentDownloads();
+    if (configuredConcurrency > 0) {
+      return configuredConcurrency;
+    }
+    int perResultSetThreads = connectionContext.getCloudFetchThreadPoolSize();
+    return Math.max(
+        perResultSetThreads,
+        Runtime.getRuntime().availableProcessors() * DEFAULT_CONCURRENCY_PER_PROCESSOR);
+  }
+
+  /** A pool of download threads of one type, with the queues of the result sets it serves. */
+  private static final class DownloadPool {
+    private final String name;
+    private final ThreadPoolExecutor executor;
+    // The following fields are guarded by the scheduler lock
+    // Queues with pending tasks, in the order in which they are served
+    private final ArrayDeque<DownloadQueue> readyQueues = new ArrayDeque<>();
+    // Concurrency configured by each open connection using the pool
+    private final Map<String, Integer> connectionConcurrency = new HashMap<>();
+    // Workers that found only queues at their concurrency limit. One worker is resubmitted for
+    // each of them when a download of a limited queue ends.
+    private int stalledWorkers;
+
+    private DownloadPool(String name, ThreadFactory threadFactory) {
+      this.name = name;
+      this.executor =
+          new ThreadPoolExecutor(
+              1,
+              1,
+              IDLE_THREAD_KEEP_ALIVE_SECONDS,
+              TimeUnit.SECONDS,
+              new LinkedBlockingQueue<>(),
+              threadFactory);
+      executor.allowCoreThreadTimeOut(true);
+      LOGGER.debug("Created cloud fetch download pool of {} threads", name);
+    }
+
+    /**
+     * Sizes the pool to the largest concurrency of its connections. Keeps the current size if no
+     * connection uses the pool anymore. Called under lock.
+     */
+    private void resize() {
+      if (connectionConcurrency.isEmpty()) {
+        return;
+      }
+      int concurrency = Collections.max(connectionConcurrency.values());
+      int poolSize = executor.getMaximumPoolSize();
+      if (concurrency == poolSize) {
+        return;
+      }
+      LOGGER.debug(
+          "Resizing cloud fetch download pool of {} threads from {} to {} threads",
+          name,
+          poolSize,
+          concurrency);
+      // The core size may never exceed the maximum size
+      if (concurrency > poolSize) {
+        executor.setMaximumPoolSize(concurrency);
+        executor.setCorePoolSize(concurrency);
+      } else {
+        executor.setCorePoolSize(concurrency);
+        executor.setMaximumPoolSize(concurrency);
+      }
+    }
+  }
+
+  /** The downloads of a single result set. */
+  public final class DownloadQueue {
+
+    private final DownloadPool pool;
+    private final String name;
+    private final String statementId;
+    private final boolean isParallelDecodeEnabled;
+    private final AdaptiveConcurrencyController concurrencyController;
+    // Guarded by the scheduler lock
+    private final PriorityQueue<PendingTask> pendingTasks = new PriorityQueue<>();
+    private long submittedTasks;
+    private boolean isReady;
+    private boolean isClosed;
+    // Downloads running on the pool or in flight on the async client
+    private int activeCount;
+    private int concurrencyLimit;
+    private final Set<FutureTask<Void>> runningTasks = ConcurrentHashMap.newKeySet();
+    private final Set<Future<?>> inFlightRequests = ConcurrentHashMap.newKeySet();
+    private final Set<FutureTask<Void>> decodeTasks = ConcurrentHashMap.newKeySet();
+    private final Set<Future<?>> delayedTasks = ConcurrentHashMap.newKeySet();
+
+    private DownloadQueue(
+        DownloadPool pool,
+        String name,
+        String statementId,
+        boolean isParallelDecodeEnabled,
+        AdaptiveConcurrencyController concurrencyController) {
+      this.pool = pool;
+      this.name = name;
+      this.statementId = statementId;
+      this.isParallelDecodeEnabled = isParallelDecodeEnabled;
+      this.concurrencyController = concurrencyController;
+      this.concurrencyLimit =
+          concurrencyController != null
+              ? concurrencyController.getConcurrency()
+              : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Queues a download after the pending tasks of this queue. It runs once the tasks queued before
+     * it by other result sets have had their turn.
+     *
+     * @param task the download to run
+     */
+    public void submit(Callable<Void> task) {
+      submit(task, Long.MAX_VALUE);
+    }
+
+    /**
+     * Queues a download. It runs after the pending tasks of this queue with a lower priority value,
+     * once the tasks queued before it by other result sets have had their turn.
+     *
+     * @param task the download to run
+     * @param priority the priority of the task, lower values run first; the chunk index for chunks
+     */
+    void submit(Callable<Void> task, long priority) {
+      submit(task, priority, null);
+    }
+
+    private void submit(Callable<Void> task, long priority, Runnable onDropped) {
+      FutureTask<Void> futureTask = newFutureTask(task, onDropped);
+      synchronized (lock) {
+        if (isClosed) {
+          LOGGER.debug("Ignoring download submitted after queue {} was closed", name);
+          futureTask.cancel(false);
+          return;
+        }
+        pendingTasks.add(new PendingTask(futureTask, priority, submittedTasks++));
+        if (!isReady) {
+          isReady = true;
+          pool.readyQueues.add(this);
+        }
+        peakQueuedDownloads.accumulateAndGet(queuedDownloads.incrementAndGet(), Math::max);
+      }
+      pool.executor.execute(() -> runNextTask(pool));
+    }
+
+    /**
+     * Queues a download once the given delay has elapsed, such as the retry of a failed download.
+     * No thread of the download or decode pools is held during the delay.
+     *
+     * @param task the download to run
+     * @param priority the priority of the task, lower values run first; the chunk index for chunks
+     * @param delayMillis the time to wait before queueing the task
+     */
+    void submitAfter(Callable<Void> task, long priority, long delayMillis) {
+      if (delayMillis <= 0) {
+        submit(task, priority);
+        return;
+      }
+      ScheduledThreadPoolExecutor executorToUse;
+      synchronized (lock) {
+        if (isClosed) {
+          LOGGER.debug("Ignoring download submitted after queue {} was closed", name);
+          return;
+        }
+        executorToUse = getRetryExecutor();
+      }
+      delayedTasks.removeIf(Future::isDone);
+      delayedTasks.add(
+          executorToUse.schedule(() -> submit(task, priority), delayMillis, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Queues the decoding of a downloaded chunk. With parallel decoding it runs on the decode pool,
+     * in submission order; otherwise it is queued on the download pool like a download.
+     *
+     * @param task the decompression and parsing of the chunk
+     * @param priority the priority of the task on the download pool, the chunk index
+     */
+    void submitDecode(Callable<Void> task, long priority) {
+      submitDecode(task, priority, null);
+    }
+
+    /**
+     * Queues the decoding of a downloaded chunk, as {@link #submitDecode(Callable, long)}.
+     *
+     * @param task the decompression and parsing of the chunk
+     * @param priority the priority of the task on the download pool, the chunk index
+     * @param onDropped frees the resources held for the task if it never runs, because the queue is
+     *     closed before it starts; may be null
+     */
+    void submitDecode(Callable<Void> task, long priority, Runnable onDropped) {
+      if (!isParallelDecodeEnabled) {
+        submit(task, priority, onDropped);
+        return;
+      }
+      FutureTask<Void> decodeTask = newFutureTask(task, onDropped);
+      ThreadPoolExecutor executorToUse;
+      synchronized (lock) {
+        if (isClosed) {
+          LOGGER.debug("Ignoring decode submitted after queue {} was closed", name);
+          decodeTask.cancel(false);
+          return;
+        }
+        decodeTasks.add(decodeTask);
+        executorToUse = decodeExecutor;
+      }
+      int queueDepth = queuedDecodes.incrementAndGet();
+      peakQueuedDecodes.accumulateAndGet(queueDepth, Math::max);
+      ChunkLatencyHandler.getInstance().recordDecodeQueueDepth(statementId, queueDepth);
+      executorToUse.execute(() -> runDecode(decodeTask));
+    }
+
+    /** Returns whether downloaded chunks of this queue are decoded on the decode pool. */
+    boolean isParallelDecodeEnabled() {
+      return isParallelDecodeEnabled;
+    }
+
+    private void runDecode(FutureTask<Void> decodeTask) {
+      queuedDecodes.decrementAndGet();
+      activeDecodes.incrementAndGet();
+      try {
+        // Does nothing if the decode was cancelled when the queue was closed
+        decodeTask.run();
+      } finally {
+        activeDecodes.decrementAndGet();
+        decodeTasks.remove(decodeTask);
+      }
+    }
+
+    /** Cancels the pending downloads of this queue and interrupts the running ones. */
+    public void close() {
+      synchronized (lock) {
+        isClosed = true;
+        queuedDownloads.addAndGet(-pendingTasks.size());
+        pendingTasks.forEach(pendingTask -> pendingTask.task.cancel(false));
+        pendingTasks.clear();
+        if (isReady) {
+          pool.readyQueues.remove(this);
+          isReady = false;
+        }
+      }
+      delayedTasks.forEach(task -> task.cancel(false));
+      runningTasks.forEach(task -> task.cancel(true));
+      decodeTasks.forEach(task -> task.cancel(true));
+      inFlightRequests.forEach(request -> request.cancel(true));
+    }
+
+    /**
+     * Tracks a request running outside of the download pool, such as an async HTTP download, so
+     * that it is cancelled when the queue is closed.
+     *
+     * @param request the request to track
+     */
+    void trackRequest(Future<?> request) {
+      boolean closed;
+      synchronized (lock) {
+        closed = isClosed;
+        // Counted against the concurrency limit until it completes
+        if (inFlightRequests.add(request)) {
+          activeCount++;
+        }
+      }
+      if (closed) {
+        request.cancel(true);
+      }
+    }
+
+    /** Stops tracking a request once it has completed. */
+    void untrackRequest(Future<?> request) {
+      if (inFlightRequests.remove(request)) {
+        releaseSlot();
+      }
+    }
+
+    /**
+     * Records a successful download for the adaptive concurrency of this queue. Has no effect if
+     * the concurrency is not adaptive.
+     *
+     * @param bytes the size of the downloaded chunk
+     * @param latencyMillis the duration of the download attempt
+     */
+    void recordDownload(long bytes, long latencyMillis) {
+      if (concurrencyController != null
+          && concurrencyController.recordDownload(bytes, latencyMillis)) {
+        updateConcurrencyLimit();
+      }
+    }
+
+    /**
+     * Records a download throttled by the cloud storage, backing off the adaptive concurrency of
+     * this queue. Has no effect if the concurrency is not adaptive.
+     */
+    void recordThrottledDownload() {
+      if (concurrencyController != null && concurrencyController.recordThrottled()) {
+        updateConcurrencyLimit();
+      }
+    }
+
+    /** Returns the number of downloads of this queue that may run at a time. */
+    int getConcurrencyLimit() {
+      synchronized (lock) {
+        return concurrencyLimit;
+      }
+    }
+
+    private void updateConcurrencyLimit() {
+      int concurrency = concurrencyController.getConcurrency();
+      int previousLimit;
+      synchronized (lock) {
+        previousLimit = concurrencyLimit;
+        concurrencyLimit = concurrency;
+      }
+      LOGGER.debug(
+          "Changed concurrent downloads of queue {} from {} to {} at {} bytes/s",
+          name,
+          previousLimit,
+          concurrency,
+          concurrencyController.getThroughput());
+      ChunkLatencyHandler.getInstance()
+          .recordDownloadConcurrency(
+              statementId, concurrency, concurrencyController.getThroughput());
+      if (concurrency > previousLimit) {
+        resumeStalledWorkers(pool, concurrency - previousLimit);
+      }
+    }
+
+    /** Frees the slot of a download that ended, resuming a worker stalled on the limit. */
+    private void releaseSlot() {
+      synchronized (lock) {
+        activeCount--;
+        if (concurrencyController == null || pool.stalledWorkers == 0) {
+          return;
+        }
+      }
+      resumeStalledWorkers(pool, 1);
+    }
+
+    /**
+     * Moves this queue ahead of the other result sets if it has a pending task with at most the
+     * given priority, so that the task runs on the next free download thread. Called when the
+     * consumer of the result set waits for a chunk.
+     *
+     * @param priority the priority of the task the consumer waits for, the chunk index
+     * @return true if such a task is pending
+     */
+    boolean prioritize(long priority) {
+      synchronized (lock) {
+        PendingTask nextTask = pendingTasks.peek();
+        if (!isReady || nextTask == null || nextTask.priority > priority) {
+          return false;
+        }
+        if (pool.readyQueues.peekFirst() != this) {
+          pool.readyQueues.remove(this);
+          pool.readyQueues.addFirst(this);
+        }
+        return true;
+      }
+    }
+
+    /** Returns the number of downloads of this queue waiting for a free download thread. */
+    int getPendingCount() {
+      synchronized (lock) {
+        return pendingTasks.size();
+      }
+    }
+  }
+
+  /** A queued task, ordered by priority and then by submission. */
+  private static final class PendingTask implements Comparable<PendingTask> {
+    private final FutureTask<Void> task;
+    private final long priority;
+    private final long sequence;
+
+    private PendingTask(FutureTask<Void> task, long priority, long sequence) {
+      this.task = task;
+      this.priority = priority;
+      this.sequence = sequence;
+    }
+
+    @Override
+    public int compareTo(PendingTask other) {
+      int result = Long.compare(priority, other.priority);
+      return result != 0 ? result : Long.compare(sequence, other.sequence);
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package com.databricks.jdbc.api.impl.arrow;
+
+import com.databricks.jdbc.api.internal.IDatabricksConnectionContext;
+import com.databricks.jdbc.common.util.DatabricksThreadContextHolder;
+import com.databricks.jdbc.dbclient.IDatabricksHttpClient;
+import com.databricks.jdbc.exception.DatabricksSQLException;
+import com.databricks.jdbc.log.JdbcLogger;
+import com.databricks.jdbc.log.JdbcLoggerFactory;
+import java.io.IOException;
+
+/**
+ * Task to download a chunk a second time while its first download is straggling. The chunk keeps
+ * the data of whichever download receives a response first; the other download is abandoned.
+ *
+ * <p>The task makes a single attempt and never changes the status of the chunk on failure, since
+ * the first download is still running and handles the retries. If the first download gave up on the
+ * chunk because this download received its response first, and this download then fails, the chunk
+ * is downloaded again by a regular download task.
+ */
+class HedgedChunkDownloadTask implements DatabricksCallableTask {
+
+  private static final JdbcLogger LOGGER =
+      JdbcLoggerFactory.getLogger(HedgedChunkDownloadTask.class);
+  private final ArrowResultChunk chunk;
+  private final IDatabricksHttpClient httpClient;
+  private final ChunkDownloadCallback chunkDownloader;
+  private final IDatabricksConnectionContext connectionContext;
+  private final String statementId;
+  private final Runnable downloadAgain;
+
+  HedgedChunkDownloadTask(
+      ArrowResultChunk chunk,
+      IDatabricksHttpClient httpClient,
+      ChunkDownloadCallback chunkDownloader,
+      Runnable downloadAgain) {
+    this.chunk = chunk;
+    this.httpClient = httpClient;
+    this.chunkDownloader = chunkDownloader;
+    this.downloadAgain = downloadAgain;
+    this.connectionContext = DatabricksThreadContextHolder.getConnectionContext();
+    this.statementId = DatabricksThreadContextHolder.getStatementId();
+  }
+
+  @Override
+  public Void call() {
+    DatabricksThreadContextHolder.setConnectionContext(this.connectionContext);
+    DatabricksThreadContextHolder.setStatementId(this.statementId);
+    try {
+      if (chunk.downloadHedgedData(httpClient, chunkDownloader.getCompressionCodec())) {
+        LOGGER.debug("Hedged download of chunk {} completed first", chunk.getChunkIndex());
+        chunkDownloader.downloadProcessed(chunk.getChunkIndex());
+      }
+    } catch (IOException | DatabricksSQLException | RuntimeException e) {
+      if (chunk.takeAbandonedDownload()) {
+        LOGGER.debug(
+            "Hedged download of chunk {} failed after the first download gave up, downloading again: {}",
+            chunk.getChunkIndex(),
+            e.getMessage());
+        downloadAgain.run();
+      } else {
+        LOGGER.debug(
+            "Hedged download of chunk {} failed, waiting for the first download: {}",
+            chunk.getChunkIndex(),
+            e.getMessage());
+      }
+    } finally {
+      DatabricksThreadContextHolder.clearAllContext();
+    }
+    return null;
+  }
+}
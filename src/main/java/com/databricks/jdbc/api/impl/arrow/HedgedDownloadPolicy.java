@@ -0,0 +1,61 @@
+package com.databricks.jdbc.api.impl.arrow;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.util.Arrays;
+
+/**
+ * Decides when the download of a chunk the consumer is waiting for is hedged, i.e. downloaded a
+ * second time while the first download is still running.
+ *
+ * <p>The policy keeps the latencies of the last {@link #WINDOW_SIZE} successful downloads of the
+ * statement. A download taking longer than the 95th percentile of them is considered a straggler,
+ * typically a request stuck on a slow storage node, and is hedged. No download is hedged until
+ * enough downloads have completed to estimate the percentile.
+ */
+class HedgedDownloadPolicy {
+
+  static final int WINDOW_SIZE = 64;
+  static final int MIN_SAMPLES = 5;
+  private static final double HEDGE_PERCENTILE = 0.95;
+  private static final long MIN_HEDGE_DELAY_MS = 500;
+
+  private final long minHedgeDelayMillis;
+  // Guarded by this
+  private final long[] latencies = new long[WINDOW_SIZE];
+  private int sampleCount;
+  private int nextSample;
+
+  HedgedDownloadPolicy() {
+    this(MIN_HEDGE_DELAY_MS);
+  }
+
+  @VisibleForTesting
+  HedgedDownloadPolicy(long minHedgeDelayMillis) {
+    this.minHedgeDelayMillis = minHedgeDelayMillis;
+  }
+
+  /**
+   * Records the latency of a successful download, from its submission to the loaded chunk.
+   *
+   * @param latencyMillis the latency in milliseconds
+   */
+  synchronized void recordDownloadLatency(long latencyMillis) {
+    latencies[nextSample] = latencyMillis;
+    nextSample = (nextSample + 1) % WINDOW_SIZE;
+    sampleCount = Math.min(sampleCount + 1, WINDOW_SIZE);
+  }
+
+  /**
+   * Returns the time after its submission at which a download is hedged, or -1 if too few downloads
+   * have completed to tell.
+   */
+  synchronized long getHedgeDelayMillis() {
+    if (sampleCount < MIN_SAMPLES) {
+      return -1;
+    }
+    long[] sortedLatencies = Arrays.copyOf(latencies, sampleCount);
+    Arrays.sort(sortedLatencies);
+    int percentileIndex = (int) Math.ceil(HEDGE_PERCENTILE * sampleCount) - 1;
+    return Math.max(minHedgeDelayMillis, sortedLatencies[percentileIndex]);
+  }
+}
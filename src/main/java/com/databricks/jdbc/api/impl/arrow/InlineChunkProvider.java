@@ -21,6 +21,7 @@ import java.io.IOException;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.vector.types.pojo.ArrowType;
 import org.apache.arrow.vector.types.pojo.Field;
 import org.apache.arrow.vector.types.pojo.FieldType;
@@ -34,6 +35,8 @@ public class InlineChunkProvider implements ChunkProvider {
   private long totalRows;
   private long currentChunkIndex;
 
+  private final BufferAllocator statementAllocator;
+
   ArrowResultChunk arrowResultChunk; // There is only one packet of data in case of inline arrow
 
   InlineChunkProvider(
@@ -43,11 +46,16 @@ public class InlineChunkProvider implements ChunkProvider {
       throws DatabricksParsingException {
     this.currentChunkIndex = -1;
     this.totalRows = 0;
+    this.statementAllocator =
+        ArrowAllocatorManager.getInstance()
+            .newStatementAllocator(
+                session.getConnectionContext(), parentStatement.getStatementId());
     ByteArrayInputStream byteStream = initializeByteStream(resultsResp, session, parentStatement);
     arrowResultChunk =
         ArrowResultChunk.builder()
             .withInputStream(byteStream, totalRows)
             .withStatementId(parentStatement.getStatementId())
+            .withParentAllocator(statementAllocator)
             .build();
   }
 
@@ -60,6 +68,25 @@ public class InlineChunkProvider implements ChunkProvider {
    */
   InlineChunkProvider(ResultData resultData, ResultManifest resultManifest)
       throws DatabricksSQLException {
+    this(
+        resultData,
+        resultManifest,
+        ArrowAllocatorManager.getInstance().newStatementAllocator(null, null));
+  }
+
+  /**
+   * Constructor for inline arrow chunk provider from {@link ResultData} and {@link ResultManifest}
+   * that allocates the Arrow data under the given statement allocator.
+   *
+   * @param resultData Data object containing the result data
+   * @param resultManifest Manifest object containing the result metadata
+   * @param statementAllocator allocator of the statement, closed when the provider is closed
+   * @throws DatabricksSQLException if there is an error in processing the inline arrow data
+   */
+  InlineChunkProvider(
+      ResultData resultData, ResultManifest resultManifest, BufferAllocator statementAllocator)
+      throws DatabricksSQLException {
+    this.statementAllocator = statementAllocator;
     this.currentChunkIndex = -1;
     this.totalRows = resultManifest.getTotalRowCount();
 
@@ -73,6 +100,7 @@ public class InlineChunkProvider implements ChunkProvider {
     this.arrowResultChunk =
         ArrowResultChunk.builder()
             .withInputStream(new ByteArrayInputStream(decompressedBytes), totalRows)
+            .withParentAllocator(statementAllocator)
             .build();
   }
 
@@ -102,6 +130,7 @@ public class InlineChunkProvider implements ChunkProvider {
   @Override
   public void close() {
     arrowResultChunk.releaseChunk();
+    ArrowAllocatorManager.getInstance().closeStatementAllocator(statementAllocator);
   }
 
   @Override
@@ -160,7 +189,7 @@ public class InlineChunkProvider implements ChunkProvider {
     }
   }
 
-  private byte[] getSerializedSchema(TGetResultSetMetadataResp metadata)
+  static byte[] getSerializedSchema(TGetResultSetMetadataResp metadata)
       throws DatabricksSQLException {
     if (metadata.getArrowSchema() != null) {
       return metadata.getArrowSchema();
@@ -9,6 +9,7 @@ import com.databricks.jdbc.dbclient.IDatabricksHttpClient;
 import com.databricks.jdbc.dbclient.impl.common.StatementId;
 import com.databricks.jdbc.exception.DatabricksParsingException;
 import com.databricks.jdbc.exception.DatabricksSQLException;
+import com.databricks.jdbc.exception.DatabricksTimeoutException;
 import com.databricks.jdbc.log.JdbcLogger;
 import com.databricks.jdbc.log.JdbcLoggerFactory;
 import com.databricks.jdbc.model.client.thrift.generated.TFetchResultsResp;
@@ -18,25 +19,31 @@ import com.databricks.jdbc.model.core.ExternalLink;
 import com.databricks.jdbc.model.core.ResultData;
 import com.databricks.jdbc.model.core.ResultManifest;
 import com.databricks.jdbc.model.telemetry.enums.DatabricksDriverErrorCode;
+import com.databricks.jdbc.telemetry.latency.ChunkLatencyHandler;
 import com.databricks.sdk.service.sql.BaseChunkInfo;
 import com.google.common.annotations.VisibleForTesting;
+import java.sql.SQLException;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ThreadFactory;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.arrow.memory.BufferAllocator;
 
 /** Class to manage Arrow chunks and fetch them on proactive basis. */
 public class RemoteChunkProvider implements ChunkProvider, ChunkDownloadCallback {
 
   private static final JdbcLogger LOGGER = JdbcLoggerFactory.getLogger(RemoteChunkProvider.class);
-  private static final String CHUNKS_DOWNLOADER_THREAD_POOL_PREFIX =
-      "databricks-jdbc-chunks-downloader-";
-  private static int chunksDownloaderThreadPoolSize;
+  private static final long HEDGE_RECHECK_INTERVAL_MS = 100;
+  private final int chunksDownloaderThreadPoolSize;
   private final StatementId statementId;
   private long chunkCount;
   private long rowCount;
-  private final ExecutorService chunkDownloaderExecutorService;
+  private final CloudFetchDownloadScheduler.DownloadQueue chunkDownloadQueue;
+  private final boolean isAsyncDownloadEnabled;
   private final IDatabricksHttpClient httpClient;
   private Long currentChunkIndex;
   private long nextChunkToDownload;
@@ -46,22 +53,56 @@ public class RemoteChunkProvider implements ChunkProvider, ChunkDownloadCallback
   private final CompressionCodec compressionCodec;
   private final ConcurrentHashMap<Long, ArrowResultChunk> chunkIndexToChunksMap;
   private final ChunkLinkDownloadService linkDownloadService;
+  private final ChunkDownloadRetryPolicy retryPolicy;
+  private final ChunkSizeEstimator sizeEstimator;
+  private final ChunkMemoryBudget memoryBudget;
+  // Estimated Arrow memory of the chunks submitted for download and not processed yet
+  private final ConcurrentHashMap<Long, Long> pendingArrowBytesByChunk = new ConcurrentHashMap<>();
+  private final AtomicLong pendingArrowBytes = new AtomicLong(0);
+  private final ChunkSpillStore spillStore;
+  private final BufferAllocator statementAllocator;
+  private final boolean isIncrementalDecodeEnabled;
+  private final HedgedDownloadPolicy hedgePolicy;
+  private final ConcurrentHashMap<Long, Long> downloadSubmitTimes = new ConcurrentHashMap<>();
+  private final Set<Long> hedgedChunks = ConcurrentHashMap.newKeySet();
+  private final int queryTimeoutSeconds;
+  // Time by which every chunk must be downloaded, from the creation of the result set
+  private final long queryDeadlineMillis;
+  private final int fetchSize;
 
   RemoteChunkProvider(
       StatementId statementId,
       ResultManifest resultManifest,
       ResultData resultData,
       IDatabricksSession session,
+      IDatabricksStatementInternal parentStatement,
       IDatabricksHttpClient httpClient,
       int chunksDownloaderThreadPoolSize)
       throws DatabricksParsingException {
-    RemoteChunkProvider.chunksDownloaderThreadPoolSize = chunksDownloaderThreadPoolSize;
-    this.chunkDownloaderExecutorService = createChunksDownloaderExecutorService();
+    this.chunksDownloaderThreadPoolSize = chunksDownloaderThreadPoolSize;
     this.httpClient = httpClient;
     this.statementId = statementId;
+    this.queryTimeoutSeconds = getQueryTimeoutSeconds(parentStatement);
+    this.queryDeadlineMillis = getQueryDeadlineMillis(queryTimeoutSeconds);
+    this.fetchSize = getFetchSize(parentStatement);
+    this.chunkDownloadQueue =
+        CloudFetchDownloadScheduler.getInstance()
+            .newDownloadQueue(session.getConnectionContext(), statementId);
+    this.isAsyncDownloadEnabled = session.getConnectionContext().isCloudFetchAsyncDownloadEnabled();
     this.chunkCount = resultManifest.getTotalChunkCount();
     this.rowCount = resultManifest.getTotalRowCount();
-    this.chunkIndexToChunksMap = initializeChunksMap(resultManifest, resultData, statementId);
+    this.statementAllocator =
+        ArrowAllocatorManager.getInstance()
+            .newStatementAllocator(session.getConnectionContext(), statementId);
+    this.isIncrementalDecodeEnabled =
+        session.getConnectionContext().isCloudFetchIncrementalDecodeEnabled();
+    this.chunkIndexToChunksMap =
+        initializeChunksMap(
+            resultManifest,
+            resultData,
+            statementId,
+            statementAllocator,
+            isIncrementalDecodeEnabled);
     this.compressionCodec = resultManifest.getResultCompression();
     this.linkDownloadService =
         new ChunkLinkDownloadService(
@@ -70,6 +111,16 @@ public class RemoteChunkProvider implements ChunkProvider, ChunkDownloadCallback
             chunkCount,
             chunkIndexToChunksMap,
             resultData.getExternalLinks() != null ? resultData.getExternalLinks().size() : 1);
+    this.retryPolicy =
+        new ChunkDownloadRetryPolicy(
+            statementId != null ? statementId.toString() : null, chunkCount);
+    this.sizeEstimator = new ChunkSizeEstimator(compressionCodec);
+    this.memoryBudget = createMemoryBudget(session, sizeEstimator);
+    this.spillStore = createSpillStore(session, compressionCodec);
+    this.hedgePolicy =
+        session.getConnectionContext().isCloudFetchHedgedDownloadEnabled()
+            ? new HedgedDownloadPolicy()
+            : null;
     initializeData();
   }
 
@@ -82,16 +133,37 @@ public class RemoteChunkProvider implements ChunkProvider, ChunkDownloadCallback
       int chunksDownloaderThreadPoolSize,
       CompressionCodec compressionCodec)
       throws DatabricksSQLException {
-    RemoteChunkProvider.chunksDownloaderThreadPoolSize = chunksDownloaderThreadPoolSize;
-    this.chunkDownloaderExecutorService = createChunksDownloaderExecutorService();
+    this.chunksDownloaderThreadPoolSize = chunksDownloaderThreadPoolSize;
     this.httpClient = httpClient;
     this.compressionCodec = compressionCodec;
     this.rowCount = 0;
     this.statementId = parentStatement.getStatementId();
+    this.queryTimeoutSeconds = getQueryTimeoutSeconds(parentStatement);
+    this.queryDeadlineMillis = getQueryDeadlineMillis(queryTimeoutSeconds);
+    this.fetchSize = getFetchSize(parentStatement);
+    this.chunkDownloadQueue =
+        CloudFetchDownloadScheduler.getInstance()
+            .newDownloadQueue(session.getConnectionContext(), statementId);
+    this.isAsyncDownloadEnabled = session.getConnectionContext().isCloudFetchAsyncDownloadEnabled();
+    this.statementAllocator =
+        ArrowAllocatorManager.getInstance()
+            .newStatementAllocator(session.getConnectionContext(), statementId);
+    this.isIncrementalDecodeEnabled =
+        session.getConnectionContext().isCloudFetchIncrementalDecodeEnabled();
     this.chunkIndexToChunksMap = initializeChunksMap(resultsResp, parentStatement, session);
     this.linkDownloadService =
         new ChunkLinkDownloadService(
             session, statementId, chunkCount, chunkIndexToChunksMap, chunkCount);
+    this.retryPolicy =
+        new ChunkDownloadRetryPolicy(
+            statementId != null ? statementId.toString() : null, chunkCount);
+    this.sizeEstimator = new ChunkSizeEstimator(compressionCodec);
+    this.memoryBudget = createMemoryBudget(session, sizeEstimator);
+    this.spillStore = createSpillStore(session, compressionCodec);
+    this.hedgePolicy =
+        session.getConnectionContext().isCloudFetchHedgedDownloadEnabled()
+            ? new HedgedDownloadPolicy()
+            : null;
     initializeData();
   }
 
@@ -99,16 +171,38 @@ public class RemoteChunkProvider implements ChunkProvider, ChunkDownloadCallback
   @Override
   public void downloadProcessed(long chunkIndex) {
     ArrowResultChunk chunk = chunkIndexToChunksMap.get(chunkIndex);
-    synchronized (chunk) {
-      chunk.notify();
+    Long submitTime = downloadSubmitTimes.remove(chunkIndex);
+    Long pendingBytes = pendingArrowBytesByChunk.remove(chunkIndex);
+    if (pendingBytes != null) {
+      pendingArrowBytes.addAndGet(-pendingBytes);
     }
+    if (chunk.getStatus() == ArrowResultChunk.ChunkStatus.DOWNLOAD_SUCCEEDED) {
+      if (hedgePolicy != null && submitTime != null) {
+        hedgePolicy.recordDownloadLatency(System.currentTimeMillis() - submitTime);
+      }
+      ChunkLatencyHandler.getInstance()
+          .recordArrowMemoryUsage(
+              statementId.toString(), statementAllocator.getPeakMemoryAllocation());
+      if (chunk.isSpillTarget()) {
+        ChunkLatencyHandler.getInstance()
+            .recordChunkSpill(statementId.toString(), spillStore.getReservedBytes());
+      } else if (memoryBudget != null) {
+        memoryBudget.onChunkDownloaded(chunk);
+        ChunkLatencyHandler.getInstance()
+            .recordChunkMemoryUsage(statementId.toString(), memoryBudget.getBytesInUse());
+      } else {
+        sizeEstimator.onChunkDecoded(chunk);
+      }
+    }
+    chunk.completeDownload();
   }
 
   /**
    * {@inheritDoc}
    *
    * <p>Fetches the chunk for the given index. If chunk is not already downloaded, will download the
-   * chunk first
+   * chunk first. While waiting, the download of the chunk is served before the prefetches of other
+   * result sets, and with hedged downloads enabled a straggling download is hedged.
    *
    * @return the chunk at given index
    */
@@ -118,26 +212,90 @@ public class RemoteChunkProvider implements ChunkProvider, ChunkDownloadCallback
       return null;
     }
     ArrowResultChunk chunk = chunkIndexToChunksMap.get(currentChunkIndex);
-    synchronized (chunk) {
-      try {
-        while (!isDownloadComplete(chunk.getStatus())) {
-          chunk.wait();
+    if (chunk.getStatus() != ArrowResultChunk.ChunkStatus.DOWNLOAD_SUCCEEDED
+        && !chunk.getDownloadCompletion().isDone()) {
+      chunkDownloadQueue.prioritize(currentChunkIndex);
+      awaitDownload(chunk);
+    }
+    if (chunk.getStatus() != ArrowResultChunk.ChunkStatus.DOWNLOAD_SUCCEEDED) {
+      String errorMessage =
+          chunk.getErrorMessage() != null
+              ? chunk.getErrorMessage()
+              : String.format(
+                  "Download of chunk [%s] for statement [%s] ended with status %s",
+                  chunk.getChunkIndex(), statementId, chunk.getStatus());
+      throw new DatabricksSQLException(
+          errorMessage, DatabricksDriverErrorCode.CHUNK_DOWNLOAD_ERROR);
+    }
+    if (chunk.isSpilled()) {
+      chunk.loadSpilledData();
+    }
+    return chunk;
+  }
+
+  /**
+   * Waits until the download of the chunk has been processed, hedging a straggling download if
+   * enabled. The wait is bounded by the query timeout of the statement, if any, counted from the
+   * creation of the result set rather than from each wait, so that the result set as a whole fails
+   * once the timeout has elapsed.
+   *
+   * @throws DatabricksSQLException if the wait times out, with a {@link
+   *     java.sql.SQLTimeoutException} as cause, or is interrupted, or the result set is closed
+   */
+  private void awaitDownload(ArrowResultChunk chunk) throws DatabricksSQLException {
+    CompletableFuture<Void> downloadCompletion = chunk.getDownloadCompletion();
+    long deadline = queryDeadlineMillis;
+    try {
+      while (!downloadCompletion.isDone()) {
+        // Time to wait before checking the hedge again, or -1 to wait for the download only
+        long waitMillis = getHedgeDelayMillis(chunk);
+        if (waitMillis == 0 && !hedgeDownload(chunk)) {
+          waitMillis = HEDGE_RECHECK_INTERVAL_MS;
         }
-        if (chunk.getStatus() != ArrowResultChunk.ChunkStatus.DOWNLOAD_SUCCEEDED) {
-          throw new DatabricksSQLException(
-              chunk.getErrorMessage(), DatabricksDriverErrorCode.CHUNK_DOWNLOAD_ERROR);
+        if (deadline != Long.MAX_VALUE) {
+          long remainingMillis = deadline - System.currentTimeMillis();
+          if (remainingMillis <= 0) {
+            throw new TimeoutException();
+          }
+          waitMillis = waitMillis > 0 ? Math.min(waitMillis, remainingMillis) : remainingMillis;
+        }
+        try {
+          if (waitMillis < 0) {
+            downloadCompletion.get();
+          } else if (waitMillis > 0) {
+            downloadCompletion.get(waitMillis, TimeUnit.MILLISECONDS);
+          }
+        } catch (TimeoutException e) {
+          // Check the deadline and the hedge delay again
         }
-      } catch (InterruptedException e) {
-        LOGGER.error(
-            e,
-            "Caught interrupted exception while waiting for chunk [%s] for statement [%s]. Exception [%s]",
-            chunk.getChunkIndex(),
-            statementId,
-            e.getMessage());
       }
+    } catch (TimeoutException e) {
+      String message =
+          String.format(
+              "Timed out after %d seconds waiting for chunk [%s] of statement [%s]",
+              queryTimeoutSeconds, chunk.getChunkIndex(), statementId);
+      LOGGER.error(message);
+      throw new DatabricksSQLException(
+          message,
+          new DatabricksTimeoutException(
+              message, e, DatabricksDriverErrorCode.OPERATION_TIMEOUT_ERROR),
+          DatabricksDriverErrorCode.OPERATION_TIMEOUT_ERROR);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new DatabricksSQLException(
+          String.format(
+              "Interrupted while waiting for chunk [%s] of statement [%s]",
+              chunk.getChunkIndex(), statementId),
+          e,
+          DatabricksDriverErrorCode.THREAD_INTERRUPTED_ERROR);
+    } catch (CancellationException | ExecutionException e) {
+      throw new DatabricksSQLException(
+          String.format(
+              "Result set was closed while waiting for chunk [%s] of statement [%s]",
+              chunk.getChunkIndex(), statementId),
+          e,
+          DatabricksDriverErrorCode.CHUNK_DOWNLOAD_ERROR);
     }
-
-    return chunk;
   }
 
   @Override
@@ -175,8 +333,14 @@ public class RemoteChunkProvider implements ChunkProvider, ChunkDownloadCallback
   public void close() {
     this.isClosed = true;
     this.linkDownloadService.shutdown();
-    this.chunkDownloaderExecutorService.shutdownNow();
+    this.chunkDownloadQueue.close();
+    // Wake up consumers still waiting for a chunk
+    this.chunkIndexToChunksMap.values().forEach(ArrowResultChunk::cancelDownload);
     this.chunkIndexToChunksMap.values().forEach(ArrowResultChunk::releaseChunk);
+    if (spillStore != null) {
+      spillStore.close();
+    }
+    ArrowAllocatorManager.getInstance().closeStatementAllocator(statementAllocator);
     DatabricksThreadContextHolder.clearStatementInfo();
   }
 
@@ -190,28 +354,176 @@ public class RemoteChunkProvider implements ChunkProvider, ChunkDownloadCallback
     return chunkCount;
   }
 
+  /**
+   * Returns the bytes currently reserved by chunks of this result set, or 0 if prefetching is not
+   * limited by a memory budget
+   */
+  long getChunkBytesInMemory() {
+    return memoryBudget != null ? memoryBudget.getBytesInUse() : 0;
+  }
+
   /** Release the memory for previous chunk since it is already consumed */
   void releaseChunk() {
-    if (chunkIndexToChunksMap.get(currentChunkIndex).releaseChunk()) {
-      totalChunksInMemory--;
+    ArrowResultChunk chunk = chunkIndexToChunksMap.get(currentChunkIndex);
+    if (chunk.releaseChunk()) {
+      if (!chunk.isSpillTarget()) {
+        totalChunksInMemory--;
+      }
+      if (memoryBudget != null) {
+        memoryBudget.release(currentChunkIndex);
+      }
       downloadNextChunks();
     }
   }
 
   void downloadNextChunks() {
-    while (!this.isClosed
-        && nextChunkToDownload < chunkCount
-        && totalChunksInMemory < allowedChunksInMemory) {
+    while (!this.isClosed && nextChunkToDownload < chunkCount) {
       ArrowResultChunk chunk = chunkIndexToChunksMap.get(nextChunkToDownload);
       if (chunk.getStatus() != ArrowResultChunk.ChunkStatus.DOWNLOAD_SUCCEEDED) {
-        this.chunkDownloaderExecutorService.submit(
-            new ChunkDownloadTask(chunk, httpClient, this, linkDownloadService));
-        totalChunksInMemory++;
+        if (!admitChunk(chunk)) {
+          break;
+        }
+        downloadSubmitTimes.put(chunk.getChunkIndex(), System.currentTimeMillis());
+        this.chunkDownloadQueue.submit(createDownloadTask(chunk), chunk.getChunkIndex());
+        if (!chunk.isSpillTarget()) {
+          totalChunksInMemory++;
+        }
+        ChunkLatencyHandler.getInstance()
+            .recordDownloadQueueDepth(
+                statementId.toString(),
+                CloudFetchDownloadScheduler.getInstance().getQueuedDownloads());
       }
       nextChunkToDownload++;
     }
   }
 
+  private DatabricksCallableTask createDownloadTask(ArrowResultChunk chunk) {
+    if (isAsyncDownloadEnabled) {
+      return new AsyncChunkDownloadTask(
+          chunk, httpClient, this, linkDownloadService, chunkDownloadQueue, retryPolicy);
+    }
+    return new ChunkDownloadTask(
+        chunk, httpClient, this, linkDownloadService, retryPolicy, chunkDownloadQueue);
+  }
+
+  /**
+   * Returns the time left before the download of the chunk is hedged, 0 if it is due, or -1 if the
+   * download is not hedged.
+   */
+  private long getHedgeDelayMillis(ArrowResultChunk chunk) {
+    if (hedgePolicy == null || hedgedChunks.contains(chunk.getChunkIndex())) {
+      return -1;
+    }
+    Long submitTime = downloadSubmitTimes.get(chunk.getChunkIndex());
+    long hedgeDelayMillis = hedgePolicy.getHedgeDelayMillis();
+    if (submitTime == null || hedgeDelayMillis < 0) {
+      return -1;
+    }
+    return Math.max(0, submitTime + hedgeDelayMillis - System.currentTimeMillis());
+  }
+
+  /**
+   * Issues a second download of a chunk whose download is straggling, ahead of the other pending
+   * downloads. Returns false if the download of the chunk has not started yet, in which case it is
+   * only waiting for a download thread.
+   */
+  private boolean hedgeDownload(ArrowResultChunk chunk) {
+    ArrowResultChunk.ChunkStatus status = chunk.getStatus();
+    if (status != ArrowResultChunk.ChunkStatus.DOWNLOAD_IN_PROGRESS
+        && status != ArrowResultChunk.ChunkStatus.DOWNLOAD_RETRY) {
+      return false;
+    }
+    hedgedChunks.add(chunk.getChunkIndex());
+    LOGGER.info(
+        "Download of chunk {} for statement {} is straggling, starting a hedged download",
+        chunk.getChunkIndex(),
+        statementId);
+    ChunkLatencyHandler.getInstance().recordHedgedChunkDownload(statementId.toString());
+    chunkDownloadQueue.submit(
+        new HedgedChunkDownloadTask(chunk, httpClient, this, () -> downloadAgain(chunk)),
+        chunk.getChunkIndex());
+    chunkDownloadQueue.prioritize(chunk.getChunkIndex());
+    return true;
+  }
+
+  /**
+   * Downloads again a chunk whose hedged download failed after the first download gave up on it,
+   * ahead of the other pending downloads.
+   */
+  private void downloadAgain(ArrowResultChunk chunk) {
+    if (isClosed) {
+      return;
+    }
+    chunkDownloadQueue.submit(createDownloadTask(chunk), chunk.getChunkIndex());
+    chunkDownloadQueue.prioritize(chunk.getChunkIndex());
+  }
+
+  /**
+   * Checks whether another chunk can be downloaded. The number of chunks in memory is capped by
+   * {@link #computeAllowedChunksInMemory()}, the estimated decoded size of the chunk must fit in
+   * the Arrow memory left to the connection, and with a memory budget the chunk is also admitted
+   * only if it fits in the remaining budget. A chunk that does not fit in memory is admitted to the
+   * spill store, if any, and downloaded to disk.
+   *
+   * <p>A chunk that is not admitted is checked again once the result set releases a chunk, so a
+   * download never waits for memory on a download thread.
+   */
+  private boolean admitChunk(ArrowResultChunk chunk) {
+    boolean fitsInMemory =
+        totalChunksInMemory < allowedChunksInMemory
+            && hasArrowHeadroom(chunk)
+            && (memoryBudget == null
+                || memoryBudget.tryReserve(chunk, getBufferedBodyBytes(chunk)));
+    if (fitsInMemory) {
+      long estimate = Math.max(0, sizeEstimator.estimateChunkBytes(chunk));
+      pendingArrowBytesByChunk.put(chunk.getChunkIndex(), estimate);
+      pendingArrowBytes.addAndGet(estimate);
+      return true;
+    }
+    if (spillStore != null && spillStore.tryReserve(chunk)) {
+      chunk.setSpillStore(spillStore);
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Returns the heap memory holding the compressed body of the chunk until it is decoded. The async
+   * client and parallel decoding download the whole body before decoding it; otherwise the body is
+   * decoded as it is read.
+   */
+  private long getBufferedBodyBytes(ArrowResultChunk chunk) {
+    if (!isAsyncDownloadEnabled && !chunkDownloadQueue.isParallelDecodeEnabled()) {
+      return 0;
+    }
+    Long byteCount = chunk.getByteCount();
+    return byteCount != null ? byteCount : 0;
+  }
+
+  /**
+   * Returns true if the Arrow allocators of the statement and its connection have room for the
+   * estimated decoded size of the chunk, on top of the chunks already submitted for download. When
+   * the result set holds no chunk, the chunk is admitted anyway so that the result set makes
+   * progress; the allocator then enforces the limit.
+   */
+  private boolean hasArrowHeadroom(ArrowResultChunk chunk) {
+    if (totalChunksInMemory == 0) {
+      return true;
+    }
+    long estimate = Math.max(0, sizeEstimator.estimateChunkBytes(chunk));
+    long headroom = statementAllocator.getHeadroom() - pendingArrowBytes.get();
+    if (headroom >= estimate) {
+      return true;
+    }
+    LOGGER.debug(
+        "Chunk {} of statement {} not admitted, estimated size {} bytes exceeds the Arrow memory left: {}",
+        chunk.getChunkIndex(),
+        statementId,
+        estimate,
+        headroom);
+    return false;
+  }
+
   void initializeData() {
     DatabricksThreadContextHolder.setStatementId(statementId);
     // No chunks are downloaded, we need to start from first one
@@ -220,8 +532,7 @@ public class RemoteChunkProvider implements ChunkProvider, ChunkDownloadCallback
     this.currentChunkIndex = -1L;
     // We don't have any chunk in downloaded yet
     this.totalChunksInMemory = 0L;
-    // Number of worker threads are directly linked to allowed chunks in memory
-    this.allowedChunksInMemory = Math.min(chunksDownloaderThreadPoolSize, chunkCount);
+    this.allowedChunksInMemory = computeAllowedChunksInMemory();
     this.isClosed = false;
     // The first link is available
     this.downloadNextChunks();
@@ -258,28 +569,41 @@ public class RemoteChunkProvider implements ChunkProvider, ChunkDownloadCallback
           ArrowResultChunk.builder()
               .withStatementId(statementId)
               .withThriftChunkInfo(chunkCount, resultLink)
+              .withParentAllocator(statementAllocator)
+              .withIncrementalDecode(isIncrementalDecodeEnabled)
               .build());
       this.chunkCount++;
     }
   }
 
-  private static ExecutorService createChunksDownloaderExecutorService() {
-    ThreadFactory threadFactory =
-        new ThreadFactory() {
-          private final AtomicInteger threadCount = new AtomicInteger(1);
+  private static ChunkSpillStore createSpillStore(
+      IDatabricksSession session, CompressionCodec compressionCodec) {
+    long limitBytes = session.getConnectionContext().getCloudFetchSpillLimitBytes();
+    if (limitBytes <= 0) {
+      return null;
+    }
+    LOGGER.debug(
+        "Spilling cloud fetch chunks that do not fit in memory to up to {} bytes", limitBytes);
+    return new ChunkSpillStore(
+        session.getConnectionContext().getCloudFetchSpillDirectory(), limitBytes, compressionCodec);
+  }
 
-          public Thread newThread(final Runnable r) {
-            final Thread thread = new Thread(r);
-            thread.setName(CHUNKS_DOWNLOADER_THREAD_POOL_PREFIX + threadCount.getAndIncrement());
-            thread.setDaemon(true);
-            return thread;
-          }
-        };
-    return Executors.newFixedThreadPool(chunksDownloaderThreadPoolSize, threadFactory);
+  private static ChunkMemoryBudget createMemoryBudget(
+      IDatabricksSession session, ChunkSizeEstimator sizeEstimator) {
+    long budgetBytes = session.getConnectionContext().getCloudFetchMemoryBudgetBytes();
+    if (budgetBytes <= 0) {
+      return null;
+    }
+    LOGGER.debug("Limiting cloud fetch prefetch to a memory budget of {} bytes", budgetBytes);
+    return new ChunkMemoryBudget(budgetBytes, sizeEstimator);
   }
 
   private static ConcurrentHashMap<Long, ArrowResultChunk> initializeChunksMap(
-      ResultManifest resultManifest, ResultData resultData, StatementId statementId)
+      ResultManifest resultManifest,
+      ResultData resultData,
+      StatementId statementId,
+      BufferAllocator statementAllocator,
+      boolean isIncrementalDecodeEnabled)
       throws DatabricksParsingException {
     ConcurrentHashMap<Long, ArrowResultChunk> chunkIndexMap = new ConcurrentHashMap<>();
     if (resultManifest.getTotalChunkCount() == 0) {
@@ -289,7 +613,12 @@ public class RemoteChunkProvider implements ChunkProvider, ChunkDownloadCallback
       LOGGER.debug("Manifest chunk information: " + chunkInfo.toString());
       chunkIndexMap.put(
           chunkInfo.getChunkIndex(),
-          ArrowResultChunk.builder().withStatementId(statementId).withChunkInfo(chunkInfo).build());
+          ArrowResultChunk.builder()
+              .withStatementId(statementId)
+              .withChunkInfo(chunkInfo)
+              .withParentAllocator(statementAllocator)
+              .withIncrementalDecode(isIncrementalDecodeEnabled)
+              .build());
     }
 
     for (ExternalLink externalLink : resultData.getExternalLinks()) {
@@ -298,9 +627,73 @@ public class RemoteChunkProvider implements ChunkProvider, ChunkDownloadCallback
     return chunkIndexMap;
   }
 
-  private boolean isDownloadComplete(ArrowResultChunk.ChunkStatus status) {
-    return status == ArrowResultChunk.ChunkStatus.DOWNLOAD_SUCCEEDED
-        || status == ArrowResultChunk.ChunkStatus.DOWNLOAD_FAILED
-        || status == ArrowResultChunk.ChunkStatus.DOWNLOAD_FAILED_ABORTED;
+  /**
+   * Returns the number of chunks that may be held in memory. It is at least the size of the
+   * download thread pool, so that every download thread can be busy. The fetch size of the
+   * statement raises it to the number of chunks covering that many rows, estimated from the average
+   * number of rows per chunk, whether or not there is a memory budget. Without a fetch size, only
+   * the memory budget, if any, limits the prefetching.
+   */
+  private long computeAllowedChunksInMemory() {
+    // Number of worker threads are directly linked to allowed chunks in memory
+    long minChunks = Math.min(chunksDownloaderThreadPoolSize, chunkCount);
+    if (fetchSize <= 0 || chunkCount == 0 || rowCount <= 0) {
+      return memoryBudget != null ? Long.MAX_VALUE : minChunks;
+    }
+    long rowsPerChunk = Math.max(1, rowCount / chunkCount);
+    long chunks =
+        Math.max(minChunks, Math.min((fetchSize + rowsPerChunk - 1) / rowsPerChunk, chunkCount));
+    LOGGER.debug(
+        "Prefetching {} chunks for the fetch size of {} rows of statement {}",
+        chunks,
+        fetchSize,
+        statementId);
+    return chunks;
+  }
+
+  @VisibleForTesting
+  long getChunksInMemory() {
+    return totalChunksInMemory;
+  }
+
+  @VisibleForTesting
+  long getAllowedChunksInMemory() {
+    return allowedChunksInMemory;
+  }
+
+  /** Returns the fetch size of the statement, or 0 if it is not set. */
+  private static int getFetchSize(IDatabricksStatementInternal parentStatement) {
+    if (parentStatement == null) {
+      return 0;
+    }
+    try {
+      return parentStatement.getFetchSize();
+    } catch (SQLException e) {
+      LOGGER.warn("Unable to read the fetch size of the statement: {}", e.getMessage());
+      return 0;
+    }
+  }
+
+  /** Returns the query timeout of the statement in seconds, or 0 if the wait is not limited. */
+  /**
+   * Returns the time by which the chunks must be downloaded for the given query timeout, or {@link
+   * Long#MAX_VALUE} if there is no timeout.
+   */
+  private static long getQueryDeadlineMillis(int queryTimeoutSeconds) {
+    return queryTimeoutSeconds > 0
+        ? System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(queryTimeoutSeconds)
+        : Long.MAX_VALUE;
+  }
+
+  private static int getQueryTimeoutSeconds(IDatabricksStatementInternal parentStatement) {
+    if (parentStatement == null || parentStatement.getStatement() == null) {
+      return 0;
+    }
+    try {
+      return parentStatement.getStatement().getQueryTimeout();
+    } catch (SQLException e) {
+      LOGGER.warn("Unable to read the query timeout of the statement: {}", e.getMessage());
+      return 0;
+    }
   }
 }
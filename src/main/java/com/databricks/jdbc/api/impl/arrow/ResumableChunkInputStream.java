@@ -0,0 +1,200 @@
+package com.databricks.jdbc.api.impl.arrow;
+
+import com.databricks.jdbc.dbclient.IDatabricksHttpClient;
+import com.databricks.jdbc.exception.DatabricksHttpException;
+import com.databricks.jdbc.log.JdbcLogger;
+import com.databricks.jdbc.log.JdbcLoggerFactory;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.apache.commons.io.IOUtils;
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.entity.DecompressingEntity;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+
+/**
+ * Body of a chunk download that resumes the transfer where it stopped when the connection fails
+ * mid-body.
+ *
+ * <p>When reading the body fails, or the body ends before its {@code Content-Length}, the stream
+ * requests the remaining bytes with a {@code Range} header and continues reading from the new
+ * response. The reader, i.e. the decompression and the Arrow decoding, sees a single uninterrupted
+ * stream, so the bytes already received are not downloaded and decoded again. If the download
+ * cannot be resumed, the original failure is thrown and the whole chunk is downloaded again.
+ */
+class ResumableChunkInputStream extends InputStream {
+
+  private static final JdbcLogger LOGGER =
+      JdbcLoggerFactory.getLogger(ResumableChunkInputStream.class);
+  static final int MAX_RESUMES = 3;
+  private static final Pattern CONTENT_RANGE_PATTERN = Pattern.compile("bytes (\\d+)-\\d+/.*");
+
+  /** Creates a request for the chunk, from its current link, to which the range is added. */
+  interface RequestFactory {
+    HttpUriRequest createRequest() throws IOException;
+  }
+
+  private final IDatabricksHttpClient httpClient;
+  private final RequestFactory requestFactory;
+  private final long contentLength;
+  private final boolean isResumable;
+  private CloseableHttpResponse response;
+  private InputStream body;
+  private long position;
+  private int resumes;
+
+  ResumableChunkInputStream(
+      IDatabricksHttpClient httpClient,
+      RequestFactory requestFactory,
+      CloseableHttpResponse response)
+      throws IOException {
+    this.httpClient = httpClient;
+    this.requestFactory = requestFactory;
+    this.response = response;
+    this.body = response.getEntity().getContent();
+    this.contentLength = response.getEntity().getContentLength();
+    // Byte offsets of a body decompressed by the HTTP client do not match those of the resource
+    this.isResumable = !(response.getEntity() instanceof DecompressingEntity);
+  }
+
+  @Override
+  public int read() throws IOException {
+    while (true) {
+      int value;
+      try {
+        value = body.read();
+      } catch (IOException e) {
+        resume(e);
+        continue;
+      }
+      if (value >= 0) {
+        position++;
+        return value;
+      }
+      if (!isTruncated()) {
+        return -1;
+      }
+      resume(null);
+    }
+  }
+
+  @Override
+  public int read(byte[] buffer, int offset, int length) throws IOException {
+    if (length == 0) {
+      return 0;
+    }
+    while (true) {
+      int count;
+      try {
+        count = body.read(buffer, offset, length);
+      } catch (IOException e) {
+        resume(e);
+        continue;
+      }
+      if (count >= 0) {
+        position += count;
+        return count;
+      }
+      if (!isTruncated()) {
+        return -1;
+      }
+      resume(null);
+    }
+  }
+
+  @Override
+  public int available() throws IOException {
+    return body.available();
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      body.close();
+    } finally {
+      response.close();
+    }
+  }
+
+  /** Returns the number of resumed transfers. */
+  int getResumeCount() {
+    return resumes;
+  }
+
+  private boolean isTruncated() {
+    return contentLength > 0 && position < contentLength;
+  }
+
+  /**
+   * Replaces the failed response with one for the remaining bytes of the body.
+   *
+   * @param failure the read failure, or null if the body ended early
+   * @throws IOException the read failure if the transfer cannot be resumed
+   */
+  private void resume(IOException failure) throws IOException {
+    IOException cause =
+        failure != null
+            ? failure
+            : new EOFException(
+                String.format("Chunk body ended after %d of %d bytes", position, contentLength));
+    if (!isResumable
+        || position == 0
+        || resumes >= MAX_RESUMES
+        || Thread.currentThread().isInterrupted()) {
+      throw cause;
+    }
+    resumes++;
+    LOGGER.info(
+        "Resuming chunk download at byte {} (attempt {}) after error: {}",
+        position,
+        resumes,
+        cause.getMessage());
+    IOUtils.closeQuietly(body);
+    IOUtils.closeQuietly(response);
+
+    HttpUriRequest request = requestFactory.createRequest();
+    request.setHeader(HttpHeaders.RANGE, "bytes=" + position + "-");
+    try {
+      response = httpClient.execute(request, true);
+    } catch (DatabricksHttpException e) {
+      cause.addSuppressed(e);
+      throw cause;
+    }
+    int statusCode = response.getStatusLine().getStatusCode();
+    if (statusCode == HttpStatus.SC_PARTIAL_CONTENT
+        && getContentRangeStart(response.getFirstHeader(HttpHeaders.CONTENT_RANGE)) == position) {
+      body = response.getEntity().getContent();
+    } else if (statusCode == HttpStatus.SC_OK) {
+      // The storage ignored the range, skip the bytes already read
+      body = response.getEntity().getContent();
+      IOUtils.skipFully(body, position);
+    } else {
+      cause.addSuppressed(
+          new IOException(
+              String.format("Unexpected response to range request: %s", response.getStatusLine())));
+      IOUtils.closeQuietly(response);
+      throw cause;
+    }
+  }
+
+  /**
+   * Returns the first byte of a {@code Content-Range} header, or -1 if the header is missing or
+   * cannot be parsed.
+   */
+  static long getContentRangeStart(String contentRange) {
+    if (contentRange == null) {
+      return -1;
+    }
+    Matcher matcher = CONTENT_RANGE_PATTERN.matcher(contentRange.trim());
+    return matcher.matches() ? Long.parseLong(matcher.group(1)) : -1;
+  }
+
+  private static long getContentRangeStart(Header contentRange) {
+    return contentRange != null ? getContentRangeStart(contentRange.getValue()) : -1;
+  }
+}
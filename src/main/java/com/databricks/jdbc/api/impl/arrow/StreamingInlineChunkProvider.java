@@ -0,0 +1,239 @@
+package com.databricks.jdbc.api.impl.arrow;
+
+import static com.databricks.jdbc.common.util.DecompressionUtil.decompress;
+
+import com.databricks.jdbc.api.internal.IDatabricksConnectionContext;
+import com.databricks.jdbc.api.internal.IDatabricksSession;
+import com.databricks.jdbc.api.internal.IDatabricksStatementInternal;
+import com.databricks.jdbc.common.CompressionCodec;
+import com.databricks.jdbc.common.util.DatabricksThreadContextHolder;
+import com.databricks.jdbc.exception.DatabricksParsingException;
+import com.databricks.jdbc.exception.DatabricksSQLException;
+import com.databricks.jdbc.log.JdbcLogger;
+import com.databricks.jdbc.log.JdbcLoggerFactory;
+import com.databricks.jdbc.model.client.thrift.generated.TFetchResultsResp;
+import com.databricks.jdbc.model.client.thrift.generated.TSparkArrowBatch;
+import com.databricks.jdbc.model.telemetry.enums.DatabricksDriverErrorCode;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import org.apache.arrow.memory.BufferAllocator;
+
+/**
+ * Chunk provider for inline Arrow results that returns one chunk per fetch response.
+ *
+ * <p>Unlike {@link InlineChunkProvider}, the provider does not fetch the whole result before the
+ * first row is returned. While a chunk is read, the next fetch response is requested on the shared
+ * download pool, and a chunk is released as soon as the following one is returned, so at most one
+ * chunk and one pending response are held in memory. Each response holds up to the fetch size of
+ * the statement in rows, if it is set.
+ *
+ * <p>Since the number of rows is only known once the last response has been fetched, {@link
+ * #getRowCount()} returns the number of rows fetched so far.
+ */
+class StreamingInlineChunkProvider implements ChunkProvider {
+
+  private static final JdbcLogger LOGGER =
+      JdbcLoggerFactory.getLogger(StreamingInlineChunkProvider.class);
+
+  private final IDatabricksStatementInternal parentStatement;
+  private final IDatabricksSession session;
+  private final int fetchSize;
+  private final BufferAllocator statementAllocator;
+  private final CompressionCodec compressionCodec;
+  private final byte[] serializedSchema;
+  private final CloudFetchDownloadScheduler.DownloadQueue fetchQueue;
+  private CompletableFuture<TFetchResultsResp> nextResponse;
+  private ArrowResultChunk currentChunk;
+  private DatabricksSQLException fetchError;
+  private long currentChunkIndex;
+  private long chunkCount;
+  private long rowCount;
+  private boolean isClosed;
+
+  StreamingInlineChunkProvider(
+      TFetchResultsResp resultsResp,
+      IDatabricksStatementInternal parentStatement,
+      IDatabricksSession session)
+      throws DatabricksSQLException {
+    this.parentStatement = parentStatement;
+    this.session = session;
+    this.fetchSize = parentStatement.getFetchSize();
+    this.currentChunkIndex = -1;
+    this.compressionCodec =
+        CompressionCodec.getCompressionMapping(resultsResp.getResultSetMetadata());
+    this.serializedSchema =
+        InlineChunkProvider.getSerializedSchema(resultsResp.getResultSetMetadata());
+    this.statementAllocator =
+        ArrowAllocatorManager.getInstance()
+            .newStatementAllocator(
+                session.getConnectionContext(), parentStatement.getStatementId());
+    this.fetchQueue =
+        CloudFetchDownloadScheduler.getInstance()
+            .newDownloadQueue(session.getConnectionContext(), parentStatement.getStatementId());
+    // The first chunk is available right away, e.g. for reading the Arrow metadata
+    try {
+      this.currentChunk = createChunk(resultsResp);
+    } catch (DatabricksSQLException e) {
+      close();
+      throw e;
+    }
+    if (resultsResp.hasMoreRows) {
+      prefetchNextResponse();
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean hasNextChunk() {
+    return !isClosed && (currentChunkIndex == -1 || nextResponse != null);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean next() {
+    if (!hasNextChunk()) {
+      return false;
+    }
+    currentChunkIndex++;
+    if (currentChunkIndex == 0) {
+      return true;
+    }
+    currentChunk.releaseChunk();
+    try {
+      currentChunk = fetchNextChunk();
+    } catch (DatabricksSQLException e) {
+      // Surfaced by getChunk(), since next() cannot throw
+      fetchError = e;
+      nextResponse = null;
+    }
+    return true;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public ArrowResultChunk getChunk() throws DatabricksSQLException {
+    if (fetchError != null) {
+      throw fetchError;
+    }
+    return currentChunk;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void close() {
+    isClosed = true;
+    fetchQueue.close();
+    if (currentChunk != null) {
+      currentChunk.releaseChunk();
+    }
+    ArrowAllocatorManager.getInstance().closeStatementAllocator(statementAllocator);
+  }
+
+  @Override
+  public long getRowCount() {
+    return rowCount;
+  }
+
+  @Override
+  public long getChunkCount() {
+    return 0;
+  }
+
+  /** Waits for the next response and creates its chunk, skipping responses without rows. */
+  private ArrowResultChunk fetchNextChunk() throws DatabricksSQLException {
+    while (true) {
+      TFetchResultsResp resultsResp = awaitNextResponse();
+      nextResponse = null;
+      if (resultsResp.hasMoreRows) {
+        prefetchNextResponse();
+      }
+      ArrowResultChunk chunk = createChunk(resultsResp);
+      if (chunk.numRows > 0 || nextResponse == null) {
+        return chunk;
+      }
+      chunk.releaseChunk();
+    }
+  }
+
+  private TFetchResultsResp awaitNextResponse() throws DatabricksSQLException {
+    try {
+      return nextResponse.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new DatabricksSQLException(
+          "Interrupted while fetching inline arrow results",
+          e,
+          DatabricksDriverErrorCode.INLINE_CHUNK_PARSING_ERROR);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof DatabricksSQLException) {
+        throw (DatabricksSQLException) e.getCause();
+      }
+      throw new DatabricksSQLException(
+          "Failed to fetch inline arrow results: " + e.getCause().getMessage(),
+          e.getCause(),
+          DatabricksDriverErrorCode.INLINE_CHUNK_PARSING_ERROR);
+    }
+  }
+
+  /** Requests the next fetch response on the download pool. */
+  private void prefetchNextResponse() {
+    CompletableFuture<TFetchResultsResp> response = new CompletableFuture<>();
+    IDatabricksConnectionContext connectionContext = session.getConnectionContext();
+    fetchQueue.submit(
+        () -> {
+          DatabricksThreadContextHolder.setConnectionContext(connectionContext);
+          DatabricksThreadContextHolder.setStatementId(parentStatement.getStatementId());
+          try {
+            response.complete(
+                session.getDatabricksClient().getMoreResults(parentStatement, fetchSize));
+          } catch (Throwable e) {
+            response.completeExceptionally(e);
+          } finally {
+            DatabricksThreadContextHolder.clearAllContext();
+          }
+          return null;
+        });
+    nextResponse = response;
+  }
+
+  private ArrowResultChunk createChunk(TFetchResultsResp resultsResp)
+      throws DatabricksSQLException {
+    List<InputStream> streams = new ArrayList<>();
+    streams.add(new ByteArrayInputStream(serializedSchema));
+    long rowsInChunk = 0;
+    for (TSparkArrowBatch arrowBatch : resultsResp.getResults().getArrowBatches()) {
+      byte[] decompressedBytes =
+          decompress(
+              arrowBatch.getBatch(),
+              compressionCodec,
+              String.format(
+                  "Data fetch for inline arrow batch [%d] and statement [%s] with decompression algorithm : [%s]",
+                  arrowBatch.getRowCount(), parentStatement, compressionCodec));
+      streams.add(new ByteArrayInputStream(decompressedBytes));
+      rowsInChunk += arrowBatch.getRowCount();
+    }
+    LOGGER.debug(
+        "Received inline arrow chunk {} with {} rows for statement {}",
+        chunkCount,
+        rowsInChunk,
+        parentStatement.getStatementId());
+    rowCount += rowsInChunk;
+    chunkCount++;
+    try {
+      return ArrowResultChunk.builder()
+          .withInputStream(new SequenceInputStream(Collections.enumeration(streams)), rowsInChunk)
+          .withStatementId(parentStatement.getStatementId())
+          .withParentAllocator(statementAllocator)
+          .build();
+    } catch (DatabricksParsingException e) {
+      InlineChunkProvider.handleError(e);
+      return null;
+    }
+  }
+}
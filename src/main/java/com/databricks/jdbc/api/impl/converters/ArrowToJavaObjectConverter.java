@@ -58,6 +58,12 @@ public class ArrowToJavaObjectConverter {
           DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.S"),
           DateTimeFormatter.RFC_1123_DATE_TIME);
 
+  /** Converts a non-null value read from an Arrow vector to the Java object of its column. */
+  @FunctionalInterface
+  public interface ValueConverter {
+    Object convert(ValueVector columnVector, Object object) throws DatabricksSQLException;
+  }
+
   public static Object convert(
       ValueVector columnVector,
       int vectorIndex,
@@ -65,11 +71,39 @@ public class ArrowToJavaObjectConverter {
       String arrowMetadata,
       ColumnInfo columnInfo)
       throws DatabricksSQLException {
+    return convert(
+        columnVector, vectorIndex, getValueConverter(requiredType, arrowMetadata, columnInfo));
+  }
+
+  /**
+   * Converts the value at the given index of a vector with a converter obtained from {@link
+   * #getValueConverter}.
+   */
+  public static Object convert(
+      ValueVector columnVector, int vectorIndex, ValueConverter valueConverter)
+      throws DatabricksSQLException {
     // check isNull before getting the object from the vector
     if (columnVector.isNull(vectorIndex)) {
       return null;
     }
     Object object = columnVector.getObject(vectorIndex);
+    if (object == null) {
+      return null;
+    }
+    return valueConverter.convert(columnVector, object);
+  }
+
+  /**
+   * Resolves the conversion of the values of a column once, so that converting a value does not
+   * have to inspect the Arrow metadata of the column again.
+   *
+   * @param requiredType the type of the column in the result schema
+   * @param arrowMetadata the Arrow metadata of the column, may be null
+   * @param columnInfo the column of the result schema
+   * @return the converter for the values of the column
+   */
+  public static ValueConverter getValueConverter(
+      ColumnInfoTypeName requiredType, String arrowMetadata, ColumnInfo columnInfo) {
     if (arrowMetadata != null) {
       if (arrowMetadata.startsWith(ARRAY)) {
         requiredType = ColumnInfoTypeName.ARRAY;
@@ -87,62 +121,85 @@ public class ArrowToJavaObjectConverter {
         requiredType = ColumnInfoTypeName.TIMESTAMP;
       }
     }
-    if (object == null) {
-      return null;
+    if (requiredType == null) {
+      return getUnsupportedTypeConverter(null);
     }
     switch (requiredType) {
       case BYTE:
-        return convertToNumber(object, Byte::parseByte, Number::byteValue);
+        return (vector, object) -> convertToNumber(object, Byte::parseByte, Number::byteValue);
       case SHORT:
-        return convertToNumber(object, Short::parseShort, Number::shortValue);
+        return (vector, object) -> convertToNumber(object, Short::parseShort, Number::shortValue);
       case INT:
-        return convertToNumber(object, Integer::parseInt, Number::intValue);
+        return (vector, object) -> convertToNumber(object, Integer::parseInt, Number::intValue);
       case LONG:
-        return convertToNumber(object, Long::parseLong, Number::longValue);
+        return (vector, object) -> convertToNumber(object, Long::parseLong, Number::longValue);
       case FLOAT:
-        return convertToNumber(object, Float::parseFloat, Number::floatValue);
+        return (vector, object) -> convertToNumber(object, Float::parseFloat, Number::floatValue);
       case DOUBLE:
-        return convertToNumber(object, Double::parseDouble, Number::doubleValue);
+        return (vector, object) ->
+            convertToNumber(object, Double::parseDouble, Number::doubleValue);
       case DECIMAL:
-        return convertToDecimal(object, columnInfo);
+        return (vector, object) -> convertToDecimal(object, columnInfo);
       case BINARY:
-        return convertToByteArray(object);
+        return (vector, object) -> convertToByteArray(object);
       case BOOLEAN:
-        return convertToBoolean(object);
+        return (vector, object) -> convertToBoolean(object);
       case CHAR:
-        return convertToChar(object);
+        return (vector, object) -> convertToChar(object);
       case STRUCT:
-        return convertToStruct(object, arrowMetadata);
+        return (vector, object) -> convertToStruct(object, arrowMetadata);
       case ARRAY:
-        return convertToArray(object, arrowMetadata);
+        return (vector, object) -> convertToArray(object, arrowMetadata);
       case MAP:
-        return convertToMap(object, arrowMetadata);
+        return (vector, object) -> convertToMap(object, arrowMetadata);
       case STRING:
-        return convertToString(object);
+        return (vector, object) -> convertToString(object);
       case DATE:
-        return convertToDate(object);
+        return (vector, object) -> convertToDate(object);
       case TIMESTAMP:
-        Optional<String> timeZone = Optional.empty();
-        if (columnVector instanceof TimeStampMicroTZVector) {
-          timeZone = Optional.of(((TimeStampMicroTZVector) columnVector).getTimeZone());
-        }
-        return convertToTimestamp(object, timeZone);
+        return (vector, object) -> {
+          Optional<String> timeZone = Optional.empty();
+          if (vector instanceof TimeStampMicroTZVector) {
+            timeZone = Optional.of(((TimeStampMicroTZVector) vector).getTimeZone());
+          }
+          return convertToTimestamp(object, timeZone);
+        };
       case INTERVAL:
-        if (arrowMetadata == null) {
-          String errorMessage =
-              String.format("Failed to read INTERVAL %s with null metadata.", object);
-          LOGGER.error(errorMessage);
-          throw new DatabricksValidationException(errorMessage);
-        }
-        IntervalConverter ic = new IntervalConverter(arrowMetadata);
-        return ic.toLiteral(object);
+        return getIntervalConverter(arrowMetadata);
       case NULL:
-        return null;
+        return (vector, object) -> null;
       default:
-        String errorMessage = String.format("Unsupported conversion type %s", requiredType);
+        return getUnsupportedTypeConverter(requiredType);
+    }
+  }
+
+  private static ValueConverter getUnsupportedTypeConverter(ColumnInfoTypeName requiredType) {
+    return (vector, object) -> {
+      String errorMessage = String.format("Unsupported conversion type %s", requiredType);
+      LOGGER.error(errorMessage);
+      throw new DatabricksValidationException(errorMessage);
+    };
+  }
+
+  private static ValueConverter getIntervalConverter(String arrowMetadata) {
+    if (arrowMetadata == null) {
+      return (vector, object) -> {
+        String errorMessage =
+            String.format("Failed to read INTERVAL %s with null metadata.", object);
         LOGGER.error(errorMessage);
         throw new DatabricksValidationException(errorMessage);
+      };
+    }
+    IntervalConverter intervalConverter;
+    try {
+      intervalConverter = new IntervalConverter(arrowMetadata);
+    } catch (IllegalArgumentException e) {
+      // Only fail when a value of the column is read
+      return (vector, object) -> {
+        throw e;
+      };
     }
+    return (vector, object) -> intervalConverter.toLiteral(object);
   }
 
   private static DatabricksMap convertToMap(Object object, String arrowMetadata)
@@ -132,6 +132,85 @@ public interface IDatabricksConnectionContext {
   /** Returns the number of threads to be used for fetching data from cloud storage */
   int getCloudFetchThreadPoolSize();
 
+  /**
+   * Returns the maximum number of bytes of decompressed cloud fetch chunks that a result set may
+   * hold in memory, or 0 if prefetching is limited by chunk count instead
+   */
+  long getCloudFetchMemoryBudgetBytes();
+
+  /**
+   * Returns the maximum number of bytes of downloaded cloud fetch chunks that a result set may
+   * spill to local disk, or 0 if chunks are not spilled
+   */
+  long getCloudFetchSpillLimitBytes();
+
+  /**
+   * Returns the directory in which cloud fetch chunks are spilled, or null to use the temporary
+   * directory of the JVM
+   */
+  String getCloudFetchSpillDirectory();
+
+  /**
+   * Returns the maximum number of cloud fetch chunk downloads running at the same time across the
+   * connections sharing its download pool, or 0 to derive it from the number of processors. The
+   * pool runs as many downloads as the largest value of its open connections
+   */
+  int getCloudFetchMaxConcurrentDownloads();
+
+  /** Returns whether cloud fetch chunk downloads should run on virtual threads */
+  boolean getCloudFetchUseVirtualThreads();
+
+  /** Returns whether cloud fetch chunks are downloaded with the non-blocking async HTTP client */
+  boolean isCloudFetchAsyncDownloadEnabled();
+
+  /**
+   * Returns whether straggling downloads of cloud fetch chunks the result set waits for are hedged
+   * with a second download
+   */
+  boolean isCloudFetchHedgedDownloadEnabled();
+
+  /**
+   * Returns whether cloud fetch chunks are decompressed and parsed on a decode pool separate from
+   * the download threads
+   */
+  boolean isCloudFetchParallelDecodeEnabled();
+
+  /**
+   * Returns whether downloaded cloud fetch chunks are kept encoded and their record batches decoded
+   * one at a time as the result set reaches them
+   */
+  boolean isCloudFetchIncrementalDecodeEnabled();
+
+  /**
+   * Returns whether the number of concurrent cloud fetch downloads of a result set is tuned to the
+   * observed download throughput, with the cloud fetch thread pool size as upper bound
+   */
+  boolean isCloudFetchAdaptiveConcurrencyEnabled();
+
+  /**
+   * Returns whether cloud fetch download links of chunks that are not downloaded yet are refreshed
+   * in the background before they expire
+   */
+  boolean isCloudFetchLinkRefreshEnabled();
+
+  /**
+   * Returns whether inline Arrow results are returned one fetch response at a time instead of being
+   * fetched completely before the first row is returned
+   */
+  boolean isInlineArrowStreamingEnabled();
+
+  /**
+   * Returns whether columnar Thrift results are returned one fetch response at a time instead of
+   * being fetched completely before the first row is returned
+   */
+  boolean isInlineColumnarStreamingEnabled();
+
+  /**
+   * Returns the maximum number of bytes of Arrow memory the connection may allocate, or 0 if there
+   * is no limit
+   */
+  long getArrowMemoryLimitBytes();
+
   Boolean getDirectResultMode();
 
   Boolean shouldRetryTemporarilyUnavailableError();
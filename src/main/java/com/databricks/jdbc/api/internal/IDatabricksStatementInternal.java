@@ -15,6 +15,8 @@ public interface IDatabricksStatementInternal {
 
   int getMaxRows() throws DatabricksSQLException;
 
+  int getFetchSize() throws DatabricksSQLException;
+
   void setStatementId(StatementId statementId);
 
   StatementId getStatementId();
@@ -67,6 +67,62 @@ public enum DatabricksJdbcUrlParams {
   IDLE_HTTP_CONNECTION_EXPIRY("IdleHttpConnectionExpiry", "Idle HTTP connection expiry", "60"),
   SUPPORT_MANY_PARAMETERS("supportManyParameters", "Support many parameters", "0"),
   CLOUD_FETCH_THREAD_POOL_SIZE("cloudFetchThreadPoolSize", "Cloud fetch thread pool size", "16"),
+  CLOUD_FETCH_MEMORY_BUDGET_MB(
+      "CloudFetchMemoryBudgetMB",
+      "Maximum size in MB of decompressed cloud fetch chunks held in memory per result set. 0 limits prefetch by chunk count instead",
+      "0"),
+  CLOUD_FETCH_SPILL_LIMIT_MB(
+      "CloudFetchSpillLimitMB",
+      "Maximum size in MB of downloaded cloud fetch chunks a result set may spill to local disk when the chunks it holds in memory reach their limit. 0 disables spilling",
+      "0"),
+  CLOUD_FETCH_SPILL_DIRECTORY(
+      "CloudFetchSpillDirectory",
+      "Directory in which cloud fetch chunks are spilled. Defaults to the temporary directory of the JVM",
+      ""),
+  CLOUD_FETCH_MAX_CONCURRENT_DOWNLOADS(
+      "CloudFetchMaxConcurrentDownloads",
+      "Maximum number of cloud fetch chunk downloads running at the same time across the connections sharing the download pool. The largest value of the open connections applies. 0 derives it from the number of processors",
+      "0"),
+  CLOUD_FETCH_USE_VIRTUAL_THREADS(
+      "CloudFetchUseVirtualThreads",
+      "Run cloud fetch chunk downloads on a pool of virtual threads, shared with the other connections enabling it, when the JVM supports them",
+      "0"),
+  CLOUD_FETCH_ASYNC_DOWNLOAD(
+      "CloudFetchAsyncDownload",
+      "Download cloud fetch chunks with the non-blocking async HTTP client",
+      "0"),
+  CLOUD_FETCH_HEDGED_DOWNLOADS(
+      "CloudFetchHedgedDownloads",
+      "Download again a cloud fetch chunk the result set is waiting for when its download takes longer than 95% of the previous downloads, keeping whichever download responds first",
+      "0"),
+  CLOUD_FETCH_PARALLEL_DECODE(
+      "CloudFetchParallelDecode",
+      "Decompress and parse cloud fetch chunks on a separate pool sized to the number of processors, so downloads do not wait for decoding",
+      "0"),
+  CLOUD_FETCH_INCREMENTAL_DECODE(
+      "CloudFetchIncrementalDecode",
+      "Keep downloaded cloud fetch chunks encoded and decode their record batches one at a time as the result set reaches them",
+      "0"),
+  CLOUD_FETCH_ADAPTIVE_CONCURRENCY(
+      "CloudFetchAdaptiveConcurrency",
+      "Tune the number of concurrent cloud fetch downloads of each result set to the observed throughput, up to cloudFetchThreadPoolSize",
+      "0"),
+  CLOUD_FETCH_LINK_REFRESH(
+      "CloudFetchLinkRefresh",
+      "Refresh cloud fetch download links in the background before they expire",
+      "1"),
+  INLINE_ARROW_STREAMING(
+      "InlineArrowStreaming",
+      "Return inline Arrow results one fetch response at a time while the next one is fetched in the background",
+      "0"),
+  INLINE_COLUMNAR_STREAMING(
+      "InlineColumnarStreaming",
+      "Return columnar Thrift results one fetch response at a time while the next one is fetched in the background",
+      "0"),
+  ARROW_MEMORY_LIMIT_MB(
+      "ArrowMemoryLimitMB",
+      "Maximum size in MB of Arrow memory allocated by the connection. 0 means no limit",
+      "0"),
   OAUTH_ENDPOINT("OAuth2ConnAuthAuthorizeEndpoint", "OAuth2 authorization endpoint"),
   AUTH_ENDPOINT(
       "OAuth2AuthorizationEndPoint", "OAuth2 authorization endpoint"), // Same as OAUTH_ENDPOINT
@@ -3,6 +3,7 @@ package com.databricks.jdbc.common.util;
 import com.databricks.jdbc.api.internal.IDatabricksConnectionContext;
 import com.databricks.jdbc.common.StatementType;
 import com.databricks.jdbc.dbclient.impl.common.StatementId;
+import com.databricks.jdbc.model.telemetry.latency.OperationDetail;
 
 /* TODO : eliminate the use of thread local completely. Currently, we are limiting the usage of this for non-critical flows such as telemetry.*/
 public class DatabricksThreadContextHolder {
@@ -12,6 +13,7 @@ public class DatabricksThreadContextHolder {
   private static final ThreadLocal<Integer> localRetryCount = new ThreadLocal<>();
   private static final ThreadLocal<StatementType> localStatementType = new ThreadLocal<>();
   private static final ThreadLocal<String> localSessionId = new ThreadLocal<>();
+  private static final ThreadLocal<OperationDetail> localOperationDetail = new ThreadLocal<>();
 
   public static void setConnectionContext(IDatabricksConnectionContext context) {
     localConnectionContext.set(context);
@@ -60,6 +62,18 @@ public class DatabricksThreadContextHolder {
     return localStatementType.get();
   }
 
+  public static void setOperationDetail(OperationDetail operationDetail) {
+    localOperationDetail.set(operationDetail);
+  }
+
+  public static OperationDetail getOperationDetail() {
+    return localOperationDetail.get();
+  }
+
+  public static void clearOperationDetail() {
+    localOperationDetail.remove();
+  }
+
   public static void clearConnectionContext() {
     localConnectionContext.remove();
   }
@@ -68,6 +82,7 @@ public class DatabricksThreadContextHolder {
     localStatementId.remove();
     localStatementType.remove();
     localRetryCount.remove();
+    localOperationDetail.remove();
   }
 
   public static void clearAllContext() {
@@ -53,18 +53,50 @@ public class DecompressionUtil {
     }
   }
 
+  /**
+   * Wraps the given stream so that it is decompressed while being read. The compressed data is
+   * never materialized in memory, so the caller can start consuming the decompressed data before
+   * the underlying stream has been fully received.
+   *
+   * @param compressedStream the compressed stream, typically an HTTP response body
+   * @param compressionCodec the codec the stream was compressed with
+   * @param context description of the data being decompressed, used for logging
+   * @return a stream of decompressed data, which must be consumed before the underlying stream is
+   *     closed
+   */
   public static InputStream decompress(
       InputStream compressedStream, CompressionCodec compressionCodec, String context)
       throws IOException, DatabricksSQLException {
     if (compressionCodec == null
         || compressionCodec.equals(CompressionCodec.NONE)
         || compressedStream == null) {
-      // Save the time to convert to byte array if compression type is none.
       LOGGER.debug("Compression is NONE /InputStream is `NULL`. Skipping compression.");
       return compressedStream;
     }
-    byte[] compressedBytes = IOUtils.toByteArray(compressedStream);
-    byte[] uncompressedBytes = decompress(compressedBytes, compressionCodec, context);
-    return new ByteArrayInputStream(uncompressedBytes);
+    switch (compressionCodec) {
+      case LZ4_FRAME:
+        return decompressLZ4Frame(compressedStream, context);
+      default:
+        String errorMessage =
+            String.format("Unknown compression type: %s. Context : %s", compressionCodec, context);
+        LOGGER.error(errorMessage);
+        throw new DatabricksSQLException(
+            errorMessage, DatabricksDriverErrorCode.DECOMPRESSION_ERROR);
+    }
+  }
+
+  private static InputStream decompressLZ4Frame(InputStream compressedStream, String context)
+      throws DatabricksSQLException {
+    LOGGER.debug("Decompressing stream using LZ4 Frame algorithm. Context: {}", context);
+    try {
+      // Blocks are decompressed one at a time as the returned stream is read
+      return new LZ4FrameInputStream(compressedStream);
+    } catch (IOException e) {
+      String errorMessage =
+          String.format("Unable to de-compress LZ4 Frame compressed result %s", context);
+      LOGGER.error(e, errorMessage);
+      throw new DatabricksParsingException(
+          errorMessage, e, DatabricksDriverErrorCode.DECOMPRESSION_ERROR);
+    }
   }
 }
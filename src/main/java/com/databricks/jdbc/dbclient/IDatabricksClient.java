@@ -129,6 +129,16 @@ public interface IDatabricksClient {
   TFetchResultsResp getMoreResults(IDatabricksStatementInternal parentStatement)
       throws DatabricksSQLException;
 
+  /**
+   * Fetches the next page of the result of a statement, with at most the given number of rows
+   *
+   * @param parentStatement statement of the result
+   * @param maxRows maximum number of rows of the page, or 0 to use the rows fetched per block of
+   *     the connection
+   */
+  TFetchResultsResp getMoreResults(IDatabricksStatementInternal parentStatement, int maxRows)
+      throws DatabricksSQLException;
+
   /** Retrieves underlying DatabricksConfig */
   DatabricksConfig getDatabricksConfig();
 }
@@ -0,0 +1,73 @@
+package com.databricks.jdbc.dbclient.impl.common;
+
+import com.databricks.jdbc.model.telemetry.latency.OperationDetail;
+import com.databricks.jdbc.model.telemetry.latency.OperationType;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Waits between the status polls of a running operation, and counts the polls.
+ *
+ * <p>The first wait is {@value #INITIAL_WAIT_MILLIS} milliseconds, and each following wait is
+ * doubled up to the maximum wait, so that short operations are seen as finished within a few
+ * milliseconds while long ones are polled at the poll interval of the connection.
+ */
+public class StatusPollingBackoff {
+
+  static final long INITIAL_WAIT_MILLIS = 10;
+
+  private final long maxWaitMillis;
+  private final long startTimeMillis;
+  private long nextWaitMillis;
+  private int pollCount;
+
+  /**
+   * Creates the backoff of an operation, starting its polling time.
+   *
+   * @param maxWaitMillis the maximum wait between two polls, in milliseconds
+   */
+  public StatusPollingBackoff(long maxWaitMillis) {
+    this.maxWaitMillis = Math.max(0, maxWaitMillis);
+    this.nextWaitMillis = Math.min(INITIAL_WAIT_MILLIS, this.maxWaitMillis);
+    this.startTimeMillis = System.currentTimeMillis();
+  }
+
+  /**
+   * Waits before the next poll. There is no wait before the first poll.
+   *
+   * @throws InterruptedException if the thread is interrupted while waiting
+   */
+  public void waitBeforePoll() throws InterruptedException {
+    if (pollCount > 0) {
+      long waitMillis = nextWaitMillis();
+      if (waitMillis > 0) {
+        TimeUnit.MILLISECONDS.sleep(waitMillis);
+      }
+    }
+    pollCount++;
+  }
+
+  /** Returns the next wait in milliseconds, doubling the following one up to the maximum. */
+  long nextWaitMillis() {
+    long waitMillis = nextWaitMillis;
+    nextWaitMillis = Math.min(Math.max(1, nextWaitMillis * 2), maxWaitMillis);
+    return waitMillis;
+  }
+
+  /** Returns the number of polls so far. */
+  public int getPollCount() {
+    return pollCount;
+  }
+
+  /** Returns the time since the backoff was created, in milliseconds. */
+  public long getElapsedMillis() {
+    return System.currentTimeMillis() - startTimeMillis;
+  }
+
+  /** Returns the poll count and polling latency as the telemetry detail of the operation. */
+  public OperationDetail toOperationDetail(OperationType operationType) {
+    return new OperationDetail()
+        .setOperationType(operationType)
+        .setNOperationStatusCalls(pollCount)
+        .setOperationStatusLatencyMillis(getElapsedMillis());
+  }
+}
@@ -19,6 +19,7 @@ import com.databricks.jdbc.common.util.DatabricksThreadContextHolder;
 import com.databricks.jdbc.dbclient.IDatabricksClient;
 import com.databricks.jdbc.dbclient.impl.common.ClientConfigurator;
 import com.databricks.jdbc.dbclient.impl.common.StatementId;
+import com.databricks.jdbc.dbclient.impl.common.StatusPollingBackoff;
 import com.databricks.jdbc.dbclient.impl.common.TimeoutHandler;
 import com.databricks.jdbc.dbclient.impl.common.TracingUtil;
 import com.databricks.jdbc.exception.*;
@@ -33,6 +34,7 @@ import com.databricks.jdbc.model.core.Disposition;
 import com.databricks.jdbc.model.core.ExternalLink;
 import com.databricks.jdbc.model.core.ResultData;
 import com.databricks.jdbc.model.telemetry.enums.DatabricksDriverErrorCode;
+import com.databricks.jdbc.model.telemetry.latency.OperationType;
 import com.databricks.sdk.WorkspaceClient;
 import com.databricks.sdk.core.ApiClient;
 import com.databricks.sdk.core.DatabricksConfig;
@@ -174,7 +176,6 @@ public class DatabricksSdkClient implements IDatabricksClient {
         session,
         parentStatement);
     DatabricksThreadContextHolder.setSessionId(session.getSessionId());
-    long pollCount = 0;
     long executionStartTime = Instant.now().toEpochMilli();
     DatabricksThreadContextHolder.setStatementType(statementType);
     ExecuteStatementRequest request =
@@ -224,22 +225,25 @@ public class DatabricksSdkClient implements IDatabricksClient {
     TimeoutHandler timeoutHandler =
         TimeoutHandler.forStatement(timeoutInSeconds, typedStatementId, this);
 
+    // The execute request already waited on the server up to its wait timeout, so the first poll
+    // happens without a delay, and later ones wait longer up to the poll interval
+    StatusPollingBackoff pollingBackoff =
+        new StatusPollingBackoff(connectionContext.getAsyncExecPollInterval());
     StatementState responseState = response.getStatus().getState();
     while (responseState == StatementState.PENDING || responseState == StatementState.RUNNING) {
+      try {
+        pollingBackoff.waitBeforePoll();
+      } catch (InterruptedException e) {
+        String timeoutErrorMessage =
+            String.format(
+                "Thread interrupted due to statement timeout. StatementID %s", statementId);
+        LOGGER.error(timeoutErrorMessage);
+        throw new DatabricksTimeoutException(timeoutErrorMessage);
+      }
+
       // Check for timeout
       timeoutHandler.checkTimeout();
 
-      if (pollCount > 0) { // First poll happens without a delay
-        try {
-          Thread.sleep(connectionContext.getAsyncExecPollInterval());
-        } catch (InterruptedException e) {
-          String timeoutErrorMessage =
-              String.format(
-                  "Thread interrupted due to statement timeout. StatementID %s", statementId);
-          LOGGER.error(timeoutErrorMessage);
-          throw new DatabricksTimeoutException(timeoutErrorMessage);
-        }
-      }
       String getStatusPath = String.format(STATEMENT_PATH_WITH_ID, statementId);
       try {
         Request req = new Request(Request.GET, getStatusPath, apiClient.serialize(request));
@@ -253,16 +257,20 @@ public class DatabricksSdkClient implements IDatabricksClient {
       }
       responseState = response.getStatus().getState();
       LOGGER.debug(
-          "Executed sql {} with status {} with retry count {}", sql, responseState, pollCount);
-      pollCount++;
+          "Executed sql {} with status {} with poll count {}",
+          sql,
+          responseState,
+          pollingBackoff.getPollCount());
     }
     long executionEndTime = Instant.now().toEpochMilli();
+    DatabricksThreadContextHolder.setOperationDetail(
+        pollingBackoff.toOperationDetail(OperationType.EXECUTE_STATEMENT));
     LOGGER.debug(
         "Executed sql {} with status {}, total time taken {} and pollCount {}",
         sql,
         responseState,
         (executionEndTime - executionStartTime),
-        pollCount);
+        pollingBackoff.getPollCount());
     if (responseState != StatementState.SUCCEEDED) {
       handleFailedExecution(response, statementId, sql);
     }
@@ -436,6 +444,12 @@ public class DatabricksSdkClient implements IDatabricksClient {
     throw new DatabricksValidationException("Get more results cannot be called for SEA flow");
   }
 
+  @Override
+  public TFetchResultsResp getMoreResults(IDatabricksStatementInternal parentStatement, int maxRows)
+      throws DatabricksSQLException {
+    throw new DatabricksValidationException("Get more results cannot be called for SEA flow");
+  }
+
   @Override
   public DatabricksConfig getDatabricksConfig() {
     return clientConfigurator.getDatabricksConfig();
@@ -13,6 +13,7 @@ import com.databricks.jdbc.common.util.DatabricksThreadContextHolder;
 import com.databricks.jdbc.common.util.DriverUtil;
 import com.databricks.jdbc.common.util.ProtocolFeatureUtil;
 import com.databricks.jdbc.dbclient.impl.common.StatementId;
+import com.databricks.jdbc.dbclient.impl.common.StatusPollingBackoff;
 import com.databricks.jdbc.dbclient.impl.common.TimeoutHandler;
 import com.databricks.jdbc.dbclient.impl.http.DatabricksHttpClientFactory;
 import com.databricks.jdbc.exception.DatabricksHttpException;
@@ -24,12 +25,12 @@ import com.databricks.jdbc.log.JdbcLoggerFactory;
 import com.databricks.jdbc.model.client.thrift.generated.*;
 import com.databricks.jdbc.model.core.StatementStatus;
 import com.databricks.jdbc.model.telemetry.enums.DatabricksDriverErrorCode;
+import com.databricks.jdbc.model.telemetry.latency.OperationType;
 import com.databricks.sdk.core.DatabricksConfig;
 import com.databricks.sdk.service.sql.StatementState;
 import com.google.common.annotations.VisibleForTesting;
 import java.sql.SQLException;
 import java.util.Arrays;
-import java.util.concurrent.TimeUnit;
 import org.apache.http.HttpException;
 import org.apache.thrift.TBase;
 import org.apache.thrift.TException;
@@ -215,6 +216,11 @@ final class DatabricksThriftAccessor {
 
   TFetchResultsResp getMoreResults(IDatabricksStatementInternal parentStatement)
       throws DatabricksSQLException {
+    return getMoreResults(parentStatement, 0);
+  }
+
+  TFetchResultsResp getMoreResults(IDatabricksStatementInternal parentStatement, int maxRows)
+      throws DatabricksSQLException {
     String context =
         String.format(
             "Fetching more results as it has more rows %s",
@@ -223,7 +229,7 @@ final class DatabricksThriftAccessor {
         new TStatus().setStatusCode(TStatusCode.SUCCESS_STATUS),
         getOperationHandle(parentStatement.getStatementId()),
         context,
-        maxRowsPerBlock,
+        maxRows > 0 ? maxRows : maxRowsPerBlock,
         true);
   }
 
@@ -245,7 +251,7 @@ final class DatabricksThriftAccessor {
         TSparkGetDirectResults directResults =
             new TSparkGetDirectResults()
                 .setMaxBytes(DEFAULT_BYTE_LIMIT)
-                .setMaxRows(maxRowsPerBlock);
+                .setMaxRows(getFirstPageMaxRows(parentStatement, maxRowsPerBlock));
         request.setGetDirectResults(directResults);
       }
       TExecuteStatementResp response;
@@ -273,21 +279,15 @@ final class DatabricksThriftAccessor {
       // Create a timeout handler for this operation
       TimeoutHandler timeoutHandler = getTimeoutHandler(response, timeoutInSeconds);
 
-      // Polling until query operation state is finished
-      long pollingStartTime = System.currentTimeMillis();
+      // Polling until query operation state is finished, waiting longer between later polls
+      StatusPollingBackoff pollingBackoff = new StatusPollingBackoff(asyncPollIntervalMillis);
       TGetOperationStatusReq statusReq =
           new TGetOperationStatusReq()
               .setOperationHandle(response.getOperationHandle())
               .setGetProgressUpdate(false);
       while (shouldContinuePolling(statusResp)) {
-        // Check for timeout before continuing
-        timeoutHandler.checkTimeout();
-
-        // Polling for operation status
-        statusResp = getThriftClient().GetOperationStatus(statusReq);
-        checkOperationStatusForErrors(statusResp);
         try {
-          TimeUnit.MILLISECONDS.sleep(asyncPollIntervalMillis);
+          pollingBackoff.waitBeforePoll();
         } catch (InterruptedException e) {
           Thread.currentThread().interrupt(); // Restore interrupt flag
           cancelOperation(
@@ -295,9 +295,17 @@ final class DatabricksThriftAccessor {
           throw new DatabricksSQLException(
               "Query execution interrupted", e, DatabricksDriverErrorCode.THREAD_INTERRUPTED_ERROR);
         }
+
+        // Check for timeout before continuing
+        timeoutHandler.checkTimeout();
+
+        // Polling for operation status
+        statusResp = getThriftClient().GetOperationStatus(statusReq);
+        checkOperationStatusForErrors(statusResp);
       }
-      long pollingEndTime = System.currentTimeMillis();
-      long pollingLatency = pollingEndTime - pollingStartTime;
+      long pollingLatency = pollingBackoff.getElapsedMillis();
+      DatabricksThreadContextHolder.setOperationDetail(
+          pollingBackoff.toOperationDetail(OperationType.EXECUTE_STATEMENT));
       String sessionInfo = session.getSessionId() + " (" + session.getComputeResource() + ")";
       LOGGER.debug(
           "Connection ["
@@ -308,7 +316,9 @@ final class DatabricksThriftAccessor {
               + sessionInfo
               + "] Thrift polling latency: "
               + pollingLatency
-              + "ms");
+              + "ms over "
+              + pollingBackoff.getPollCount()
+              + " status polls");
 
       if (hasResultDataInDirectResults(response)) {
         // The first response has result data
@@ -323,7 +333,7 @@ final class DatabricksThriftAccessor {
                 response.getStatus(),
                 response.getOperationHandle(),
                 response.toString(),
-                maxRowsPerBlock,
+                getFirstPageMaxRows(parentStatement, maxRowsPerBlock),
                 true);
         long fetchEndTime = System.currentTimeMillis();
         long fetchLatency = fetchEndTime - fetchStartTime;
@@ -477,7 +487,12 @@ final class DatabricksThriftAccessor {
       if (operationState == TOperationState.FINISHED_STATE) {
         long fetchStartTime = System.currentTimeMillis();
         resultSet =
-            getResultSetResp(response.getStatus(), operationHandle, response.toString(), -1, true);
+            getResultSetResp(
+                response.getStatus(),
+                operationHandle,
+                response.toString(),
+                getFirstPageMaxRows(parentStatement, -1),
+                true);
         long fetchEndTime = System.currentTimeMillis();
         long fetchLatency = fetchEndTime - fetchStartTime;
         LOGGER.debug(
@@ -560,6 +575,21 @@ final class DatabricksThriftAccessor {
     return databricksConfig;
   }
 
+  /**
+   * Returns the number of rows to request in the first page of the result of a statement. The
+   * format of the result is not known yet, so its fetch size is only used if it asks for more rows
+   * than the rows fetched per block of the connection: a smaller fetch size would cap the first
+   * page of CloudFetch results and multiply the fetches of their links. Inline results streamed in
+   * pages of the fetch size request their later pages with it.
+   *
+   * @param defaultMaxRows the rows to request without a larger fetch size
+   */
+  private int getFirstPageMaxRows(IDatabricksStatementInternal parentStatement, int defaultMaxRows)
+      throws DatabricksSQLException {
+    int fetchSize = parentStatement != null ? parentStatement.getFetchSize() : 0;
+    return fetchSize > maxRowsPerBlock ? fetchSize : defaultMaxRows;
+  }
+
   TFetchResultsResp getResultSetResp(
       TStatus responseStatus,
       TOperationHandle operationHandle,
@@ -721,7 +751,18 @@ final class DatabricksThriftAccessor {
         new TGetOperationStatusReq()
             .setOperationHandle(operationHandle)
             .setGetProgressUpdate(false);
+    StatusPollingBackoff pollingBackoff = new StatusPollingBackoff(asyncPollIntervalMillis);
     while (shouldContinuePolling(statusResp)) {
+      try {
+        pollingBackoff.waitBeforePoll();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt(); // Restore interrupt flag
+        cancelOperation(new TCancelOperationReq().setOperationHandle(operationHandle));
+        throw new DatabricksSQLException(
+            "Metadata operation interrupted",
+            e,
+            DatabricksDriverErrorCode.THREAD_INTERRUPTED_ERROR);
+      }
       statusResp = getThriftClient().GetOperationStatus(statusReq);
       checkOperationStatusForErrors(statusResp);
     }
@@ -570,6 +570,12 @@ public class DatabricksThriftServiceClient implements IDatabricksClient, IDatabr
     return thriftAccessor.getMoreResults(parentStatement);
   }
 
+  @Override
+  public TFetchResultsResp getMoreResults(IDatabricksStatementInternal parentStatement, int maxRows)
+      throws DatabricksSQLException {
+    return thriftAccessor.getMoreResults(parentStatement, maxRows);
+  }
+
   @Override
   public DatabricksConfig getDatabricksConfig() {
     return thriftAccessor.getDatabricksConfig();
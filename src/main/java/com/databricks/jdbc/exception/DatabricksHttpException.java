@@ -1,24 +1,54 @@
 package com.databricks.jdbc.exception;
 
 import com.databricks.jdbc.model.telemetry.enums.DatabricksDriverErrorCode;
+import java.time.Duration;
 
 /** Exception class to handle http errors while downloading chunk data from external links. */
 public class DatabricksHttpException extends DatabricksSQLException {
 
+  /** Status code of the failed response, or -1 if the error is not an HTTP error response. */
+  private final int statusCode;
+
+  /** Delay requested by the {@code Retry-After} header of the response, or null if absent. */
+  private final Duration retryAfter;
+
   public DatabricksHttpException(
       String message, Throwable cause, DatabricksDriverErrorCode sqlCode) {
     super(message, cause, sqlCode);
+    this.statusCode = -1;
+    this.retryAfter = null;
   }
 
   public DatabricksHttpException(String message, DatabricksDriverErrorCode internalCode) {
     super(message, null, internalCode.toString());
+    this.statusCode = -1;
+    this.retryAfter = null;
   }
 
   public DatabricksHttpException(String message, String sqlState) {
     super(message, null, sqlState);
+    this.statusCode = -1;
+    this.retryAfter = null;
   }
 
   public DatabricksHttpException(String message, Throwable throwable, String sqlState) {
     super(message, throwable, sqlState);
+    this.statusCode = -1;
+    this.retryAfter = null;
+  }
+
+  public DatabricksHttpException(
+      String message, String sqlState, int statusCode, Duration retryAfter) {
+    super(message, null, sqlState);
+    this.statusCode = statusCode;
+    this.retryAfter = retryAfter;
+  }
+
+  public int getStatusCode() {
+    return statusCode;
+  }
+
+  public Duration getRetryAfter() {
+    return retryAfter;
   }
 }
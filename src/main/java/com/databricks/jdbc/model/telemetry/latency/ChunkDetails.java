@@ -20,6 +20,48 @@ public class ChunkDetails {
   @JsonProperty("sum_chunks_download_time_millis")
   private Long sumChunksDownloadTimeMillis;
 
+  @JsonProperty("peak_chunk_memory_bytes")
+  private Long peakChunkMemoryBytes;
+
+  @JsonProperty("peak_arrow_memory_bytes")
+  private Long peakArrowMemoryBytes;
+
+  @JsonProperty("max_download_queue_depth")
+  private Long maxDownloadQueueDepth;
+
+  @JsonProperty("max_decode_queue_depth")
+  private Long maxDecodeQueueDepth;
+
+  @JsonProperty("chunk_download_retries")
+  private Long chunkDownloadRetries;
+
+  @JsonProperty("throttled_chunk_download_retries")
+  private Long throttledChunkDownloadRetries;
+
+  @JsonProperty("sum_chunk_retry_delay_millis")
+  private Long sumChunkRetryDelayMillis;
+
+  @JsonProperty("remaining_chunk_retry_budget")
+  private Long remainingChunkRetryBudget;
+
+  @JsonProperty("rejected_chunk_links")
+  private Long rejectedChunkLinks;
+
+  @JsonProperty("hedged_chunk_downloads")
+  private Long hedgedChunkDownloads;
+
+  @JsonProperty("download_concurrency")
+  private Long downloadConcurrency;
+
+  @JsonProperty("peak_download_throughput_bytes_per_sec")
+  private Long peakDownloadThroughputBytesPerSec;
+
+  @JsonProperty("spilled_chunks")
+  private Long spilledChunks;
+
+  @JsonProperty("peak_spill_bytes")
+  private Long peakSpillBytes;
+
   public ChunkDetails(long totalChunks) {
     this.totalChunksIterated = 0L;
     this.sumChunksDownloadTimeMillis = 0L;
@@ -51,6 +93,76 @@ public class ChunkDetails {
     return this;
   }
 
+  public ChunkDetails setPeakChunkMemoryBytes(Long peakChunkMemoryBytes) {
+    this.peakChunkMemoryBytes = peakChunkMemoryBytes;
+    return this;
+  }
+
+  public ChunkDetails setPeakArrowMemoryBytes(Long peakArrowMemoryBytes) {
+    this.peakArrowMemoryBytes = peakArrowMemoryBytes;
+    return this;
+  }
+
+  public ChunkDetails setMaxDownloadQueueDepth(Long maxDownloadQueueDepth) {
+    this.maxDownloadQueueDepth = maxDownloadQueueDepth;
+    return this;
+  }
+
+  public ChunkDetails setMaxDecodeQueueDepth(Long maxDecodeQueueDepth) {
+    this.maxDecodeQueueDepth = maxDecodeQueueDepth;
+    return this;
+  }
+
+  public ChunkDetails setChunkDownloadRetries(Long chunkDownloadRetries) {
+    this.chunkDownloadRetries = chunkDownloadRetries;
+    return this;
+  }
+
+  public ChunkDetails setThrottledChunkDownloadRetries(Long throttledChunkDownloadRetries) {
+    this.throttledChunkDownloadRetries = throttledChunkDownloadRetries;
+    return this;
+  }
+
+  public ChunkDetails setSumChunkRetryDelayMillis(Long sumChunkRetryDelayMillis) {
+    this.sumChunkRetryDelayMillis = sumChunkRetryDelayMillis;
+    return this;
+  }
+
+  public ChunkDetails setRemainingChunkRetryBudget(Long remainingChunkRetryBudget) {
+    this.remainingChunkRetryBudget = remainingChunkRetryBudget;
+    return this;
+  }
+
+  public ChunkDetails setRejectedChunkLinks(Long rejectedChunkLinks) {
+    this.rejectedChunkLinks = rejectedChunkLinks;
+    return this;
+  }
+
+  public ChunkDetails setHedgedChunkDownloads(Long hedgedChunkDownloads) {
+    this.hedgedChunkDownloads = hedgedChunkDownloads;
+    return this;
+  }
+
+  public ChunkDetails setDownloadConcurrency(Long downloadConcurrency) {
+    this.downloadConcurrency = downloadConcurrency;
+    return this;
+  }
+
+  public ChunkDetails setPeakDownloadThroughputBytesPerSec(Long peakDownloadThroughputBytesPerSec) {
+    this.peakDownloadThroughputBytesPerSec = peakDownloadThroughputBytesPerSec;
+    return this;
+  }
+
+  public ChunkDetails setSpilledChunks(Long spilledChunks) {
+    this.spilledChunks = spilledChunks;
+    return this;
+  }
+
+  public ChunkDetails setPeakSpillBytes(Long peakSpillBytes) {
+    this.peakSpillBytes = peakSpillBytes;
+    return this;
+  }
+
   public Long getInitialChunkLatencyMillis() {
     return initialChunkLatencyMillis;
   }
@@ -71,6 +183,62 @@ public class ChunkDetails {
     return sumChunksDownloadTimeMillis;
   }
 
+  public Long getPeakChunkMemoryBytes() {
+    return peakChunkMemoryBytes;
+  }
+
+  public Long getPeakArrowMemoryBytes() {
+    return peakArrowMemoryBytes;
+  }
+
+  public Long getMaxDownloadQueueDepth() {
+    return maxDownloadQueueDepth;
+  }
+
+  public Long getMaxDecodeQueueDepth() {
+    return maxDecodeQueueDepth;
+  }
+
+  public Long getChunkDownloadRetries() {
+    return chunkDownloadRetries;
+  }
+
+  public Long getThrottledChunkDownloadRetries() {
+    return throttledChunkDownloadRetries;
+  }
+
+  public Long getSumChunkRetryDelayMillis() {
+    return sumChunkRetryDelayMillis;
+  }
+
+  public Long getRemainingChunkRetryBudget() {
+    return remainingChunkRetryBudget;
+  }
+
+  public Long getRejectedChunkLinks() {
+    return rejectedChunkLinks;
+  }
+
+  public Long getHedgedChunkDownloads() {
+    return hedgedChunkDownloads;
+  }
+
+  public Long getDownloadConcurrency() {
+    return downloadConcurrency;
+  }
+
+  public Long getPeakDownloadThroughputBytesPerSec() {
+    return peakDownloadThroughputBytesPerSec;
+  }
+
+  public Long getSpilledChunks() {
+    return spilledChunks;
+  }
+
+  public Long getPeakSpillBytes() {
+    return peakSpillBytes;
+  }
+
   @Override
   public String toString() {
     return new ToStringer(ChunkDetails.class)
@@ -79,6 +247,20 @@ public class ChunkDetails {
         .add("totalChunksPresent", totalChunksPresent)
         .add("totalChunksIterated", totalChunksIterated)
         .add("sumChunksDownloadTimeMillis", sumChunksDownloadTimeMillis)
+        .add("peakChunkMemoryBytes", peakChunkMemoryBytes)
+        .add("peakArrowMemoryBytes", peakArrowMemoryBytes)
+        .add("maxDownloadQueueDepth", maxDownloadQueueDepth)
+        .add("maxDecodeQueueDepth", maxDecodeQueueDepth)
+        .add("chunkDownloadRetries", chunkDownloadRetries)
+        .add("throttledChunkDownloadRetries", throttledChunkDownloadRetries)
+        .add("sumChunkRetryDelayMillis", sumChunkRetryDelayMillis)
+        .add("remainingChunkRetryBudget", remainingChunkRetryBudget)
+        .add("rejectedChunkLinks", rejectedChunkLinks)
+        .add("hedgedChunkDownloads", hedgedChunkDownloads)
+        .add("downloadConcurrency", downloadConcurrency)
+        .add("peakDownloadThroughputBytesPerSec", peakDownloadThroughputBytesPerSec)
+        .add("spilledChunks", spilledChunks)
+        .add("peakSpillBytes", peakSpillBytes)
         .toString();
   }
 }
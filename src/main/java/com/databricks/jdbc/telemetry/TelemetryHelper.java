@@ -135,10 +135,13 @@ public class TelemetryHelper {
   }
 
   public static void exportLatencyLog(long executionTime) {
+    // The status polls of the operation are reported once, with the call that made them
     SqlExecutionEvent executionEvent =
         new SqlExecutionEvent()
             .setDriverStatementType(DatabricksThreadContextHolder.getStatementType())
-            .setRetryCount(DatabricksThreadContextHolder.getRetryCount());
+            .setRetryCount(DatabricksThreadContextHolder.getRetryCount())
+            .setOperationDetails(DatabricksThreadContextHolder.getOperationDetail());
+    DatabricksThreadContextHolder.clearOperationDetail();
     exportLatencyLog(
         DatabricksThreadContextHolder.getConnectionContext(),
         executionTime,
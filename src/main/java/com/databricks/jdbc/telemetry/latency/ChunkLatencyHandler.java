@@ -109,6 +109,214 @@ public class ChunkLatencyHandler {
     }
   }
 
+  /**
+   * Records the bytes held in memory by the chunks of a statement, keeping track of the peak.
+   *
+   * @param statementId the statement ID
+   * @param bytesInMemory the bytes currently held by downloaded and in-flight chunks
+   */
+  public void recordChunkMemoryUsage(String statementId, long bytesInMemory) {
+    if (statementId == null) {
+      return;
+    }
+
+    ChunkDetails chunkDetails = statementTrackers.get(statementId);
+    if (chunkDetails != null) {
+      Long currentPeak = chunkDetails.getPeakChunkMemoryBytes();
+      if (currentPeak == null || bytesInMemory > currentPeak) {
+        chunkDetails.setPeakChunkMemoryBytes(bytesInMemory);
+      }
+      LOGGER.trace(
+          "Recorded {} bytes of chunk memory in use for statement {}", bytesInMemory, statementId);
+    }
+  }
+
+  /**
+   * Records the peak Arrow memory allocated by a statement.
+   *
+   * @param statementId the statement ID
+   * @param peakArrowMemoryBytes the peak memory of the statement's Arrow allocator
+   */
+  public void recordArrowMemoryUsage(String statementId, long peakArrowMemoryBytes) {
+    if (statementId == null) {
+      return;
+    }
+
+    ChunkDetails chunkDetails = statementTrackers.get(statementId);
+    if (chunkDetails != null) {
+      Long currentPeak = chunkDetails.getPeakArrowMemoryBytes();
+      if (currentPeak == null || peakArrowMemoryBytes > currentPeak) {
+        chunkDetails.setPeakArrowMemoryBytes(peakArrowMemoryBytes);
+      }
+    }
+  }
+
+  /**
+   * Records the number of downloads waiting in the driver-wide download queue when a chunk of a
+   * statement was queued, keeping track of the maximum.
+   *
+   * @param statementId the statement ID
+   * @param queueDepth the number of downloads waiting for a free download thread
+   */
+  public void recordDownloadQueueDepth(String statementId, long queueDepth) {
+    if (statementId == null) {
+      return;
+    }
+
+    ChunkDetails chunkDetails = statementTrackers.get(statementId);
+    if (chunkDetails != null) {
+      Long currentMax = chunkDetails.getMaxDownloadQueueDepth();
+      if (currentMax == null || queueDepth > currentMax) {
+        chunkDetails.setMaxDownloadQueueDepth(queueDepth);
+      }
+    }
+  }
+
+  /**
+   * Records the number of downloaded chunks waiting for a free decode thread when a chunk of a
+   * statement was queued for decoding, keeping track of the maximum.
+   *
+   * @param statementId the statement ID
+   * @param queueDepth the number of chunks waiting to be decompressed and parsed
+   */
+  public void recordDecodeQueueDepth(String statementId, long queueDepth) {
+    if (statementId == null) {
+      return;
+    }
+
+    ChunkDetails chunkDetails = statementTrackers.get(statementId);
+    if (chunkDetails != null) {
+      Long currentMax = chunkDetails.getMaxDecodeQueueDepth();
+      if (currentMax == null || queueDepth > currentMax) {
+        chunkDetails.setMaxDecodeQueueDepth(queueDepth);
+      }
+    }
+  }
+
+  /**
+   * Records a delayed retry of a chunk download, and the retry budget left to the statement.
+   *
+   * @param statementId the statement ID
+   * @param throttled whether the download was throttled by the cloud storage
+   * @param delayMillis the delay before the retry in milliseconds
+   * @param remainingRetryBudget the number of delayed retries the statement may still make
+   */
+  public void recordChunkDownloadRetry(
+      String statementId, boolean throttled, long delayMillis, long remainingRetryBudget) {
+    if (statementId == null) {
+      return;
+    }
+
+    ChunkDetails chunkDetails = statementTrackers.get(statementId);
+    if (chunkDetails != null) {
+      synchronized (chunkDetails) {
+        chunkDetails.setChunkDownloadRetries(increment(chunkDetails.getChunkDownloadRetries(), 1));
+        if (throttled) {
+          chunkDetails.setThrottledChunkDownloadRetries(
+              increment(chunkDetails.getThrottledChunkDownloadRetries(), 1));
+        }
+        chunkDetails.setSumChunkRetryDelayMillis(
+            increment(chunkDetails.getSumChunkRetryDelayMillis(), delayMillis));
+        Long currentBudget = chunkDetails.getRemainingChunkRetryBudget();
+        if (currentBudget == null || remainingRetryBudget < currentBudget) {
+          chunkDetails.setRemainingChunkRetryBudget(remainingRetryBudget);
+        }
+      }
+      LOGGER.trace(
+          "Recorded chunk download retry after {}ms for statement {}, remaining budget {}",
+          delayMillis,
+          statementId,
+          remainingRetryBudget);
+    }
+  }
+
+  /**
+   * Records a chunk link rejected by the cloud storage, which is replaced by a new link.
+   *
+   * @param statementId the statement ID
+   */
+  public void recordChunkLinkRejection(String statementId) {
+    if (statementId == null) {
+      return;
+    }
+
+    ChunkDetails chunkDetails = statementTrackers.get(statementId);
+    if (chunkDetails != null) {
+      synchronized (chunkDetails) {
+        chunkDetails.setRejectedChunkLinks(increment(chunkDetails.getRejectedChunkLinks(), 1));
+      }
+    }
+  }
+
+  /**
+   * Records a second download of a chunk issued because its first download was straggling.
+   *
+   * @param statementId the statement ID
+   */
+  public void recordHedgedChunkDownload(String statementId) {
+    if (statementId == null) {
+      return;
+    }
+
+    ChunkDetails chunkDetails = statementTrackers.get(statementId);
+    if (chunkDetails != null) {
+      synchronized (chunkDetails) {
+        chunkDetails.setHedgedChunkDownloads(increment(chunkDetails.getHedgedChunkDownloads(), 1));
+      }
+    }
+  }
+
+  /**
+   * Records a change of the number of concurrent chunk downloads of a statement made by the
+   * adaptive concurrency, and the download throughput that led to it, keeping track of the peak
+   * throughput.
+   *
+   * @param statementId the statement ID
+   * @param concurrency the number of downloads that may now run concurrently
+   * @param throughputBytesPerSec the download throughput of the statement in bytes per second
+   */
+  public void recordDownloadConcurrency(
+      String statementId, int concurrency, long throughputBytesPerSec) {
+    if (statementId == null) {
+      return;
+    }
+
+    ChunkDetails chunkDetails = statementTrackers.get(statementId);
+    if (chunkDetails != null) {
+      synchronized (chunkDetails) {
+        chunkDetails.setDownloadConcurrency((long) concurrency);
+        Long currentPeak = chunkDetails.getPeakDownloadThroughputBytesPerSec();
+        if (currentPeak == null || throughputBytesPerSec > currentPeak) {
+          chunkDetails.setPeakDownloadThroughputBytesPerSec(throughputBytesPerSec);
+        }
+      }
+    }
+  }
+
+  /**
+   * Records a chunk of a statement spilled to local disk, keeping track of the peak disk space used
+   * by the spilled chunks.
+   *
+   * @param statementId the statement ID
+   * @param spillBytes the bytes currently reserved by the spilled chunks of the statement
+   */
+  public void recordChunkSpill(String statementId, long spillBytes) {
+    if (statementId == null) {
+      return;
+    }
+
+    ChunkDetails chunkDetails = statementTrackers.get(statementId);
+    if (chunkDetails != null) {
+      synchronized (chunkDetails) {
+        chunkDetails.setSpilledChunks(increment(chunkDetails.getSpilledChunks(), 1));
+        Long currentPeak = chunkDetails.getPeakSpillBytes();
+        if (currentPeak == null || spillBytes > currentPeak) {
+          chunkDetails.setPeakSpillBytes(spillBytes);
+        }
+      }
+    }
+  }
+
   /**
    * Gets the collected chunk details for a statement without removing the tracker.
    *
@@ -176,4 +384,8 @@ public class ChunkLatencyHandler {
     statementTrackers.clear();
     return pendingDetails;
   }
+
+  private static Long increment(Long value, long delta) {
+    return (value == null ? 0L : value) + delta;
+  }
 }
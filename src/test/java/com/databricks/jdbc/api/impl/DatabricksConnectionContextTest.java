@@ -351,6 +351,147 @@ class DatabricksConnectionContextTest {
     assertEquals(2000000, connectionContext.getRowsFetchedPerBlock());
   }
 
+  @Test
+  public void testCloudFetchMemoryBudget() throws DatabricksSQLException {
+    // Test with default value
+    DatabricksConnectionContext connectionContext =
+        (DatabricksConnectionContext)
+            DatabricksConnectionContext.parse(TestConstants.VALID_CLUSTER_URL, properties);
+    assertEquals(0, connectionContext.getCloudFetchMemoryBudgetBytes());
+    assertEquals(0, connectionContext.getCloudFetchSpillLimitBytes());
+    assertNull(connectionContext.getCloudFetchSpillDirectory());
+
+    // Test with custom value
+    Properties properties = new Properties();
+    properties.setProperty("password", "passwd");
+    properties.setProperty("CloudFetchMemoryBudgetMB", "256");
+    properties.setProperty("CloudFetchSpillLimitMB", "1024");
+    properties.setProperty("CloudFetchSpillDirectory", "/tmp/spill");
+    connectionContext =
+        (DatabricksConnectionContext)
+            DatabricksConnectionContext.parse(TestConstants.VALID_CLUSTER_URL, properties);
+    assertEquals(256L * 1024 * 1024, connectionContext.getCloudFetchMemoryBudgetBytes());
+    assertEquals(1024L * 1024 * 1024, connectionContext.getCloudFetchSpillLimitBytes());
+    assertEquals("/tmp/spill", connectionContext.getCloudFetchSpillDirectory());
+
+    // Test with invalid value (should disable the budget)
+    properties.setProperty("CloudFetchMemoryBudgetMB", "invalid");
+    connectionContext =
+        (DatabricksConnectionContext)
+            DatabricksConnectionContext.parse(TestConstants.VALID_CLUSTER_URL, properties);
+    assertEquals(0, connectionContext.getCloudFetchMemoryBudgetBytes());
+  }
+
+  @Test
+  public void testCloudFetchDownloadSchedulerSettings() throws DatabricksSQLException {
+    DatabricksConnectionContext connectionContext =
+        (DatabricksConnectionContext)
+            DatabricksConnectionContext.parse(TestConstants.VALID_CLUSTER_URL, properties);
+    assertEquals(0, connectionContext.getCloudFetchMaxConcurrentDownloads());
+    assertFalse(connectionContext.getCloudFetchUseVirtualThreads());
+    assertFalse(connectionContext.isCloudFetchAsyncDownloadEnabled());
+    assertFalse(connectionContext.isCloudFetchParallelDecodeEnabled());
+    assertFalse(connectionContext.isCloudFetchHedgedDownloadEnabled());
+    assertFalse(connectionContext.isCloudFetchAdaptiveConcurrencyEnabled());
+    assertFalse(connectionContext.isCloudFetchIncrementalDecodeEnabled());
+
+    Properties properties = new Properties();
+    properties.setProperty("password", "passwd");
+    properties.setProperty("CloudFetchMaxConcurrentDownloads", "32");
+    properties.setProperty("CloudFetchUseVirtualThreads", "1");
+    properties.setProperty("CloudFetchAsyncDownload", "1");
+    properties.setProperty("CloudFetchParallelDecode", "1");
+    properties.setProperty("CloudFetchHedgedDownloads", "1");
+    properties.setProperty("CloudFetchAdaptiveConcurrency", "1");
+    properties.setProperty("CloudFetchIncrementalDecode", "1");
+    connectionContext =
+        (DatabricksConnectionContext)
+            DatabricksConnectionContext.parse(TestConstants.VALID_CLUSTER_URL, properties);
+    assertEquals(32, connectionContext.getCloudFetchMaxConcurrentDownloads());
+    assertTrue(connectionContext.getCloudFetchUseVirtualThreads());
+    assertTrue(connectionContext.isCloudFetchAsyncDownloadEnabled());
+    assertTrue(connectionContext.isCloudFetchParallelDecodeEnabled());
+    assertTrue(connectionContext.isCloudFetchHedgedDownloadEnabled());
+    assertTrue(connectionContext.isCloudFetchAdaptiveConcurrencyEnabled());
+    assertTrue(connectionContext.isCloudFetchIncrementalDecodeEnabled());
+
+    properties.setProperty("CloudFetchMaxConcurrentDownloads", "invalid");
+    connectionContext =
+        (DatabricksConnectionContext)
+            DatabricksConnectionContext.parse(TestConstants.VALID_CLUSTER_URL, properties);
+    assertEquals(0, connectionContext.getCloudFetchMaxConcurrentDownloads());
+  }
+
+  @Test
+  public void testCloudFetchLinkRefresh() throws DatabricksSQLException {
+    DatabricksConnectionContext connectionContext =
+        (DatabricksConnectionContext)
+            DatabricksConnectionContext.parse(TestConstants.VALID_CLUSTER_URL, properties);
+    assertTrue(connectionContext.isCloudFetchLinkRefreshEnabled());
+
+    Properties properties = new Properties();
+    properties.setProperty("password", "passwd");
+    properties.setProperty("CloudFetchLinkRefresh", "0");
+    connectionContext =
+        (DatabricksConnectionContext)
+            DatabricksConnectionContext.parse(TestConstants.VALID_CLUSTER_URL, properties);
+    assertFalse(connectionContext.isCloudFetchLinkRefreshEnabled());
+  }
+
+  @Test
+  public void testInlineArrowStreaming() throws DatabricksSQLException {
+    DatabricksConnectionContext connectionContext =
+        (DatabricksConnectionContext)
+            DatabricksConnectionContext.parse(TestConstants.VALID_CLUSTER_URL, properties);
+    assertFalse(connectionContext.isInlineArrowStreamingEnabled());
+
+    Properties properties = new Properties();
+    properties.setProperty("password", "passwd");
+    properties.setProperty("InlineArrowStreaming", "1");
+    connectionContext =
+        (DatabricksConnectionContext)
+            DatabricksConnectionContext.parse(TestConstants.VALID_CLUSTER_URL, properties);
+    assertTrue(connectionContext.isInlineArrowStreamingEnabled());
+  }
+
+  @Test
+  public void testInlineColumnarStreaming() throws DatabricksSQLException {
+    DatabricksConnectionContext connectionContext =
+        (DatabricksConnectionContext)
+            DatabricksConnectionContext.parse(TestConstants.VALID_CLUSTER_URL, properties);
+    assertFalse(connectionContext.isInlineColumnarStreamingEnabled());
+
+    Properties properties = new Properties();
+    properties.setProperty("password", "passwd");
+    properties.setProperty("InlineColumnarStreaming", "1");
+    connectionContext =
+        (DatabricksConnectionContext)
+            DatabricksConnectionContext.parse(TestConstants.VALID_CLUSTER_URL, properties);
+    assertTrue(connectionContext.isInlineColumnarStreamingEnabled());
+  }
+
+  @Test
+  public void testArrowMemoryLimit() throws DatabricksSQLException {
+    DatabricksConnectionContext connectionContext =
+        (DatabricksConnectionContext)
+            DatabricksConnectionContext.parse(TestConstants.VALID_CLUSTER_URL, properties);
+    assertEquals(0, connectionContext.getArrowMemoryLimitBytes());
+
+    Properties properties = new Properties();
+    properties.setProperty("password", "passwd");
+    properties.setProperty("ArrowMemoryLimitMB", "2048");
+    connectionContext =
+        (DatabricksConnectionContext)
+            DatabricksConnectionContext.parse(TestConstants.VALID_CLUSTER_URL, properties);
+    assertEquals(2048L * 1024 * 1024, connectionContext.getArrowMemoryLimitBytes());
+
+    properties.setProperty("ArrowMemoryLimitMB", "-1");
+    connectionContext =
+        (DatabricksConnectionContext)
+            DatabricksConnectionContext.parse(TestConstants.VALID_CLUSTER_URL, properties);
+    assertEquals(0, connectionContext.getArrowMemoryLimitBytes());
+  }
+
   @Test
   public void testParsingOfUrlWithoutDefault() throws DatabricksSQLException {
     DatabricksConnectionContext connectionContext =
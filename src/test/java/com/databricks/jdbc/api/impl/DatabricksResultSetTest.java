@@ -11,6 +11,8 @@ import static org.mockito.Mockito.when;
 import com.databricks.jdbc.api.ExecutionState;
 import com.databricks.jdbc.api.IDatabricksResultSet;
 import com.databricks.jdbc.api.IExecutionStatus;
+import com.databricks.jdbc.api.impl.arrow.ArrowColumnAccessor;
+import com.databricks.jdbc.api.impl.arrow.ArrowStreamResult;
 import com.databricks.jdbc.api.impl.volume.VolumeOperationResult;
 import com.databricks.jdbc.api.internal.IDatabricksResultSetInternal;
 import com.databricks.jdbc.api.internal.IDatabricksSession;
@@ -27,6 +29,7 @@ import com.databricks.sdk.service.sql.ServiceError;
 import com.databricks.sdk.service.sql.StatementState;
 import java.io.*;
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
 import java.sql.*;
 import java.sql.Date;
 import java.time.*;
@@ -253,6 +256,83 @@ public class DatabricksResultSetTest {
     assertEquals((short) 100, resultSet.getObject("columnLabel"));
   }
 
+  @Test
+  void testGetPrimitivesFromArrowColumnAccessor() throws SQLException {
+    ArrowStreamResult arrowResult = mock(ArrowStreamResult.class);
+    ArrowColumnAccessor accessor = mock(ArrowColumnAccessor.class);
+    DatabricksResultSet resultSet =
+        new DatabricksResultSet(
+            new StatementStatus().setState(StatementState.SUCCEEDED),
+            STATEMENT_ID,
+            StatementType.QUERY,
+            null,
+            arrowResult,
+            mockedResultSetMetadata,
+            false);
+    when(arrowResult.getColumnAccessor(0)).thenReturn(accessor);
+    when(accessor.getInt()).thenReturn(100);
+    when(accessor.getDouble()).thenReturn(1.5);
+    assertEquals(100, resultSet.getInt(1));
+    assertEquals(1.5, resultSet.getDouble(1));
+    assertFalse(resultSet.wasNull());
+
+    when(accessor.isNull()).thenReturn(true);
+    assertEquals(0, resultSet.getInt(1));
+    assertTrue(resultSet.wasNull());
+
+    // Falls back to converting the object when the column has no accessor
+    when(arrowResult.getColumnAccessor(0)).thenReturn(null);
+    when(arrowResult.getObject(0)).thenReturn(7L);
+    when(mockedResultSetMetadata.getColumnType(1)).thenReturn(Types.BIGINT);
+    assertEquals(7L, resultSet.getLong(1));
+    assertFalse(resultSet.wasNull());
+  }
+
+  @Test
+  void testGetPrimitivesFromThriftColumnarResult() throws SQLException {
+    TRowSet rowSet =
+        new TRowSet()
+            .setColumns(
+                Arrays.asList(
+                    TColumn.i32Val(
+                        new TI32Column(Arrays.asList(100, 0), ByteBuffer.wrap(new byte[] {2}))),
+                    TColumn.doubleVal(
+                        new TDoubleColumn(
+                            Arrays.asList(1.5, 2.5), ByteBuffer.wrap(new byte[] {0}))),
+                    TColumn.stringVal(
+                        new TStringColumn(
+                            Arrays.asList("7", "8"), ByteBuffer.wrap(new byte[] {0})))));
+    ThriftColumnarResult columnarResult =
+        new ThriftColumnarResult(new TFetchResultsResp().setResults(rowSet), null, session);
+    DatabricksResultSet resultSet =
+        new DatabricksResultSet(
+            new StatementStatus().setState(StatementState.SUCCEEDED),
+            STATEMENT_ID,
+            StatementType.QUERY,
+            null,
+            columnarResult,
+            mockedResultSetMetadata,
+            false);
+    assertTrue(resultSet.next());
+    assertEquals(100, resultSet.getInt(1));
+    assertEquals(100L, resultSet.getLong(1));
+    assertEquals(1.5, resultSet.getDouble(2));
+    assertFalse(resultSet.wasNull());
+
+    assertTrue(resultSet.next());
+    assertEquals(0, resultSet.getInt(1));
+    assertTrue(resultSet.wasNull());
+
+    assertEquals(2.5f, resultSet.getFloat(2));
+    assertEquals(2, resultSet.getInt(2));
+    assertFalse(resultSet.wasNull());
+
+    // Falls back to converting the object when the column is not numeric
+    when(mockedResultSetMetadata.getColumnType(3)).thenReturn(Types.VARCHAR);
+    assertEquals(8L, resultSet.getLong(3));
+    assertFalse(resultSet.wasNull());
+  }
+
   @Test
   void testGetInt() throws SQLException {
     DatabricksResultSet resultSet = getResultSet(StatementState.SUCCEEDED, null);
@@ -126,17 +126,16 @@ public class DatabricksStatementTest {
     DatabricksConnection connection = new DatabricksConnection(connectionContext, client);
     DatabricksStatement statement = new DatabricksStatement(connection);
     assertNull(statement.getWarnings());
-    statement.setFetchSize(10);
     assertEquals(0, statement.getFetchSize());
-    SQLWarning warnings = statement.getWarnings();
-    assertEquals(
-        warnings.getMessage(), "As FetchSize is not supported in the Databricks JDBC, ignoring it");
-    assertEquals(
-        warnings.getNextWarning().getMessage(),
-        "As FetchSize is not supported in the Databricks JDBC, we don't set it in the first place");
-
-    statement.clearWarnings();
+    statement.setFetchSize(10);
+    assertEquals(10, statement.getFetchSize());
     assertNull(statement.getWarnings());
+    assertThrows(DatabricksSQLException.class, () -> statement.setFetchSize(-1));
+    assertEquals(10, statement.getFetchSize());
+
+    statement.close();
+    assertThrows(DatabricksSQLException.class, () -> statement.setFetchSize(5));
+    assertThrows(DatabricksSQLException.class, statement::getFetchSize);
   }
 
   @Test
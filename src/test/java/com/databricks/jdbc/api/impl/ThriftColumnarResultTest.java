@@ -0,0 +1,308 @@
+package com.databricks.jdbc.api.impl;
+
+import static com.databricks.jdbc.common.EnvironmentVariables.DEFAULT_RESULT_ROW_LIMIT;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.databricks.jdbc.api.internal.IDatabricksConnectionContext;
+import com.databricks.jdbc.api.internal.IDatabricksSession;
+import com.databricks.jdbc.api.internal.IDatabricksStatementInternal;
+import com.databricks.jdbc.dbclient.IDatabricksClient;
+import com.databricks.jdbc.dbclient.impl.common.StatementId;
+import com.databricks.jdbc.exception.DatabricksSQLException;
+import com.databricks.jdbc.exception.DatabricksValidationException;
+import com.databricks.jdbc.model.client.thrift.generated.*;
+import com.databricks.jdbc.model.telemetry.enums.DatabricksDriverErrorCode;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class ThriftColumnarResultTest {
+
+  private static final StatementId STATEMENT_ID = new StatementId("statement_id");
+
+  @Mock IDatabricksStatementInternal parentStatement;
+  @Mock IDatabricksSession session;
+  @Mock IDatabricksClient client;
+  @Mock IDatabricksConnectionContext connectionContext;
+
+  @Test
+  public void testReadsValuesAndNullsOfEachType() throws DatabricksSQLException {
+    when(parentStatement.getMaxRows()).thenReturn(DEFAULT_RESULT_ROW_LIMIT);
+    TRowSet rowSet =
+        new TRowSet()
+            .setColumns(
+                Arrays.asList(
+                    TColumn.i64Val(new TI64Column(Arrays.asList(1L, 2L), nulls(1))),
+                    TColumn.i32Val(new TI32Column(Arrays.asList(3, 4), nulls(0))),
+                    TColumn.i16Val(new TI16Column(Arrays.asList((short) 5, (short) 6), nulls())),
+                    TColumn.byteVal(new TByteColumn(Arrays.asList((byte) 7, (byte) 8), nulls())),
+                    TColumn.doubleVal(new TDoubleColumn(Arrays.asList(1.5, 2.5), nulls())),
+                    TColumn.boolVal(new TBoolColumn(Arrays.asList(true, false), nulls())),
+                    TColumn.stringVal(new TStringColumn(Arrays.asList("a", null), nulls())),
+                    TColumn.binaryVal(
+                        new TBinaryColumn(
+                            Arrays.asList(ByteBuffer.wrap(new byte[] {9}), ByteBuffer.allocate(0)),
+                            nulls(1)))));
+
+    ThriftColumnarResult result =
+        new ThriftColumnarResult(
+            new TFetchResultsResp().setResults(rowSet), parentStatement, session);
+
+    assertEquals(2, result.getRowCount());
+    assertTrue(result.next());
+    assertEquals(1L, result.getObject(0));
+    assertNull(result.getObject(1));
+    assertEquals((short) 5, result.getObject(2));
+    assertEquals((byte) 7, result.getObject(3));
+    assertEquals(1.5, result.getObject(4));
+    assertEquals(true, result.getObject(5));
+    assertEquals("a", result.getObject(6));
+    assertEquals(ByteBuffer.wrap(new byte[] {9}), result.getObject(7));
+    assertTrue(result.next());
+    assertNull(result.getObject(0));
+    assertEquals(4, result.getObject(1));
+    assertEquals(false, result.getObject(5));
+    assertNull(result.getObject(6));
+    assertNull(result.getObject(7));
+    assertFalse(result.next());
+  }
+
+  @Test
+  public void testReadsNumericValuesWithoutConversion() throws DatabricksSQLException {
+    TRowSet rowSet =
+        new TRowSet()
+            .setColumns(
+                Arrays.asList(
+                    TColumn.i64Val(new TI64Column(Arrays.asList(10L, 0L), nulls(1))),
+                    TColumn.i32Val(new TI32Column(Arrays.asList(20, 30), nulls())),
+                    TColumn.doubleVal(new TDoubleColumn(Arrays.asList(0.25, 0.5), nulls())),
+                    TColumn.stringVal(new TStringColumn(Arrays.asList("1", "2"), nulls()))));
+    ThriftColumnarResult result =
+        new ThriftColumnarResult(new TFetchResultsResp().setResults(rowSet), null, session);
+
+    assertTrue(result.next());
+    ThriftColumnValues.NumericValues longValues = result.getColumnValues(0).asNumeric();
+    assertEquals(10L, longValues.getLong(0));
+    assertEquals(10, longValues.getInt(0));
+    assertTrue(longValues.isNull(1));
+    ThriftColumnValues.NumericValues intValues = result.getColumnValues(1).asNumeric();
+    assertEquals(30, intValues.getInt(1));
+    assertEquals(30.0, intValues.getDouble(1));
+    ThriftColumnValues.NumericValues doubleValues = result.getColumnValues(2).asNumeric();
+    assertEquals(0.5, doubleValues.getDouble(1));
+    assertEquals(0.5f, doubleValues.getFloat(1));
+    assertEquals(0, doubleValues.getInt(1));
+    assertNull(result.getColumnValues(3).asNumeric());
+  }
+
+  @Test
+  public void testNarrowingNumericValuesIsRangeChecked() throws DatabricksSQLException {
+    TRowSet rowSet =
+        new TRowSet()
+            .setColumns(
+                Arrays.asList(
+                    TColumn.i64Val(new TI64Column(Arrays.asList(Long.MAX_VALUE), nulls())),
+                    TColumn.doubleVal(
+                        new TDoubleColumn(Arrays.asList(Double.MAX_VALUE), nulls()))));
+    ThriftColumnarResult result =
+        new ThriftColumnarResult(new TFetchResultsResp().setResults(rowSet), null, session);
+
+    assertTrue(result.next());
+    ThriftColumnValues.NumericValues longValues = result.getColumnValues(0).asNumeric();
+    assertThrows(DatabricksValidationException.class, () -> longValues.getInt(0));
+    assertEquals(Long.MAX_VALUE, longValues.getLong(0));
+    ThriftColumnValues.NumericValues doubleValues = result.getColumnValues(1).asNumeric();
+    assertThrows(DatabricksValidationException.class, () -> doubleValues.getInt(0));
+    assertThrows(DatabricksValidationException.class, () -> doubleValues.getFloat(0));
+    assertEquals(Double.MAX_VALUE, doubleValues.getDouble(0));
+  }
+
+  @Test
+  public void testAppendsLaterPages() throws DatabricksSQLException {
+    when(parentStatement.getMaxRows()).thenReturn(DEFAULT_RESULT_ROW_LIMIT);
+    // The whole result is fetched in pages of the default size, whatever the fetch size
+    when(parentStatement.getFetchSize()).thenReturn(3);
+    when(session.getDatabricksClient()).thenReturn(client);
+    when(client.getMoreResults(parentStatement))
+        .thenReturn(
+            new TFetchResultsResp()
+                .setResults(longRowSet(new Long[] {3L, null, 5L}))
+                .setHasMoreRows(false));
+
+    ThriftColumnarResult result =
+        new ThriftColumnarResult(
+            new TFetchResultsResp()
+                .setResults(longRowSet(new Long[] {1L, 2L}))
+                .setHasMoreRows(true),
+            parentStatement,
+            session);
+
+    assertEquals(5, result.getRowCount());
+    Object[] values = new Object[5];
+    for (int i = 0; result.next(); i++) {
+      values[i] = result.getObject(0);
+    }
+    assertArrayEquals(new Object[] {1L, 2L, 3L, null, 5L}, values);
+  }
+
+  @Test
+  public void testStopsFetchingAtMaxRows() throws DatabricksSQLException {
+    when(parentStatement.getMaxRows()).thenReturn(1);
+
+    ThriftColumnarResult result =
+        new ThriftColumnarResult(
+            new TFetchResultsResp()
+                .setResults(longRowSet(new Long[] {1L, 2L}))
+                .setHasMoreRows(true),
+            parentStatement,
+            session);
+
+    assertEquals(1, result.getRowCount());
+    assertTrue(result.next());
+    assertEquals(1L, result.getObject(0));
+    assertFalse(result.next());
+    verify(session, never()).getDatabricksClient();
+  }
+
+  @Test
+  public void testStreamsOnePageAtATime() throws DatabricksSQLException {
+    enableStreaming();
+    when(parentStatement.getMaxRows()).thenReturn(DEFAULT_RESULT_ROW_LIMIT);
+    when(session.getDatabricksClient()).thenReturn(client);
+    when(client.getMoreResults(parentStatement, 0))
+        .thenReturn(
+            new TFetchResultsResp().setResults(longRowSet(new Long[] {})).setHasMoreRows(true))
+        .thenReturn(
+            new TFetchResultsResp().setResults(longRowSet(new Long[] {3L})).setHasMoreRows(false));
+
+    ThriftColumnarResult result =
+        new ThriftColumnarResult(
+            new TFetchResultsResp()
+                .setResults(longRowSet(new Long[] {1L, 2L}))
+                .setHasMoreRows(true),
+            parentStatement,
+            session);
+
+    assertEquals(2, result.getRowCount());
+    assertTrue(result.next());
+    assertTrue(result.next());
+    assertEquals(2L, result.getObject(0));
+    assertEquals(1, result.getValuesRow());
+    assertTrue(result.hasNext());
+    // The empty page is skipped
+    assertTrue(result.next());
+    assertEquals(3L, result.getObject(0));
+    assertEquals(0, result.getValuesRow());
+    assertEquals(2, result.getCurrentRow());
+    assertEquals(3, result.getRowCount());
+    assertFalse(result.hasNext());
+    assertFalse(result.next());
+    result.close();
+  }
+
+  @Test
+  public void testStreamingStopsAtMaxRows() throws DatabricksSQLException {
+    enableStreaming();
+    when(parentStatement.getMaxRows()).thenReturn(3);
+    when(session.getDatabricksClient()).thenReturn(client);
+    when(client.getMoreResults(parentStatement, 0))
+        .thenReturn(
+            new TFetchResultsResp()
+                .setResults(longRowSet(new Long[] {3L, 4L}))
+                .setHasMoreRows(true));
+
+    ThriftColumnarResult result =
+        new ThriftColumnarResult(
+            new TFetchResultsResp()
+                .setResults(longRowSet(new Long[] {1L, 2L}))
+                .setHasMoreRows(true),
+            parentStatement,
+            session);
+
+    Object[] values = new Object[3];
+    for (int i = 0; result.next(); i++) {
+      values[i] = result.getObject(0);
+    }
+    assertArrayEquals(new Object[] {1L, 2L, 3L}, values);
+    assertEquals(3, result.getRowCount());
+    verify(client, times(1)).getMoreResults(parentStatement, 0);
+    result.close();
+  }
+
+  @Test
+  public void testStreamingSurfacesFetchErrors() throws DatabricksSQLException {
+    enableStreaming();
+    when(parentStatement.getMaxRows()).thenReturn(DEFAULT_RESULT_ROW_LIMIT);
+    when(session.getDatabricksClient()).thenReturn(client);
+    DatabricksSQLException error =
+        new DatabricksSQLException("fetch failed", DatabricksDriverErrorCode.INVALID_STATE);
+    when(client.getMoreResults(parentStatement, 0)).thenThrow(error);
+
+    ThriftColumnarResult result =
+        new ThriftColumnarResult(
+            new TFetchResultsResp().setResults(longRowSet(new Long[] {1L})).setHasMoreRows(true),
+            parentStatement,
+            session);
+
+    assertTrue(result.next());
+    assertSame(error, assertThrows(DatabricksSQLException.class, result::next));
+    result.close();
+  }
+
+  @Test
+  public void testEmptyResult() throws DatabricksSQLException {
+    ThriftColumnarResult result =
+        new ThriftColumnarResult(
+            new TFetchResultsResp().setResults(new TRowSet().setColumns(Collections.emptyList())),
+            null,
+            session);
+
+    assertEquals(0, result.getRowCount());
+    assertFalse(result.hasNext());
+    assertFalse(result.next());
+  }
+
+  @Test
+  public void testCursorErrors() throws DatabricksSQLException {
+    ThriftColumnarResult result =
+        new ThriftColumnarResult(
+            new TFetchResultsResp().setResults(longRowSet(new Long[] {1L})), null, session);
+
+    assertThrows(DatabricksSQLException.class, () -> result.getObject(0));
+    assertTrue(result.next());
+    assertThrows(DatabricksSQLException.class, () -> result.getObject(1));
+    result.close();
+    assertFalse(result.hasNext());
+    assertThrows(DatabricksSQLException.class, () -> result.getObject(0));
+  }
+
+  private void enableStreaming() {
+    when(session.getConnectionContext()).thenReturn(connectionContext);
+    when(connectionContext.isInlineColumnarStreamingEnabled()).thenReturn(true);
+    when(parentStatement.getStatementId()).thenReturn(STATEMENT_ID);
+  }
+
+  private static TRowSet longRowSet(Long[] values) {
+    return new TRowSet()
+        .setColumns(
+            Collections.singletonList(
+                TColumn.i64Val(new TI64Column(Arrays.asList(values), nulls()))));
+  }
+
+  private static ByteBuffer nulls(int... rows) {
+    byte[] bitmap = new byte[1];
+    for (int row : rows) {
+      bitmap[0] |= (byte) (1 << row);
+    }
+    return ByteBuffer.wrap(bitmap);
+  }
+}
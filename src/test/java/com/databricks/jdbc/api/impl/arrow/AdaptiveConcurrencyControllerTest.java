@@ -0,0 +1,84 @@
+package com.databricks.jdbc.api.impl.arrow;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+public class AdaptiveConcurrencyControllerTest {
+
+  private final AtomicLong clock = new AtomicLong();
+
+  /** Records a window of downloads of the given total size, completed in one second. */
+  private boolean recordWindow(
+      AdaptiveConcurrencyController controller, long bytes, long latencyMillis) {
+    int downloads =
+        Math.max(AdaptiveConcurrencyController.MIN_WINDOW_DOWNLOADS, controller.getConcurrency());
+    clock.addAndGet(1000);
+    boolean changed = false;
+    for (int i = 0; i < downloads; i++) {
+      changed = controller.recordDownload(bytes / downloads, latencyMillis);
+    }
+    return changed;
+  }
+
+  @Test
+  void testGrowsWhileThroughputImproves() {
+    AdaptiveConcurrencyController controller = new AdaptiveConcurrencyController(1, 16, clock::get);
+    assertEquals(AdaptiveConcurrencyController.INITIAL_CONCURRENCY, controller.getConcurrency());
+
+    assertTrue(recordWindow(controller, 1000, 100));
+    assertEquals(4, controller.getConcurrency());
+    assertTrue(recordWindow(controller, 2000, 100));
+    assertEquals(8, controller.getConcurrency());
+    assertEquals(2000, controller.getThroughput());
+
+    // Throughput plateaus, the concurrency is kept and then only grows by one
+    assertFalse(recordWindow(controller, 2000, 100));
+    assertEquals(8, controller.getConcurrency());
+    assertTrue(recordWindow(controller, 3000, 100));
+    assertEquals(9, controller.getConcurrency());
+  }
+
+  @Test
+  void testStaysWithinBounds() {
+    AdaptiveConcurrencyController controller = new AdaptiveConcurrencyController(1, 3, clock::get);
+    recordWindow(controller, 1000, 100);
+    recordWindow(controller, 2000, 100);
+    assertEquals(3, controller.getConcurrency());
+
+    controller.recordThrottled();
+    assertEquals(1, controller.getConcurrency());
+    assertFalse(controller.recordThrottled());
+    assertEquals(1, controller.getConcurrency());
+  }
+
+  @Test
+  void testBacksOffWhenThrottled() {
+    AdaptiveConcurrencyController controller = new AdaptiveConcurrencyController(1, 16, clock::get);
+    recordWindow(controller, 1000, 100);
+    recordWindow(controller, 2000, 100);
+    assertEquals(8, controller.getConcurrency());
+
+    assertTrue(controller.recordThrottled());
+    assertEquals(4, controller.getConcurrency());
+    // Downloads throttled together only back off once
+    assertFalse(controller.recordThrottled());
+    assertEquals(4, controller.getConcurrency());
+
+    // The window of the backoff is not used to grow, the next ones grow by one
+    assertFalse(recordWindow(controller, 5000, 100));
+    assertTrue(recordWindow(controller, 5000, 100));
+    assertEquals(5, controller.getConcurrency());
+  }
+
+  @Test
+  void testBacksOffWhenLatencyRises() {
+    AdaptiveConcurrencyController controller = new AdaptiveConcurrencyController(1, 16, clock::get);
+    recordWindow(controller, 1000, 100);
+    assertEquals(4, controller.getConcurrency());
+
+    assertTrue(recordWindow(controller, 5000, 300));
+    assertEquals(3, controller.getConcurrency());
+  }
+}
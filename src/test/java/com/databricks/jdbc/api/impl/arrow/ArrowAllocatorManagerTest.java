@@ -0,0 +1,125 @@
+package com.databricks.jdbc.api.impl.arrow;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+import com.databricks.jdbc.api.internal.IDatabricksConnectionContext;
+import com.databricks.jdbc.dbclient.impl.common.StatementId;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.OutOfMemoryException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class ArrowAllocatorManagerTest {
+
+  private static final StatementId STATEMENT_ID = new StatementId("statement_id");
+  @Mock IDatabricksConnectionContext connectionContext;
+  @Mock IDatabricksConnectionContext otherConnectionContext;
+
+  @Test
+  public void testStatementAllocatorHierarchy() {
+    ArrowAllocatorManager manager = new ArrowAllocatorManager();
+    when(connectionContext.getConnectionUuid()).thenReturn("connection-uuid");
+
+    BufferAllocator statementAllocator =
+        manager.newStatementAllocator(connectionContext, STATEMENT_ID);
+    BufferAllocator connectionAllocator = statementAllocator.getParentAllocator();
+
+    assertEquals("connection-connection-uuid", connectionAllocator.getName());
+    assertSame(manager.getRootAllocator(), connectionAllocator.getParentAllocator());
+
+    try (ArrowBuf buf = statementAllocator.buffer(1024)) {
+      assertEquals(1024, connectionAllocator.getAllocatedMemory());
+      assertEquals(1024, manager.getAllocatedMemory());
+    }
+    manager.closeStatementAllocator(statementAllocator);
+    manager.removeConnectionAllocator(connectionContext);
+    assertEquals(0, manager.getAllocatedMemory());
+  }
+
+  @Test
+  public void testLimitAppliesToItsConnectionOnly() {
+    ArrowAllocatorManager manager = new ArrowAllocatorManager();
+    when(connectionContext.getConnectionUuid()).thenReturn("limited");
+    when(connectionContext.getArrowMemoryLimitBytes()).thenReturn(4096L);
+    when(otherConnectionContext.getConnectionUuid()).thenReturn("unlimited");
+
+    BufferAllocator limitedAllocator = manager.newStatementAllocator(connectionContext, null);
+    BufferAllocator unlimitedAllocator =
+        manager.newStatementAllocator(otherConnectionContext, null);
+
+    assertEquals(4096L, limitedAllocator.getParentAllocator().getLimit());
+    assertEquals(Long.MAX_VALUE, unlimitedAllocator.getParentAllocator().getLimit());
+    try (ArrowBuf buf = limitedAllocator.buffer(4096)) {
+      assertThrows(OutOfMemoryException.class, () -> limitedAllocator.buffer(1024));
+    }
+    try (ArrowBuf buf = unlimitedAllocator.buffer(4096)) {
+      assertEquals(4096, manager.getAllocatedMemory());
+    }
+    manager.closeStatementAllocator(limitedAllocator);
+    manager.closeStatementAllocator(unlimitedAllocator);
+  }
+
+  @Test
+  public void testDriverLimitIsLargestConnectionLimit() {
+    ArrowAllocatorManager manager = new ArrowAllocatorManager(0);
+    when(connectionContext.getArrowMemoryLimitBytes()).thenReturn(4096L);
+    when(otherConnectionContext.getArrowMemoryLimitBytes()).thenReturn(8192L);
+    assertEquals(Long.MAX_VALUE, manager.getRootAllocator().getLimit());
+
+    BufferAllocator firstAllocator = manager.newStatementAllocator(otherConnectionContext, null);
+    BufferAllocator secondAllocator = manager.newStatementAllocator(connectionContext, null);
+
+    assertEquals(8192L, manager.getRootAllocator().getLimit());
+    try (ArrowBuf buf = firstAllocator.buffer(8192)) {
+      // The connections share the driver-wide limit
+      assertThrows(OutOfMemoryException.class, () -> secondAllocator.buffer(1024));
+    }
+    manager.closeStatementAllocator(firstAllocator);
+    manager.closeStatementAllocator(secondAllocator);
+  }
+
+  @Test
+  public void testConfiguredDriverLimitCapsConnectionLimits() {
+    ArrowAllocatorManager manager = new ArrowAllocatorManager(4096);
+    when(connectionContext.getConnectionUuid()).thenReturn("connection-uuid");
+    when(connectionContext.getArrowMemoryLimitBytes()).thenReturn(8192L);
+
+    BufferAllocator statementAllocator =
+        manager.newStatementAllocator(connectionContext, STATEMENT_ID);
+
+    assertEquals(4096L, manager.getRootAllocator().getLimit());
+    assertEquals(4096L, statementAllocator.getParentAllocator().getLimit());
+    assertThrows(OutOfMemoryException.class, () -> statementAllocator.buffer(8192));
+    manager.closeStatementAllocator(statementAllocator);
+    manager.removeConnectionAllocator(connectionContext);
+  }
+
+  @Test
+  public void testConnectionAllocatorClosedAfterItsLastStatement() {
+    ArrowAllocatorManager manager = new ArrowAllocatorManager();
+    when(connectionContext.getConnectionUuid()).thenReturn("connection-uuid");
+    BufferAllocator firstAllocator = manager.newStatementAllocator(connectionContext, null);
+    BufferAllocator secondAllocator = manager.newStatementAllocator(connectionContext, null);
+    BufferAllocator connectionAllocator = firstAllocator.getParentAllocator();
+
+    manager.closeStatementAllocator(firstAllocator);
+    manager.removeConnectionAllocator(connectionContext);
+    // The statement can still allocate until it is closed
+    try (ArrowBuf buf = secondAllocator.buffer(1024)) {
+      assertEquals(1024, connectionAllocator.getAllocatedMemory());
+    }
+    manager.closeStatementAllocator(secondAllocator);
+
+    assertThrows(IllegalStateException.class, () -> connectionAllocator.buffer(1024));
+    // A new statement of a connection with the same id gets a new allocator
+    BufferAllocator newAllocator = manager.newStatementAllocator(connectionContext, null);
+    assertNotSame(connectionAllocator, newAllocator.getParentAllocator());
+    manager.closeStatementAllocator(newAllocator);
+    manager.removeConnectionAllocator(connectionContext);
+  }
+}
@@ -3,30 +3,49 @@ package com.databricks.jdbc.api.impl.arrow;
 import static com.databricks.jdbc.TestConstants.*;
 import static java.lang.Math.min;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isA;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
+import com.databricks.jdbc.common.CompressionCodec;
+import com.databricks.jdbc.dbclient.IDatabricksHttpClient;
 import com.databricks.jdbc.exception.DatabricksParsingException;
 import com.databricks.jdbc.exception.DatabricksSQLException;
 import com.databricks.jdbc.model.client.thrift.generated.TSparkArrowResultLink;
+import com.databricks.jdbc.model.core.ExternalLink;
 import com.databricks.sdk.service.sql.BaseChunkInfo;
 import com.databricks.sdk.service.sql.ColumnInfo;
 import com.databricks.sdk.service.sql.ColumnInfoTypeName;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
+import net.jpountz.lz4.LZ4FrameOutputStream;
 import org.apache.arrow.memory.RootAllocator;
 import org.apache.arrow.vector.*;
 import org.apache.arrow.vector.dictionary.DictionaryProvider;
 import org.apache.arrow.vector.ipc.ArrowStreamWriter;
 import org.apache.arrow.vector.ipc.ArrowWriter;
+import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
 import org.apache.arrow.vector.types.Types;
 import org.apache.arrow.vector.types.pojo.Field;
 import org.apache.arrow.vector.types.pojo.FieldType;
 import org.apache.arrow.vector.types.pojo.Schema;
+import org.apache.http.HttpEntity;
+import org.apache.http.StatusLine;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
 import org.junit.jupiter.api.Test;
 
 public class ArrowResultChunkTest {
@@ -83,6 +102,244 @@ public class ArrowResultChunkTest {
     arrowResultChunk.releaseChunk(); // calling it a second time also does not throw error.
   }
 
+  @Test
+  public void testDiscardsDataParsedAfterChunkIsReleased() throws Exception {
+    BaseChunkInfo chunkInfo =
+        new BaseChunkInfo()
+            .setChunkIndex(0L)
+            .setByteCount(200L)
+            .setRowOffset(0L)
+            .setRowCount(totalRows);
+    RootAllocator allocator = new RootAllocator(Integer.MAX_VALUE);
+    ArrowResultChunk arrowResultChunk =
+        ArrowResultChunk.builder()
+            .withStatementId(TEST_STATEMENT_ID)
+            .withChunkInfo(chunkInfo)
+            .withParentAllocator(allocator)
+            .build();
+    Schema schema = createTestSchema();
+    Object[][] testData = createTestData(schema, (int) totalRows);
+    File arrowFile =
+        createTestArrowFile("TestFile", schema, testData, new RootAllocator(Integer.MAX_VALUE));
+
+    // The result set is closed while the chunk is still being downloaded
+    arrowResultChunk.releaseChunk();
+    arrowResultChunk.initializeData(new FileInputStream(arrowFile));
+
+    assertEquals(0, arrowResultChunk.getRecordBatchCountInChunk());
+    assertEquals(0, allocator.getAllocatedMemory());
+  }
+
+  @Test
+  public void testStaysReleasedWhenDownloadEndsAfterRelease() throws Exception {
+    BaseChunkInfo chunkInfo =
+        new BaseChunkInfo()
+            .setChunkIndex(0L)
+            .setByteCount(200L)
+            .setRowOffset(0L)
+            .setRowCount(totalRows);
+    RootAllocator allocator = new RootAllocator(Integer.MAX_VALUE);
+    ArrowResultChunk arrowResultChunk =
+        ArrowResultChunk.builder()
+            .withStatementId(TEST_STATEMENT_ID)
+            .withChunkInfo(chunkInfo)
+            .withParentAllocator(allocator)
+            .build();
+    arrowResultChunk.setChunkLink(
+        new ExternalLink()
+            .setChunkIndex(0L)
+            .setExternalLink(TEST_STRING)
+            .setExpiration(Instant.now().plusSeconds(3600L).toString()));
+    Schema schema = createTestSchema();
+    Object[][] testData = createTestData(schema, (int) totalRows);
+    File arrowFile =
+        createTestArrowFile("TestFile", schema, testData, new RootAllocator(Integer.MAX_VALUE));
+    IDatabricksHttpClient httpClient = mock(IDatabricksHttpClient.class);
+    CloseableHttpResponse httpResponse = mock(CloseableHttpResponse.class);
+    StatusLine statusLine = mock(StatusLine.class);
+    HttpEntity httpEntity = mock(HttpEntity.class);
+    when(httpClient.execute(isA(HttpUriRequest.class), eq(true))).thenReturn(httpResponse);
+    when(httpResponse.getStatusLine()).thenReturn(statusLine);
+    when(statusLine.getStatusCode()).thenReturn(200);
+    when(httpResponse.getEntity()).thenReturn(httpEntity);
+    when(httpEntity.getContent()).thenReturn(new FileInputStream(arrowFile));
+
+    // The result set is closed while the chunk is being downloaded
+    assertTrue(arrowResultChunk.releaseChunk());
+    arrowResultChunk.downloadData(httpClient, CompressionCodec.NONE);
+
+    assertEquals(ArrowResultChunk.ChunkStatus.CHUNK_RELEASED, arrowResultChunk.getStatus());
+    arrowResultChunk.setStatus(ArrowResultChunk.ChunkStatus.DOWNLOAD_FAILED);
+    assertEquals(ArrowResultChunk.ChunkStatus.CHUNK_RELEASED, arrowResultChunk.getStatus());
+    assertEquals(0, arrowResultChunk.getRecordBatchCountInChunk());
+    assertEquals(0, allocator.getAllocatedMemory());
+    assertFalse(arrowResultChunk.releaseChunk());
+  }
+
+  @Test
+  public void testLoadsRecordBatchesIntoReusedVectors() throws Exception {
+    BaseChunkInfo chunkInfo =
+        new BaseChunkInfo()
+            .setChunkIndex(0L)
+            .setByteCount(200L)
+            .setRowOffset(0L)
+            .setRowCount(totalRows);
+    ArrowResultChunk arrowResultChunk =
+        ArrowResultChunk.builder()
+            .withStatementId(TEST_STATEMENT_ID)
+            .withChunkInfo(chunkInfo)
+            .build();
+    Schema schema = createTestSchema();
+    Object[][] testData = createTestData(schema, (int) totalRows);
+    File arrowFile =
+        createTestArrowFile("TestFile", schema, testData, new RootAllocator(Integer.MAX_VALUE));
+    arrowResultChunk.initializeData(new FileInputStream(arrowFile));
+    long allocatedMemory = arrowResultChunk.getAllocatedMemory();
+
+    ArrowResultChunk.ArrowResultChunkIterator iterator = arrowResultChunk.getChunkIterator();
+    assertTrue(iterator.nextRecordBatch());
+    List<ValueVector> vectors = iterator.getCurrentRecordBatch();
+    int rowsRead = vectors.get(0).getValueCount();
+    while (iterator.nextRecordBatch()) {
+      assertSame(vectors, iterator.getCurrentRecordBatch());
+      assertEquals(
+          arrowResultChunk.getRecordBatchRowCount(iterator.getRecordBatchIndex()),
+          vectors.get(0).getValueCount());
+      rowsRead += vectors.get(0).getValueCount();
+    }
+
+    assertEquals(totalRows, rowsRead);
+    // The vectors share the buffers of the record batches
+    assertEquals(allocatedMemory, arrowResultChunk.getAllocatedMemory());
+    arrowResultChunk.releaseChunk();
+  }
+
+  @Test
+  public void testDecodesRecordBatchesIncrementally() throws Exception {
+    BaseChunkInfo chunkInfo =
+        new BaseChunkInfo()
+            .setChunkIndex(0L)
+            .setByteCount(200L)
+            .setRowOffset(0L)
+            .setRowCount(totalRows);
+    Schema schema = createTestSchema();
+    Object[][] testData = createTestData(schema, (int) totalRows);
+    File arrowFile =
+        createTestArrowFile("TestFile", schema, testData, new RootAllocator(Integer.MAX_VALUE));
+    ArrowResultChunk decodedChunk =
+        ArrowResultChunk.builder()
+            .withStatementId(TEST_STATEMENT_ID)
+            .withChunkInfo(chunkInfo)
+            .build();
+    decodedChunk.loadDownloadedData(new FileInputStream(arrowFile), CompressionCodec.NONE);
+    long decodedMemory = decodedChunk.getAllocatedMemory();
+    decodedChunk.releaseChunk();
+
+    RootAllocator allocator = new RootAllocator();
+    ArrowResultChunk arrowResultChunk =
+        ArrowResultChunk.builder()
+            .withStatementId(TEST_STATEMENT_ID)
+            .withChunkInfo(chunkInfo)
+            .withParentAllocator(allocator)
+            .withIncrementalDecode(true)
+            .build();
+    assertTrue(
+        arrowResultChunk.loadDownloadedData(new FileInputStream(arrowFile), CompressionCodec.NONE));
+    assertEquals(schema.getFields().size(), arrowResultChunk.getArrowMetadata().size());
+    assertEquals(0, arrowResultChunk.getRecordBatchCountInChunk());
+
+    ArrowResultChunk.ArrowResultChunkIterator iterator = arrowResultChunk.getChunkIterator();
+    int rows = 0;
+    long peakArrowMemory = 0;
+    while (iterator.nextRow()) {
+      assertEquals(
+          testData[0][rows],
+          iterator.getColumnObjectAtCurrentRow(0, ColumnInfoTypeName.INT, "INT", new ColumnInfo()));
+      peakArrowMemory = Math.max(peakArrowMemory, allocator.getAllocatedMemory());
+      rows++;
+    }
+
+    assertEquals(totalRows, rows);
+    assertEquals(
+        (totalRows + rowsInRecordBatch - 1) / rowsInRecordBatch,
+        arrowResultChunk.getRecordBatchCountInChunk());
+    // Only one record batch is decoded at a time
+    assertTrue(peakArrowMemory < decodedMemory);
+
+    // Another iterator decodes the chunk again from the start
+    ArrowResultChunk.ArrowResultChunkIterator secondIterator = arrowResultChunk.getChunkIterator();
+    assertTrue(secondIterator.nextRow());
+    assertEquals(
+        testData[0][0],
+        secondIterator.getColumnObjectAtCurrentRow(
+            0, ColumnInfoTypeName.INT, "INT", new ColumnInfo()));
+    arrowResultChunk.releaseChunk();
+  }
+
+  @Test
+  public void testIncrementalDecodeFailsWhenChunkEndsEarly() throws Exception {
+    BaseChunkInfo chunkInfo =
+        new BaseChunkInfo()
+            .setChunkIndex(0L)
+            .setByteCount(200L)
+            .setRowOffset(0L)
+            .setRowCount(totalRows + 1);
+    Schema schema = createTestSchema();
+    Object[][] testData = createTestData(schema, (int) totalRows);
+    File arrowFile =
+        createTestArrowFile("TestFile", schema, testData, new RootAllocator(Integer.MAX_VALUE));
+    ArrowResultChunk arrowResultChunk =
+        ArrowResultChunk.builder()
+            .withStatementId(TEST_STATEMENT_ID)
+            .withChunkInfo(chunkInfo)
+            .withIncrementalDecode(true)
+            .build();
+    arrowResultChunk.loadDownloadedData(new FileInputStream(arrowFile), CompressionCodec.NONE);
+
+    ArrowResultChunk.ArrowResultChunkIterator iterator = arrowResultChunk.getChunkIterator();
+    for (int i = 0; i < totalRows; i++) {
+      assertTrue(iterator.nextRow());
+    }
+    assertThrows(DatabricksParsingException.class, iterator::nextRow);
+    arrowResultChunk.releaseChunk();
+  }
+
+  @Test
+  public void testSpillsDownloadedDataUntilLoaded() throws Exception {
+    BaseChunkInfo chunkInfo =
+        new BaseChunkInfo()
+            .setChunkIndex(0L)
+            .setByteCount(200L)
+            .setRowOffset(0L)
+            .setRowCount(totalRows);
+    ArrowResultChunk arrowResultChunk =
+        ArrowResultChunk.builder()
+            .withStatementId(TEST_STATEMENT_ID)
+            .withChunkInfo(chunkInfo)
+            .build();
+    ChunkSpillStore spillStore = new ChunkSpillStore(null, 1 << 20, CompressionCodec.NONE);
+    assertTrue(spillStore.tryReserve(arrowResultChunk));
+    arrowResultChunk.setSpillStore(spillStore);
+    Schema schema = createTestSchema();
+    Object[][] testData = createTestData(schema, (int) totalRows);
+    File arrowFile =
+        createTestArrowFile("TestFile", schema, testData, new RootAllocator(Integer.MAX_VALUE));
+
+    assertTrue(arrowResultChunk.spillDownloadedData(new FileInputStream(arrowFile)));
+    assertTrue(arrowResultChunk.isSpilled());
+    assertEquals(ArrowResultChunk.ChunkStatus.DOWNLOAD_SUCCEEDED, arrowResultChunk.getStatus());
+    assertEquals(0, arrowResultChunk.getRecordBatchCountInChunk());
+
+    arrowResultChunk.loadSpilledData();
+
+    assertFalse(arrowResultChunk.isSpilled());
+    int totalRecordBatches = (int) ((totalRows + rowsInRecordBatch) / rowsInRecordBatch);
+    assertEquals(totalRecordBatches, arrowResultChunk.getRecordBatchCountInChunk());
+    assertEquals(0, spillStore.getReservedBytes());
+    arrowResultChunk.releaseChunk();
+    spillStore.close();
+  }
+
   @Test
   public void testGetArrowDataFromThriftInput() throws DatabricksParsingException {
     TSparkArrowResultLink chunkInfo =
@@ -101,6 +358,58 @@ public class ArrowResultChunkTest {
     assertEquals(arrowResultChunk.getChunkIndex(), 0);
   }
 
+  @Test
+  public void testDownloadLZ4CompressedData() throws Exception {
+    BaseChunkInfo chunkInfo =
+        new BaseChunkInfo()
+            .setChunkIndex(0L)
+            .setByteCount(200L)
+            .setRowOffset(0L)
+            .setRowCount(totalRows);
+    ArrowResultChunk arrowResultChunk =
+        ArrowResultChunk.builder()
+            .withStatementId(TEST_STATEMENT_ID)
+            .withChunkInfo(chunkInfo)
+            .build();
+    arrowResultChunk.setChunkLink(
+        new ExternalLink()
+            .setChunkIndex(0L)
+            .setExternalLink(TEST_STRING)
+            .setExpiration(Instant.now().plusSeconds(3600L).toString()));
+    Schema schema = createTestSchema();
+    Object[][] testData = createTestData(schema, (int) totalRows);
+    File arrowFile =
+        createTestArrowFile("TestFile", schema, testData, new RootAllocator(Integer.MAX_VALUE));
+    ByteArrayOutputStream compressedBytes = new ByteArrayOutputStream();
+    try (LZ4FrameOutputStream lz4OutputStream = new LZ4FrameOutputStream(compressedBytes)) {
+      Files.copy(arrowFile.toPath(), lz4OutputStream);
+    }
+
+    IDatabricksHttpClient httpClient = mock(IDatabricksHttpClient.class);
+    CloseableHttpResponse httpResponse = mock(CloseableHttpResponse.class);
+    StatusLine statusLine = mock(StatusLine.class);
+    HttpEntity httpEntity = mock(HttpEntity.class);
+    when(httpClient.execute(isA(HttpUriRequest.class), eq(true))).thenReturn(httpResponse);
+    when(httpResponse.getStatusLine()).thenReturn(statusLine);
+    when(statusLine.getStatusCode()).thenReturn(200);
+    when(httpResponse.getEntity()).thenReturn(httpEntity);
+    when(httpEntity.getContent())
+        .thenReturn(new ByteArrayInputStream(compressedBytes.toByteArray()));
+
+    assertTrue(arrowResultChunk.downloadData(httpClient, CompressionCodec.LZ4_FRAME));
+
+    assertEquals(ArrowResultChunk.ChunkStatus.DOWNLOAD_SUCCEEDED, arrowResultChunk.getStatus());
+    // A hedged download of a loaded chunk neither downloads again nor changes the status
+    assertFalse(arrowResultChunk.downloadHedgedData(httpClient, CompressionCodec.LZ4_FRAME));
+    arrowResultChunk.setStatus(ArrowResultChunk.ChunkStatus.DOWNLOAD_RETRY);
+    assertEquals(ArrowResultChunk.ChunkStatus.DOWNLOAD_SUCCEEDED, arrowResultChunk.getStatus());
+    verify(httpClient, times(1)).execute(isA(HttpUriRequest.class), eq(true));
+    int totalRecordBatches = (int) ((totalRows + rowsInRecordBatch) / rowsInRecordBatch);
+    assertEquals(totalRecordBatches, arrowResultChunk.getRecordBatchCountInChunk());
+    assertTrue(arrowResultChunk.getAllocatedMemory() > 0);
+    assertTrue(arrowResultChunk.releaseChunk());
+  }
+
   private File createTestArrowFile(
       String fileName, Schema schema, Object[][] testData, RootAllocator allocator)
       throws IOException {
@@ -167,6 +476,10 @@ public class ArrowResultChunkTest {
     return data;
   }
 
+  private static ArrowRecordBatch createRecordBatch(FieldVector vector) {
+    return new VectorUnloader(VectorSchemaRoot.of(vector)).getRecordBatch();
+  }
+
   @Test
   public void testHasNextRow() throws DatabricksSQLException {
     BaseChunkInfo emptyChunkInfo =
@@ -177,26 +490,33 @@ public class ArrowResultChunkTest {
             .withChunkInfo(emptyChunkInfo)
             .build();
     arrowResultChunk.setIsDataInitialized(true);
-    arrowResultChunk.recordBatchList = Collections.nCopies(3, new ArrayList<>());
+    arrowResultChunk.recordBatches =
+        Collections.nCopies(3, new ArrowRecordBatch(0, List.of(), List.of()));
     assertFalse(arrowResultChunk.getChunkIterator().hasNextRow());
 
     BaseChunkInfo chunkInfo =
         new BaseChunkInfo().setChunkIndex(18L).setByteCount(200L).setRowOffset(0L).setRowCount(4L);
+    RootAllocator allocator = new RootAllocator();
     arrowResultChunk =
         ArrowResultChunk.builder()
             .withStatementId(TEST_STATEMENT_ID)
             .withChunkInfo(chunkInfo)
+            .withParentAllocator(allocator)
             .build();
     arrowResultChunk.setIsDataInitialized(true);
     int size = 2;
-    IntVector dummyVector = new IntVector("dummy_vector", new RootAllocator());
+    IntVector dummyVector = new IntVector("dummy_vector", allocator);
     dummyVector.allocateNew(size);
     dummyVector.setValueCount(size);
     for (int i = 0; i < size; i++) {
       dummyVector.set(i, i * 10);
     }
-    arrowResultChunk.recordBatchList =
-        List.of(List.of(dummyVector), List.of(dummyVector), new ArrayList<>());
+    arrowResultChunk.arrowSchema = new Schema(List.of(dummyVector.getField()));
+    arrowResultChunk.recordBatches =
+        List.of(
+            createRecordBatch(dummyVector),
+            createRecordBatch(dummyVector),
+            new ArrowRecordBatch(0, List.of(), List.of()));
     ArrowResultChunk.ArrowResultChunkIterator iterator = arrowResultChunk.getChunkIterator();
     ColumnInfo intColumnInfo = new ColumnInfo();
     assertTrue(iterator.hasNextRow());
@@ -222,24 +542,30 @@ public class ArrowResultChunkTest {
   public void testEmptyRecordBatches() throws DatabricksSQLException {
     BaseChunkInfo chunkInfo =
         new BaseChunkInfo().setChunkIndex(18L).setByteCount(200L).setRowOffset(0L).setRowCount(4L);
+    RootAllocator allocator = new RootAllocator();
     ArrowResultChunk arrowResultChunk =
         ArrowResultChunk.builder()
             .withStatementId(TEST_STATEMENT_ID)
             .withChunkInfo(chunkInfo)
+            .withParentAllocator(allocator)
             .build();
     arrowResultChunk.setIsDataInitialized(true);
     int size = 2;
-    IntVector dummyVector = new IntVector("dummy_vector", new RootAllocator());
+    IntVector dummyVector = new IntVector("dummy_vector", allocator);
     dummyVector.allocateNew(size);
     dummyVector.setValueCount(size);
     for (int i = 0; i < size; i++) {
       dummyVector.set(i, i * 10);
     }
-    IntVector emptyVector = new IntVector("empty_vector", new RootAllocator());
+    IntVector emptyVector = new IntVector("empty_vector", allocator);
     emptyVector.allocateNew(0);
     emptyVector.setValueCount(0);
-    arrowResultChunk.recordBatchList =
-        List.of(List.of(dummyVector), List.of(emptyVector), List.of(dummyVector));
+    arrowResultChunk.arrowSchema = new Schema(List.of(dummyVector.getField()));
+    arrowResultChunk.recordBatches =
+        List.of(
+            createRecordBatch(dummyVector),
+            createRecordBatch(emptyVector),
+            createRecordBatch(dummyVector));
     ColumnInfo intColumnInfo = new ColumnInfo();
     ArrowResultChunk.ArrowResultChunkIterator iterator = arrowResultChunk.getChunkIterator();
     assertTrue(iterator.hasNextRow());
@@ -5,10 +5,13 @@ import static java.lang.Math.min;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isA;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.when;
 
+import com.databricks.jdbc.api.IDatabricksColumnarBatch;
 import com.databricks.jdbc.api.impl.DatabricksConnectionContextFactory;
 import com.databricks.jdbc.api.impl.DatabricksSession;
+import com.databricks.jdbc.api.impl.converters.DoubleConverter;
 import com.databricks.jdbc.api.internal.IDatabricksConnectionContext;
 import com.databricks.jdbc.api.internal.IDatabricksSession;
 import com.databricks.jdbc.api.internal.IDatabricksStatementInternal;
@@ -133,6 +136,39 @@ public class ArrowStreamResultTest {
     assertFalse(result.next());
   }
 
+  @Test
+  public void testIterationWithMemoryBudget() throws Exception {
+    ResultManifest resultManifest =
+        new ResultManifest()
+            .setTotalChunkCount((long) this.numberOfChunks)
+            .setTotalRowCount(this.numberOfChunks * 110L)
+            .setTotalByteCount(1000L)
+            .setResultCompression(CompressionCodec.NONE)
+            .setChunks(this.chunkInfos)
+            .setSchema(new ResultSchema().setColumns(new ArrayList<>()).setColumnCount(0L));
+
+    ResultData resultData = new ResultData().setExternalLinks(getChunkLinks(0L, false));
+
+    Properties properties = new Properties();
+    properties.setProperty("CloudFetchMemoryBudgetMB", "1");
+    IDatabricksConnectionContext connectionContext =
+        DatabricksConnectionContextFactory.create(JDBC_URL, properties);
+    DatabricksSession session = new DatabricksSession(connectionContext, mockedSdkClient);
+    setupMockResponse();
+    setupResultChunkMocks();
+    when(mockHttpClient.execute(isA(HttpUriRequest.class), eq(true))).thenReturn(httpResponse);
+
+    ArrowStreamResult result =
+        new ArrowStreamResult(resultManifest, resultData, STATEMENT_ID, session, mockHttpClient);
+
+    for (int i = 0; i < this.numberOfChunks * this.rowsInChunk; ++i) {
+      assertTrue(result.hasNext());
+      assertTrue(result.next());
+    }
+    assertFalse(result.hasNext());
+    assertDoesNotThrow(result::close);
+  }
+
   @Test
   public void testInlineArrow() throws DatabricksSQLException {
     IDatabricksConnectionContext connectionContext =
@@ -209,6 +245,164 @@ public class ArrowStreamResultTest {
     assertInstanceOf(Double.class, objectInSecondColumn);
   }
 
+  @Test
+  public void testNextBatch() throws Exception {
+    ResultManifest resultManifest =
+        new ResultManifest()
+            .setTotalChunkCount((long) this.numberOfChunks)
+            .setTotalRowCount(this.numberOfChunks * 110L)
+            .setTotalByteCount(1000L)
+            .setResultCompression(CompressionCodec.NONE)
+            .setChunks(this.chunkInfos)
+            .setSchema(
+                new ResultSchema()
+                    .setColumns(
+                        ImmutableList.of(
+                            new ColumnInfo().setTypeName(ColumnInfoTypeName.INT),
+                            new ColumnInfo().setTypeName(ColumnInfoTypeName.DOUBLE)))
+                    .setColumnCount(2L));
+
+    ResultData resultData = new ResultData().setExternalLinks(getChunkLinks(0L, false));
+
+    IDatabricksConnectionContext connectionContext =
+        DatabricksConnectionContextFactory.create(JDBC_URL, new Properties());
+    DatabricksSession session = new DatabricksSession(connectionContext, mockedSdkClient);
+    setupMockResponse();
+    setupResultChunkMocks();
+    when(mockHttpClient.execute(isA(HttpUriRequest.class), eq(true))).thenReturn(httpResponse);
+
+    ArrowStreamResult result =
+        new ArrowStreamResult(resultManifest, resultData, STATEMENT_ID, session, mockHttpClient);
+
+    // Read a few rows first, the rest of the first record batch is skipped
+    assertTrue(result.next());
+    assertTrue(result.next());
+    IDatabricksColumnarBatch batch = result.nextBatch();
+    assertEquals(20, batch.getRowCount());
+    assertEquals(2, batch.getColumnCount());
+    assertEquals(39, result.getCurrentRow());
+
+    long rowsInBatches = batch.getRowCount();
+    int batches = 1;
+    while ((batch = result.nextBatch()) != null) {
+      IntVector intVector = (IntVector) batch.getVector(1);
+      assertFalse(batch.isNull(1, 0));
+      assertEquals(intVector.get(0), batch.getObject(1, 0));
+      assertInstanceOf(Double.class, batch.getObject(2, batch.getRowCount() - 1));
+      IDatabricksColumnarBatch currentBatch = batch;
+      assertThrows(DatabricksSQLException.class, () -> currentBatch.getVector(3));
+      rowsInBatches += batch.getRowCount();
+      batches++;
+    }
+    // 6 record batches per chunk, the first one was skipped
+    assertEquals(this.numberOfChunks * 6 - 1, batches);
+    assertEquals(this.numberOfChunks * this.rowsInChunk - 20, rowsInBatches);
+    assertEquals(this.numberOfChunks * this.rowsInChunk - 1, result.getCurrentRow());
+    assertFalse(result.hasNext());
+    assertFalse(result.next());
+  }
+
+  @Test
+  public void testNextBatchAfterLastRowOfChunk() throws Exception {
+    ResultManifest resultManifest =
+        new ResultManifest()
+            .setTotalChunkCount((long) this.numberOfChunks)
+            .setTotalRowCount(this.numberOfChunks * 110L)
+            .setTotalByteCount(1000L)
+            .setResultCompression(CompressionCodec.NONE)
+            .setChunks(this.chunkInfos)
+            .setSchema(new ResultSchema().setColumns(new ArrayList<>()).setColumnCount(0L));
+
+    ResultData resultData = new ResultData().setExternalLinks(getChunkLinks(0L, false));
+
+    IDatabricksConnectionContext connectionContext =
+        DatabricksConnectionContextFactory.create(JDBC_URL, new Properties());
+    DatabricksSession session = new DatabricksSession(connectionContext, mockedSdkClient);
+    setupMockResponse();
+    // Only the first two chunks are read, the links of the others may not be fetched
+    for (int chunkIndex = 1; chunkIndex < numberOfChunks; chunkIndex++) {
+      lenient()
+          .when(mockedSdkClient.getResultChunks(STATEMENT_ID, chunkIndex))
+          .thenReturn(getChunkLinks(chunkIndex, chunkIndex == numberOfChunks - 1));
+    }
+    when(mockHttpClient.execute(isA(HttpUriRequest.class), eq(true))).thenReturn(httpResponse);
+
+    ArrowStreamResult result =
+        new ArrowStreamResult(resultManifest, resultData, STATEMENT_ID, session, mockHttpClient);
+
+    // Batches and rows can be mixed, next() continues after the returned batch
+    for (int i = 0; i < 6; i++) {
+      assertNotNull(result.nextBatch());
+    }
+    assertEquals(this.rowsInChunk - 1, result.getCurrentRow());
+    assertTrue(result.next());
+    assertEquals(this.rowsInChunk, result.getCurrentRow());
+    // The remaining rows of the first batch of the second chunk are skipped
+    assertEquals(20, result.nextBatch().getRowCount());
+    assertEquals(this.rowsInChunk + 39, result.getCurrentRow());
+    result.close();
+    assertNull(result.nextBatch());
+  }
+
+  @Test
+  public void testColumnAccessor() throws Exception {
+    ResultManifest resultManifest =
+        new ResultManifest()
+            .setTotalChunkCount((long) this.numberOfChunks)
+            .setTotalRowCount(this.numberOfChunks * 110L)
+            .setTotalByteCount(1000L)
+            .setResultCompression(CompressionCodec.NONE)
+            .setChunks(this.chunkInfos)
+            .setSchema(
+                new ResultSchema()
+                    .setColumns(
+                        ImmutableList.of(
+                            new ColumnInfo().setTypeName(ColumnInfoTypeName.INT),
+                            new ColumnInfo().setTypeName(ColumnInfoTypeName.DOUBLE)))
+                    .setColumnCount(2L));
+
+    ResultData resultData = new ResultData().setExternalLinks(getChunkLinks(0L, false));
+
+    IDatabricksConnectionContext connectionContext =
+        DatabricksConnectionContextFactory.create(JDBC_URL, new Properties());
+    DatabricksSession session = new DatabricksSession(connectionContext, mockedSdkClient);
+    setupMockResponse();
+    setupResultChunkMocks();
+    when(mockHttpClient.execute(isA(HttpUriRequest.class), eq(true))).thenReturn(httpResponse);
+
+    ArrowStreamResult result =
+        new ArrowStreamResult(resultManifest, resultData, STATEMENT_ID, session, mockHttpClient);
+
+    // Not positioned on a row yet
+    assertNull(result.getColumnAccessor(0));
+
+    DoubleConverter doubleConverter = new DoubleConverter();
+    ArrowColumnAccessor previousAccessor = null;
+    while (result.next()) {
+      ArrowColumnAccessor intAccessor = result.getColumnAccessor(0);
+      ArrowColumnAccessor doubleAccessor = result.getColumnAccessor(1);
+      if (result.getCurrentRow() % this.rowsInChunk != 0) {
+        // Resolved once per chunk
+        assertSame(previousAccessor, intAccessor);
+      }
+      previousAccessor = intAccessor;
+      // Converters are resolved once per chunk as well
+      assertSame(result.getColumnConverters(), result.getColumnConverters());
+
+      assertFalse(intAccessor.isNull());
+      assertEquals(result.getObject(0), intAccessor.getInt());
+      assertEquals(((Integer) result.getObject(0)).longValue(), intAccessor.getLong());
+      assertEquals(((Integer) result.getObject(0)).doubleValue(), intAccessor.getDouble());
+      assertEquals(result.getObject(1), doubleAccessor.getDouble());
+      // Narrowing reads give the same result as the regular conversion
+      assertEquals(doubleConverter.toInt(result.getObject(1)), doubleAccessor.getInt());
+      assertEquals(doubleConverter.toLong(result.getObject(1)), doubleAccessor.getLong());
+      assertEquals(doubleConverter.toFloat(result.getObject(1)), doubleAccessor.getFloat());
+    }
+    assertNull(result.getColumnAccessor(2));
+    assertEquals(this.numberOfChunks * this.rowsInChunk - 1, result.getCurrentRow());
+  }
+
   @Test
   public void testComplexTypeHandling() {
     assertTrue(ArrowStreamResult.isComplexType(ColumnInfoTypeName.ARRAY));
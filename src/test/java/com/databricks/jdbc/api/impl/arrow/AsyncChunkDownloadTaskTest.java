@@ -0,0 +1,154 @@
+package com.databricks.jdbc.api.impl.arrow;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.databricks.jdbc.api.internal.IDatabricksConnectionContext;
+import com.databricks.jdbc.common.CompressionCodec;
+import com.databricks.jdbc.dbclient.IDatabricksHttpClient;
+import com.databricks.jdbc.exception.DatabricksParsingException;
+import com.databricks.jdbc.model.core.ExternalLink;
+import com.databricks.jdbc.model.telemetry.enums.DatabricksDriverErrorCode;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.SocketException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.nio.AsyncRequestProducer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class AsyncChunkDownloadTaskTest {
+  @Mock ArrowResultChunk chunk;
+  @Mock IDatabricksHttpClient httpClient;
+  @Mock RemoteChunkProvider remoteChunkProvider;
+  @Mock ChunkLinkDownloadService chunkLinkDownloadService;
+  @Mock IDatabricksConnectionContext connectionContext;
+  @Mock AsyncRequestProducer requestProducer;
+  private CloudFetchDownloadScheduler.DownloadQueue downloadQueue;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    when(connectionContext.getCloudFetchMaxConcurrentDownloads()).thenReturn(1);
+    downloadQueue = new CloudFetchDownloadScheduler().newDownloadQueue(connectionContext, null);
+    when(chunk.isChunkLinkInvalid()).thenReturn(false);
+    when(chunk.getChunkIndex()).thenReturn(3L);
+    when(chunk.createAsyncDownloadRequest(anyLong())).thenReturn(requestProducer);
+    when(remoteChunkProvider.getCompressionCodec()).thenReturn(CompressionCodec.NONE);
+  }
+
+  @Test
+  void testParsesDownloadedBodyOnDownloadQueue() throws Exception {
+    InputStream body = new ByteArrayInputStream(new byte[] {1, 2, 3});
+    when(chunk.loadDownloadedData(body, CompressionCodec.NONE)).thenReturn(true);
+    when(httpClient.executeAsync(eq(requestProducer), any(ChunkResponseConsumer.class), any()))
+        .thenAnswer(
+            invocation -> {
+              FutureCallback<InputStream> callback = invocation.getArgument(2);
+              callback.completed(body);
+              return CompletableFuture.completedFuture(body);
+            });
+
+    newTask().call();
+
+    verify(remoteChunkProvider, timeout(10000)).downloadProcessed(3L);
+    verify(chunk).loadDownloadedData(body, CompressionCodec.NONE);
+    verify(chunk).setStatus(ArrowResultChunk.ChunkStatus.DOWNLOAD_IN_PROGRESS);
+  }
+
+  @Test
+  void testRetriesFailedDownload() throws Exception {
+    InputStream body = new ByteArrayInputStream(new byte[] {1, 2, 3});
+    when(chunk.loadDownloadedData(body, CompressionCodec.NONE)).thenReturn(true);
+    SocketException connectionReset = new SocketException("Connection reset");
+    when(httpClient.executeAsync(eq(requestProducer), any(ChunkResponseConsumer.class), any()))
+        .thenAnswer(
+            invocation -> {
+              FutureCallback<InputStream> callback = invocation.getArgument(2);
+              callback.failed(connectionReset);
+              return new CompletableFuture<>();
+            })
+        .thenAnswer(
+            invocation -> {
+              FutureCallback<InputStream> callback = invocation.getArgument(2);
+              callback.completed(body);
+              return CompletableFuture.completedFuture(body);
+            });
+    doThrow(
+            new DatabricksParsingException(
+                "Connection reset", connectionReset, DatabricksDriverErrorCode.INVALID_STATE))
+        .when(chunk)
+        .handleFailure(connectionReset, ArrowResultChunk.ChunkStatus.DOWNLOAD_FAILED);
+
+    newTask().call();
+
+    verify(remoteChunkProvider, timeout(10000)).downloadProcessed(3L);
+    verify(httpClient, times(2)).executeAsync(any(), any(), any());
+    verify(chunk).loadDownloadedData(body, CompressionCodec.NONE);
+  }
+
+  @Test
+  void testRetriesChunkFailingToParseOnDownloadPool() throws Exception {
+    when(connectionContext.isCloudFetchParallelDecodeEnabled()).thenReturn(true);
+    downloadQueue = new CloudFetchDownloadScheduler().newDownloadQueue(connectionContext, null);
+    InputStream body = new ByteArrayInputStream(new byte[] {1, 2, 3});
+    List<String> requestThreads = new CopyOnWriteArrayList<>();
+    when(httpClient.executeAsync(eq(requestProducer), any(ChunkResponseConsumer.class), any()))
+        .thenAnswer(
+            invocation -> {
+              requestThreads.add(Thread.currentThread().getName());
+              FutureCallback<InputStream> callback = invocation.getArgument(2);
+              callback.completed(body);
+              return CompletableFuture.completedFuture(body);
+            });
+    when(chunk.loadDownloadedData(body, CompressionCodec.NONE))
+        .thenThrow(
+            new DatabricksParsingException(
+                "Corrupted chunk", DatabricksDriverErrorCode.CHUNK_DOWNLOAD_ERROR))
+        .thenReturn(true);
+
+    newTask().call();
+
+    verify(remoteChunkProvider, timeout(10000)).downloadProcessed(3L);
+    verify(httpClient, times(2)).executeAsync(any(), any(), any());
+    // The parse failure on the decode pool sends the retry back to the download pool
+    assertTrue(requestThreads.get(1).startsWith("databricks-jdbc-chunks-downloader-"));
+    downloadQueue.close();
+  }
+
+  @Test
+  void testFailsAfterMaxRetries() throws Exception {
+    when(chunk.isChunkLinkInvalid()).thenReturn(true);
+    CompletableFuture<ExternalLink> failedLink = new CompletableFuture<>();
+    failedLink.completeExceptionally(new SocketException("Connection reset"));
+    when(chunkLinkDownloadService.getLinkForChunk(3L)).thenReturn(failedLink);
+
+    newTask().call();
+
+    verify(remoteChunkProvider, timeout(10000).times(1)).downloadProcessed(3L);
+    verify(chunk).setStatus(ArrowResultChunk.ChunkStatus.DOWNLOAD_FAILED);
+    verify(httpClient, never()).executeAsync(any(), any(), any());
+  }
+
+  private AsyncChunkDownloadTask newTask() {
+    return new AsyncChunkDownloadTask(
+        chunk,
+        httpClient,
+        remoteChunkProvider,
+        chunkLinkDownloadService,
+        downloadQueue,
+        new ChunkDownloadRetryPolicy("statement-id", 10, 1, 1));
+  }
+}
@@ -0,0 +1,116 @@
+package com.databricks.jdbc.api.impl.arrow;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Test;
+
+public class ChunkBufferPoolTest {
+
+  private static byte[] createContent(int length) {
+    byte[] content = new byte[length];
+    for (int i = 0; i < length; i++) {
+      content[i] = (byte) i;
+    }
+    return content;
+  }
+
+  @Test
+  void testReadsContentOfKnownLength() throws IOException {
+    ChunkBufferPool pool = new ChunkBufferPool(1024, 1024);
+    byte[] content = createContent(100);
+
+    ChunkBufferPool.PooledBuffer buffer = pool.read(new ByteArrayInputStream(content), 100);
+
+    assertEquals(100, buffer.getLength());
+    assertArrayEquals(content, IOUtils.toByteArray(buffer.getInputStream()));
+  }
+
+  @Test
+  void testGrowsBufferWhenContentIsLongerThanExpected() throws IOException {
+    ChunkBufferPool pool = new ChunkBufferPool(1024, 1024);
+    byte[] content = createContent(1000);
+
+    ChunkBufferPool.PooledBuffer buffer = pool.read(new ByteArrayInputStream(content), 10);
+
+    assertEquals(1000, buffer.getLength());
+    assertArrayEquals(content, IOUtils.toByteArray(buffer.getInputStream()));
+  }
+
+  @Test
+  void testReusesReleasedBuffers() throws IOException {
+    ChunkBufferPool pool = new ChunkBufferPool(1024, 1024);
+    ChunkBufferPool.PooledBuffer buffer =
+        pool.read(new ByteArrayInputStream(createContent(100)), 100);
+
+    buffer.release();
+    buffer.release();
+    assertEquals(100, pool.getPooledBytes());
+
+    byte[] content = createContent(50);
+    ChunkBufferPool.PooledBuffer reused = pool.read(new ByteArrayInputStream(content), 50);
+    assertEquals(0, pool.getPooledBytes());
+    assertEquals(50, reused.getLength());
+    assertArrayEquals(content, IOUtils.toByteArray(reused.getInputStream()));
+  }
+
+  @Test
+  void testDoesNotRetainBuffersBeyondLimits() throws IOException {
+    ChunkBufferPool pool = new ChunkBufferPool(150, 100);
+
+    pool.read(new ByteArrayInputStream(createContent(120)), 120).release();
+    assertEquals(0, pool.getPooledBytes());
+
+    pool.read(new ByteArrayInputStream(createContent(100)), 100).release();
+    pool.read(new ByteArrayInputStream(createContent(80)), 80).release();
+    assertEquals(100, pool.getPooledBytes());
+  }
+
+  @Test
+  void testReturnsBufferWhenReadFails() {
+    ChunkBufferPool pool = new ChunkBufferPool(1024, 1024);
+    InputStream failingStream =
+        new InputStream() {
+          @Override
+          public int read() throws IOException {
+            throw new IOException("Connection reset");
+          }
+        };
+
+    assertThrows(IOException.class, () -> pool.read(failingStream, 100));
+    assertEquals(100, pool.getPooledBytes());
+  }
+
+  @Test
+  void testReusesSmallestBufferThatFits() throws IOException {
+    ChunkBufferPool pool = new ChunkBufferPool(1024, 1024);
+    ChunkBufferPool.PooledBuffer large =
+        pool.read(new ByteArrayInputStream(createContent(400)), 400);
+    ChunkBufferPool.PooledBuffer small =
+        pool.read(new ByteArrayInputStream(createContent(100)), 100);
+    large.release();
+    small.release();
+
+    // The 100 byte buffer fits best
+    pool.read(new ByteArrayInputStream(createContent(90)), 90);
+    assertEquals(400, pool.getPooledBytes());
+    // The 400 byte buffer is more than twice the size of the download, a new buffer is allocated
+    pool.read(new ByteArrayInputStream(createContent(150)), 150);
+    assertEquals(400, pool.getPooledBytes());
+    pool.read(new ByteArrayInputStream(createContent(300)), 300);
+    assertEquals(0, pool.getPooledBytes());
+  }
+
+  @Test
+  void testClearDropsPooledBuffers() throws IOException {
+    ChunkBufferPool pool = new ChunkBufferPool(1024, 1024);
+    pool.read(new ByteArrayInputStream(createContent(100)), 100).release();
+
+    pool.clear();
+
+    assertEquals(0, pool.getPooledBytes());
+  }
+}
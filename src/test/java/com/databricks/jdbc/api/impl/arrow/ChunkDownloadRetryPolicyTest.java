@@ -0,0 +1,133 @@
+package com.databricks.jdbc.api.impl.arrow;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+import com.databricks.jdbc.api.impl.arrow.ChunkDownloadRetryPolicy.FailureType;
+import com.databricks.jdbc.api.impl.arrow.ChunkDownloadRetryPolicy.RetryDecision;
+import com.databricks.jdbc.exception.DatabricksHttpException;
+import com.databricks.jdbc.exception.DatabricksParsingException;
+import com.databricks.jdbc.exception.DatabricksRetryHandlerException;
+import com.databricks.jdbc.model.telemetry.enums.DatabricksDriverErrorCode;
+import java.io.EOFException;
+import java.net.SocketException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class ChunkDownloadRetryPolicyTest {
+  @Mock ArrowResultChunk chunk;
+
+  @Test
+  void testClassifiesFailures() {
+    assertEquals(
+        FailureType.LINK_REJECTED, ChunkDownloadRetryPolicy.classify(chunk, httpFailure(403)));
+    assertEquals(
+        FailureType.LINK_REJECTED, ChunkDownloadRetryPolicy.classify(chunk, httpFailure(400)));
+    assertEquals(FailureType.THROTTLED, ChunkDownloadRetryPolicy.classify(chunk, httpFailure(503)));
+    assertEquals(FailureType.THROTTLED, ChunkDownloadRetryPolicy.classify(chunk, httpFailure(429)));
+    assertEquals(FailureType.TRANSIENT, ChunkDownloadRetryPolicy.classify(chunk, httpFailure(500)));
+    assertEquals(FailureType.TRANSIENT, ChunkDownloadRetryPolicy.classify(chunk, httpFailure(408)));
+    assertEquals(
+        FailureType.THROTTLED,
+        ChunkDownloadRetryPolicy.classify(
+            chunk,
+            new DatabricksHttpException(
+                "Retry failure",
+                new DatabricksRetryHandlerException("Retry failure", 503),
+                DatabricksDriverErrorCode.INVALID_STATE)));
+    // Truncated streams and connection resets
+    assertEquals(
+        FailureType.TRANSIENT,
+        ChunkDownloadRetryPolicy.classify(chunk, wrap(new EOFException("Unexpected end"))));
+    assertEquals(
+        FailureType.TRANSIENT,
+        ChunkDownloadRetryPolicy.classify(chunk, wrap(new SocketException("Connection reset"))));
+  }
+
+  @Test
+  void testClassifiesFailureOfExpiredLinkAsRejected() {
+    when(chunk.isChunkLinkInvalid()).thenReturn(true);
+    assertEquals(
+        FailureType.LINK_REJECTED,
+        ChunkDownloadRetryPolicy.classify(chunk, wrap(new SocketException("Connection reset"))));
+  }
+
+  @Test
+  void testRetriesRejectedLinkImmediatelyWithoutBudget() {
+    ChunkDownloadRetryPolicy policy = new ChunkDownloadRetryPolicy("statement-id", 0, 1000, 1000);
+
+    RetryDecision decision = policy.onDownloadFailure(chunk, httpFailure(403), 1);
+
+    assertTrue(decision.isRetry());
+    assertTrue(decision.isLinkRefreshNeeded());
+    assertEquals(0, decision.getDelayMillis());
+  }
+
+  @Test
+  void testHonorsRetryAfterOfThrottledDownload() {
+    ChunkDownloadRetryPolicy policy = new ChunkDownloadRetryPolicy("statement-id", 10, 10, 10);
+    DatabricksParsingException throttled =
+        wrap(new DatabricksHttpException("SlowDown", "08000", 503, Duration.ofSeconds(3)));
+
+    RetryDecision decision = policy.onDownloadFailure(chunk, throttled, 1);
+
+    assertEquals(FailureType.THROTTLED, decision.getFailureType());
+    assertEquals(3000, decision.getDelayMillis());
+    assertFalse(decision.isLinkRefreshNeeded());
+    assertEquals(9, policy.getRemainingRetryBudget());
+  }
+
+  @Test
+  void testBackoffGrowsExponentiallyWithJitter() {
+    ChunkDownloadRetryPolicy policy = new ChunkDownloadRetryPolicy("statement-id", 10, 100, 1000);
+    for (int i = 0; i < 100; i++) {
+      assertTrue(policy.getBackoffMillis(1) >= 50 && policy.getBackoffMillis(1) <= 100);
+      assertTrue(policy.getBackoffMillis(3) >= 200 && policy.getBackoffMillis(3) <= 400);
+      assertTrue(policy.getBackoffMillis(10) >= 500 && policy.getBackoffMillis(10) <= 1000);
+    }
+  }
+
+  @Test
+  void testFailsOnceBudgetOrAttemptsAreExhausted() {
+    ChunkDownloadRetryPolicy policy = new ChunkDownloadRetryPolicy("statement-id", 1, 1, 1);
+    DatabricksParsingException failure = wrap(new SocketException("Connection reset"));
+
+    assertTrue(policy.onDownloadFailure(chunk, failure, 1).isRetry());
+    assertFalse(policy.onDownloadFailure(chunk, failure, 1).isRetry());
+    assertFalse(
+        new ChunkDownloadRetryPolicy("statement-id", 10, 1, 1)
+            .onDownloadFailure(chunk, failure, ChunkDownloadTask.MAX_RETRIES)
+            .isRetry());
+  }
+
+  @Test
+  void testParsesRetryAfter() {
+    assertEquals(Duration.ofSeconds(5), ChunkDownloadRetryPolicy.parseRetryAfter("5"));
+    assertNull(ChunkDownloadRetryPolicy.parseRetryAfter("soon"));
+    assertNull(ChunkDownloadRetryPolicy.parseRetryAfter(null));
+    String date = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now().plusSeconds(30));
+    Duration delay = ChunkDownloadRetryPolicy.parseRetryAfter(date);
+    assertTrue(delay.getSeconds() > 20 && delay.getSeconds() <= 30);
+    String pastDate =
+        DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now().minusSeconds(30));
+    assertEquals(Duration.ZERO, ChunkDownloadRetryPolicy.parseRetryAfter(pastDate));
+  }
+
+  private static DatabricksParsingException httpFailure(int statusCode) {
+    return wrap(new DatabricksHttpException("HTTP error", "08000", statusCode, null));
+  }
+
+  private static DatabricksParsingException wrap(Exception cause) {
+    return new DatabricksParsingException(
+        "Data parsing failed", cause, DatabricksDriverErrorCode.CHUNK_DOWNLOAD_ERROR);
+  }
+}
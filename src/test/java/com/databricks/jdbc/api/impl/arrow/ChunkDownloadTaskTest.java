@@ -1,14 +1,23 @@
 package com.databricks.jdbc.api.impl.arrow;
 
-import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
+import com.databricks.jdbc.api.internal.IDatabricksConnectionContext;
 import com.databricks.jdbc.common.CompressionCodec;
 import com.databricks.jdbc.dbclient.IDatabricksHttpClient;
+import com.databricks.jdbc.exception.DatabricksHttpException;
 import com.databricks.jdbc.exception.DatabricksParsingException;
 import com.databricks.jdbc.exception.DatabricksSQLException;
+import com.databricks.jdbc.model.core.ExternalLink;
 import com.databricks.jdbc.model.telemetry.enums.DatabricksDriverErrorCode;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.net.SocketException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -22,13 +31,26 @@ public class ChunkDownloadTaskTest {
   @Mock IDatabricksHttpClient httpClient;
   @Mock RemoteChunkProvider remoteChunkProvider;
   @Mock ChunkLinkDownloadService chunkLinkDownloadService;
+  private CloudFetchDownloadScheduler.DownloadQueue downloadQueue;
   private ChunkDownloadTask chunkDownloadTask;
 
   @BeforeEach
   void setUp() {
     MockitoAnnotations.openMocks(this);
+    downloadQueue = new CloudFetchDownloadScheduler().newDownloadQueue(null, null);
     chunkDownloadTask =
-        new ChunkDownloadTask(chunk, httpClient, remoteChunkProvider, chunkLinkDownloadService);
+        new ChunkDownloadTask(
+            chunk,
+            httpClient,
+            remoteChunkProvider,
+            chunkLinkDownloadService,
+            new ChunkDownloadRetryPolicy("statement-id", 10, 1, 1),
+            downloadQueue);
+  }
+
+  @AfterEach
+  void tearDown() {
+    downloadQueue.close();
   }
 
   @Test
@@ -42,19 +64,65 @@ public class ChunkDownloadTaskTest {
             new SocketException("Connection reset"),
             DatabricksDriverErrorCode.INVALID_STATE);
 
+    List<String> attemptThreads = new CopyOnWriteArrayList<>();
     // Simulate SocketException for the first two attempts, then succeed
-    doThrow(throwableError)
-        .doThrow(throwableError)
-        .doNothing()
-        .when(chunk)
-        .downloadData(httpClient, CompressionCodec.NONE);
+    when(chunk.downloadData(httpClient, CompressionCodec.NONE))
+        .thenAnswer(
+            invocation -> {
+              attemptThreads.add(Thread.currentThread().getName());
+              if (attemptThreads.size() < 3) {
+                throw throwableError;
+              }
+              return true;
+            });
 
     chunkDownloadTask.call();
 
+    verify(remoteChunkProvider, timeout(5000).times(1)).downloadProcessed(7L);
     verify(chunk, times(3)).downloadData(httpClient, CompressionCodec.NONE);
+    // The retries are queued again on the download pool instead of sleeping on this thread
+    assertEquals(Thread.currentThread().getName(), attemptThreads.get(0));
+    assertTrue(attemptThreads.get(1).startsWith("databricks-jdbc-chunks-downloader-"));
+    assertTrue(attemptThreads.get(2).startsWith("databricks-jdbc-chunks-downloader-"));
+  }
+
+  @Test
+  void testRefreshesLinkRejectedByStorage() throws Exception {
+    when(chunk.isChunkLinkInvalid()).thenReturn(false);
+    when(chunk.getChunkIndex()).thenReturn(7L);
+    when(remoteChunkProvider.getCompressionCodec()).thenReturn(CompressionCodec.NONE);
+    ExternalLink newLink = new ExternalLink().setExternalLink("new-url");
+    when(chunkLinkDownloadService.refreshLinkForChunk(7L)).thenReturn(newLink);
+    DatabricksParsingException forbidden =
+        new DatabricksParsingException(
+            "Forbidden",
+            new DatabricksHttpException("Forbidden", "08000", 403, null),
+            DatabricksDriverErrorCode.CHUNK_DOWNLOAD_ERROR);
+
+    doThrow(forbidden).doReturn(true).when(chunk).downloadData(httpClient, CompressionCodec.NONE);
+
+    chunkDownloadTask.call();
+
+    verify(remoteChunkProvider, timeout(5000).times(1)).downloadProcessed(7L);
+    verify(chunkLinkDownloadService).refreshLinkForChunk(7L);
+    verify(chunk).setChunkLink(newLink);
+    verify(chunk, times(2)).downloadData(httpClient, CompressionCodec.NONE);
     verify(remoteChunkProvider, times(1)).downloadProcessed(7L);
   }
 
+  @Test
+  void testDoesNotNotifyWhenHedgedDownloadLoadedChunk() throws Exception {
+    when(chunk.isChunkLinkInvalid()).thenReturn(false);
+    when(remoteChunkProvider.getCompressionCodec()).thenReturn(CompressionCodec.NONE);
+    when(chunk.downloadData(httpClient, CompressionCodec.NONE)).thenReturn(false);
+
+    chunkDownloadTask.call();
+
+    verify(chunk, times(1)).downloadData(httpClient, CompressionCodec.NONE);
+    verify(remoteChunkProvider, never()).downloadProcessed(anyLong());
+    verify(chunk, never()).setStatus(ArrowResultChunk.ChunkStatus.DOWNLOAD_FAILED);
+  }
+
   @Test
   void testRetryLogicExhaustedWithSocketException() throws Exception {
     when(chunk.isChunkLinkInvalid()).thenReturn(false);
@@ -70,9 +138,58 @@ public class ChunkDownloadTaskTest {
         .when(chunk)
         .downloadData(httpClient, CompressionCodec.NONE);
 
-    assertThrows(DatabricksSQLException.class, () -> chunkDownloadTask.call());
+    chunkDownloadTask.call();
+
+    verify(remoteChunkProvider, timeout(5000).times(1)).downloadProcessed(7L);
     verify(chunk, times(ChunkDownloadTask.MAX_RETRIES))
         .downloadData(httpClient, CompressionCodec.NONE);
-    verify(remoteChunkProvider, times(1)).downloadProcessed(7L);
+    verify(chunk, atLeastOnce()).setStatus(ArrowResultChunk.ChunkStatus.DOWNLOAD_FAILED);
+    assertTrue(chunkDownloadTask.uncaughtException instanceof DatabricksSQLException);
+  }
+
+  @Test
+  void testDecodesOnDecodePoolAndDownloadsAgainAfterDecodeFailure() throws Exception {
+    IDatabricksConnectionContext connectionContext = mock(IDatabricksConnectionContext.class);
+    when(connectionContext.isCloudFetchParallelDecodeEnabled()).thenReturn(true);
+    CloudFetchDownloadScheduler scheduler = new CloudFetchDownloadScheduler();
+    CloudFetchDownloadScheduler.DownloadQueue downloadQueue =
+        scheduler.newDownloadQueue(connectionContext, null);
+    ChunkDownloadTask task =
+        new ChunkDownloadTask(
+            chunk,
+            httpClient,
+            remoteChunkProvider,
+            chunkLinkDownloadService,
+            new ChunkDownloadRetryPolicy("statement-id", 10, 1, 1),
+            downloadQueue);
+    ChunkBufferPool bufferPool = new ChunkBufferPool(0, 0);
+    when(chunk.isChunkLinkInvalid()).thenReturn(false);
+    when(chunk.getChunkIndex()).thenReturn(7L);
+    when(remoteChunkProvider.getCompressionCodec()).thenReturn(CompressionCodec.NONE);
+    List<String> downloadThreads = new CopyOnWriteArrayList<>();
+    when(chunk.downloadBody(httpClient))
+        .thenAnswer(
+            invocation -> {
+              downloadThreads.add(Thread.currentThread().getName());
+              return bufferPool.read(new ByteArrayInputStream(new byte[] {1, 2, 3}), 3);
+            });
+    doThrow(
+            new DatabricksParsingException(
+                "Corrupted chunk", DatabricksDriverErrorCode.CHUNK_DOWNLOAD_ERROR))
+        .doReturn(true)
+        .when(chunk)
+        .loadDownloadedData(any(InputStream.class), eq(CompressionCodec.NONE));
+
+    task.call();
+
+    verify(remoteChunkProvider, timeout(5000).times(1)).downloadProcessed(7L);
+    verify(chunk, times(2)).downloadBody(httpClient);
+    verify(chunk, times(2)).loadDownloadedData(any(InputStream.class), eq(CompressionCodec.NONE));
+    verify(chunk, never()).downloadData(any(), any());
+    // The chunk failing to decode is downloaded again on the download pool
+    assertTrue(downloadThreads.get(1).startsWith("databricks-jdbc-chunks-downloader-"));
+    assertEquals(1, scheduler.getPeakQueuedDecodes());
+    assertEquals(0, scheduler.getQueuedDecodes());
+    downloadQueue.close();
   }
 }
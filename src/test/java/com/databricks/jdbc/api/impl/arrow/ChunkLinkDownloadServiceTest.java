@@ -270,6 +270,82 @@ class ChunkLinkDownloadServiceTest {
     verify(mockClient, times(1)).getResultChunks(mockStatementId, 5L);
   }
 
+  @Test
+  void testRefreshesLinksBeforeExpiry()
+      throws DatabricksSQLException, ExecutionException, InterruptedException, TimeoutException {
+    when(mockSession.getConnectionContext().isCloudFetchLinkRefreshEnabled()).thenReturn(true);
+    when(mockSession.getDatabricksClient()).thenReturn(mockClient);
+    // The link received with the result expires within the refresh window
+    Instant expiringSoon = Instant.now().plus(90, ChronoUnit.SECONDS);
+    Instant refreshedExpiry = Instant.now().plus(1, ChronoUnit.HOURS);
+    ArrowResultChunk mockChunk = mock(ArrowResultChunk.class);
+    when(mockChunk.getExpiryTime()).thenReturn(expiringSoon);
+    when(mockChunk.getStatus()).thenReturn(ArrowResultChunk.ChunkStatus.URL_FETCHED);
+    ExternalLink refreshedLink =
+        createExternalLink("test-url", 0L, Collections.emptyMap(), refreshedExpiry.toString());
+    when(mockClient.getResultChunks(eq(mockStatementId), eq(0L)))
+        .thenReturn(Collections.singletonList(refreshedLink));
+
+    ChunkLinkDownloadService service =
+        new ChunkLinkDownloadService(
+            mockSession, mockStatementId, 1, Map.of(0L, mockChunk), NEXT_BATCH_START_INDEX);
+    // Sleep to allow the refresh to complete
+    TimeUnit.MILLISECONDS.sleep(500);
+
+    assertEquals(refreshedLink, service.getLinkForChunk(0L).get(1, TimeUnit.SECONDS));
+    verify(mockClient, times(1)).getResultChunks(mockStatementId, 0L);
+    // The refreshed link is refreshed again before it expires
+    assertEquals(
+        refreshedExpiry.minusSeconds(
+            ArrowResultChunk.SECONDS_BUFFER_FOR_EXPIRY
+                + ChunkLinkDownloadService.LINK_REFRESH_LEAD_SECONDS),
+        service.getScheduledRefreshTime());
+    service.shutdown();
+    assertNull(service.getScheduledRefreshTime());
+  }
+
+  @Test
+  void testRefreshSkipsDownloadedChunks() throws DatabricksSQLException, InterruptedException {
+    when(mockSession.getConnectionContext().isCloudFetchLinkRefreshEnabled()).thenReturn(true);
+    ArrowResultChunk mockChunk = mock(ArrowResultChunk.class);
+    when(mockChunk.getExpiryTime()).thenReturn(Instant.now().plus(90, ChronoUnit.SECONDS));
+    when(mockChunk.getStatus()).thenReturn(ArrowResultChunk.ChunkStatus.DOWNLOAD_SUCCEEDED);
+
+    ChunkLinkDownloadService service =
+        new ChunkLinkDownloadService(
+            mockSession, mockStatementId, 1, Map.of(0L, mockChunk), NEXT_BATCH_START_INDEX);
+    // Sleep to allow the scheduled refresh to run
+    TimeUnit.MILLISECONDS.sleep(500);
+    service.refreshExpiringLinks();
+
+    verify(mockClient, never()).getResultChunks(any(), anyLong());
+    assertNull(service.getScheduledRefreshTime());
+  }
+
+  @Test
+  void testRefreshLinkForChunkReplacesRejectedLink()
+      throws DatabricksSQLException, ExecutionException, InterruptedException, TimeoutException {
+    when(mockSession.getDatabricksClient()).thenReturn(mockClient);
+    ArrowResultChunk mockChunk = mock(ArrowResultChunk.class);
+    ExternalLink newLink =
+        createExternalLink(
+            "new-url",
+            0L,
+            Collections.emptyMap(),
+            Instant.now().plus(1, ChronoUnit.HOURS).toString());
+    when(mockClient.getResultChunks(eq(mockStatementId), eq(0L)))
+        .thenReturn(Collections.singletonList(newLink));
+
+    ChunkLinkDownloadService service =
+        new ChunkLinkDownloadService(
+            mockSession, mockStatementId, 1, Map.of(0L, mockChunk), NEXT_BATCH_START_INDEX);
+
+    assertEquals(newLink, service.refreshLinkForChunk(0L));
+    assertEquals(newLink, service.getLinkForChunk(0L).get(1, TimeUnit.SECONDS));
+    service.shutdown();
+    assertThrows(DatabricksValidationException.class, () -> service.refreshLinkForChunk(0L));
+  }
+
   private ExternalLink createExternalLink(
       String url, long chunkIndex, Map<String, String> headers, String expiration) {
     ExternalLink link = new ExternalLink();
@@ -0,0 +1,87 @@
+package com.databricks.jdbc.api.impl.arrow;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.Test;
+
+public class ChunkMemoryBudgetTest {
+
+  @Test
+  public void testAdmitsChunksWithinBudget() {
+    ChunkMemoryBudget budget = new ChunkMemoryBudget(1000);
+
+    assertTrue(budget.tryReserve(mockChunk(0, 400L, 0)));
+    assertTrue(budget.tryReserve(mockChunk(1, 400L, 0)));
+    assertFalse(budget.tryReserve(mockChunk(2, 400L, 0)));
+    assertEquals(800, budget.getBytesInUse());
+
+    budget.release(0);
+    assertEquals(400, budget.getBytesInUse());
+    assertTrue(budget.tryReserve(mockChunk(2, 400L, 0)));
+    assertEquals(800, budget.getPeakBytesInUse());
+  }
+
+  @Test
+  public void testBufferedBodyCountsAgainstBudgetUntilDownloaded() {
+    ChunkMemoryBudget budget = new ChunkMemoryBudget(1000);
+    ArrowResultChunk chunk = mockChunk(0, 300L, 300L);
+
+    assertTrue(budget.tryReserve(chunk, 300));
+    assertEquals(600, budget.getBytesInUse());
+    assertFalse(budget.tryReserve(mockChunk(1, 300L, 0), 300));
+
+    // The body is released once the chunk is decoded
+    budget.onChunkDownloaded(chunk);
+    assertEquals(300, budget.getBytesInUse());
+    assertTrue(budget.tryReserve(mockChunk(1, 300L, 0), 300));
+  }
+
+  @Test
+  public void testAlwaysAdmitsSingleChunkLargerThanBudget() {
+    ChunkMemoryBudget budget = new ChunkMemoryBudget(100);
+
+    assertTrue(budget.tryReserve(mockChunk(0, 500L, 0)));
+    assertFalse(budget.tryReserve(mockChunk(1, 1L, 0)));
+  }
+
+  @Test
+  public void testObservedSizeReplacesEstimate() {
+    ChunkMemoryBudget budget = new ChunkMemoryBudget(10_000);
+    ArrowResultChunk chunk = mockChunk(0, 100L, 300L);
+
+    assertTrue(budget.tryReserve(chunk));
+    assertEquals(100, budget.getBytesInUse());
+
+    budget.onChunkDownloaded(chunk);
+    assertEquals(300, budget.getBytesInUse());
+
+    // Later estimates are scaled by the observed decompression ratio
+    assertEquals(600, budget.estimateChunkBytes(mockChunk(1, 200L, 0)));
+  }
+
+  @Test
+  public void testEstimateWithoutServerByteCount() {
+    ChunkMemoryBudget budget = new ChunkMemoryBudget(10_000);
+
+    // Nothing observed yet, the chunk is only admitted on its own
+    assertEquals(10_000, budget.estimateChunkBytes(mockChunk(0, null, 0)));
+
+    ArrowResultChunk downloaded = mockChunk(0, null, 2_000L);
+    assertTrue(budget.tryReserve(downloaded));
+    budget.onChunkDownloaded(downloaded);
+
+    assertEquals(2_000, budget.estimateChunkBytes(mockChunk(1, null, 0)));
+    assertTrue(budget.tryReserve(mockChunk(1, null, 0)));
+    assertEquals(4_000, budget.getBytesInUse());
+  }
+
+  private ArrowResultChunk mockChunk(long chunkIndex, Long byteCount, long allocatedMemory) {
+    ArrowResultChunk chunk = mock(ArrowResultChunk.class);
+    when(chunk.getChunkIndex()).thenReturn(chunkIndex);
+    when(chunk.getByteCount()).thenReturn(byteCount);
+    when(chunk.getAllocatedMemory()).thenReturn(allocatedMemory);
+    return chunk;
+  }
+}
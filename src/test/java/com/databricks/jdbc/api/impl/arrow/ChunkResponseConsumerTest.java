@@ -0,0 +1,98 @@
+package com.databricks.jdbc.api.impl.arrow;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.databricks.jdbc.exception.DatabricksHttpException;
+import java.io.InputStream;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import org.apache.commons.io.IOUtils;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.message.BasicHttpResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class ChunkResponseConsumerTest {
+
+  @Mock FutureCallback<InputStream> callback;
+  @Mock EntityDetails entityDetails;
+
+  @Test
+  public void testCollectsBodyOfKnownLength() throws Exception {
+    when(entityDetails.getContentLength()).thenReturn(11L);
+    assertEquals("hello world", consume(200, "hello", " world"));
+  }
+
+  @Test
+  public void testCollectsBodyOfUnknownLength() throws Exception {
+    when(entityDetails.getContentLength()).thenReturn(-1L);
+    StringBuilder expected = new StringBuilder();
+    String[] parts = new String[100];
+    for (int i = 0; i < parts.length; i++) {
+      parts[i] = String.format("%01024d", i);
+      expected.append(parts[i]);
+    }
+    assertEquals(expected.toString(), consume(200, parts));
+  }
+
+  @Test
+  public void testFailsOnHttpError() throws Exception {
+    ChunkResponseConsumer consumer = new ChunkResponseConsumer();
+    consumer.consumeResponse(
+        new BasicHttpResponse(403, "Forbidden"), entityDetails, null, callback);
+    consumer.consume(ByteBuffer.wrap("denied".getBytes(StandardCharsets.UTF_8)));
+    consumer.streamEnd(null);
+
+    verify(callback).failed(any(DatabricksHttpException.class));
+    verify(callback, never()).completed(any());
+  }
+
+  @Test
+  public void testResumesFromBytesOfFailedAttempt() throws Exception {
+    when(entityDetails.getContentLength()).thenReturn(11L);
+    ChunkResponseConsumer failedAttempt = new ChunkResponseConsumer();
+    failedAttempt.consumeResponse(new BasicHttpResponse(200), entityDetails, null, callback);
+    failedAttempt.consume(ByteBuffer.wrap("hello".getBytes(StandardCharsets.UTF_8)));
+    failedAttempt.failed(new SocketException("Connection reset"));
+    failedAttempt.releaseResources();
+    assertEquals(5, failedAttempt.getPartialLength());
+
+    when(entityDetails.getContentLength()).thenReturn(6L);
+    BasicHttpResponse partialResponse = new BasicHttpResponse(206);
+    partialResponse.addHeader(HttpHeaders.CONTENT_RANGE, "bytes 5-10/11");
+    ChunkResponseConsumer consumer =
+        new ChunkResponseConsumer(failedAttempt.getPartialBody(), failedAttempt.getPartialLength());
+    consumer.consumeResponse(partialResponse, entityDetails, null, callback);
+    consumer.consume(ByteBuffer.wrap(" world".getBytes(StandardCharsets.UTF_8)));
+    consumer.streamEnd(null);
+
+    ArgumentCaptor<InputStream> body = ArgumentCaptor.forClass(InputStream.class);
+    verify(callback).completed(body.capture());
+    assertEquals("hello world", IOUtils.toString(body.getValue(), StandardCharsets.UTF_8));
+  }
+
+  private String consume(int statusCode, String... parts) throws Exception {
+    ChunkResponseConsumer consumer = new ChunkResponseConsumer();
+    consumer.consumeResponse(new BasicHttpResponse(statusCode), entityDetails, null, callback);
+    for (String part : parts) {
+      consumer.consume(ByteBuffer.wrap(part.getBytes(StandardCharsets.UTF_8)));
+    }
+    consumer.streamEnd(null);
+    consumer.releaseResources();
+
+    ArgumentCaptor<InputStream> body = ArgumentCaptor.forClass(InputStream.class);
+    verify(callback).completed(body.capture());
+    return IOUtils.toString(body.getValue(), StandardCharsets.UTF_8);
+  }
+}
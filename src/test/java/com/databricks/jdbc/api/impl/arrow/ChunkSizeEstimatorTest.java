@@ -0,0 +1,47 @@
+package com.databricks.jdbc.api.impl.arrow;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.databricks.jdbc.common.CompressionCodec;
+import org.junit.jupiter.api.Test;
+
+public class ChunkSizeEstimatorTest {
+
+  @Test
+  public void testCompressedChunksAreScaledUntilOneIsDecoded() {
+    ChunkSizeEstimator estimator = new ChunkSizeEstimator(CompressionCodec.LZ4_FRAME);
+
+    assertEquals(
+        100L * ChunkSizeEstimator.DEFAULT_LZ4_DECODED_SIZE_RATIO,
+        estimator.estimateChunkBytes(mockChunk(100L, 0)));
+
+    estimator.onChunkDecoded(mockChunk(100L, 250L));
+    assertEquals(500, estimator.estimateChunkBytes(mockChunk(200L, 0)));
+  }
+
+  @Test
+  public void testUncompressedChunksUseTheServerByteCount() {
+    ChunkSizeEstimator estimator = new ChunkSizeEstimator(CompressionCodec.NONE);
+
+    assertEquals(100, estimator.estimateChunkBytes(mockChunk(100L, 0)));
+  }
+
+  @Test
+  public void testEstimateWithoutServerByteCount() {
+    ChunkSizeEstimator estimator = new ChunkSizeEstimator(CompressionCodec.LZ4_FRAME);
+
+    assertEquals(-1, estimator.estimateChunkBytes(mockChunk(null, 0)));
+
+    estimator.onChunkDecoded(mockChunk(null, 2_000L));
+    assertEquals(2_000, estimator.estimateChunkBytes(mockChunk(null, 0)));
+  }
+
+  private ArrowResultChunk mockChunk(Long byteCount, long allocatedMemory) {
+    ArrowResultChunk chunk = mock(ArrowResultChunk.class);
+    when(chunk.getByteCount()).thenReturn(byteCount);
+    when(chunk.getAllocatedMemory()).thenReturn(allocatedMemory);
+    return chunk;
+  }
+}
@@ -0,0 +1,122 @@
+package com.databricks.jdbc.api.impl.arrow;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.databricks.jdbc.common.CompressionCodec;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import net.jpountz.lz4.LZ4FrameInputStream;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ChunkSpillStoreTest {
+
+  @TempDir Path tempDir;
+
+  private static ArrowResultChunk createChunk(long chunkIndex, Long byteCount) {
+    ArrowResultChunk chunk = mock(ArrowResultChunk.class);
+    when(chunk.getChunkIndex()).thenReturn(chunkIndex);
+    when(chunk.getByteCount()).thenReturn(byteCount);
+    return chunk;
+  }
+
+  private static byte[] createContent(int length) {
+    byte[] content = new byte[length];
+    for (int i = 0; i < length; i++) {
+      content[i] = (byte) (i % 7);
+    }
+    return content;
+  }
+
+  @Test
+  void testCompressesUncompressedChunksWithLz4() throws IOException {
+    ChunkSpillStore store = new ChunkSpillStore(tempDir.toString(), 1024, CompressionCodec.NONE);
+    byte[] content = createContent(10_000);
+
+    assertTrue(store.tryReserve(createChunk(0, 100L)));
+    store.write(0, new ByteArrayInputStream(content));
+
+    assertEquals(CompressionCodec.LZ4_FRAME, store.getSpillCodec());
+    assertEquals(1, store.getSpilledChunks());
+    assertTrue(store.getReservedBytes() < content.length);
+    try (InputStream spilled = new LZ4FrameInputStream(store.read(0))) {
+      assertArrayEquals(content, IOUtils.toByteArray(spilled));
+    }
+  }
+
+  @Test
+  void testKeepsCompressedChunksAsDownloaded() throws IOException {
+    ChunkSpillStore store =
+        new ChunkSpillStore(tempDir.toString(), 1024, CompressionCodec.LZ4_FRAME);
+    byte[] content = createContent(300);
+
+    assertTrue(store.tryReserve(createChunk(0, 100L)));
+    store.write(0, new ByteArrayInputStream(content));
+
+    assertEquals(CompressionCodec.LZ4_FRAME, store.getSpillCodec());
+    assertEquals(300, store.getReservedBytes());
+    assertArrayEquals(content, IOUtils.toByteArray(store.read(0)));
+  }
+
+  @Test
+  void testAdmitsChunksUpToLimit() throws IOException {
+    ChunkSpillStore store =
+        new ChunkSpillStore(tempDir.toString(), 1000, CompressionCodec.LZ4_FRAME);
+
+    // The first chunk is admitted even when larger than the limit
+    assertTrue(store.tryReserve(createChunk(0, 1500L)));
+    assertFalse(store.tryReserve(createChunk(1, 100L)));
+
+    store.write(0, new ByteArrayInputStream(createContent(600)));
+    assertEquals(600, store.getReservedBytes());
+    // Chunks of unknown size are estimated at the average size of the spilled chunks
+    assertFalse(store.tryReserve(createChunk(1, null)));
+    assertTrue(store.tryReserve(createChunk(1, 300L)));
+    assertEquals(900, store.getReservedBytes());
+
+    store.release(0);
+    assertEquals(300, store.getReservedBytes());
+    assertEquals(1500, store.getPeakReservedBytes());
+    assertTrue(store.tryReserve(createChunk(2, null)));
+  }
+
+  @Test
+  void testReleaseDeletesChunkFile() throws IOException {
+    ChunkSpillStore store =
+        new ChunkSpillStore(tempDir.toString(), 1024, CompressionCodec.LZ4_FRAME);
+    assertNull(store.getDirectoryIfCreated());
+
+    store.tryReserve(createChunk(0, 100L));
+    store.write(0, new ByteArrayInputStream(createContent(100)));
+    Path directory = store.getDirectoryIfCreated();
+    assertEquals(1, Files.list(directory).count());
+
+    store.release(0);
+
+    assertEquals(0, Files.list(directory).count());
+    assertEquals(0, store.getReservedBytes());
+    assertThrows(IOException.class, () -> store.read(0));
+  }
+
+  @Test
+  void testCloseDeletesDirectory() throws IOException {
+    ChunkSpillStore store =
+        new ChunkSpillStore(tempDir.toString(), 1024, CompressionCodec.LZ4_FRAME);
+    store.tryReserve(createChunk(0, 100L));
+    store.write(0, new ByteArrayInputStream(createContent(100)));
+    Path directory = store.getDirectoryIfCreated();
+
+    store.close();
+
+    assertFalse(Files.exists(directory));
+    assertFalse(store.tryReserve(createChunk(1, 100L)));
+    assertThrows(
+        IOException.class, () -> store.write(1, new ByteArrayInputStream(createContent(100))));
+  }
+}
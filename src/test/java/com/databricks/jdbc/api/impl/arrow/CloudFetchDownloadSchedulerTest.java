@@ -0,0 +1,370 @@
+package com.databricks.jdbc.api.impl.arrow;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+import com.databricks.jdbc.api.internal.IDatabricksConnectionContext;
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class CloudFetchDownloadSchedulerTest {
+
+  @Mock IDatabricksConnectionContext connectionContext;
+  @Mock IDatabricksConnectionContext otherConnectionContext;
+
+  @Test
+  public void testQueuesAreServedRoundRobin() throws Exception {
+    CloudFetchDownloadScheduler scheduler = new CloudFetchDownloadScheduler();
+    when(connectionContext.getCloudFetchMaxConcurrentDownloads()).thenReturn(1);
+    CloudFetchDownloadScheduler.DownloadQueue blockerQueue =
+        scheduler.newDownloadQueue(connectionContext, null);
+    CloudFetchDownloadScheduler.DownloadQueue queueA =
+        scheduler.newDownloadQueue(connectionContext, null);
+    CloudFetchDownloadScheduler.DownloadQueue queueB =
+        scheduler.newDownloadQueue(connectionContext, null);
+    assertEquals(1, scheduler.getMaxConcurrentDownloads());
+
+    CountDownLatch blocked = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    blockerQueue.submit(
+        () -> {
+          blocked.countDown();
+          release.await();
+          return null;
+        });
+    assertTrue(blocked.await(30, TimeUnit.SECONDS));
+
+    List<String> order = new CopyOnWriteArrayList<>();
+    CountDownLatch done = new CountDownLatch(4);
+    for (String name : Arrays.asList("A1", "A2", "A3")) {
+      queueA.submit(() -> record(order, name, done));
+    }
+    queueB.submit(() -> record(order, "B1", done));
+    assertEquals(4, scheduler.getQueuedDownloads());
+    assertEquals(3, queueA.getPendingCount());
+
+    release.countDown();
+    assertTrue(done.await(30, TimeUnit.SECONDS));
+    assertEquals(Arrays.asList("A1", "B1", "A2", "A3"), order);
+    assertEquals(0, scheduler.getQueuedDownloads());
+    assertEquals(4, scheduler.getPeakQueuedDownloads());
+  }
+
+  @Test
+  public void testCloseCancelsPendingDownloads() throws Exception {
+    CloudFetchDownloadScheduler scheduler = new CloudFetchDownloadScheduler();
+    when(connectionContext.getCloudFetchMaxConcurrentDownloads()).thenReturn(1);
+    CloudFetchDownloadScheduler.DownloadQueue queue =
+        scheduler.newDownloadQueue(connectionContext, null);
+
+    CountDownLatch blocked = new CountDownLatch(1);
+    CountDownLatch interrupted = new CountDownLatch(1);
+    queue.submit(
+        () -> {
+          blocked.countDown();
+          try {
+            new CountDownLatch(1).await();
+          } catch (InterruptedException e) {
+            interrupted.countDown();
+          }
+          return null;
+        });
+    assertTrue(blocked.await(30, TimeUnit.SECONDS));
+    List<String> order = new CopyOnWriteArrayList<>();
+    queue.submit(() -> record(order, "pending", new CountDownLatch(1)));
+
+    queue.close();
+    assertTrue(interrupted.await(30, TimeUnit.SECONDS));
+    assertEquals(0, scheduler.getQueuedDownloads());
+    queue.submit(() -> record(order, "after-close", new CountDownLatch(1)));
+    assertEquals(0, queue.getPendingCount());
+    assertTrue(order.isEmpty());
+  }
+
+  @Test
+  public void testDelayedDownloadIsQueuedOnceDue() throws Exception {
+    CloudFetchDownloadScheduler scheduler = new CloudFetchDownloadScheduler();
+    when(connectionContext.getCloudFetchMaxConcurrentDownloads()).thenReturn(1);
+    CloudFetchDownloadScheduler.DownloadQueue queue =
+        scheduler.newDownloadQueue(connectionContext, null);
+    CloudFetchDownloadScheduler.DownloadQueue closedQueue =
+        scheduler.newDownloadQueue(connectionContext, null);
+
+    CountDownLatch ran = new CountDownLatch(1);
+    AtomicInteger cancelledRuns = new AtomicInteger(0);
+    long start = System.nanoTime();
+    queue.submitAfter(
+        () -> {
+          ran.countDown();
+          return null;
+        },
+        0,
+        200);
+    closedQueue.submitAfter(
+        () -> {
+          cancelledRuns.incrementAndGet();
+          return null;
+        },
+        0,
+        200);
+    closedQueue.close();
+    // No download thread is held while the download waits
+    assertEquals(0, scheduler.getActiveDownloads());
+
+    assertTrue(ran.await(10, TimeUnit.SECONDS));
+    assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 200);
+    Thread.sleep(200);
+    assertEquals(0, cancelledRuns.get());
+    queue.close();
+  }
+
+  @Test
+  public void testPoolGrowsToLargestConfiguredConcurrency() {
+    CloudFetchDownloadScheduler scheduler = new CloudFetchDownloadScheduler();
+    when(connectionContext.getCloudFetchMaxConcurrentDownloads()).thenReturn(2, 8, 4);
+
+    scheduler.newDownloadQueue(connectionContext, null).close();
+    assertEquals(2, scheduler.getMaxConcurrentDownloads());
+    scheduler.newDownloadQueue(connectionContext, null).close();
+    assertEquals(8, scheduler.getMaxConcurrentDownloads());
+    scheduler.newDownloadQueue(connectionContext, null).close();
+    assertEquals(8, scheduler.getMaxConcurrentDownloads());
+  }
+
+  @Test
+  public void testPoolShrinksWhenConnectionIsClosed() {
+    CloudFetchDownloadScheduler scheduler = new CloudFetchDownloadScheduler();
+    when(connectionContext.getConnectionUuid()).thenReturn("small");
+    when(connectionContext.getCloudFetchMaxConcurrentDownloads()).thenReturn(2);
+    when(otherConnectionContext.getConnectionUuid()).thenReturn("large");
+    when(otherConnectionContext.getCloudFetchMaxConcurrentDownloads()).thenReturn(8);
+
+    scheduler.newDownloadQueue(connectionContext, null).close();
+    scheduler.newDownloadQueue(otherConnectionContext, null).close();
+    assertEquals(8, scheduler.getMaxConcurrentDownloads());
+
+    scheduler.removeConnection(otherConnectionContext);
+    assertEquals(2, scheduler.getMaxConcurrentDownloads());
+    // The last connection leaves the pool at its size
+    scheduler.removeConnection(connectionContext);
+    assertEquals(2, scheduler.getMaxConcurrentDownloads());
+  }
+
+  @Test
+  public void testLastConnectionFreesDownloadBuffers() throws Exception {
+    CloudFetchDownloadScheduler scheduler = new CloudFetchDownloadScheduler();
+    when(connectionContext.getConnectionUuid()).thenReturn("first");
+    when(otherConnectionContext.getConnectionUuid()).thenReturn("second");
+    scheduler.newDownloadQueue(connectionContext, null).close();
+    scheduler.newDownloadQueue(otherConnectionContext, null).close();
+    ChunkBufferPool.getInstance().read(new ByteArrayInputStream(new byte[] {1, 2, 3}), 3).release();
+
+    scheduler.removeConnection(connectionContext);
+    assertTrue(ChunkBufferPool.getInstance().getPooledBytes() > 0);
+    scheduler.removeConnection(otherConnectionContext);
+    assertEquals(0, ChunkBufferPool.getInstance().getPooledBytes());
+  }
+
+  @Test
+  public void testDroppedDecodeReleasesItsResources() throws Exception {
+    CloudFetchDownloadScheduler scheduler = new CloudFetchDownloadScheduler();
+    when(connectionContext.getCloudFetchMaxConcurrentDownloads()).thenReturn(1);
+    CloudFetchDownloadScheduler.DownloadQueue queue =
+        scheduler.newDownloadQueue(connectionContext, null);
+    CountDownLatch blocked = new CountDownLatch(1);
+    queue.submit(
+        () -> {
+          blocked.countDown();
+          new CountDownLatch(1).await();
+          return null;
+        });
+    assertTrue(blocked.await(10, TimeUnit.SECONDS));
+
+    AtomicInteger decodes = new AtomicInteger(0);
+    AtomicInteger drops = new AtomicInteger(0);
+    Callable<Void> decode =
+        () -> {
+          decodes.incrementAndGet();
+          return null;
+        };
+    // Waits behind the blocked download, and is cancelled when the queue is closed
+    queue.submitDecode(decode, 0, drops::incrementAndGet);
+    queue.close();
+    assertEquals(1, drops.get());
+
+    // A decode submitted after the queue is closed is dropped as well
+    queue.submitDecode(decode, 0, drops::incrementAndGet);
+    assertEquals(2, drops.get());
+    assertEquals(0, decodes.get());
+  }
+
+  @Test
+  public void testConnectionsUseThePoolOfTheirThreadType() {
+    CloudFetchDownloadScheduler scheduler = new CloudFetchDownloadScheduler();
+    when(connectionContext.getCloudFetchMaxConcurrentDownloads()).thenReturn(2);
+    when(otherConnectionContext.getCloudFetchMaxConcurrentDownloads()).thenReturn(8);
+    when(otherConnectionContext.getCloudFetchUseVirtualThreads()).thenReturn(true);
+
+    scheduler.newDownloadQueue(otherConnectionContext, null).close();
+    scheduler.newDownloadQueue(connectionContext, null).close();
+
+    // A later connection does not change the thread type of the earlier one
+    boolean hasVirtualThreads = Runtime.version().feature() >= 21;
+    assertEquals(hasVirtualThreads, scheduler.usesVirtualThreads());
+    assertEquals(hasVirtualThreads ? 10 : 8, scheduler.getMaxConcurrentDownloads());
+  }
+
+  @Test
+  public void testVirtualThreadsFallBackToPlatformThreads() throws Exception {
+    CloudFetchDownloadScheduler scheduler = new CloudFetchDownloadScheduler();
+    when(connectionContext.getCloudFetchMaxConcurrentDownloads()).thenReturn(1);
+    when(connectionContext.getCloudFetchUseVirtualThreads()).thenReturn(true);
+    CloudFetchDownloadScheduler.DownloadQueue queue =
+        scheduler.newDownloadQueue(connectionContext, null);
+
+    List<String> order = new CopyOnWriteArrayList<>();
+    CountDownLatch done = new CountDownLatch(1);
+    queue.submit(() -> record(order, "task", done));
+
+    assertTrue(done.await(30, TimeUnit.SECONDS));
+    assertEquals(Runtime.version().feature() >= 21, scheduler.usesVirtualThreads());
+  }
+
+  private static Void record(List<String> order, String name, CountDownLatch done) {
+    order.add(name);
+    done.countDown();
+    return null;
+  }
+
+  @Test
+  public void testDecodesRunOnDecodePool() throws Exception {
+    CloudFetchDownloadScheduler scheduler = new CloudFetchDownloadScheduler();
+    when(connectionContext.isCloudFetchParallelDecodeEnabled()).thenReturn(true);
+    CloudFetchDownloadScheduler.DownloadQueue queue =
+        scheduler.newDownloadQueue(connectionContext, null);
+    assertTrue(queue.isParallelDecodeEnabled());
+    assertEquals(Runtime.getRuntime().availableProcessors(), scheduler.getMaxConcurrentDecodes());
+
+    CountDownLatch done = new CountDownLatch(1);
+    List<String> threadNames = new CopyOnWriteArrayList<>();
+    queue.submitDecode(
+        () -> {
+          threadNames.add(Thread.currentThread().getName());
+          done.countDown();
+          return null;
+        },
+        0);
+
+    assertTrue(done.await(30, TimeUnit.SECONDS));
+    assertTrue(threadNames.get(0).startsWith("databricks-jdbc-chunks-decoder-"));
+    assertEquals(1, scheduler.getPeakQueuedDecodes());
+    assertEquals(0, scheduler.getPeakQueuedDownloads());
+    queue.close();
+  }
+
+  @Test
+  public void testDecodesRunOnDownloadPoolWithoutParallelDecode() throws Exception {
+    CloudFetchDownloadScheduler scheduler = new CloudFetchDownloadScheduler();
+    CloudFetchDownloadScheduler.DownloadQueue queue =
+        scheduler.newDownloadQueue(connectionContext, null);
+    assertFalse(queue.isParallelDecodeEnabled());
+
+    CountDownLatch done = new CountDownLatch(1);
+    List<String> threadNames = new CopyOnWriteArrayList<>();
+    queue.submitDecode(
+        () -> {
+          threadNames.add(Thread.currentThread().getName());
+          done.countDown();
+          return null;
+        },
+        0);
+
+    assertTrue(done.await(30, TimeUnit.SECONDS));
+    assertTrue(threadNames.get(0).startsWith("databricks-jdbc-chunks-downloader-"));
+    assertEquals(0, scheduler.getMaxConcurrentDecodes());
+    assertEquals(0, scheduler.getPeakQueuedDecodes());
+    queue.close();
+  }
+
+  @Test
+  public void testPrioritizedQueueIsServedFirst() throws Exception {
+    CloudFetchDownloadScheduler scheduler = new CloudFetchDownloadScheduler();
+    when(connectionContext.getCloudFetchMaxConcurrentDownloads()).thenReturn(1);
+    CloudFetchDownloadScheduler.DownloadQueue blockerQueue =
+        scheduler.newDownloadQueue(connectionContext, null);
+    CloudFetchDownloadScheduler.DownloadQueue queueA =
+        scheduler.newDownloadQueue(connectionContext, null);
+    CloudFetchDownloadScheduler.DownloadQueue queueB =
+        scheduler.newDownloadQueue(connectionContext, null);
+
+    CountDownLatch blocked = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    blockerQueue.submit(
+        () -> {
+          blocked.countDown();
+          release.await();
+          return null;
+        });
+    assertTrue(blocked.await(30, TimeUnit.SECONDS));
+
+    List<String> order = new CopyOnWriteArrayList<>();
+    CountDownLatch done = new CountDownLatch(4);
+    queueA.submit(() -> record(order, "A1", done), 1);
+    queueA.submit(() -> record(order, "A2", done), 2);
+    queueB.submit(() -> record(order, "B6", done), 6);
+    queueB.submit(() -> record(order, "B5", done), 5);
+    assertFalse(queueB.prioritize(4));
+    assertTrue(queueB.prioritize(5));
+
+    release.countDown();
+    assertTrue(done.await(30, TimeUnit.SECONDS));
+    assertEquals(Arrays.asList("B5", "A1", "B6", "A2"), order);
+  }
+
+  @Test
+  public void testAdaptiveConcurrencyLimitsRunningDownloadsOfQueue() throws Exception {
+    CloudFetchDownloadScheduler scheduler = new CloudFetchDownloadScheduler();
+    when(connectionContext.getCloudFetchMaxConcurrentDownloads()).thenReturn(4);
+    when(connectionContext.isCloudFetchAdaptiveConcurrencyEnabled()).thenReturn(true);
+    when(connectionContext.getCloudFetchThreadPoolSize()).thenReturn(16);
+    CloudFetchDownloadScheduler.DownloadQueue queue =
+        scheduler.newDownloadQueue(connectionContext, null);
+    assertEquals(AdaptiveConcurrencyController.INITIAL_CONCURRENCY, queue.getConcurrencyLimit());
+
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger peakRunning = new AtomicInteger();
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch done = new CountDownLatch(6);
+    for (int i = 0; i < 6; i++) {
+      queue.submit(
+          () -> {
+            peakRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            release.await();
+            running.decrementAndGet();
+            done.countDown();
+            return null;
+          });
+    }
+    // Let the workers stall on the limit of the queue
+    Thread.sleep(200);
+    assertEquals(2, running.get());
+    assertEquals(4, scheduler.getQueuedDownloads());
+
+    release.countDown();
+    assertTrue(done.await(30, TimeUnit.SECONDS));
+    assertEquals(2, peakRunning.get());
+    assertEquals(0, scheduler.getQueuedDownloads());
+    queue.close();
+  }
+}
@@ -0,0 +1,124 @@
+package com.databricks.jdbc.api.impl.arrow;
+
+import static com.databricks.jdbc.TestConstants.TEST_STATEMENT_ID;
+import static com.databricks.jdbc.TestConstants.TEST_STRING;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isA;
+import static org.mockito.Mockito.*;
+
+import com.databricks.jdbc.common.CompressionCodec;
+import com.databricks.jdbc.dbclient.IDatabricksHttpClient;
+import com.databricks.jdbc.exception.DatabricksParsingException;
+import com.databricks.jdbc.model.core.ExternalLink;
+import com.databricks.sdk.service.sql.BaseChunkInfo;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import org.apache.http.HttpEntity;
+import org.apache.http.StatusLine;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class HedgedChunkDownloadTaskTest {
+
+  private static final byte[] INVALID_ARROW_DATA = {1, 2, 3, 4, 5, 6, 7, 8};
+
+  @Mock IDatabricksHttpClient hedgeHttpClient;
+  @Mock IDatabricksHttpClient firstHttpClient;
+  @Mock ChunkDownloadCallback chunkDownloader;
+  @Mock Runnable downloadAgain;
+  private ArrowResultChunk chunk;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    chunk =
+        ArrowResultChunk.builder()
+            .withStatementId(TEST_STATEMENT_ID)
+            .withChunkInfo(
+                new BaseChunkInfo()
+                    .setChunkIndex(0L)
+                    .setByteCount(200L)
+                    .setRowOffset(0L)
+                    .setRowCount(10L))
+            .build();
+    chunk.setChunkLink(
+        new ExternalLink()
+            .setChunkIndex(0L)
+            .setExternalLink(TEST_STRING)
+            .setExpiration(Instant.now().plusSeconds(3600L).toString()));
+    chunk.setStatus(ArrowResultChunk.ChunkStatus.DOWNLOAD_IN_PROGRESS);
+    when(chunkDownloader.getCompressionCodec()).thenReturn(CompressionCodec.NONE);
+  }
+
+  @AfterEach
+  void tearDown() {
+    chunk.releaseChunk();
+  }
+
+  @Test
+  void testDownloadsAgainWhenHedgeFailsAfterFirstDownloadGaveUp() throws Exception {
+    // The first download receives its response while the hedge reads the body, and gives up
+    respondWith(firstHttpClient, null);
+    InputStream invalidBody = new ByteArrayInputStream(INVALID_ARROW_DATA);
+    respondWith(
+        hedgeHttpClient,
+        new InputStream() {
+          private boolean isFirstRead = true;
+
+          @Override
+          public int read() throws IOException {
+            if (isFirstRead) {
+              isFirstRead = false;
+              try {
+                assertFalse(chunk.downloadData(firstHttpClient, CompressionCodec.NONE));
+              } catch (DatabricksParsingException e) {
+                throw new IOException(e);
+              }
+            }
+            return invalidBody.read();
+          }
+        });
+
+    new HedgedChunkDownloadTask(chunk, hedgeHttpClient, chunkDownloader, downloadAgain).call();
+
+    verify(downloadAgain).run();
+    verify(chunkDownloader, never()).downloadProcessed(anyLong());
+    assertEquals(ArrowResultChunk.ChunkStatus.DOWNLOAD_IN_PROGRESS, chunk.getStatus());
+  }
+
+  @Test
+  void testWaitsForFirstDownloadWhenHedgeFails() throws Exception {
+    respondWith(hedgeHttpClient, new ByteArrayInputStream(INVALID_ARROW_DATA));
+
+    new HedgedChunkDownloadTask(chunk, hedgeHttpClient, chunkDownloader, downloadAgain).call();
+
+    verify(downloadAgain, never()).run();
+    verify(chunkDownloader, never()).downloadProcessed(anyLong());
+    assertFalse(chunk.takeAbandonedDownload());
+  }
+
+  /** Responds to the download with the given body, or with headers only if the body is null. */
+  private static void respondWith(IDatabricksHttpClient httpClient, InputStream content)
+      throws Exception {
+    CloseableHttpResponse response = mock(CloseableHttpResponse.class);
+    StatusLine statusLine = mock(StatusLine.class);
+    HttpEntity entity = mock(HttpEntity.class);
+    when(httpClient.execute(isA(HttpUriRequest.class), eq(true))).thenReturn(response);
+    when(response.getStatusLine()).thenReturn(statusLine);
+    when(statusLine.getStatusCode()).thenReturn(200);
+    if (content != null) {
+      when(response.getEntity()).thenReturn(entity);
+      when(entity.getContent()).thenReturn(content);
+    }
+  }
+}
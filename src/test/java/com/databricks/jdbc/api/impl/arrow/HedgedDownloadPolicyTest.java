@@ -0,0 +1,38 @@
+package com.databricks.jdbc.api.impl.arrow;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+public class HedgedDownloadPolicyTest {
+
+  @Test
+  void testDoesNotHedgeUntilEnoughDownloadsCompleted() {
+    HedgedDownloadPolicy policy = new HedgedDownloadPolicy(0);
+    for (int i = 1; i < HedgedDownloadPolicy.MIN_SAMPLES; i++) {
+      policy.recordDownloadLatency(100);
+      assertEquals(-1, policy.getHedgeDelayMillis());
+    }
+    policy.recordDownloadLatency(100);
+    assertEquals(100, policy.getHedgeDelayMillis());
+  }
+
+  @Test
+  void testHedgesAfterPercentileOfRecentLatencies() {
+    HedgedDownloadPolicy policy = new HedgedDownloadPolicy(0);
+    for (int i = 1; i <= 100; i++) {
+      policy.recordDownloadLatency(i);
+    }
+    // Only the last downloads are kept, latencies 37 to 100
+    assertEquals(97, policy.getHedgeDelayMillis());
+  }
+
+  @Test
+  void testHedgeDelayHasMinimum() {
+    HedgedDownloadPolicy policy = new HedgedDownloadPolicy(500);
+    for (int i = 0; i < HedgedDownloadPolicy.MIN_SAMPLES; i++) {
+      policy.recordDownloadLatency(10);
+    }
+    assertEquals(500, policy.getHedgeDelayMillis());
+  }
+}
@@ -1,17 +1,40 @@
 package com.databricks.jdbc.api.impl.arrow;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import com.databricks.jdbc.api.impl.DatabricksConnectionContextFactory;
+import com.databricks.jdbc.api.impl.DatabricksSession;
 import com.databricks.jdbc.api.internal.IDatabricksConnectionContext;
 import com.databricks.jdbc.api.internal.IDatabricksSession;
+import com.databricks.jdbc.api.internal.IDatabricksStatementInternal;
+import com.databricks.jdbc.common.CompressionCodec;
 import com.databricks.jdbc.common.DatabricksClientType;
+import com.databricks.jdbc.dbclient.IDatabricksHttpClient;
 import com.databricks.jdbc.dbclient.impl.common.StatementId;
+import com.databricks.jdbc.dbclient.impl.sqlexec.DatabricksSdkClient;
+import com.databricks.jdbc.exception.DatabricksHttpException;
+import com.databricks.jdbc.exception.DatabricksSQLException;
+import com.databricks.jdbc.model.core.ExternalLink;
 import com.databricks.jdbc.model.core.ResultData;
 import com.databricks.jdbc.model.core.ResultManifest;
+import com.databricks.jdbc.model.telemetry.enums.DatabricksDriverErrorCode;
+import com.databricks.sdk.service.sql.BaseChunkInfo;
 import com.databricks.sdk.service.sql.ResultSchema;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
@@ -21,7 +44,20 @@ import org.mockito.junit.jupiter.MockitoExtension;
 public class RemoteChunkProviderTest {
 
   private static final StatementId STATEMENT_ID = new StatementId("statement_id");
+  private static final String JDBC_URL =
+      "jdbc:databricks://sample-host.18.azuredatabricks.net:4423/default;transportMode=http;ssl=1;AuthMech=3;httpPath=/sql/1.0/warehouses/99999999;";
   @Mock private IDatabricksSession mockSession;
+  @Mock private DatabricksSdkClient mockedSdkClient;
+  @Mock private IDatabricksHttpClient mockHttpClient;
+  @Mock private IDatabricksStatementInternal parentStatement;
+  @Mock private Statement statement;
+  // Holds the download of the chunk until the test ends
+  private final CountDownLatch downloadLatch = new CountDownLatch(1);
+
+  @AfterEach
+  void tearDown() {
+    downloadLatch.countDown();
+  }
 
   @Test
   public void testInitEmptyChunkDownloader() {
@@ -36,6 +72,194 @@ public class RemoteChunkProviderTest {
     assertDoesNotThrow(
         () ->
             new RemoteChunkProvider(
-                STATEMENT_ID, resultManifest, resultData, mockSession, null, 4));
+                STATEMENT_ID, resultManifest, resultData, mockSession, null, null, 4));
+  }
+
+  @Test
+  public void testGetChunkTimesOutAfterQueryTimeout() throws Exception {
+    when(parentStatement.getStatement()).thenReturn(statement);
+    when(statement.getQueryTimeout()).thenReturn(1);
+    long start = System.nanoTime();
+    RemoteChunkProvider chunkProvider = createStalledChunkProvider(parentStatement);
+
+    assertTrue(chunkProvider.next());
+    DatabricksSQLException exception =
+        assertThrows(DatabricksSQLException.class, chunkProvider::getChunk);
+    assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 1000);
+    assertInstanceOf(SQLTimeoutException.class, exception.getCause());
+    chunkProvider.close();
+  }
+
+  @Test
+  public void testQueryTimeoutCountsFromResultSetCreation() throws Exception {
+    when(parentStatement.getStatement()).thenReturn(statement);
+    when(statement.getQueryTimeout()).thenReturn(1);
+    RemoteChunkProvider chunkProvider = createStalledChunkProvider(parentStatement);
+    Thread.sleep(1100);
+
+    // The timeout has already elapsed, so the wait does not restart it
+    assertTrue(chunkProvider.next());
+    long start = System.nanoTime();
+    DatabricksSQLException exception =
+        assertThrows(DatabricksSQLException.class, chunkProvider::getChunk);
+    assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+    assertInstanceOf(SQLTimeoutException.class, exception.getCause());
+    chunkProvider.close();
+  }
+
+  @Test
+  public void testGetChunkFailsWhenInterrupted() throws Exception {
+    RemoteChunkProvider chunkProvider = createStalledChunkProvider(null);
+
+    assertTrue(chunkProvider.next());
+    Thread.currentThread().interrupt();
+    DatabricksSQLException exception =
+        assertThrows(DatabricksSQLException.class, chunkProvider::getChunk);
+    // The interrupt status is preserved for the caller
+    assertTrue(Thread.interrupted());
+    assertEquals(
+        DatabricksDriverErrorCode.THREAD_INTERRUPTED_ERROR.name(), exception.getSQLState());
+    chunkProvider.close();
+  }
+
+  @Test
+  public void testGetChunkFailsWhenClosedWhileWaiting() throws Exception {
+    RemoteChunkProvider chunkProvider = createStalledChunkProvider(null);
+    assertTrue(chunkProvider.next());
+
+    Thread closer =
+        new Thread(
+            () -> {
+              try {
+                Thread.sleep(200);
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+              chunkProvider.close();
+            });
+    closer.start();
+    assertThrows(DatabricksSQLException.class, chunkProvider::getChunk);
+    closer.join();
+  }
+
+  @Test
+  public void testPrefetchWindowFollowsFetchSize() throws Exception {
+    // Without a memory budget, the fetch size raises the window above the thread pool size
+    Properties noBudget = new Properties();
+    assertEquals(4, getAllowedChunksInMemory(noBudget, 10));
+    when(parentStatement.getFetchSize()).thenReturn(1);
+    assertEquals(4, getAllowedChunksInMemory(noBudget, 10));
+    when(parentStatement.getFetchSize()).thenReturn(1000);
+    assertEquals(10, getAllowedChunksInMemory(noBudget, 10));
+    assertEquals(2, getAllowedChunksInMemory(noBudget, 2));
+
+    // The same holds with a memory budget, which alone limits the window without a fetch size
+    Properties budget = new Properties();
+    budget.setProperty("CloudFetchMemoryBudgetMB", "100");
+    when(parentStatement.getFetchSize()).thenReturn(0);
+    assertEquals(Long.MAX_VALUE, getAllowedChunksInMemory(budget, 10));
+    // Chunks of 10 rows: 25 rows are covered by 3 chunks, less than the thread pool size
+    when(parentStatement.getFetchSize()).thenReturn(25);
+    assertEquals(4, getAllowedChunksInMemory(budget, 10));
+    when(parentStatement.getFetchSize()).thenReturn(55);
+    assertEquals(6, getAllowedChunksInMemory(budget, 10));
+    when(parentStatement.getFetchSize()).thenReturn(1000);
+    assertEquals(10, getAllowedChunksInMemory(budget, 10));
+  }
+
+  @Test
+  public void testAdmitsChunksWithinArrowMemoryLimit() throws Exception {
+    Properties properties = new Properties();
+    properties.setProperty("ArrowMemoryLimitMB", "8192");
+    long chunkBytes = 3L * 1024 * 1024 * 1024;
+    RemoteChunkProvider chunkProvider =
+        createStalledChunkProvider(parentStatement, 10, properties, chunkBytes);
+
+    // The first chunk is always admitted, and the second fits in the 5GB left
+    assertEquals(2, chunkProvider.getChunksInMemory());
+    chunkProvider.close();
+  }
+
+  @Test
+  public void testBufferedDownloadsCountAgainstMemoryBudget() throws Exception {
+    Properties properties = new Properties();
+    properties.setProperty("CloudFetchMemoryBudgetMB", "1");
+    RemoteChunkProvider chunkProvider =
+        createStalledChunkProvider(parentStatement, 10, properties, 300_000L);
+    assertEquals(3, chunkProvider.getChunksInMemory());
+    chunkProvider.close();
+
+    // With parallel decoding, the compressed body of each chunk is held until it is decoded
+    properties.setProperty("CloudFetchParallelDecode", "1");
+    chunkProvider = createStalledChunkProvider(parentStatement, 10, properties, 300_000L);
+    assertEquals(1, chunkProvider.getChunksInMemory());
+    chunkProvider.close();
+  }
+
+  private long getAllowedChunksInMemory(Properties properties, int chunkCount) throws Exception {
+    RemoteChunkProvider chunkProvider =
+        createStalledChunkProvider(parentStatement, chunkCount, properties);
+    try {
+      return chunkProvider.getAllowedChunksInMemory();
+    } finally {
+      chunkProvider.close();
+    }
+  }
+
+  private RemoteChunkProvider createStalledChunkProvider(
+      IDatabricksStatementInternal parentStatement) throws Exception {
+    return createStalledChunkProvider(parentStatement, 1, new Properties());
+  }
+
+  private RemoteChunkProvider createStalledChunkProvider(
+      IDatabricksStatementInternal parentStatement, int chunkCount, Properties properties)
+      throws Exception {
+    return createStalledChunkProvider(parentStatement, chunkCount, properties, 1000L);
+  }
+
+  /** Creates a provider of chunks of 10 rows whose downloads do not complete during the test. */
+  private RemoteChunkProvider createStalledChunkProvider(
+      IDatabricksStatementInternal parentStatement,
+      int chunkCount,
+      Properties properties,
+      long chunkBytes)
+      throws Exception {
+    IDatabricksConnectionContext connectionContext =
+        DatabricksConnectionContextFactory.create(JDBC_URL, properties);
+    DatabricksSession session = new DatabricksSession(connectionContext, mockedSdkClient);
+    // Lenient since the test may end before the download thread reaches the client
+    lenient()
+        .when(mockHttpClient.execute(any(HttpUriRequest.class), anyBoolean()))
+        .thenAnswer(
+            invocation -> {
+              downloadLatch.await();
+              throw new DatabricksHttpException(
+                  "Download aborted", DatabricksDriverErrorCode.CHUNK_DOWNLOAD_ERROR);
+            });
+    List<BaseChunkInfo> chunks = new ArrayList<>();
+    List<ExternalLink> links = new ArrayList<>();
+    for (long chunkIndex = 0; chunkIndex < chunkCount; chunkIndex++) {
+      chunks.add(
+          new BaseChunkInfo()
+              .setChunkIndex(chunkIndex)
+              .setByteCount(chunkBytes)
+              .setRowOffset(chunkIndex * 10)
+              .setRowCount(10L));
+      links.add(
+          new ExternalLink()
+              .setChunkIndex(chunkIndex)
+              .setExternalLink("chunk.databricks.com/" + chunkIndex)
+              .setExpiration(Instant.now().plusSeconds(3600L).toString()));
+    }
+    ResultManifest resultManifest =
+        new ResultManifest()
+            .setTotalChunkCount((long) chunkCount)
+            .setTotalRowCount(chunkCount * 10L)
+            .setResultCompression(CompressionCodec.NONE)
+            .setChunks(chunks)
+            .setSchema(new ResultSchema().setColumns(new ArrayList<>()));
+    ResultData resultData = new ResultData().setExternalLinks(links);
+    return new RemoteChunkProvider(
+        STATEMENT_ID, resultManifest, resultData, session, parentStatement, mockHttpClient, 4);
   }
 }
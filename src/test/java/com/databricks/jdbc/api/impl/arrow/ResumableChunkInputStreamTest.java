@@ -0,0 +1,146 @@
+package com.databricks.jdbc.api.impl.arrow;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.databricks.jdbc.dbclient.IDatabricksHttpClient;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.apache.commons.io.IOUtils;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.StatusLine;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.message.BasicHeader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class ResumableChunkInputStreamTest {
+  private static final byte[] CONTENT = "0123456789".getBytes(StandardCharsets.UTF_8);
+
+  @Mock IDatabricksHttpClient httpClient;
+
+  @Test
+  void testResumesFailedTransferWithRangeRequest() throws Exception {
+    CloseableHttpResponse resumed =
+        mockResponse(206, new ByteArrayInputStream(CONTENT, 4, 6), 6, "bytes 4-9/10");
+    when(httpClient.execute(any(HttpUriRequest.class), eq(true))).thenReturn(resumed);
+
+    try (ResumableChunkInputStream stream = newStream(failingAfter(4), CONTENT.length)) {
+      assertArrayEquals(CONTENT, IOUtils.toByteArray(stream));
+      assertEquals(1, stream.getResumeCount());
+    }
+    ArgumentCaptor<HttpUriRequest> request = ArgumentCaptor.forClass(HttpUriRequest.class);
+    verify(httpClient).execute(request.capture(), eq(true));
+    assertEquals("bytes=4-", request.getValue().getFirstHeader(HttpHeaders.RANGE).getValue());
+    verify(resumed).close();
+  }
+
+  @Test
+  void testResumesTruncatedBody() throws Exception {
+    CloseableHttpResponse resumed =
+        mockResponse(206, new ByteArrayInputStream(CONTENT, 6, 4), 4, "bytes 6-9/10");
+    when(httpClient.execute(any(HttpUriRequest.class), eq(true))).thenReturn(resumed);
+
+    try (ResumableChunkInputStream stream =
+        newStream(new ByteArrayInputStream(CONTENT, 0, 6), CONTENT.length)) {
+      assertArrayEquals(CONTENT, IOUtils.toByteArray(stream));
+    }
+  }
+
+  @Test
+  void testSkipsReceivedBytesWhenRangeIsIgnored() throws Exception {
+    CloseableHttpResponse whole =
+        mockResponse(200, new ByteArrayInputStream(CONTENT), CONTENT.length, null);
+    when(httpClient.execute(any(HttpUriRequest.class), eq(true))).thenReturn(whole);
+
+    try (ResumableChunkInputStream stream = newStream(failingAfter(4), CONTENT.length)) {
+      assertArrayEquals(CONTENT, IOUtils.toByteArray(stream));
+    }
+  }
+
+  @Test
+  void testThrowsFailureWhenTransferCannotBeResumed() throws Exception {
+    CloseableHttpResponse rejected =
+        mockResponse(403, new ByteArrayInputStream(new byte[0]), 0, null);
+    when(httpClient.execute(any(HttpUriRequest.class), eq(true))).thenReturn(rejected);
+
+    try (ResumableChunkInputStream stream = newStream(failingAfter(4), CONTENT.length)) {
+      IOException failure = assertThrows(IOException.class, () -> IOUtils.toByteArray(stream));
+      assertEquals("Connection reset", failure.getMessage());
+    }
+  }
+
+  @Test
+  void testDoesNotResumeBeforeFirstByte() throws Exception {
+    try (ResumableChunkInputStream stream = newStream(failingAfter(0), CONTENT.length)) {
+      assertThrows(SocketException.class, () -> IOUtils.toByteArray(stream));
+    }
+    verify(httpClient, never()).execute(any(HttpUriRequest.class), anyBoolean());
+  }
+
+  @Test
+  void testParsesContentRange() {
+    assertEquals(4, ResumableChunkInputStream.getContentRangeStart("bytes 4-9/10"));
+    assertEquals(4, ResumableChunkInputStream.getContentRangeStart("bytes 4-9/*"));
+    assertEquals(-1, ResumableChunkInputStream.getContentRangeStart("bytes */10"));
+    assertEquals(-1, ResumableChunkInputStream.getContentRangeStart(null));
+  }
+
+  private ResumableChunkInputStream newStream(InputStream body, long contentLength)
+      throws IOException {
+    return new ResumableChunkInputStream(
+        httpClient,
+        () -> new HttpGet("https://storage/chunk"),
+        mockResponse(200, body, contentLength, null));
+  }
+
+  private static CloseableHttpResponse mockResponse(
+      int statusCode, InputStream body, long contentLength, String contentRange)
+      throws IOException {
+    CloseableHttpResponse response = mock(CloseableHttpResponse.class);
+    StatusLine statusLine = mock(StatusLine.class);
+    HttpEntity entity = mock(HttpEntity.class);
+    when(response.getStatusLine()).thenReturn(statusLine);
+    when(statusLine.getStatusCode()).thenReturn(statusCode);
+    when(response.getEntity()).thenReturn(entity);
+    when(entity.getContent()).thenReturn(body);
+    when(entity.getContentLength()).thenReturn(contentLength);
+    if (contentRange != null) {
+      when(response.getFirstHeader(HttpHeaders.CONTENT_RANGE))
+          .thenReturn(new BasicHeader(HttpHeaders.CONTENT_RANGE, contentRange));
+    }
+    return response;
+  }
+
+  /** Returns a body that fails with a connection reset after the given number of bytes. */
+  private static InputStream failingAfter(int length) {
+    return new InputStream() {
+      private final InputStream content = new ByteArrayInputStream(Arrays.copyOf(CONTENT, length));
+
+      @Override
+      public int read() throws IOException {
+        int value = content.read();
+        if (value < 0) {
+          throw new SocketException("Connection reset");
+        }
+        return value;
+      }
+    };
+  }
+}
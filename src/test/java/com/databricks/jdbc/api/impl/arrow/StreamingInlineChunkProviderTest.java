@@ -0,0 +1,166 @@
+package com.databricks.jdbc.api.impl.arrow;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.databricks.jdbc.api.internal.IDatabricksConnectionContext;
+import com.databricks.jdbc.api.internal.IDatabricksSession;
+import com.databricks.jdbc.api.internal.IDatabricksStatementInternal;
+import com.databricks.jdbc.dbclient.IDatabricksClient;
+import com.databricks.jdbc.dbclient.impl.common.StatementId;
+import com.databricks.jdbc.exception.DatabricksSQLException;
+import com.databricks.jdbc.model.client.thrift.generated.TFetchResultsResp;
+import com.databricks.jdbc.model.client.thrift.generated.TGetResultSetMetadataResp;
+import com.databricks.jdbc.model.client.thrift.generated.TRowSet;
+import com.databricks.jdbc.model.client.thrift.generated.TSparkArrowBatch;
+import com.databricks.jdbc.model.telemetry.enums.DatabricksDriverErrorCode;
+import com.databricks.sdk.service.sql.ColumnInfo;
+import com.databricks.sdk.service.sql.ColumnInfoTypeName;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class StreamingInlineChunkProviderTest {
+
+  private static final StatementId STATEMENT_ID = new StatementId("statement_id");
+  @Mock IDatabricksStatementInternal parentStatement;
+  @Mock IDatabricksSession session;
+  @Mock IDatabricksConnectionContext connectionContext;
+  @Mock IDatabricksClient databricksClient;
+  private byte[] serializedSchema;
+  private List<byte[]> recordBatches;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    when(parentStatement.getStatementId()).thenReturn(STATEMENT_ID);
+    when(session.getConnectionContext()).thenReturn(connectionContext);
+    // Two record batches with the values [1, 2] and [3, 4]
+    recordBatches = new ArrayList<>();
+    try (BufferAllocator allocator = new RootAllocator();
+        IntVector intVector = new IntVector("numbers", allocator)) {
+      VectorSchemaRoot vectorSchemaRoot = VectorSchemaRoot.of(intVector);
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      ArrowStreamWriter writer = new ArrowStreamWriter(vectorSchemaRoot, null, out);
+      writer.start();
+      serializedSchema = out.toByteArray();
+      for (int batch = 0; batch < 2; batch++) {
+        out.reset();
+        intVector.allocateNew(2);
+        intVector.set(0, batch * 2 + 1);
+        intVector.set(1, batch * 2 + 2);
+        intVector.setValueCount(2);
+        vectorSchemaRoot.setRowCount(2);
+        writer.writeBatch();
+        recordBatches.add(out.toByteArray());
+      }
+    }
+  }
+
+  @Test
+  void testStreamsOneChunkPerResponse() throws Exception {
+    when(parentStatement.getFetchSize()).thenReturn(100);
+    when(session.getDatabricksClient()).thenReturn(databricksClient);
+    when(databricksClient.getMoreResults(parentStatement, 100))
+        .thenReturn(createResponse(Collections.emptyList(), true))
+        .thenReturn(createResponse(Collections.singletonList(recordBatches.get(1)), false));
+
+    StreamingInlineChunkProvider provider =
+        new StreamingInlineChunkProvider(
+            createResponse(Collections.singletonList(recordBatches.get(0)), true),
+            parentStatement,
+            session);
+
+    // The first chunk is available before the remaining responses are fetched
+    assertNotNull(provider.getChunk().getArrowMetadata());
+    assertTrue(provider.hasNextChunk());
+    assertTrue(provider.next());
+    assertChunkValues(provider.getChunk(), 1, 2);
+
+    // The response without rows is skipped
+    assertTrue(provider.hasNextChunk());
+    assertTrue(provider.next());
+    assertChunkValues(provider.getChunk(), 3, 4);
+
+    assertFalse(provider.hasNextChunk());
+    assertFalse(provider.next());
+    assertEquals(4, provider.getRowCount());
+    verify(databricksClient, times(2)).getMoreResults(parentStatement, 100);
+    provider.close();
+  }
+
+  @Test
+  void testFetchFailureIsReportedByGetChunk() throws Exception {
+    when(session.getDatabricksClient()).thenReturn(databricksClient);
+    when(databricksClient.getMoreResults(parentStatement, 0))
+        .thenThrow(
+            new DatabricksSQLException(
+                "Fetch failed", DatabricksDriverErrorCode.INLINE_CHUNK_PARSING_ERROR));
+
+    StreamingInlineChunkProvider provider =
+        new StreamingInlineChunkProvider(
+            createResponse(Collections.singletonList(recordBatches.get(0)), true),
+            parentStatement,
+            session);
+    assertTrue(provider.next());
+    assertChunkValues(provider.getChunk(), 1, 2);
+
+    assertTrue(provider.next());
+    DatabricksSQLException exception =
+        assertThrows(DatabricksSQLException.class, provider::getChunk);
+    assertEquals("Fetch failed", exception.getMessage());
+    assertFalse(provider.hasNextChunk());
+    provider.close();
+  }
+
+  @Test
+  void testSingleResponse() throws Exception {
+    StreamingInlineChunkProvider provider =
+        new StreamingInlineChunkProvider(
+            createResponse(Collections.singletonList(recordBatches.get(0)), false),
+            parentStatement,
+            session);
+    assertTrue(provider.next());
+    assertChunkValues(provider.getChunk(), 1, 2);
+    assertFalse(provider.hasNextChunk());
+    provider.close();
+    assertFalse(provider.next());
+  }
+
+  private TFetchResultsResp createResponse(List<byte[]> batches, boolean hasMoreRows) {
+    List<TSparkArrowBatch> arrowBatches = new ArrayList<>();
+    for (byte[] batch : batches) {
+      arrowBatches.add(new TSparkArrowBatch().setRowCount(2).setBatch(batch));
+    }
+    return new TFetchResultsResp()
+        .setResultSetMetadata(new TGetResultSetMetadataResp().setArrowSchema(serializedSchema))
+        .setResults(new TRowSet().setArrowBatches(arrowBatches))
+        .setHasMoreRows(hasMoreRows);
+  }
+
+  private static void assertChunkValues(ArrowResultChunk chunk, int... values)
+      throws DatabricksSQLException {
+    ArrowResultChunk.ArrowResultChunkIterator iterator = chunk.getChunkIterator();
+    for (int value : values) {
+      assertTrue(iterator.nextRow());
+      assertEquals(
+          value,
+          iterator.getColumnObjectAtCurrentRow(0, ColumnInfoTypeName.INT, "INT", new ColumnInfo()));
+    }
+    assertFalse(iterator.hasNextRow());
+  }
+}
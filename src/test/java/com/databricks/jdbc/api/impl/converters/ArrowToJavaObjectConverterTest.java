@@ -245,6 +245,39 @@ public class ArrowToJavaObjectConverterTest {
     assertEquals(getTimestampAdjustedToTimeZone(timestamp, "UTC"), convertedObject);
   }
 
+  @Test
+  public void testGetValueConverter() throws SQLException {
+    long timestamp = 1704054600000000L;
+    TimeStampMicroVector timestampMicroVector =
+        new TimeStampMicroVector("timestampMicroVector", this.bufferAllocator);
+    timestampMicroVector.allocateNew(2);
+    timestampMicroVector.set(0, timestamp);
+    timestampMicroVector.setNull(1);
+    timestampMicroVector.setValueCount(2);
+
+    // The Arrow metadata is resolved when the converter is created
+    ArrowToJavaObjectConverter.ValueConverter converter =
+        ArrowToJavaObjectConverter.getValueConverter(
+            ColumnInfoTypeName.STRING, "TIMESTAMP_NTZ", new ColumnInfo());
+    assertEquals(
+        getTimestampAdjustedToTimeZone(timestamp, "UTC"),
+        convert(timestampMicroVector, 0, converter));
+    assertNull(convert(timestampMicroVector, 1, converter));
+
+    // Invalid interval metadata only fails when a value is converted
+    ArrowToJavaObjectConverter.ValueConverter intervalConverter =
+        ArrowToJavaObjectConverter.getValueConverter(
+            ColumnInfoTypeName.INTERVAL, "INVALID", new ColumnInfo());
+    IntervalYearVector intervalYearVector = new IntervalYearVector("iv", bufferAllocator);
+    intervalYearVector.allocateNewSafe();
+    intervalYearVector.setSafe(0, 1200);
+    intervalYearVector.setNull(1);
+    intervalYearVector.setValueCount(2);
+    assertNull(convert(intervalYearVector, 1, intervalConverter));
+    assertThrows(
+        IllegalArgumentException.class, () -> convert(intervalYearVector, 0, intervalConverter));
+  }
+
   @Test
   public void testIntConversion() throws SQLException {
     IntVector intVector = new IntVector("intVector", this.bufferAllocator);
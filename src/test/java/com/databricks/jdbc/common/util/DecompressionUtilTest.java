@@ -39,6 +39,37 @@ public class DecompressionUtilTest {
         IOUtils.contentEquals(resultStream, new ByteArrayInputStream(INITIAL_STRING.getBytes())));
   }
 
+  @Test
+  public void testDecompressLZ4FrameStreamIsLazy() throws Exception {
+    byte[] uncompressedData = new byte[1024 * 1024];
+    for (int i = 0; i < uncompressedData.length; i++) {
+      uncompressedData[i] = (byte) (i % 31);
+    }
+    ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+    try (LZ4FrameOutputStream lz4FrameOutputStream =
+        new LZ4FrameOutputStream(byteArrayOutputStream)) {
+      lz4FrameOutputStream.write(uncompressedData);
+    }
+    ByteArrayInputStream compressedStream =
+        new ByteArrayInputStream(byteArrayOutputStream.toByteArray());
+
+    InputStream resultStream =
+        DecompressionUtil.decompress(compressedStream, CompressionCodec.LZ4_FRAME, CONTEXT);
+
+    // Nothing is decompressed before the caller starts reading
+    assertTrue(compressedStream.available() > 0);
+    assertArrayEquals(uncompressedData, IOUtils.toByteArray(resultStream));
+    assertEquals(0, compressedStream.available());
+  }
+
+  @Test
+  public void testDecompressInvalidLZ4FrameStreamFailsOnRead() throws Exception {
+    InputStream resultStream =
+        DecompressionUtil.decompress(
+            new ByteArrayInputStream("not lz4".getBytes()), CompressionCodec.LZ4_FRAME, CONTEXT);
+    assertThrows(IOException.class, () -> IOUtils.toByteArray(resultStream));
+  }
+
   @Test
   public void testDecompressLZ4FrameSkipsCompression() throws Exception {
     assertEquals(
@@ -0,0 +1,56 @@
+package com.databricks.jdbc.dbclient.impl.common;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.databricks.jdbc.model.telemetry.latency.OperationType;
+import org.junit.jupiter.api.Test;
+
+class StatusPollingBackoffTest {
+
+  @Test
+  void testWaitsDoubleUpToMaximum() {
+    StatusPollingBackoff backoff = new StatusPollingBackoff(200);
+
+    assertEquals(10, backoff.nextWaitMillis());
+    assertEquals(20, backoff.nextWaitMillis());
+    assertEquals(40, backoff.nextWaitMillis());
+    assertEquals(80, backoff.nextWaitMillis());
+    assertEquals(160, backoff.nextWaitMillis());
+    assertEquals(200, backoff.nextWaitMillis());
+    assertEquals(200, backoff.nextWaitMillis());
+  }
+
+  @Test
+  void testMaximumBelowInitialWait() {
+    assertEquals(5, new StatusPollingBackoff(5).nextWaitMillis());
+    StatusPollingBackoff noWait = new StatusPollingBackoff(0);
+    assertEquals(0, noWait.nextWaitMillis());
+    assertEquals(0, noWait.nextWaitMillis());
+  }
+
+  @Test
+  void testFirstPollDoesNotWait() throws InterruptedException {
+    StatusPollingBackoff backoff = new StatusPollingBackoff(60_000);
+
+    long startTime = System.currentTimeMillis();
+    backoff.waitBeforePoll();
+    assertTrue(System.currentTimeMillis() - startTime < 5_000);
+    backoff.waitBeforePoll();
+
+    assertEquals(2, backoff.getPollCount());
+    assertEquals(20, backoff.nextWaitMillis());
+  }
+
+  @Test
+  void testOperationDetail() throws InterruptedException {
+    StatusPollingBackoff backoff = new StatusPollingBackoff(200);
+    backoff.waitBeforePoll();
+    backoff.waitBeforePoll();
+    backoff.waitBeforePoll();
+
+    String operationDetail = backoff.toOperationDetail(OperationType.EXECUTE_STATEMENT).toString();
+    assertTrue(operationDetail.contains("nOperationStatusCalls=3"));
+    assertTrue(operationDetail.contains("operationName=EXECUTE_STATEMENT"));
+    assertTrue(backoff.getElapsedMillis() >= 30);
+  }
+}
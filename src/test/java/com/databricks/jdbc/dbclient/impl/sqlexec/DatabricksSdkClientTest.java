@@ -395,11 +395,8 @@ public class DatabricksSdkClientTest {
     GetStatementResponse runningStatementResponse =
         new GetStatementResponse()
             .setStatus(new StatementStatus().setState(StatementState.RUNNING));
-    GetStatementResponse successStatementResponse =
-        new GetStatementResponse()
-            .setStatus(new StatementStatus().setState(StatementState.SUCCEEDED));
 
-    // Set up response sequence for execute() calls
+    // Set up response sequence for execute() calls, the statement keeps running
     when(apiClient.execute(
             argThat(req -> req != null && STATEMENT_PATH.equals(req.getUrl())),
             eq(ExecuteStatementResponse.class)))
@@ -411,14 +408,10 @@ public class DatabricksSdkClientTest {
                         && req.getUrl() != null
                         && req.getUrl().contains(STATEMENT_ID.toSQLExecStatementId())),
             eq(GetStatementResponse.class)))
-        .thenReturn(runningStatementResponse)
-        .thenReturn(runningStatementResponse)
-        .thenReturn(runningStatementResponse)
-        .thenReturn(runningStatementResponse)
-        .thenReturn(successStatementResponse);
+        .thenReturn(runningStatementResponse);
 
-    // Verify that the timeout exception (1 second) is thrown due to repeated polling, where each
-    // poll occurs at an interval of 1 second
+    // Verify that the timeout exception (1 second) is thrown due to repeated polling, where the
+    // waits between polls grow up to 1 second
     DatabricksTimeoutException exception =
         assertThrows(
             DatabricksTimeoutException.class,
@@ -190,6 +190,29 @@ public class DatabricksThriftAccessorTest {
     assertEquals(resultSet.getStatementStatus().getState(), StatementState.SUCCEEDED);
   }
 
+  @Test
+  void testExecuteRequestsFetchSizeInDirectResults() throws TException, SQLException {
+    setup(true);
+    TExecuteStatementReq request = new TExecuteStatementReq();
+    TExecuteStatementResp tExecuteStatementResp =
+        new TExecuteStatementResp()
+            .setOperationHandle(tOperationHandle)
+            .setStatus(new TStatus().setStatusCode(TStatusCode.SUCCESS_STATUS))
+            .setDirectResults(directResults);
+    when(thriftClient.ExecuteStatement(request)).thenReturn(tExecuteStatementResp);
+    Statement statement = mock(Statement.class);
+    when(parentStatement.getStatement()).thenReturn(statement);
+    when(parentStatement.getFetchSize()).thenReturn(500, 2 * DEFAULT_ROW_LIMIT_PER_BLOCK);
+    when(session.getConnectionContext()).thenReturn(connectionContext);
+
+    // A fetch size below the rows fetched per block does not cap the first page
+    accessor.execute(request, parentStatement, session, StatementType.SQL);
+    assertEquals(DEFAULT_ROW_LIMIT_PER_BLOCK, request.getGetDirectResults().getMaxRows());
+
+    accessor.execute(request, parentStatement, session, StatementType.SQL);
+    assertEquals(2 * DEFAULT_ROW_LIMIT_PER_BLOCK, request.getGetDirectResults().getMaxRows());
+  }
+
   @Test
   void testExecuteWithDirectResults() throws TException, SQLException {
     setup(true);
@@ -760,11 +783,9 @@ public class DatabricksThriftAccessorTest {
             .setOperationHandle(tOperationHandle)
             .setStatus(new TStatus().setStatusCode(TStatusCode.SUCCESS_STATUS));
     when(thriftClient.ExecuteStatement(request)).thenReturn(tExecuteStatementResp);
-    // Mock the behavior where the first few status checks show the operation is still running
+    // Mock the behavior where the operation keeps running
     when(thriftClient.GetOperationStatus(operationStatusReq))
-        .thenReturn(operationStatusRunningResp)
-        .thenReturn(operationStatusRunningResp)
-        .thenReturn(operationStatusFinishedResp);
+        .thenReturn(operationStatusRunningResp);
 
     // Set a short timeout on the statement
     Statement statement = mock(Statement.class);
@@ -778,7 +799,8 @@ public class DatabricksThriftAccessorTest {
     when(thriftClient.CancelOperation(any(TCancelOperationReq.class))).thenReturn(cancelResp);
 
     // The execute method should throw a timeout exception since the operation does not complete
-    // within 1 second. The polling interval is 1 second, and multiple polling attempts are made
+    // within 1 second. The polling waits grow up to 1 second, and multiple polling attempts are
+    // made
     DatabricksTimeoutException exception =
         assertThrows(
             DatabricksTimeoutException.class,
@@ -828,6 +850,20 @@ public class DatabricksThriftAccessorTest {
     verify(thriftClient).FetchResults(expectedFetchRequest);
   }
 
+  @Test
+  void testGetMoreResultsWithMaxRows() throws TException, SQLException {
+    setup(true);
+    when(parentStatement.getStatementId()).thenReturn(new StatementId(handleIdentifier));
+    when(thriftClient.FetchResults(any(TFetchResultsReq.class))).thenReturn(fetchResultsResponse);
+
+    accessor.getMoreResults(parentStatement, 100);
+    verify(thriftClient).FetchResults(argThat(request -> request.getMaxRows() == 100));
+
+    accessor.getMoreResults(parentStatement);
+    verify(thriftClient)
+        .FetchResults(argThat(request -> request.getMaxRows() == DEFAULT_ROW_LIMIT_PER_BLOCK));
+  }
+
   private TFetchResultsReq getFetchResultsRequest(boolean includeMetadata) {
     TFetchResultsReq request =
         new TFetchResultsReq()
@@ -12,9 +12,11 @@ import com.databricks.jdbc.api.internal.IDatabricksConnectionContext;
 import com.databricks.jdbc.common.DatabricksClientConfiguratorManager;
 import com.databricks.jdbc.common.DatabricksClientType;
 import com.databricks.jdbc.common.StatementType;
+import com.databricks.jdbc.common.util.DatabricksThreadContextHolder;
 import com.databricks.jdbc.exception.DatabricksParsingException;
 import com.databricks.jdbc.model.telemetry.SqlExecutionEvent;
 import com.databricks.jdbc.model.telemetry.enums.DatabricksDriverErrorCode;
+import com.databricks.jdbc.model.telemetry.latency.OperationDetail;
 import com.databricks.sdk.core.DatabricksConfig;
 import com.databricks.sdk.core.ProxyConfig;
 import java.util.Collections;
@@ -84,6 +86,15 @@ public class TelemetryHelperTest {
         () -> telemetryHelper.exportLatencyLog(connectionContext, 150, event, null, SESSION_ID));
   }
 
+  @Test
+  void testLatencyLogReportsOperationDetailOnce() {
+    DatabricksThreadContextHolder.setOperationDetail(
+        new OperationDetail().setNOperationStatusCalls(3).setOperationStatusLatencyMillis(40L));
+
+    assertDoesNotThrow(() -> TelemetryHelper.exportLatencyLog(150));
+    assertNull(DatabricksThreadContextHolder.getOperationDetail());
+  }
+
   @Test
   void testErrorTelemetryLogDoesNotThrowError() {
     when(connectionContext.getConnectionUuid()).thenReturn(TEST_STRING);
@@ -104,6 +104,97 @@ public class ChunkLatencyHandlerTest {
     assertEquals(375L, details.getSumChunksDownloadTimeMillis()); // Sum of all
   }
 
+  @Test
+  void testRecordChunkMemoryUsage_TracksPeak() {
+    when(mockStatementId.toString()).thenReturn("test-statement-1");
+    handler.initializeStatement(mockStatementId, 3);
+
+    handler.recordChunkMemoryUsage("test-statement-1", 1024);
+    handler.recordChunkMemoryUsage("test-statement-1", 4096);
+    handler.recordChunkMemoryUsage("test-statement-1", 2048);
+
+    ChunkDetails details = handler.getChunkDetails("test-statement-1");
+    assertEquals(4096L, details.getPeakChunkMemoryBytes());
+  }
+
+  @Test
+  void testRecordChunkMemoryUsage_UnknownStatement() {
+    assertDoesNotThrow(() -> handler.recordChunkMemoryUsage(null, 1024));
+    handler.recordChunkMemoryUsage("unknown-statement", 1024);
+    assertNull(handler.getChunkDetails("unknown-statement"));
+  }
+
+  @Test
+  void testRecordDownloadQueueDepth_TracksMaximum() {
+    when(mockStatementId.toString()).thenReturn("test-statement-1");
+    handler.initializeStatement(mockStatementId, 3);
+
+    handler.recordDownloadQueueDepth("test-statement-1", 3);
+    handler.recordDownloadQueueDepth("test-statement-1", 7);
+    handler.recordDownloadQueueDepth("test-statement-1", 0);
+
+    assertEquals(7L, handler.getChunkDetails("test-statement-1").getMaxDownloadQueueDepth());
+  }
+
+  @Test
+  void testRecordDecodeQueueDepth_TracksMaximum() {
+    when(mockStatementId.toString()).thenReturn("test-statement-1");
+    handler.initializeStatement(mockStatementId, 3);
+
+    handler.recordDecodeQueueDepth("test-statement-1", 2);
+    handler.recordDecodeQueueDepth("test-statement-1", 5);
+    handler.recordDecodeQueueDepth("test-statement-1", 1);
+
+    ChunkDetails chunkDetails = handler.getChunkDetails("test-statement-1");
+    assertEquals(5L, chunkDetails.getMaxDecodeQueueDepth());
+    assertNull(chunkDetails.getMaxDownloadQueueDepth());
+  }
+
+  @Test
+  void testRecordDownloadConcurrency_TracksLatestConcurrencyAndPeakThroughput() {
+    when(mockStatementId.toString()).thenReturn("test-statement-1");
+    handler.initializeStatement(mockStatementId, 3);
+
+    handler.recordDownloadConcurrency("test-statement-1", 4, 1000);
+    handler.recordDownloadConcurrency("test-statement-1", 8, 3000);
+    handler.recordDownloadConcurrency("test-statement-1", 4, 2000);
+
+    ChunkDetails chunkDetails = handler.getChunkDetails("test-statement-1");
+    assertEquals(4L, chunkDetails.getDownloadConcurrency());
+    assertEquals(3000L, chunkDetails.getPeakDownloadThroughputBytesPerSec());
+  }
+
+  @Test
+  void testRecordChunkSpill_TracksSpilledChunksAndPeakBytes() {
+    when(mockStatementId.toString()).thenReturn("test-statement-1");
+    handler.initializeStatement(mockStatementId, 3);
+
+    handler.recordChunkSpill("test-statement-1", 1000);
+    handler.recordChunkSpill("test-statement-1", 3000);
+    handler.recordChunkSpill("test-statement-1", 2000);
+
+    ChunkDetails chunkDetails = handler.getChunkDetails("test-statement-1");
+    assertEquals(3L, chunkDetails.getSpilledChunks());
+    assertEquals(3000L, chunkDetails.getPeakSpillBytes());
+  }
+
+  @Test
+  void testRecordChunkDownloadRetry_TracksRetriesAndBudget() {
+    when(mockStatementId.toString()).thenReturn("test-statement-1");
+    handler.initializeStatement(mockStatementId, 3);
+
+    handler.recordChunkDownloadRetry("test-statement-1", false, 500, 9);
+    handler.recordChunkDownloadRetry("test-statement-1", true, 2000, 8);
+    handler.recordChunkLinkRejection("test-statement-1");
+
+    ChunkDetails details = handler.getChunkDetails("test-statement-1");
+    assertEquals(2L, details.getChunkDownloadRetries());
+    assertEquals(1L, details.getThrottledChunkDownloadRetries());
+    assertEquals(2500L, details.getSumChunkRetryDelayMillis());
+    assertEquals(8L, details.getRemainingChunkRetryBudget());
+    assertEquals(1L, details.getRejectedChunkLinks());
+  }
+
   @Test
   void testRecordChunkDownloadLatency_CreatesNewChunkDetailsIfNotExists() {
     String statementId = "test-statement-1";